@@ -0,0 +1,100 @@
+package hex.gram;
+
+import hex.DataInfo;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import water.DKV;
+import water.Key;
+import water.fvec.Frame;
+import water.fvec.Vec;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static water.TestUtil.stall_till_cloudsize;
+
+/**
+ * Gram accumulation of dense rows (as done by GLM IRLSM): rank-1 update per row vs. blocked rank-k updates.
+ */
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Threads(1)
+@State(Scope.Thread)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class GramAddRowBench {
+
+  @Param({"50", "500", "2000"})
+  private int _nums;
+
+  @Param({"1024"})
+  private int _rows;
+
+  private Frame _fr;
+  private DataInfo _dinfo;
+  private DataInfo.Row[] _data;
+  private double[] _weights;
+  private Gram _gram;
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+            .include(GramAddRowBench.class.getSimpleName())
+            .build();
+
+    new Runner(opt).run();
+  }
+
+  @Setup
+  public void setup() {
+    water.util.Log.setLogLevel("ERRR");
+    stall_till_cloudsize(1);
+
+    // only used to get a DataInfo with _nums numeric columns, the rows are generated below
+    Vec[] vecs = new Vec[_nums];
+    vecs[0] = Vec.makeZero(_rows);
+    for (int i = 1; i < vecs.length; i++)
+      vecs[i] = vecs[0].makeZero();
+    _fr = new Frame(Key.<Frame>make(), null, vecs);
+    DKV.put(_fr);
+    _dinfo = new DataInfo(_fr, null, 0, true, DataInfo.TransformType.NONE, DataInfo.TransformType.NONE,
+            true, false, false, false, false, false);
+
+    Random r = new Random(42);
+    _data = new DataInfo.Row[_rows];
+    _weights = new double[_rows];
+    for (int i = 0; i < _rows; i++) {
+      double[] nums = new double[_nums];
+      for (int j = 0; j < nums.length; j++)
+        nums[j] = r.nextGaussian();
+      _data[i] = _dinfo.new Row(nums);
+      _weights[i] = r.nextDouble();
+    }
+    _gram = new Gram(_dinfo);
+  }
+
+  @TearDown
+  public void tearDown() {
+    _dinfo.remove();
+    _fr.delete();
+  }
+
+  @Benchmark
+  public Gram addRow() {
+    for (int i = 0; i < _data.length; i++)
+      _gram.addRow(_data[i], _weights[i]);
+    return _gram;
+  }
+
+  @Benchmark
+  public Gram addRowBlocked() {
+    for (int i = 0; i < _data.length; i++)
+      _gram.addRowBlocked(_data[i], _weights[i]);
+    _gram.flushRowBlock();
+    return _gram;
+  }
+
+}
@@ -0,0 +1,81 @@
+package hex.tree.gbm;
+
+import hex.genmodel.algos.tree.SharedTreeMojoModel;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GBM MOJO scoring with decoded (flat) trees vs. walking the compressed tree bytes,
+ * row by row and in batches
+ */
+@Fork(1)
+@Threads(1)
+@State(Scope.Thread)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class GbmFlatTreeScoringBench {
+
+  @Param({"100000"})
+  private int rows;
+
+  @Param({"true", "false"})
+  private boolean flat;
+
+  private SharedTreeMojoModel _mojo;
+  private double[][] _data;
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+            .include(GbmFlatTreeScoringBench.class.getSimpleName())
+            .build();
+
+    new Runner(opt).run();
+  }
+
+  @Setup(Level.Trial)
+  public void setup() throws IOException {
+    _mojo = (SharedTreeMojoModel) ClasspathReaderBackend.loadMojo("prostate");
+    _mojo.useFlatTrees(flat);
+    _data = ProstateData.ROWS;
+  }
+
+  @Benchmark
+  public double measureGbmScore0() throws Exception {
+    double sum = 0;
+    double[] pred = new double[3];
+    for (int i = 0; i < rows; i++) {
+      double[] row = _data[i % _data.length];
+      pred[0] = 0.0; pred[1] = 0.0; pred[2] = 0.0;
+      sum += _mojo.score0(row, pred)[1];
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public double measureGbmBatchScore0() throws Exception {
+    double sum = 0;
+    double[][] block = new double[SharedTreeMojoModel.BATCH_ROWS][];
+    double[][] preds = new double[SharedTreeMojoModel.BATCH_ROWS][3];
+    for (int i = 0; i < rows; ) {
+      int n = Math.min(block.length, rows - i);
+      if (n < block.length) {
+        block = java.util.Arrays.copyOf(block, n);
+        preds = java.util.Arrays.copyOf(preds, n);
+      }
+      for (int r = 0; r < n; r++) block[r] = _data[(i + r) % _data.length];
+      _mojo.score0(block, preds);
+      for (int r = 0; r < n; r++) sum += preds[r][1];
+      i += n;
+    }
+    return sum;
+  }
+
+}
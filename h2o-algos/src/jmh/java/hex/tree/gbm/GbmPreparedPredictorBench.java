@@ -0,0 +1,84 @@
+package hex.tree.gbm;
+
+import hex.genmodel.GenModel;
+import hex.genmodel.easy.EasyPredictModelWrapper;
+import hex.genmodel.easy.PreparedPredictor;
+import hex.genmodel.easy.RowData;
+import hex.genmodel.easy.prediction.BinomialModelPrediction;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single row predictions through EasyPredictModelWrapper vs. a PreparedPredictor.
+ * Run with the GC profiler: gc.alloc.rate.norm is the number of bytes allocated per prediction,
+ * expected to be ~0 for the prepared predictor.
+ */
+@Fork(1)
+@Threads(1)
+@State(Scope.Thread)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class GbmPreparedPredictorBench {
+
+  private EasyPredictModelWrapper _wrapper;
+  private PreparedPredictor _predictor;
+  private RowData[] _rowData;
+  private double[][] _rows;
+  private int _i;
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+            .include(GbmPreparedPredictorBench.class.getSimpleName())
+            .addProfiler(GCProfiler.class)
+            .build();
+
+    new Runner(opt).run();
+  }
+
+  @Setup(Level.Trial)
+  public void setup() throws Exception {
+    GenModel mojo = ClasspathReaderBackend.loadMojo("prostate");
+    _wrapper = new EasyPredictModelWrapper(mojo);
+    _predictor = _wrapper.prepare();
+    _rows = ProstateData.ROWS;
+    String[] names = mojo.getNames();
+    _rowData = new RowData[_rows.length];
+    for (int i = 0; i < _rows.length; i++) {
+      _rowData[i] = new RowData();
+      for (int c = 0; c < mojo.nfeatures(); c++) {
+        String[] domain = mojo.getDomainValues(c);
+        _rowData[i].put(names[c], domain == null ? (Object) _rows[i][c] : domain[(int) _rows[i][c]]);
+      }
+    }
+  }
+
+  private int next() {
+    int i = _i;
+    _i = i + 1 == _rows.length ? 0 : i + 1;
+    return i;
+  }
+
+  @Benchmark
+  public double measureWrapperRowData() throws Exception {
+    return _wrapper.predictBinomial(_rowData[next()]).classProbabilities[1];
+  }
+
+  @Benchmark
+  public double measurePreparedRowData() throws Exception {
+    return ((BinomialModelPrediction) _predictor.predict(_rowData[next()])).classProbabilities[1];
+  }
+
+  @Benchmark
+  public double measurePreparedDoubles() throws Exception {
+    return ((BinomialModelPrediction) _predictor.predict(_rows[next()])).classProbabilities[1];
+  }
+
+}
@@ -340,6 +340,8 @@ public class CoxPHModel extends Model<CoxPHModel,CoxPHParameters,CoxPHOutput> {
     throw new UnsupportedOperationException("CoxPHModel.score0 should never be called");
   }
 
+  @Override public boolean haveFastRowScoring() { return false; }
+
   protected Futures remove_impl( Futures fs ) {
     Frame varCumhaz2 = _output._var_cumhaz_2 != null ? _output._var_cumhaz_2.get() : null;
     if (varCumhaz2 != null)
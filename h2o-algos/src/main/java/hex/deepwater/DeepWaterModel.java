@@ -38,6 +38,9 @@ public class DeepWaterModel extends Model<DeepWaterModel,DeepWaterParameters,Dee
 
   @Override public DeepwaterMojoWriter getMojo() { return new DeepwaterMojoWriter(this); }
 
+  // Scores mini-batches natively, each row would be padded to a full batch
+  @Override public boolean haveFastRowScoring() { return false; }
+
   // Default publicly visible Schema is V2
   public ModelSchemaV3 schema() { return new DeepWaterModelV3(); }
 
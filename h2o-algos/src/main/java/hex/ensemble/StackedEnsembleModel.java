@@ -3,17 +3,25 @@ package hex.ensemble;
 import hex.*;
 import hex.genmodel.utils.DistributionFamily;
 import hex.glm.GLMModel;
+import hex.tree.SharedTreeModel;
 import hex.tree.drf.DRFModel;
 import water.*;
 import water.exceptions.H2OIllegalArgumentException;
+import water.fvec.Chunk;
 import water.fvec.Frame;
+import water.fvec.NewChunk;
+import water.fvec.Vec;
 import water.nbhm.NonBlockingHashSet;
 import water.udf.CFuncRef;
 import water.util.Log;
 import water.util.ReflectionUtils;
 
 import java.lang.reflect.Field;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import static hex.Model.Parameters.FoldAssignmentScheme.AUTO;
 import static hex.Model.Parameters.FoldAssignmentScheme.Random;
@@ -30,6 +38,10 @@ public class StackedEnsembleModel extends Model<StackedEnsembleModel,StackedEnse
   public String responseColumn = null;
   private NonBlockingHashSet<String> names = null;  // keep columns as a set for easier comparison
   
+  // Scoring runs base models and metalearner in one pass over the rows; can
+  // be switched off for debugging, scoring then builds a level-one frame
+  static boolean FUSED_SCORING = Boolean.parseBoolean(System.getProperty(H2O.OptArgs.SYSTEM_PROP_PREFIX + "stackedensemble.fused_scoring", "true"));
+
   public enum StackingStrategy {
     cross_validation,
     blending
@@ -116,6 +128,9 @@ public class StackedEnsembleModel extends Model<StackedEnsembleModel,StackedEnse
    */
   @Override
   protected Frame predictScoreImpl(Frame fr, Frame adaptFrm, String destination_key, Job j, boolean computeMetrics, CFuncRef customMetricFunc) {
+    if (FUSED_SCORING && canScoreFused())
+      return predictScoreFused(fr, adaptFrm, destination_key, j, computeMetrics);
+
     Frame levelOneFrame = new Frame(Key.<Frame>make("preds_levelone_" + this._key.toString() + fr._key));
 
     // TODO: don't score models that have 0 coefficients / aren't used by the metalearner.
@@ -166,6 +181,190 @@ public class StackedEnsembleModel extends Model<StackedEnsembleModel,StackedEnse
 
 
 
+  /**
+   * Scores the base models and the metalearner in a single pass: each row of
+   * base model predictions is only kept in a row-local buffer, no level-one
+   * frame is made.  Same predictions and metrics as the level-one frame path.
+   */
+  private Frame predictScoreFused(Frame fr, Frame adaptFrm, String destination_key, Job j, boolean computeMetrics) {
+    Model metalearner = this._output._metalearner;
+    Key<Model>[] baseKeys = this._parms._base_models;
+    Frame[] adapted = new Frame[baseKeys.length];
+    List<Vec> vecs = new ArrayList<>();
+    Map<Key, Integer> cols = new HashMap<>();
+    try {
+      // Each base model reads its own adapted columns of the shared input
+      int[][] baseCols = new int[baseKeys.length][];
+      int[] baseOffsets = new int[baseKeys.length];
+      Frame levelOne = new Frame(); // Level-one column names only
+      Vec anyVec = adaptFrm.anyVec();
+      for (int b = 0; b < baseKeys.length; b++) {
+        Model base = baseKeys[b].get();
+        adapted[b] = new Frame(fr);
+        base.adaptTestForTrain(adapted[b], true, false);
+        baseCols[b] = new int[base._output.nfeatures()];
+        for (int i = 0; i < baseCols[b].length; i++)
+          baseCols[b][i] = inputCol(adapted[b].vec(i), vecs, cols);
+        baseOffsets[b] = base._output.hasOffset() ? inputCol(adapted[b].vec(base._output.offsetIdx()), vecs, cols) : -1;
+        // Same columns, in the same order, as addModelPredictionsToLevelOneFrame
+        if (base._output.isMultinomialClassifier()) {
+          String[] names = Model.makeScoringNames(base._output);
+          String[] probNames = Arrays.copyOfRange(names, 1, names.length);
+          Vec[] probVecs = new Vec[probNames.length];
+          Arrays.fill(probVecs, anyVec);
+          levelOne.add(new Frame(probNames, probVecs));
+        } else
+          levelOne.add(base._key.toString(), anyVec);
+      }
+      int[] metaCols = new int[metalearner._output.nfeatures()];
+      for (int i = 0; i < metaCols.length; i++) {
+        metaCols[i] = levelOne.find(metalearner._output._names[i]);
+        if (metaCols[i] == -1)
+          throw new IllegalStateException("Metalearner column " + metalearner._output._names[i] + " is not a base model prediction.");
+      }
+      int respCol = computeMetrics ? inputCol(adaptFrm.vec(this.responseColumn), vecs, cols) : -1;
+
+      String[] names = makeScoringNames();
+      String[][] domains = makeScoringDomains(adaptFrm, computeMetrics, names);
+      FusedScoreTask fst = new FusedScoreTask(baseKeys, metalearner._key, baseCols, baseOffsets, metaCols, levelOne.numCols(),
+              respCol, domains[0], names.length, j).doAll(names.length, Vec.T_NUM, new Frame(vecs.toArray(new Vec[0])));
+      Frame predictFr = fst.outputFrame(Key.<Frame>make(destination_key), names, domains);
+      if (computeMetrics && fst._mb != null) {
+        // Metrics are made by the metalearner's metric builder, then moved over to the (this, fr) pair
+        ModelMetrics mm = fst._mb.makeModelMetrics(metalearner, fr, adaptFrm, predictFr);
+        this.addModelMetrics(mm.deepCloneWithDifferentModelAndFrame(this, fr));
+      }
+      return predictFr;
+    } finally {
+      for (Frame a : adapted)
+        if (a != null) Frame.deleteTempFrameAndItsNonSharedVecs(a, fr);
+    }
+  }
+
+  private static int inputCol(Vec v, List<Vec> vecs, Map<Key, Integer> cols) {
+    Integer col = cols.get(v._key);
+    if (col == null) {
+      cols.put(v._key, col = vecs.size());
+      vecs.add(v);
+    }
+    return col;
+  }
+
+  /**
+   * Fused scoring needs row scoring to give the same results as the frame scoring of each model,
+   * and the metalearner predictions to be just the prediction and the class distribution.
+   */
+  private boolean canScoreFused() {
+    if (_parms._custom_metric_func != null) return false;
+    Model metalearner = this._output._metalearner;
+    if (metalearner == null) return false;
+    if (metalearner instanceof GLMModel && ((GLMModel) metalearner)._output.vcov() != null) return false; // StdErr column
+    if (metalearner instanceof SharedTreeModel && ((SharedTreeModel) metalearner)._output._calib_model != null) return false; // Calibrated columns
+    for (Key<Model> baseKey : this._parms._base_models) {
+      Model base = baseKey.get();
+      if (base == null || !base._output.isSupervised() || base._output.isAutoencoder()) return false;
+      if (!base.haveFastRowScoring()) return false; // Score such base models on the whole frame instead
+      if (base instanceof GLMModel) {
+        GLMModel.GLMParameters glmParms = ((GLMModel) base)._parms;
+        if (glmParms._interactions != null || glmParms._interaction_pairs != null) return false; // Only expanded by GLMScore
+      }
+    }
+    return true;
+  }
+
+  /** Scores each row with all the base models, then the metalearner; writes only the final predictions. */
+  private static class FusedScoreTask extends MRTask<FusedScoreTask> {
+    // IN
+    final Key<Model>[] _baseKeys;
+    final Key<Model> _metalearnerKey;
+    final int[][] _baseCols;    // Input columns of each base model, in model order
+    final int[] _baseOffsets;   // Offset column of each base model, or -1
+    final int[] _metaCols;      // Level-one column of each metalearner feature
+    final int _levelOneLen;
+    final int _respCol;         // Response column, or -1 if no metrics
+    final String[] _domain;
+    final int _npredcols;
+    final Job _j;
+
+    // OUT
+    ModelMetrics.MetricBuilder _mb;
+
+    private transient Model[] _bases;
+    private transient Model _metalearner;
+
+    FusedScoreTask(Key<Model>[] baseKeys, Key<Model> metalearnerKey, int[][] baseCols, int[] baseOffsets, int[] metaCols,
+                   int levelOneLen, int respCol, String[] domain, int npredcols, Job j) {
+      _baseKeys = baseKeys;
+      _metalearnerKey = metalearnerKey;
+      _baseCols = baseCols;
+      _baseOffsets = baseOffsets;
+      _metaCols = metaCols;
+      _levelOneLen = levelOneLen;
+      _respCol = respCol;
+      _domain = domain;
+      _npredcols = npredcols;
+      _j = j;
+    }
+
+    @Override protected void setupLocal() {
+      _bases = new Model[_baseKeys.length];
+      for (int b = 0; b < _bases.length; b++)
+        _bases[b] = DKV.getGet(_baseKeys[b]);
+      _metalearner = DKV.getGet(_metalearnerKey);
+    }
+
+    @Override public void map(Chunk[] cs, NewChunk[] cpreds) {
+      if (isCancelled() || _j != null && _j.stop_requested()) return;
+      _mb = _metalearner.makeMetricBuilder(_domain);
+      int nbases = _bases.length;
+      Chunk[][] baseChks = new Chunk[nbases][];
+      double[][] baseTmp = new double[nbases][];
+      double[][] basePreds = new double[nbases][];
+      for (int b = 0; b < nbases; b++) {
+        baseChks[b] = new Chunk[_baseCols[b].length];
+        for (int i = 0; i < baseChks[b].length; i++)
+          baseChks[b][i] = cs[_baseCols[b][i]];
+        baseTmp[b] = new double[_bases[b]._output.nfeatures()];
+        basePreds[b] = new double[_bases[b]._output.nclasses() + 1];
+      }
+      double[] levelOne = new double[_levelOneLen];
+      double[] metaTmp = new double[_metaCols.length];
+      float[] actual = _respCol >= 0 ? new float[1] : null;
+      for (int row = 0; row < cs[0]._len; row++) {
+        int col = 0;
+        for (int b = 0; b < nbases; b++) {
+          Model base = _bases[b];
+          double offset = _baseOffsets[b] >= 0 ? cs[_baseOffsets[b]].atd(row) : 0;
+          double[] p = base.score0(baseChks[b], offset, row, baseTmp[b], basePreds[b]);
+          if (base._output.isBinomialClassifier())
+            levelOne[col++] = p[2];
+          else if (base._output.isMultinomialClassifier())
+            for (int c = 1; c <= base._output.nclasses(); c++)
+              levelOne[col++] = p[c];
+          else
+            levelOne[col++] = p[0];
+        }
+        for (int i = 0; i < metaTmp.length; i++)
+          metaTmp[i] = levelOne[_metaCols[i]];
+        double[] preds = _metalearner.scoreRow(metaTmp, 0, _mb._work);
+        if (actual != null) {
+          actual[0] = (float) cs[_respCol].atd(row);
+          _mb.perRow(preds, actual, 1, 0, _metalearner);
+        }
+        for (int c = 0; c < _npredcols; c++)
+          cpreds[c].addNum(preds[c]);
+      }
+    }
+
+    @Override public void reduce(FusedScoreTask fst) {
+      if (_mb != null) _mb.reduce(fst._mb);
+    }
+
+    @Override protected void postGlobal() {
+      if (_mb != null) _mb.postGlobal();
+    }
+  }
+
   /**
    * Should never be called: the code paths that normally go here should call predictScoreImpl().
    * @see Model#score0(double[], double[])
@@ -175,6 +374,11 @@ public class StackedEnsembleModel extends Model<StackedEnsembleModel,StackedEnse
     throw new UnsupportedOperationException("StackedEnsembleModel.score0() should never be called: the code paths that normally go here should call predictScoreImpl().");
   }
 
+  @Override
+  public boolean haveFastRowScoring() {
+    return false;
+  }
+
   @Override public ModelMetrics.MetricBuilder makeMetricBuilder(String[] domain) {
     throw new UnsupportedOperationException("StackedEnsembleModel.makeMetricBuilder should never be called!");
   }
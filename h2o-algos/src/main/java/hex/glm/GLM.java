@@ -1668,14 +1668,14 @@ public class GLM extends ModelBuilder<GLMModel,GLMParameters,GLMOutput> {
         gram.addDiag(ArrayUtils.mult(rhos, -1));
         gram.addDiag(rhoAdd,!intercept);
         Log.info("Got NonSPD matrix with original rho, re-computing with rho = " + (_rho[0]+rhoAdd));
-        _chol = gram.cholesky(null, true, null);
+        _chol = gram.cholesky(_chol, true, null); // only the diagonal changed, reuse the factor's memory
         int cnt = 0;
         double rhoAddSum = rhoAdd;
         while (!_chol.isSPD() && cnt++ < 5) {
           gram.addDiag(rhoAdd,!intercept);
           rhoAddSum += rhoAdd;
           Log.warn("Still NonSPD matrix, re-computing with rho = " + (rhos[0] + rhoAddSum));
-          _chol = gram.cholesky(null, true, null);
+          _chol = gram.cholesky(_chol, true, null);
         }
         if (!_chol.isSPD())
           throw new NonSPDMatrixException();
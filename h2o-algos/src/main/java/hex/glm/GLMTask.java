@@ -1315,6 +1315,7 @@ public abstract class GLMTask  {
     double [] _xy;
     Gram _gram;
     transient double _sparseOffset;
+    transient boolean _blockedGram;
 
     public GLMIterationTaskMultinomial(DataInfo dinfo, Key jobKey, double [] beta, int c) {
       super(null, dinfo, jobKey);
@@ -1328,6 +1329,7 @@ public abstract class GLMTask  {
       _xy = MemoryManager.malloc8d(_dinfo.fullN()+1); // + 1 is for intercept
       if(_sparse)
         _sparseOffset = GLM.sparseOffset(_beta,_dinfo);
+      _blockedGram = !_sparse && _dinfo.numNums() >= Gram.MIN_BLOCKED_DENSE_N;
     }
     @Override
     protected void processRow(Row r) {
@@ -1356,9 +1358,15 @@ public abstract class GLMTask  {
       }
       if(_dinfo._intercept)
         _xy[_xy.length-1] += wz;
-      _gram.addRow(r, w);
+      if(_blockedGram)
+        _gram.addRowBlocked(r, w);
+      else
+        _gram.addRow(r, w);
     }
 
+    @Override
+    public void chunkDone(){_gram.flushRowBlock();}
+
     @Override
     public void reduce(GLMIterationTaskMultinomial glmt) {
       ArrayUtils.add(_xy,glmt._xy);
@@ -1456,6 +1464,7 @@ public abstract class GLMTask  {
     @Override public boolean handlesSparseData(){return true;}
 
     transient private double _sparseOffset;
+    transient private boolean _blockedGram; // accumulate the gram in blocks of rows
 
     @Override
     public void chunkInit() {
@@ -1464,6 +1473,7 @@ public abstract class GLMTask  {
       _xy = MemoryManager.malloc8d(_dinfo.fullN()+1); // + 1 is for intercept
       if(_sparse)
         _sparseOffset = GLM.sparseOffset(_beta,_dinfo);
+      _blockedGram = !_sparse && _dinfo.numNums() >= Gram.MIN_BLOCKED_DENSE_N;
       _w = new GLMWeights();
       if (_glmf._family.equals(Family.tweedie)) {
         _glmfTweedie = new GLMModel.GLMWeightsFun(_glmf._family, _glmf._link, _glmf._var_power, _glmf._link_power,
@@ -1517,11 +1527,17 @@ public abstract class GLMTask  {
       }
       if(_dinfo._intercept)
         _xy[_xy.length-1] += wz;
-      _gram.addRow(r,w);
+      if(_blockedGram)
+        _gram.addRowBlocked(r,w);
+      else
+        _gram.addRow(r,w);
     }
 
     @Override
-    public void chunkDone(){adjustForSparseStandardizedZeros();}
+    public void chunkDone(){
+      _gram.flushRowBlock();
+      adjustForSparseStandardizedZeros();
+    }
 
     @Override
     public void reduce(GLMIterationTask git){
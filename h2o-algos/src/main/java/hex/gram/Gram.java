@@ -4,6 +4,7 @@ package hex.gram;
 import hex.DataInfo;
 import hex.FrameTask2;
 import jsr166y.ForkJoinTask;
+import jsr166y.ForkJoinWorkerThread;
 import jsr166y.RecursiveAction;
 import water.*;
 import water.fvec.Chunk;
@@ -21,6 +22,9 @@ public final class Gram extends Iced<Gram> {
   final int _denseN;
   int _fullN;
   final static int MIN_TSKSZ=10000;
+  final static int CHOLESKY_TILE = 64;     // tile size of the parallel Cholesky decomposition
+  final static int SOLVE_BLOCK = 256;      // block size of the parallel triangular solves
+  final static int MIN_PARALLEL_SOLVE = 2048; // smaller triangular solves run in the caller thread
 
   private static class XXCache {
     public final boolean lowerDiag;
@@ -37,6 +41,16 @@ public final class Gram extends Iced<Gram> {
   }
   public transient XXCache _xxCache;
 
+  // Rows buffered by addRowBlocked: values of the dense numeric columns (column-major, ROW_BLOCK values per
+  // column) and row weights
+  public static final int ROW_BLOCK = 256;
+  static final int ROW_BLOCK_TILE = 32; // columns per tile of the rank-k update
+  public static final int MIN_BLOCKED_DENSE_N = 32; // fewer dense columns are faster with per-row updates
+  private transient double[] _rowBlock;
+  private transient double[] _rowBlockW;
+  private transient double[] _rowBlockTile;
+  private transient int _rowBlockN;
+
 
 
   public Gram(DataInfo dinfo) {
@@ -355,10 +369,11 @@ public final class Gram extends Iced<Gram> {
     final double _xx[][];             // Lower triangle of the symmetric matrix.
     private boolean _isSPD;
     private InPlaceCholesky(double xx[][], boolean isspd) { _xx = xx; _isSPD = isspd; }
-    static private class BlockTask extends RecursiveAction {
+    // Solves rows [i0,i1) of the panel below the (already factored) diagonal tile of columns [j0,j1)
+    static private class PanelTask extends RecursiveAction {
       final double[][] _xx;
       final int _i0, _i1, _j0, _j1;
-      public BlockTask(double xx[][], int ifr, int ito, int jfr, int jto) {
+      public PanelTask(double xx[][], int ifr, int ito, int jfr, int jto) {
         _xx = xx;
         _i0 = ifr; _i1 = ito; _j0 = jfr; _j1 = jto;
       }
@@ -368,50 +383,78 @@ public final class Gram extends Iced<Gram> {
           for (int k=_j0; k < _j1; k++) {
             double rowk[] = _xx[k];
             double s = 0.0;
-            for (int jj = 0; jj < k; jj++) s += rowk[jj]*rowi[jj];
+            for (int jj = _j0; jj < k; jj++) s += rowk[jj]*rowi[jj];
             rowi[k] = (rowi[k] - s) / rowk[k];
           }
         }
       }
     }
+    // Subtracts the outer product of the panel columns [k0,k1) from the tile [i0,i1) x [j0,j1) of the trailing matrix
+    static private class UpdateTask extends RecursiveAction {
+      final double[][] _xx;
+      final int _i0, _i1, _j0, _j1, _k0, _k1;
+      public UpdateTask(double xx[][], int ifr, int ito, int jfr, int jto, int kfr, int kto) {
+        _xx = xx;
+        _i0 = ifr; _i1 = ito; _j0 = jfr; _j1 = jto; _k0 = kfr; _k1 = kto;
+      }
+      @Override public void compute() {
+        for (int i=_i0; i < _i1; i++) {
+          double rowi[] = _xx[i];
+          final int jto = Math.min(_j1, i + 1);
+          for (int j=_j0; j < jto; j++) {
+            double rowj[] = _xx[j];
+            double s = 0.0;
+            for (int k = _k0; k < _k1; k++) s += rowi[k]*rowj[k];
+            rowi[j] -= s;
+          }
+        }
+      }
+    }
+    /**
+     * Tiled (right-looking) Cholesky decomposition. For each panel of STEP columns: factor its diagonal tile,
+     * solve the rows below it and subtract the panel's outer product from the trailing lower triangle.
+     * The panel rows and the STEP x STEP tiles of the trailing triangle are independent F/J tasks.
+     * @param P number of available cores, 1 runs everything in the caller thread
+     */
     public static InPlaceCholesky decompose_2(double xx[][], int STEP, int P) {
       boolean isspd = true;
       final int N = xx.length;
-      P = Math.max(1, P);
+      ArrayList<RecursiveAction> tasks = new ArrayList<>();
       for (int j=0; j < N; j+=STEP) {
-        // update the upper left triangle.
+        // factor the diagonal tile
         final int tjR = Math.min(j+STEP, N);
         for (int i=j; i < tjR; i++) {
           double rowi[] = xx[i];
-          double d = 0.0;
           for (int k=j; k < i; k++) {
             double rowk[] = xx[k];
             double s = 0.0;
-            for (int jj = 0; jj < k; jj++) s += rowk[jj]*rowi[jj];
-            rowi[k] = s = (rowi[k] - s) / rowk[k];
-            d += s*s;
+            for (int jj = j; jj < k; jj++) s += rowk[jj]*rowi[jj];
+            rowi[k] = (rowi[k] - s) / rowk[k];
           }
-          for (int jj = 0; jj < j; jj++) { double s = rowi[jj]; d += s*s; }
-          d = rowi[i] - d;
+          double d = rowi[i];
+          for (int jj = j; jj < i; jj++) d -= rowi[jj]*rowi[jj];
           isspd = isspd && (d > 0.0);
           rowi[i] = Math.sqrt(Math.max(0.0, d));
         }
         if (tjR == N) break;
-        // update the lower strip
-        int i = tjR;
-        Futures fs = new Futures();
-        int rpb = 0;                // rows per block
-        int p = P;                  // concurrency
-        while ( tjR*(rpb=(N - tjR)/p)<Gram.MIN_TSKSZ && p>1) --p;
-        while (p-- > 1) {
-          fs.add(new BlockTask(xx,i,i+rpb,j,tjR).fork());
-          i += rpb;
-        }
-        new BlockTask(xx,i,N,j,tjR).compute();
-        fs.blockForPending();
+        final boolean parallel = P > 1 && (long)(N - tjR)*STEP >= Gram.MIN_TSKSZ;
+        // solve the panel below it
+        for (int i = tjR; i < N; i += STEP)
+          tasks.add(new PanelTask(xx, i, Math.min(i+STEP, N), j, tjR));
+        runAll(tasks, parallel);
+        // update the trailing lower triangle
+        for (int i = tjR; i < N; i += STEP)
+          for (int k = tjR; k <= i; k += STEP)
+            tasks.add(new UpdateTask(xx, i, Math.min(i+STEP, N), k, Math.min(k+STEP, N), j, tjR));
+        runAll(tasks, parallel);
       }
       return new InPlaceCholesky(xx, isspd);
     }
+    private static void runAll(ArrayList<RecursiveAction> tasks, boolean parallel) {
+      if (parallel) ForkJoinTask.invokeAll(tasks);
+      else for (RecursiveAction t : tasks) t.invoke();
+      tasks.clear();
+    }
     public double[][] getL() { return _xx; }
     public boolean isSPD() { return _isSPD; }
   }
@@ -503,7 +546,7 @@ public final class Gram extends Iced<Gram> {
     for( int i = 0; i < arr.length; ++i )
       arr[i] = Arrays.copyOfRange(fchol._xx[i], sparseN, sparseN + denseN);
     int p = Runtime.getRuntime().availableProcessors();
-    InPlaceCholesky d = InPlaceCholesky.decompose_2(arr, 10, p);
+    InPlaceCholesky d = InPlaceCholesky.decompose_2(arr, CHOLESKY_TILE, parallelize ? p : 1);
     fchol.setSPD(d.isSPD());
     arr = d.getL();
     for( int i = 0; i < arr.length; ++i ) {
@@ -563,6 +606,7 @@ public final class Gram extends Iced<Gram> {
   }
 
   public void add(Gram grm) {
+    assert _rowBlockN == 0 && grm._rowBlockN == 0 : "buffered rows have not been flushed";
     ArrayUtils.add(_xx,grm._xx);
     ArrayUtils.add(_diag,grm._diag);
   }
@@ -604,7 +648,7 @@ public final class Gram extends Iced<Gram> {
           @Override
           protected void compute() {
             ys[fi][fi] = 1;
-            solve(ys[fi]);
+            solve(ys[fi], false);
           }
         };
       }
@@ -628,7 +672,7 @@ public final class Gram extends Iced<Gram> {
           protected void compute() {
             double [] tmp = new double[res.length];
             tmp[fi] = 1;
-            solve(tmp);
+            solve(tmp, false);
             res[fi] = tmp[fi];
           }
         };
@@ -661,6 +705,10 @@ public final class Gram extends Iced<Gram> {
      * @param y
      */
     public final void   solve(double[] y) {
+      solve(y, true);
+    }
+
+    private void solve(double[] y, boolean parallelize) {
       if( !isSPD() ) throw new NonSPDMatrixException();
       if(_icptFirst) {
         double icpt = y[y.length-1];
@@ -673,18 +721,22 @@ public final class Gram extends Iced<Gram> {
         y[k] /= _diag[k];
       // rest
       final int n = _xx.length == 0?0:_xx[_xx.length-1].length;
-      // Solve L*Y = B;
-      for( int k = _diag.length; k < n; ++k ) {
-        double d = 0;
-        for( int i = 0; i < k; i++ )
-          d += y[i] * _xx[k - _diag.length][i];
-        y[k] = (y[k]-d)/_xx[k - _diag.length][k];
-      }
-      // Solve L'*X = Y;
-      for( int k = n - 1; k >= _diag.length; --k ) {
-        y[k] /= _xx[k - _diag.length][k];
-        for( int i = 0; i < k; ++i )
-          y[i] -= y[k] * _xx[k - _diag.length][i];
+      if (parallelize && n - _diag.length >= MIN_PARALLEL_SOLVE && Thread.currentThread() instanceof ForkJoinWorkerThread) {
+        solveBlocked(y, n);
+      } else {
+        // Solve L*Y = B;
+        for (int k = _diag.length; k < n; ++k) {
+          double d = 0;
+          for (int i = 0; i < k; i++)
+            d += y[i] * _xx[k - _diag.length][i];
+          y[k] = (y[k] - d) / _xx[k - _diag.length][k];
+        }
+        // Solve L'*X = Y;
+        for (int k = n - 1; k >= _diag.length; --k) {
+          y[k] /= _xx[k - _diag.length][k];
+          for (int i = 0; i < k; ++i)
+            y[i] -= y[k] * _xx[k - _diag.length][i];
+        }
       }
       // diagonal
       for( int k = _diag.length - 1; k >= 0; --k )
@@ -696,6 +748,96 @@ public final class Gram extends Iced<Gram> {
         y[y.length-1] = icpt;
       }
     }
+
+    /**
+     * Blocked forward and back substitution of the dense part of L. Each SOLVE_BLOCK x SOLVE_BLOCK diagonal block
+     * is solved in the caller thread, the rest of y is then updated by F/J tasks over independent row (forward)
+     * or column (backward) ranges.
+     */
+    private void solveBlocked(final double[] y, final int n) {
+      final int off = _diag.length;
+      final int P = Runtime.getRuntime().availableProcessors();
+      ArrayList<RecursiveAction> tasks = new ArrayList<>();
+      // Solve L*Y = B; y[k] -= L[k][0..off) * y[0..off) first (already solved diagonal part)
+      if (off > 0) {
+        for (int i0 = off; i0 < n; i0 += SOLVE_BLOCK)
+          tasks.add(new ForwardUpdate(_xx, y, off, i0, Math.min(i0 + SOLVE_BLOCK, n), 0, off));
+        ForkJoinTask.invokeAll(tasks);
+        tasks.clear();
+      }
+      for (int k0 = off; k0 < n; k0 += SOLVE_BLOCK) {
+        final int k1 = Math.min(k0 + SOLVE_BLOCK, n);
+        for (int k = k0; k < k1; ++k) {
+          double[] rowk = _xx[k - off];
+          double d = 0;
+          for (int i = k0; i < k; i++)
+            d += y[i] * rowk[i];
+          y[k] = (y[k] - d) / rowk[k];
+        }
+        if (k1 == n) break;
+        final int step = Math.max(SOLVE_BLOCK, (n - k1 + P - 1) / P);
+        for (int i0 = k1; i0 < n; i0 += step)
+          tasks.add(new ForwardUpdate(_xx, y, off, i0, Math.min(i0 + step, n), k0, k1));
+        ForkJoinTask.invokeAll(tasks);
+        tasks.clear();
+      }
+      // Solve L'*X = Y;
+      for (int k1 = n; k1 > off; k1 -= SOLVE_BLOCK) {
+        final int k0 = Math.max(off, k1 - SOLVE_BLOCK);
+        for (int k = k1 - 1; k >= k0; --k) {
+          double[] rowk = _xx[k - off];
+          y[k] /= rowk[k];
+          for (int i = k0; i < k; ++i)
+            y[i] -= y[k] * rowk[i];
+        }
+        if (k0 == 0) break;
+        final int step = Math.max(SOLVE_BLOCK, (k0 + P - 1) / P);
+        for (int c0 = 0; c0 < k0; c0 += step)
+          tasks.add(new BackwardUpdate(_xx, y, off, c0, Math.min(c0 + step, k0), k0, k1));
+        ForkJoinTask.invokeAll(tasks);
+        tasks.clear();
+      }
+    }
+
+    // y[i] -= L[i][k0..k1) * y[k0..k1), for rows i in [i0,i1)
+    private static class ForwardUpdate extends RecursiveAction {
+      final double[][] _xx;
+      final double[] _y;
+      final int _off, _i0, _i1, _k0, _k1;
+      ForwardUpdate(double[][] xx, double[] y, int off, int i0, int i1, int k0, int k1) {
+        _xx = xx; _y = y; _off = off;
+        _i0 = i0; _i1 = i1; _k0 = k0; _k1 = k1;
+      }
+      @Override protected void compute() {
+        for (int i = _i0; i < _i1; ++i) {
+          double[] rowi = _xx[i - _off];
+          double d = 0;
+          for (int k = _k0; k < _k1; ++k)
+            d += rowi[k] * _y[k];
+          _y[i] -= d;
+        }
+      }
+    }
+
+    // y[c] -= sum over k in [k0,k1) of y[k] * L[k][c], for columns c in [c0,c1)
+    private static class BackwardUpdate extends RecursiveAction {
+      final double[][] _xx;
+      final double[] _y;
+      final int _off, _c0, _c1, _k0, _k1;
+      BackwardUpdate(double[][] xx, double[] y, int off, int c0, int c1, int k0, int k1) {
+        _xx = xx; _y = y; _off = off;
+        _c0 = c0; _c1 = c1; _k0 = k0; _k1 = k1;
+      }
+      @Override protected void compute() {
+        for (int k = _k0; k < _k1; ++k) {
+          double[] rowk = _xx[k - _off];
+          double yk = _y[k];
+          for (int c = _c0; c < _c1; ++c)
+            _y[c] -= yk * rowk[c];
+        }
+      }
+    }
+
     public final boolean isSPD() {return _isSPD;}
     public final void setSPD(boolean b) {_isSPD = b;}
   }
@@ -743,7 +885,77 @@ public final class Gram extends Iced<Gram> {
       addRowSparse(row, w);
   }
 
+  /**
+   * Same as addRow, but the products of the dense numeric columns are accumulated for blocks of ROW_BLOCK rows at
+   * once, as a tiled rank-k update instead of a rank-1 update per row. Much faster for many dense numeric columns.
+   * flushRowBlock() has to be called after the last row is added.
+   */
+  public final void addRowBlocked(DataInfo.Row row, double w) {
+    if (row.numIds != null || _denseN == 0) {
+      addRow(row, w);
+      return;
+    }
+    if (_rowBlock == null) {
+      _rowBlock = MemoryManager.malloc8d(_denseN * ROW_BLOCK);
+      _rowBlockW = MemoryManager.malloc8d(ROW_BLOCK);
+      _rowBlockTile = MemoryManager.malloc8d(Math.min(ROW_BLOCK_TILE, _denseN) * ROW_BLOCK);
+    }
+    final int n = _rowBlockN;
+    for (int i = 0; i < _denseN; ++i)
+      _rowBlock[i * ROW_BLOCK + n] = row.numVals[i];
+    _rowBlockW[n] = w;
+    addRowDense(row, w, false);
+    if (++_rowBlockN == ROW_BLOCK)
+      flushRowBlock();
+  }
+
+  /**
+   * Adds the dense numeric products of the rows buffered by addRowBlocked. The lower triangle of the dense block
+   * is processed in ROW_BLOCK_TILE x ROW_BLOCK_TILE tiles; the weighted values of the current row tile are kept
+   * in a small scratch buffer, so that each element is a plain dot product of two contiguous arrays.
+   */
+  public final void flushRowBlock() {
+    final int n = _rowBlockN;
+    if (n == 0) return;
+    _rowBlockN = 0;
+    final int intercept = _hasIntercept?1:0;
+    final int denseRowStart = _fullN - _denseN - _diagN - intercept;
+    final int denseColStart = _fullN - _denseN - intercept;
+    final double[] xs = _rowBlock;
+    final double[] ws = _rowBlockW;
+    final double[] wxs = _rowBlockTile;
+    for (int i0 = 0; i0 < _denseN; i0 += ROW_BLOCK_TILE) {
+      final int i1 = Math.min(i0 + ROW_BLOCK_TILE, _denseN);
+      for (int i = i0; i < i1; ++i) {
+        final int off = i * ROW_BLOCK;
+        final int toff = (i - i0) * ROW_BLOCK;
+        for (int r = 0; r < n; ++r)
+          wxs[toff + r] = ws[r] * xs[off + r];
+      }
+      for (int j0 = 0; j0 <= i0; j0 += ROW_BLOCK_TILE) {
+        final int j1 = Math.min(j0 + ROW_BLOCK_TILE, _denseN);
+        for (int i = i0; i < i1; ++i) {
+          final double[] mrow = _xx[i + denseRowStart];
+          final int toff = (i - i0) * ROW_BLOCK;
+          final int jEnd = Math.min(j1, i + 1);
+          for (int j = j0; j < jEnd; ++j) {
+            final int off = j * ROW_BLOCK;
+            double d = 0;
+            for (int r = 0; r < n; ++r)
+              d += wxs[toff + r] * xs[off + r];
+            mrow[j + denseColStart] += d;
+          }
+        }
+      }
+    }
+  }
+
   public final void   addRowDense(DataInfo.Row row, double w) {
+    addRowDense(row, w, true);
+  }
+
+  // numsXnums = false skips the products of the dense numeric columns (accumulated by flushRowBlock instead)
+  private void addRowDense(DataInfo.Row row, double w, boolean numsXnums) {
     final int intercept = _hasIntercept?1:0;
     final int denseRowStart = _fullN - _denseN - _diagN - intercept; // we keep dense numbers at the right bottom of the matrix, -1 is for intercept
     final int denseColStart = _fullN - _denseN - intercept;
@@ -754,8 +966,9 @@ public final class Gram extends Iced<Gram> {
     for(int i = 0; i < _denseN; ++i) if(row.numVals[i] != 0) {
       final double [] mrow = _xx[i+denseRowStart];
       final double d = w * row.numVals[i];
-      for(int j = 0; j <= i; ++j) if(row.numVals[j] != 0)
-        mrow[j+denseColStart] += d* row.numVals[j];
+      if(numsXnums)
+        for(int j = 0; j <= i; ++j) if(row.numVals[j] != 0)
+          mrow[j+denseColStart] += d* row.numVals[j];
       if(_hasIntercept)
         interceptRow[i+denseColStart] += d; // intercept*x[i]
       // nums * cats
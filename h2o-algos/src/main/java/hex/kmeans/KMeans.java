@@ -95,6 +95,14 @@ public class KMeans extends ClusteringModelBuilder<KMeansModel,KMeansModel.KMean
         }
       }
     }
+    if (_parms._mini_batch) {
+      if (_parms._estimate_k)
+        error("_mini_batch", "Cannot use mini-batches when estimate_k is enabled.");
+      if (_parms._mini_batch_size <= 0)
+        error("_mini_batch_size", "mini_batch_size must be positive.");
+      if (_parms._triangle_inequality)
+        info("_triangle_inequality", "triangle_inequality is ignored with mini_batch, only the final Lloyds pass runs over all rows.");
+    }
     if (expensive && error_count() == 0) checkMemoryFootPrint();
   }
 
@@ -246,6 +254,87 @@ public class KMeans extends ClusteringModelBuilder<KMeansModel,KMeansModel.KMean
       return task._cMeans;      // New centers
     }
 
+    // Number of mini-batches without improvement of the smoothed within-SS
+    // before mini-batch K-Means stops
+    private static final int MINI_BATCH_NO_IMPROVEMENT = 10;
+
+    // Mini-batch K-Means (Sculley): move each center towards the mean of its
+    // rows in a random sample, with a per-center learning rate of
+    // (rows in the batch) / (rows seen so far).  Stops when the centers no
+    // longer move, when the smoothed batch within-SS stops improving, or
+    // after max_iterations mini-batches.  Return new centers.
+    double[][] miniBatch(KMeansModel model, final Vec[] vecs, double[][] centers, final double[] means, final double[] mults, final int[] modes) {
+      final int k = centers.length;
+      final int N = centers[0].length;
+      final long nrows = _train.numRows();
+      final double fraction = Math.min(1.0, (double) _parms._mini_batch_size / nrows);
+      // Centers moving less than this (sum of squares) have converged; relative
+      // to the mean variance of the numeric columns, as in the data
+      double var = 0;
+      int numCols = 0;
+      for( int col = 0; col < N; col++ ) {
+        if( _isCats[col] != null ) continue;
+        double sigma = vecs[col].sigma() * (mults == null ? 1 : mults[col]);
+        var += sigma * sigma;
+        numCols++;
+      }
+      final double tol = numCols == 0 ? 0 : TOLERANCE * var / numCols;
+      long[] counts = new long[k];                  // Rows seen by each center
+      long[][][] cats = new long[k][N][];           // Cat levels seen by each center
+      for( int clu = 0; clu < k; clu++ )
+        for( int col = 0; col < N; col++ )
+          cats[clu][col] = _isCats[col] == null ? null : new long[vecs[col].cardinality()];
+      final long seed = _parms.getOrMakeRealSeed();
+      double ewa = Double.NaN, bestEwa = Double.POSITIVE_INFINITY;
+      int noImprovement = 0;
+      int batch = 0;
+      long start = System.currentTimeMillis();
+      while( batch < _parms._max_iterations && !stop_requested() ) {
+        MiniBatchTask task = new MiniBatchTask(centers, means, mults, modes, _isCats, k, hasWeightCol(), fraction, seed + batch * nrows).doAll(vecs);
+        batch++;
+        _job.update(1);
+        if( task._rows == 0 ) continue;
+        double[][] newCenters = ArrayUtils.deepClone(centers);
+        for( int clu = 0; clu < k; clu++ ) {
+          long b = task._size[clu];
+          if( b == 0 ) continue;    // Centers without rows in the batch stay put
+          counts[clu] += b;
+          double eta = (double) b / counts[clu];
+          for( int col = 0; col < N; col++ ) {
+            if( _isCats[col] != null ) {
+              ArrayUtils.add(cats[clu][col], task._cats[clu][col]);
+              newCenters[clu][col] = ArrayUtils.maxIndex(cats[clu][col]);
+            } else
+              newCenters[clu][col] += eta * (task._sums[clu][col] / b - centers[clu][col]);
+          }
+        }
+        double shift = 0;
+        for( int clu = 0; clu < k; clu++ )
+          shift += hex.genmodel.GenModel.KMeans_distance(centers[clu], newCenters[clu], _isCats);
+        centers = newCenters;
+        // Exponentially weighted average of the within-SS per row of the batches
+        double sqr = task._sqr / task._rows;
+        double alpha = Math.min(1.0, 2.0 * task._rows / (nrows + 1));
+        ewa = Double.isNaN(ewa) ? sqr : ewa * (1 - alpha) + sqr * alpha;
+        if( ewa < bestEwa ) { bestEwa = ewa; noImprovement = 0; }
+        else noImprovement++;
+        model._output._centers_raw = destandardize(centers, _isCats, means, mults);
+        model._output._tot_withinss = ewa * nrows;
+        model.update(_job);
+        if( shift <= tol ) {
+          Log.info("Mini-batch KMeans converged after " + batch + " mini-batches.");
+          break;
+        }
+        if( noImprovement >= MINI_BATCH_NO_IMPROVEMENT ) {
+          Log.info("Mini-batch KMeans stopped after " + batch + " mini-batches, no improvement in the last " + MINI_BATCH_NO_IMPROVEMENT + ".");
+          break;
+        }
+      }
+      Log.info("Mini-batch KMeans ran " + batch + " mini-batches of about " + Math.round(fraction * nrows) +
+              " rows in " + PrettyPrint.msecs(System.currentTimeMillis() - start, true) + ".");
+      return centers;
+    }
+
     // Main worker thread
     @Override
     public void computeImpl() {
@@ -280,6 +369,8 @@ public class KMeans extends ClusteringModelBuilder<KMeansModel,KMeansModel.KMean
         // Initialize cluster centers and standardize if requested
         double[][] centers = initial_centers(model,vecs,means,mults,impute_cat, startK);
         if( centers==null ) return; // Stopped/cancelled during center-finding
+        if (_parms._mini_batch)       // Then a single Lloyds pass for the model stats
+          centers = miniBatch(model, vecs, centers, means, mults, impute_cat);
         boolean work_unit_iter = !_parms._estimate_k;
 
         // ---
@@ -291,6 +382,11 @@ public class KMeans extends ClusteringModelBuilder<KMeansModel,KMeansModel.KMean
           Log.info("Cutoff for relative improvement in within_cluster_sum_of_squares: " + rel_improvement_cutoff);
         Vec[] vecs2 = Arrays.copyOf(vecs, vecs.length+1);
         vecs2[vecs2.length-1] = vecs2[0].makeCon(-1);
+        // Per-row lower bounds on the distance to the 2nd closest center, for
+        // skipping distance computations (Hamerly); appended to the Lloyds input only
+        final Vec lowerBounds = _parms._triangle_inequality && !_parms._mini_batch ? vecs2[0].makeCon(0) : null;
+        final Vec[] lloydsVecs = lowerBounds == null ? vecs2 : ArrayUtils.append(vecs2, lowerBounds);
+        double[][] prevCenters = null; // Centers of the previous Lloyds pass
         for (int k = startK; k <= _parms._k; ++k) {
           Log.info("Running Lloyds iteration for " + k + " centroids.");
           model._output._iterations = 0;  // Loop ends only when iterations > max_iterations with strict inequality
@@ -298,7 +394,14 @@ public class KMeans extends ClusteringModelBuilder<KMeansModel,KMeansModel.KMean
           boolean stop = false;
           do { //Lloyds algorithm
             assert(centers.length == k);
-            LloydsIterationTask task = new LloydsIterationTask(centers, means, mults, impute_cat, _isCats, k, hasWeightCol()).doAll(vecs2); //1 PASS OVER THE DATA
+            LloydsIterationTask task = new LloydsIterationTask(centers, means, mults, impute_cat, _isCats, k, hasWeightCol());
+            if (lowerBounds != null) {
+              task.setBounds(prevCenters);
+              prevCenters = ArrayUtils.deepClone(centers);
+            }
+            task.doAll(lloydsVecs); //1 PASS OVER THE DATA
+            if (lowerBounds != null)
+              Log.debug("Lloyds pass with bounds skipped " + task._skipped + " of " + task._searched + " closest center searches.");
             // Pick the max categorical level for cluster center
             max_cats(task._cMeans, task._cats, _isCats);
 
@@ -318,7 +421,7 @@ public class KMeans extends ClusteringModelBuilder<KMeansModel,KMeansModel.KMean
               _job.update(1); //1 more Lloyds iteration
             }
 
-            stop = (task._reassigned_count < Math.max(1,train().numRows()*TOLERANCE) ||
+            stop = (_parms._mini_batch || task._reassigned_count < Math.max(1,train().numRows()*TOLERANCE) ||
                     model._output._iterations >= _parms._max_iterations || stop_requested());
             if (stop) {
               if (model._output._iterations < _parms._max_iterations)
@@ -355,6 +458,7 @@ public class KMeans extends ClusteringModelBuilder<KMeansModel,KMeansModel.KMean
             centers = splitLargestCluster(centers, lo, hi, means, mults, impute_cat, vecs2, k);
         } //k-finder
         vecs2[vecs2.length-1].remove();
+        if (lowerBounds != null) lowerBounds.remove();
 
         // Create metrics by scoring on training set otherwise scores are based on last Lloyd iteration
         model.score(_train).delete();
@@ -620,6 +724,97 @@ public class KMeans extends ClusteringModelBuilder<KMeansModel,KMeansModel.KMean
     }
   }
 
+  // -------------------------------------------------------------------------
+  // Mini-batch: sums of the rows of randomly sampled blocks of rows, by
+  // closest cluster center.  Each block of a chunk is in the batch with
+  // probability fraction; gaps between sampled blocks are drawn directly, so
+  // small batches do not cost a pass over all the rows.
+  private static final int MINI_BATCH_BLOCK = 32; // Rows per sampled block
+
+  private static class MiniBatchTask extends MRTask<MiniBatchTask> {
+    // IN
+    double[][] _centers;
+    double[] _means, _mults;      // Standardization
+    int[] _modes;   // Imputation of missing categoricals
+    final int _k;
+    final String[][] _isCats;
+    final boolean _hasWeight;
+    final double _fraction;     // Fraction of the rows in the batch
+    final long _seed;
+
+    // OUT
+    double[][] _sums;           // Sums of the rows of each cluster
+    long[/*k*/][/*features*/][/*nfactors*/] _cats; // Histogram of cat levels
+    long[] _size;               // Number of rows in each cluster
+    long _rows;                 // Number of rows in the batch
+    double _sqr;                // Sum of square distances to the closest centers
+
+    MiniBatchTask(double[][] centers, double[] means, double[] mults, int[] modes, String[][] isCats, int k, boolean hasWeight, double fraction, long seed) {
+      _centers = centers;
+      _means = means;
+      _mults = mults;
+      _modes = modes;
+      _isCats = isCats;
+      _k = k;
+      _hasWeight = hasWeight;
+      _fraction = fraction;
+      _seed = seed;
+    }
+
+    @Override public void map(Chunk[] cs) {
+      int N = cs.length - (_hasWeight ? 1:0);
+      assert _centers[0].length==N;
+      _sums = new double[_k][N];
+      _size = new long[_k];
+      _cats = new long[_k][N][];
+      for( int clu=0; clu< _k; clu++ )
+        for( int col=0; col<N; col++ )
+          _cats[clu][col] = _isCats[col]==null ? null : new long[cs[col].vec().cardinality()];
+      int len = cs[0]._len;
+      Random rand = RandomUtils.getRNG(_seed + cs[0].start());
+      double[] values = new double[N];
+      ClusterDist cd = new ClusterDist();
+      for( long block = skip(rand); block * MINI_BATCH_BLOCK < len; block += 1 + skip(rand) ) {
+        int from = (int) block * MINI_BATCH_BLOCK;
+        int to = Math.min(len, from + MINI_BATCH_BLOCK);
+        for( int row = from; row < to; row++ )
+          addRow(cs, N, row, values, cd);
+      }
+      _centers = null;
+      _means = _mults = null;
+      _modes = null;
+    }
+
+    // Number of blocks before the next sampled one (geometric distribution)
+    private long skip(Random rand) {
+      if( _fraction >= 1 ) return 0;
+      return (long) (Math.log(1 - rand.nextDouble()) / Math.log(1 - _fraction));
+    }
+
+    private void addRow(Chunk[] cs, int N, int row, double[] values, ClusterDist cd) {
+      if( _hasWeight && cs[N].atd(row) == 0 ) return; // skip holdout rows
+      data(values, cs, row, _means, _mults, _modes);
+      closest(_centers, values, _isCats, cd);
+      int clu = cd._cluster;
+      for( int col = 0; col < N; col++ )
+        if( _isCats[col] != null )
+          _cats[clu][col][(int)values[col]]++;
+        else
+          _sums[clu][col] += values[col];
+      _size[clu]++;
+      _sqr += cd._dist;
+      _rows++;
+    }
+
+    @Override public void reduce(MiniBatchTask mr) {
+      ArrayUtils.add(_sums, mr._sums);
+      ArrayUtils.add(_cats, mr._cats);
+      ArrayUtils.add(_size, mr._size);
+      _rows += mr._rows;
+      _sqr += mr._sqr;
+    }
+  }
+
   // ---------------------------------------
   // A Lloyd's pass:
   //   Find nearest cluster center for every point
@@ -627,6 +822,9 @@ public class KMeans extends ClusteringModelBuilder<KMeansModel,KMeansModel.KMean
   //   Compute distance between clusters
   //   Compute total sqr distance
 
+  // Relative margin of the comparisons against distance bounds
+  private static final double BOUND_EPS = 1e-10;
+
   private static class LloydsIterationTask extends MRTask<LloydsIterationTask> {
     // IN
     double[][] _centers;
@@ -645,6 +843,16 @@ public class KMeans extends ClusteringModelBuilder<KMeansModel,KMeansModel.KMean
     long[] _size;               // Number of rows in each cluster
     long _worst_row;            // Row with max err
     double _worst_err;          // Max-err-row's max-err
+    long _searched, _skipped;   // Closest center searches, and searches skipped by the bounds
+
+    // IN, bounds only: the last Chunk holds per-row lower bounds on the
+    // distance to the 2nd closest center.  Distances here are not squared,
+    // so the triangle inequality holds.
+    boolean _bounds;
+    double[][] _centerDists;    // Distances between centers
+    double[] _halfMinSep;       // Half the distance to the closest other center
+    double _maxDrift, _maxDrift2; // Largest move of a center since the last pass, and the largest of the others
+    int _maxDriftIdx;           // Center that moved the most
 
     LloydsIterationTask(double[][] centers, double[] means, double[] mults, int[] modes, String[][] isCats, int k, boolean hasWeight ) {
       _centers = centers;
@@ -656,8 +864,37 @@ public class KMeans extends ClusteringModelBuilder<KMeansModel,KMeansModel.KMean
       _hasWeight = hasWeight;
     }
 
+    /** Use the lower bounds Chunk to skip closest center searches (Hamerly),
+     *  and the distances between centers to skip single candidates (Elkan).
+     *  @param prevCenters centers of the previous pass, null if none */
+    void setBounds(double[][] prevCenters) {
+      _bounds = true;
+      _centerDists = new double[_k][_k];
+      _halfMinSep = new double[_k];
+      for (int i = 0; i < _k; i++) {
+        double min = Double.POSITIVE_INFINITY;
+        for (int j = 0; j < i; j++) {
+          double d = Math.sqrt(hex.genmodel.GenModel.KMeans_distance(_centers[i], _centers[j], _isCats));
+          _centerDists[i][j] = _centerDists[j][i] = d;
+        }
+        for (int j = 0; j < _k; j++)
+          if (j != i) min = Math.min(min, _centerDists[i][j]);
+        _halfMinSep[i] = min / 2;
+      }
+      // Bounds of the rows move down by the drift of the centers
+      _maxDrift = _maxDrift2 = prevCenters == null ? 0 : -1;
+      _maxDriftIdx = -1;
+      if (prevCenters == null) return;  // Bounds are all 0 before the first pass
+      for (int i = 0; i < _k; i++) {
+        double drift = i < prevCenters.length ? Math.sqrt(hex.genmodel.GenModel.KMeans_distance(prevCenters[i], _centers[i], _isCats)) : Double.POSITIVE_INFINITY;
+        if (drift > _maxDrift) { _maxDrift2 = _maxDrift; _maxDrift = drift; _maxDriftIdx = i; }
+        else if (drift > _maxDrift2) _maxDrift2 = drift;
+      }
+      _maxDrift2 = Math.max(_maxDrift2, 0);
+    }
+
     @Override public void map(Chunk[] cs) {
-      int N = cs.length - (_hasWeight ? 1:0) - 1 /*clusterassignment*/;
+      int N = cs.length - (_hasWeight ? 1:0) - 1 /*clusterassignment*/ - (_bounds ? 1:0);
       assert _centers[0].length==N;
       _lo = new double[_k][N];
       for( int clu=0; clu< _k; clu++ )
@@ -675,7 +912,8 @@ public class KMeans extends ClusteringModelBuilder<KMeansModel,KMeansModel.KMean
           _cats[clu][col] = _isCats[col]==null ? null : new long[cs[col].vec().cardinality()];
       _worst_err = 0;
 
-      Chunk assignment = cs[cs.length-1];
+      Chunk assignment = cs[N + (_hasWeight ? 1:0)];
+      Chunk lower = _bounds ? cs[cs.length-1] : null;
       // Find closest cluster center for each row
       double[] values = new double[N]; // Temp data to hold row as doubles
       ClusterDist cd = new ClusterDist();
@@ -684,7 +922,8 @@ public class KMeans extends ClusteringModelBuilder<KMeansModel,KMeansModel.KMean
         if (weight == 0) continue; //skip holdout rows
         assert(weight == 1); //K-Means only works for weight 1 (or weight 0 for holdout)
         data(values, cs, row, _means, _mults, _modes); // Load row as doubles
-        closest(_centers, values, _isCats, cd); // Find closest cluster center
+        if (_bounds) closestBounded(values, (int)assignment.at8(row), lower, row, cd);
+        else closest(_centers, values, _isCats, cd); // Find closest cluster center
         if (cd._cluster != assignment.at8(row)) {
           _reassigned_count+=weight;
           assignment.set(row, cd._cluster);
@@ -717,10 +956,62 @@ public class KMeans extends ClusteringModelBuilder<KMeansModel,KMeansModel.KMean
       _centers = null;
       _means = _mults = null;
       _modes = null;
+      _centerDists = null;
+      _halfMinSep = null;
+    }
+
+    // Same result as closest(), including ties going to the lowest cluster
+    // index, but skips distances to centers that cannot be the closest one.
+    // Comparisons against bounds leave a relative margin for rounding.
+    private void closestBounded(double[] values, int a, Chunk lower, int row, ClusterDist cd) {
+      _searched++;
+      if (a < 0 || a >= _k) {   // No assignment yet: full search
+        double best = Double.MAX_VALUE, second = Double.MAX_VALUE;
+        int min = -1;
+        for (int clu = 0; clu < _k; clu++) {
+          double sqr = hex.genmodel.GenModel.KMeans_distance(_centers[clu], values, _isCats);
+          if (sqr < best) { second = best; best = sqr; min = clu; }
+          else if (sqr < second) second = sqr;
+        }
+        cd._cluster = min;
+        cd._dist = best;
+        lower.set(row, Math.sqrt(second));
+        return;
+      }
+      double sqr = hex.genmodel.GenModel.KMeans_distance(_centers[a], values, _isCats);
+      double u = Math.sqrt(sqr);
+      double l = lower.atd(row) - (a == _maxDriftIdx ? _maxDrift2 : _maxDrift);
+      if (u < Math.max(_halfMinSep[a], l) * (1 - BOUND_EPS)) { // No other center can be as close
+        _skipped++;
+        lower.set(row, l);
+        cd._cluster = a;
+        cd._dist = sqr;
+        return;
+      }
+      int min = a;
+      double best = sqr;
+      double second = Double.MAX_VALUE;  // Lower bound on the distance to all other centers
+      for (int clu = 0; clu < _k; clu++) {
+        if (clu == a) continue;
+        double lb = _centerDists[a][clu] - u; // Triangle inequality
+        if (lb * (1 - BOUND_EPS) > u) { second = Math.min(second, lb); continue; } // Farther than center a
+        double d = hex.genmodel.GenModel.KMeans_distance(_centers[clu], values, _isCats);
+        if (d < best || (d == best && clu < min)) {
+          second = Math.min(second, Math.sqrt(best));
+          best = d;
+          min = clu;
+        } else
+          second = Math.min(second, Math.sqrt(d));
+      }
+      cd._cluster = min;
+      cd._dist = best;
+      lower.set(row, second);
     }
 
     @Override public void reduce(LloydsIterationTask mr) {
       _reassigned_count += mr._reassigned_count;
+      _searched += mr._searched;
+      _skipped += mr._skipped;
       for( int clu = 0; clu < _k; clu++ ) {
         long ra =    _size[clu];
         long rb = mr._size[clu];
@@ -31,7 +31,7 @@ public class KMeansModel extends ClusteringModel<KMeansModel,KMeansModel.KMeansP
     public String algoName() { return "KMeans"; }
     public String fullName() { return "K-means"; }
     public String javaName() { return KMeansModel.class.getName(); }
-    @Override public long progressUnits() { return _estimate_k ? _k : _max_iterations; }
+    @Override public long progressUnits() { return _estimate_k ? _k : _max_iterations + (_mini_batch ? 1 : 0); }
     public int _max_iterations = 10;     // Max iterations for Lloyds
     public boolean _standardize = true;    // Standardize columns
     public KMeans.Initialization _init = KMeans.Initialization.Furthest;
@@ -39,6 +39,11 @@ public class KMeansModel extends ClusteringModel<KMeansModel,KMeansModel.KMeansP
     public boolean _pred_indicator = false;   // For internal use only: generate indicator cols during prediction
                                               // Ex: k = 4, cluster = 3 -> [0, 0, 1, 0]
     public boolean _estimate_k = false;       // If enabled, iteratively find up to _k clusters
+    public boolean _triangle_inequality = false; // Skip distance computations that cannot change the assignment;
+                                                 // same result, one more per-row Vec
+    public boolean _mini_batch = false;       // Update the centers from sampled mini-batches of rows, then run one
+                                              // Lloyds pass; max_iterations caps the number of mini-batches
+    public int _mini_batch_size = 10000;      // Expected number of rows in each mini-batch
   }
 
   public static class KMeansOutput extends ClusteringModel.ClusteringOutput {
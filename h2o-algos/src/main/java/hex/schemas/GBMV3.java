@@ -58,6 +58,8 @@ public class GBMV3 extends SharedTreeV3<GBM,GBMV3,GBMV3.GBMParametersV3> {
       "col_sample_rate_per_tree",
       "min_split_improvement",
       "histogram_type",
+      "histogram_subtraction",
+      "prebin_features",
       "max_abs_leafnode_pred",
       "pred_noise_bandwidth",
       "categorical_encoding",
@@ -66,7 +68,10 @@ public class GBMV3 extends SharedTreeV3<GBM,GBMV3,GBMV3.GBMParametersV3> {
       "custom_metric_func",
       "export_checkpoints_dir",
       "monotone_constraints",
-      "check_constant_response"
+      "check_constant_response",
+      "goss",
+      "goss_top_rate",
+      "goss_other_rate"
 //      "use_new_histo_tsk",
 //      "col_block_sz",
 //      "min_threads",
@@ -96,6 +101,15 @@ public class GBMV3 extends SharedTreeV3<GBM,GBMV3,GBMV3.GBMParametersV3> {
     @API(help="Bandwidth (sigma) of Gaussian multiplicative noise ~N(1,sigma) for tree node predictions", level = API.Level.expert, gridable = true)
     public double pred_noise_bandwidth;
 
+    @API(help="Use Gradient-based One-Side Sampling: the splits of each tree are found from the rows with the largest gradients and a reweighted random sample of the others, leaf values are fitted on all rows (cannot be combined with sample_rate)", level = API.Level.expert, gridable = true)
+    public boolean goss;
+
+    @API(help="Fraction of rows with the largest absolute gradients kept for each tree (GOSS only)", level = API.Level.expert, gridable = true)
+    public double goss_top_rate;
+
+    @API(help="Fraction of all rows sampled from the remaining rows for each tree (GOSS only)", level = API.Level.expert, gridable = true)
+    public double goss_other_rate;
+
 //    // TODO debug only, remove!
 //    @API(help="Internal flag, use new version of histo tsk if set", level = API.Level.expert, gridable = false)
 //    public boolean use_new_histo_tsk;
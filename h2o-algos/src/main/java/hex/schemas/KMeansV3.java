@@ -24,6 +24,9 @@ public class KMeansV3 extends ClusteringModelBuilderSchema<KMeans,KMeansV3,KMean
         "score_each_iteration",
         "k",
         "estimate_k",
+        "triangle_inequality",
+        "mini_batch",
+        "mini_batch_size",
         "user_points",
         "max_iterations",
         "standardize",
@@ -54,5 +57,14 @@ public class KMeansV3 extends ClusteringModelBuilderSchema<KMeans,KMeansV3,KMean
 
     @API(help = "Whether to estimate the number of clusters (<=k) iteratively and deterministically.", level = API.Level.critical, gridable = true)
     public boolean estimate_k = false;
+
+    @API(help = "Use distance bounds and the triangle inequality to skip distance computations that cannot change the cluster assignment. Gives the same result; keeps one more number per row.", level = API.Level.expert, gridable = true)
+    public boolean triangle_inequality = false;
+
+    @API(help = "Update the cluster centers from randomly sampled blocks of rows (mini-batches) instead of full passes over the data, then finish with one full Lloyds pass. max_iterations is the maximum number of mini-batches.", level = API.Level.expert, gridable = true)
+    public boolean mini_batch = false;
+
+    @API(help = "Expected number of rows in each mini-batch.", level = API.Level.expert, gridable = true)
+    public int mini_batch_size = 10000;
   }
 }
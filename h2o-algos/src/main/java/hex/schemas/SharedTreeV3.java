@@ -90,6 +90,12 @@ public class SharedTreeV3<B extends SharedTree, S extends SharedTreeV3<B,S,P>, P
     @API(help="What type of histogram to use for finding optimal split points", values = { "AUTO", "UniformAdaptive", "Random", "QuantilesGlobal", "RoundRobin"}, level = API.Level.secondary, gridable = true)
     public SharedTreeParameters.HistogramType histogram_type;
 
+    @API(help="Build histograms only for the smaller child of each split and derive the larger child's histograms by subtracting them from the parent's. Children keep the parent's histogram bins instead of re-binning to their own range.", level = API.Level.expert, gridable = true)
+    public boolean histogram_subtraction;
+
+    @API(help="Quantize numeric columns once into the bins of the global quantiles and build histograms from the bin indices. Requires histogram_type QuantilesGlobal or RoundRobin. Does not change the model.", level = API.Level.expert, gridable = true)
+    public boolean prebin_features;
+
     @API(help="Use Platt Scaling to calculate calibrated class probabilities. Calibration can provide more accurate estimates of class probabilities.", level = API.Level.expert)
     public boolean calibrate_model;
 
@@ -2,6 +2,7 @@ package hex.tree;
 
 import java.util.Random;
 
+import hex.genmodel.algos.tree.FlatTree;
 import hex.genmodel.algos.tree.SharedTreeMojoModel;
 import hex.genmodel.algos.tree.SharedTreeSubgraph;
 import water.*;
@@ -28,8 +29,12 @@ public class CompressedTree extends Keyed<CompressedTree> {
 
   private static final String KEY_PREFIX = "tree_";
 
+  /** Score with a decoded {@link FlatTree} instead of walking the bytes */
+  static final boolean FLAT_TREES = Boolean.parseBoolean(System.getProperty(H2O.OptArgs.SYSTEM_PROP_PREFIX + "tree.flat", "true"));
+
   final byte [] _bits;
   final long _seed;
+  private transient FlatTree _flat; // Decoded on first use, per node
 
   public CompressedTree(byte[] bits, long seed, int tid, int cls) {
     super(makeTreeKey(tid, cls));
@@ -38,6 +43,11 @@ public class CompressedTree extends Keyed<CompressedTree> {
   }
 
   public double score(final double row[], final String[][] domains) {
+    if (FLAT_TREES) {
+      FlatTree flat = _flat;    // Racy but idempotent: all threads decode the same tree
+      if (flat == null) _flat = flat = FlatTree.compile(_bits);
+      return flat.score(row, domains);
+    }
     return SharedTreeMojoModel.scoreTree(_bits, row, false, domains);
   }
 
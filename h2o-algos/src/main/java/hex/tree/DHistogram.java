@@ -4,6 +4,7 @@ import hex.Distribution;
 import hex.DistributionFactory;
 import sun.misc.Unsafe;
 import water.*;
+import water.fvec.Chunk;
 import water.fvec.Frame;
 import water.fvec.Vec;
 import water.nbhm.UtilUnsafe;
@@ -122,6 +123,8 @@ public final class DHistogram extends Iced {
   public final long _seed;
   public transient boolean _hasQuantiles;
   public Key _globalQuantilesKey; //key under which original top-level quantiles are stored;
+  public boolean _prebinned; // columns are pre-binned into the global quantiles
+  transient int _splitPtsOffset = -1; // index of _splitPts[0] in the global quantiles, -1 if the bins are not a range of them
 
 
 
@@ -249,6 +252,49 @@ public final class DHistogram extends Iced {
     // Do not allocate the big arrays here; wait for scoreCols to pick which cols will be used.
   }
 
+  /**
+   * Make an empty histogram with exactly the same bins as the given one (range, bin count, step, split points).
+   * Used with histogram subtraction, where a node's histogram is derived from its parent's and sibling's.
+   * @param h histogram to take the bins from
+   * @param cs constraints of the new node, null if there are no constraints
+   */
+  private DHistogram(DHistogram h, Constraints cs) {
+    if (cs != null) {
+      _pred1 = cs._min;
+      _pred2 = cs._max;
+      if (! cs.needsGammaDenum()) {
+        _vals_dim = Double.isNaN(_pred1) && Double.isNaN(_pred2) ? 3 : 5;
+        _dist = null;
+      } else {
+        _vals_dim = 6;
+        _dist = DistributionFactory.getDistribution(cs._dist);
+      }
+    } else {
+      _pred1 = Double.NaN;
+      _pred2 = Double.NaN;
+      _vals_dim = 3;
+      _dist = null;
+    }
+    _isInt = h._isInt;
+    _name = h._name;
+    _min = h._min;
+    _maxEx = h._maxEx;
+    _min2 = Double.MAX_VALUE;
+    _maxIn = -Double.MAX_VALUE;
+    _minSplitImprovement = h._minSplitImprovement;
+    _histoType = h._histoType; // already resolved, the seed is kept so that Random split points are the same
+    _seed = h._seed;
+    _globalQuantilesKey = h._globalQuantilesKey;
+    _prebinned = h._prebinned;
+    _nbin = h._nbin;
+    _step = h._step;
+    // split points are transient, init() recomputes them
+  }
+
+  public static DHistogram makeWithSameBins(DHistogram h, Constraints cs) {
+    return new DHistogram(h, cs);
+  }
+
   // Interpolate d to find bin#
   public int bin( double col_data ) {
     if(Double.isNaN(col_data)) return _nbin; // NA bucket
@@ -300,12 +346,16 @@ public final class DHistogram extends Iced {
       if (_globalQuantilesKey != null) {
         HistoQuantiles hq = DKV.getGet(_globalQuantilesKey);
         if (hq != null) {
-          _splitPts = ((HistoQuantiles) DKV.getGet(_globalQuantilesKey)).splitPts;
+          final double[] globalSplitPts = ((HistoQuantiles) DKV.getGet(_globalQuantilesKey)).splitPts;
+          _splitPts = globalSplitPts;
           if (_splitPts!=null) {
 //            Log.info("Obtaining global splitPoints: " + Arrays.toString(_splitPts));
             _splitPts = ArrayUtils.limitToRange(_splitPts, _min, _maxEx);
+            _splitPtsOffset = -1;
             if (_splitPts.length > 1 && _splitPts.length < _nbin)
               _splitPts = ArrayUtils.padUniformly(_splitPts, _nbin);
+            else if (_prebinned)
+              _splitPtsOffset = Arrays.binarySearch(globalSplitPts, _splitPts[0]); // bins are a range of the global bins
             if (_splitPts.length <= 1) {
               _splitPts = null; //abort, fall back to uniform binning
               _histoType = SharedTreeModel.SharedTreeParameters.HistogramType.UniformAdaptive;
@@ -358,6 +408,52 @@ public final class DHistogram extends Iced {
     if (_maxIn < dsh._maxIn) _maxIn = dsh._maxIn;
   }
 
+  /**
+   * Fill this (not yet initialized) histogram with the difference of the parent's and the sibling's histograms.
+   * The parent's rows are split between this node and its sibling, so each bin of this node is the parent's bin
+   * minus the sibling's bin.  All three histograms must have the same bins (see {@link #makeWithSameBins}).
+   * Squared errors for _pred1/_pred2 are recomputed from w, wY and wYY, since they depend on this node's
+   * constraints.  The observed min/max are not tracked.
+   * @param parent histogram of the parent node
+   * @param sibling histogram of the sibling node, can be uninitialized if the sibling had no rows
+   */
+  void initAsDifference(DHistogram parent, DHistogram sibling) {
+    assert _vals == null;
+    assert _nbin == parent._nbin && _vals_dim == parent._vals_dim && _min == parent._min && _maxEx == parent._maxEx;
+    assert sibling._vals == null || sibling._vals.length == parent._vals.length;
+    final double[] pv = parent._vals;
+    final double[] sv = sibling._vals;
+    double[] vals = MemoryManager.malloc8d(pv.length);
+    for (int i = 0; i < pv.length; i += _vals_dim) { // includes the NA bucket
+      double w = sv == null ? pv[i] : pv[i] - sv[i];
+      if (w <= 1e-12 * pv[i]) continue; // Empty bin, up to roundoff
+      double wY = sv == null ? pv[i + 1] : pv[i + 1] - sv[i + 1];
+      double wYY = sv == null ? pv[i + 2] : pv[i + 2] - sv[i + 2];
+      vals[i] = w;
+      vals[i + 1] = wY;
+      vals[i + 2] = Math.max(0, wYY);
+      if (_vals_dim >= 5) {
+        vals[i + 3] = Math.max(0, w * _pred1 * _pred1 - 2 * _pred1 * wY + vals[i + 2]);
+        vals[i + 4] = Math.max(0, w * _pred2 * _pred2 - 2 * _pred2 * wY + vals[i + 2]);
+        if (_vals_dim == 6)
+          vals[i + 5] = sv == null ? pv[i + 5] : pv[i + 5] - sv[i + 5];
+      }
+    }
+    init(vals);
+    reducePrecision();
+  }
+
+  /**
+   * @return number of bins with any weight, including the NA bucket; 0 if the histogram was not initialized
+   */
+  int nonEmptyBins() {
+    if (_vals == null) return 0;
+    int cnt = 0;
+    for (int i = 0; i < _vals.length; i += _vals_dim)
+      if (_vals[i] != 0) cnt++;
+    return cnt;
+  }
+
   // Inclusive min & max
   public double find_min  () { return _min2 ; }
   public double find_maxIn() { return _maxIn; }
@@ -392,7 +488,17 @@ public final class DHistogram extends Iced {
   }
   
   public static DHistogram make(String name, final int nbins, byte isInt, double min, double maxEx, long seed, SharedTreeModel.SharedTreeParameters parms, Key globalQuantilesKey, Constraints cs) {
-    return new DHistogram(name,nbins, parms._nbins_cats, isInt, min, maxEx, parms._min_split_improvement, parms._histogram_type, seed, globalQuantilesKey, cs);
+    DHistogram h = new DHistogram(name,nbins, parms._nbins_cats, isInt, min, maxEx, parms._min_split_improvement, parms._histogram_type, seed, globalQuantilesKey, cs);
+    h._prebinned = parms._prebin_features;
+    return h;
+  }
+
+  /**
+   * @return true if the bins of this histogram are a range of the global quantile bins (not padded), and it can be
+   * filled from the pre-binned column by {@link #updateHistoPrebinned}
+   */
+  boolean isPrebinned() {
+    return _prebinned && _hasQuantiles && _splitPtsOffset >= 0;
   }
 
   // Pretty-print a histogram
@@ -452,20 +558,67 @@ public final class DHistogram extends Iced {
       double col_data = cs[k];
       if (col_data < _min2) _min2 = col_data;
       if (col_data > _maxIn) _maxIn = col_data;
-      double y = ys[k];
-      assert (!Double.isNaN(y));
-      double wy = weight * y;
-      double wyy = wy * y;
-      int b = bin(col_data);
-      _vals[_vals_dim*b + 0] += weight;
-      _vals[_vals_dim*b + 1] += wy;
-      _vals[_vals_dim*b + 2] += wyy;
-      if (_vals_dim >= 5) {
-        _vals[_vals_dim * b + 3] += weight * (_pred1 - y) * (_pred1 - y);
-        _vals[_vals_dim * b + 4] += weight * (_pred2 - y) * (_pred2 - y);
-        if (_vals_dim == 6) {
-          _vals[_vals_dim * b + 5] += _dist.gammaDenom(weight, resp[k], y, Double.NaN);
-        }
+      updateBin(bin(col_data), weight, ys[k], resp, k);
+    }
+  }
+
+  /**
+   * Update counts in appropriate bins from global bin indices of the rows. Not thread safe, assumed to have private copy.
+   * Gives the same histogram as {@link #updateHisto}; the raw values are only read for the rows in the lowest and
+   * the highest non-empty bin, to track the observed min/max.
+   * @param ws observation weights
+   * @param resp original response (see {@link #updateHisto})
+   * @param col column data
+   * @param bins index of the global quantile bin of each row, -1 for NAs
+   * @param ys response column of the regression tree
+   * @param rows rows sorted by leaf assignemnt
+   * @param hi  upper bound on index into rows array to be processed by this call (exclusive)
+   * @param lo  lower bound on index into rows array to be processed by this call (inclusive)
+   */
+  void updateHistoPrebinned(double[] ws, double resp[], Chunk col, int[] bins, double[] ys, int [] rows, int hi, int lo){
+    assert isPrebinned();
+    final int last = _nbin - 1;
+    int bmin = _nbin, bmax = -1;
+    for(int r = lo; r< hi; ++r) {
+      int k = rows[r];
+      double weight = ws[k];
+      if (weight == 0) continue;
+      int b = bins[k];
+      if (b < 0) b = _nbin; // NA bucket
+      else {
+        b -= _splitPtsOffset;
+        if (b < 0) b = 0;   // only -Infinity can be below the range
+        if (b > last) b = last;
+        if (b < bmin) bmin = b;
+        if (b > bmax) bmax = b;
+      }
+      updateBin(b, weight, ys[k], resp, k);
+    }
+    if (bmax < 0) return;
+    bmin += _splitPtsOffset;
+    bmax += _splitPtsOffset;
+    for(int r = lo; r< hi; ++r) {
+      int k = rows[r];
+      int b = bins[k];
+      if (ws[k] == 0 || (b > bmin && b < bmax) || b < 0) continue;
+      double col_data = col.atd(k);
+      if (col_data < _min2) _min2 = col_data;
+      if (col_data > _maxIn) _maxIn = col_data;
+    }
+  }
+
+  private void updateBin(int b, double weight, double y, double[] resp, int k) {
+    assert (!Double.isNaN(y));
+    double wy = weight * y;
+    double wyy = wy * y;
+    _vals[_vals_dim*b + 0] += weight;
+    _vals[_vals_dim*b + 1] += wy;
+    _vals[_vals_dim*b + 2] += wyy;
+    if (_vals_dim >= 5) {
+      _vals[_vals_dim * b + 3] += weight * (_pred1 - y) * (_pred1 - y);
+      _vals[_vals_dim * b + 4] += weight * (_pred2 - y) * (_pred2 - y);
+      if (_vals_dim == 6) {
+        _vals[_vals_dim * b + 5] += _dist.gammaDenom(weight, resp[k], y, Double.NaN);
       }
     }
   }
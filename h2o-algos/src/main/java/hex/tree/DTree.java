@@ -228,6 +228,18 @@ public class DTree extends Iced {
         DHistogram h = currentHistos[j];            // old histogram of column
         if( h == null )
           continue;        // Column was not being tracked?
+        if( parms._histogram_subtraction || parms._keep_parent_bins ) {
+          // Keep the parent's bins, the histogram of one of the children can then be parent minus sibling
+          if( _nasplit == DHistogram.NASplitDir.NAvsREST && way == 1 )
+            continue; // no histogram needed - we just split NAs away
+          if( _col == j && _equal == 1 && way == 1 )
+            continue; // exact value on the equals-side, this col will not split again
+          if( h._vals != null && h.nonEmptyBins() < 2 )
+            continue; // This column will not split again
+          nhists[j] = DHistogram.makeWithSameBins(h, cs);
+          cnt++;
+          continue;
+        }
         int adj_nbins      = Math.max(h.nbins()>>1,parms._nbins); //update number of bins dependent on level depth
 
         // min & max come from the original column data, since splitting on an
@@ -314,6 +326,11 @@ public class DTree extends Iced {
     public transient DHistogram[] _hs; //(up to) one histogram per column
     public transient Constraints _cs;
     public final int _scoreCols[];      // A list of columns to score; could be null for all
+    // Histogram subtraction: histograms of _derivedCols are not built, but derived from the
+    // parent's histograms (kept for one level) minus the histograms of the sibling node
+    transient DHistogram[] _parentHs;
+    transient int _siblingNid;
+    transient int[] _derivedCols;
     public UndecidedNode( DTree tree, int pid, DHistogram[] hs, Constraints cs ) {
       super(tree,pid);
       assert hs.length==tree._ncols;
@@ -362,6 +379,59 @@ public class DTree extends Iced {
       return Arrays.copyOfRange(cols, len, choices);
     }
 
+    private boolean scoresCol(int col) {
+      return _scoreCols == null || ArrayUtils.find(_scoreCols, col) >= 0;
+    }
+
+    /**
+     * Plan to derive the histograms of this node by subtracting the sibling's histograms from the parent's.
+     * Only columns scored by both siblings, and tracked with the same bins by the parent, are derived; the
+     * remaining columns are built as usual.
+     * @param parentHs filled histograms of the parent node
+     * @param sibling the other child of the parent, its histograms will be built
+     */
+    void deriveFrom(DHistogram[] parentHs, UndecidedNode sibling) {
+      int[] cols = new int[_hs.length];
+      int len = 0;
+      for (int c = 0; c < _hs.length; c++) {
+        DHistogram h = _hs[c], ph = parentHs[c], sh = sibling._hs[c];
+        if (h == null || ph == null || ph._vals == null || sh == null) continue;
+        if (h._vals_dim != ph._vals_dim || sh._vals_dim != ph._vals_dim || h._nbin != ph._nbin) continue;
+        if (!scoresCol(c) || !sibling.scoresCol(c)) continue;
+        cols[len++] = c;
+      }
+      if (len == 0) return;
+      _parentHs = parentHs;
+      _siblingNid = sibling._nid;
+      _derivedCols = Arrays.copyOf(cols, len);
+    }
+
+    /**
+     * @return histograms to build in the next pass over the data; derived columns are left out (null)
+     */
+    public DHistogram[] histogramsToBuild() {
+      if (_derivedCols == null) return _hs;
+      DHistogram[] hs = _hs.clone();
+      for (int c : _derivedCols) hs[c] = null;
+      return hs;
+    }
+
+    /**
+     * Fill the derived histograms once the sibling's histograms are built, and release the parent's histograms.
+     * @param hs histograms of this node as built by the last pass (derived columns are null)
+     * @param siblingHs histograms of the sibling node as built by the last pass
+     */
+    public void deriveHistograms(DHistogram[] hs, DHistogram[] siblingHs) {
+      if (_derivedCols == null) return;
+      for (int c : _derivedCols) {
+        assert hs[c] == null;
+        _hs[c].initAsDifference(_parentHs[c], siblingHs[c]);
+        hs[c] = _hs[c];
+      }
+      _parentHs = null;
+      _derivedCols = null;
+    }
+
     // Make the parent of this Node use UNINTIALIZED NIDs for its children to prevent the split that this
     // node otherwise induces.  Happens if we find out too-late that we have a
     // perfect prediction here, and we want to turn into a leaf.
@@ -553,6 +623,12 @@ public class DTree extends Iced {
         // Assign a new (yet undecided) node to each child, and connect this (the parent) decided node and the newly made histograms to it
         _nids[way] = nhists == null ? ScoreBuildHistogram.UNDECIDED_CHILD_NODE_ID : makeUndecidedNode(nhists,ncs)._nid;
       }
+      if (_tree._parms._histogram_subtraction && _nids[0] != ScoreBuildHistogram.UNDECIDED_CHILD_NODE_ID
+              && _nids[1] != ScoreBuildHistogram.UNDECIDED_CHILD_NODE_ID) {
+        // Build histograms of the smaller child only, the larger child gets parent minus sibling
+        int big = _split._n0 >= _split._n1 ? 0 : 1;
+        _tree.undecided(_nids[big]).deriveFrom(hs, _tree.undecided(_nids[1 - big]));
+      }
     }
 
     public int getChildNodeID(Chunk [] chks, int row ) {
@@ -56,6 +56,12 @@ import java.util.concurrent.atomic.AtomicInteger;
  *
  *    exp(nthreads-pre-column) = max(1,H2O.NUMCPUS - num_cols)
  *
+ * Pre-binned columns:
+ *
+ * Columns can come with a companion column holding the index of the global quantile bin of each row (see
+ * SharedTreeParameters._prebin_features). Histograms with bins taken from the global quantiles are then filled from
+ * the (1-2 byte) bin indices, instead of reading the raw doubles and searching for the bin of each row.
+ *
  */
 public class ScoreBuildHistogram2 extends ScoreBuildHistogram {
   transient int []   _cids;
@@ -68,11 +74,13 @@ public class ScoreBuildHistogram2 extends ScoreBuildHistogram {
   final int _numLeafs;
   final IcedBitSet _activeCols;
   final int _respIdx;
+  final int[] _binnedIdxs; // per column: index of the pre-binned column in the frame, -1 if not pre-binned; null if none
 
-  public ScoreBuildHistogram2(H2O.H2OCountedCompleter cc, int k, int ncols, int nbins, int nbins_cats, DTree tree, int leaf, DHistogram[][] hcs, DistributionFamily family, int respIdx, int weightIdx, int workIdx, int nidIdxs) {
+  public ScoreBuildHistogram2(H2O.H2OCountedCompleter cc, int k, int ncols, int nbins, int nbins_cats, DTree tree, int leaf, DHistogram[][] hcs, DistributionFamily family, int respIdx, int weightIdx, int workIdx, int nidIdxs, int[] binnedIdxs) {
     super(cc, k, ncols, nbins, nbins_cats, tree, leaf, hcs, family, weightIdx, workIdx, nidIdxs);
     _numLeafs = _hcs.length;
     _respIdx = respIdx;
+    _binnedIdxs = binnedIdxs;
 
     int hcslen = _hcs.length;
     IcedBitSet activeCols = new IcedBitSet(ncols);
@@ -299,17 +307,20 @@ public class ScoreBuildHistogram2 extends ScoreBuildHistogram {
     protected void map(int id){
       double [] cs = null;
       double [] resp = null;
+      int [] bins = null;
       for(int i = _cidx.getAndIncrement(); i < _cids.length; i = _cidx.getAndIncrement()) {
         if (cs == null) {
           cs = MemoryManager.malloc8d(_maxChunkSz);
           if (_respIdx >= 0)
           resp = MemoryManager.malloc8d(_maxChunkSz);
+          if (_binnedIdxs != null && _binnedIdxs[_col] >= 0)
+            bins = MemoryManager.malloc4(_maxChunkSz);
         }
-        computeChunk(i, cs, _ws[i], resp);
+        computeChunk(i, cs, _ws[i], resp, bins);
       }
     }
 
-    private void computeChunk(int id, double[] cs, double[] ws, double[] resp){
+    private void computeChunk(int id, double[] cs, double[] ws, double[] resp, int[] bins){
       int [] nh = _nhs[id];
       int [] rs = _rss[id];
       Chunk resChk = _chks[id][_workIdx];
@@ -317,7 +328,7 @@ public class ScoreBuildHistogram2 extends ScoreBuildHistogram {
       double [] ys = ScoreBuildHistogram2.this._ys[id];
       if(_weightIdx != -1) _chks[id][_weightIdx].getDoubles(ws, 0, len);
       final int hcslen = _lh.length;
-      boolean extracted = false;
+      boolean extracted = false, extractedBins = false, extractedResp = false;
       for (int n = 0; n < hcslen; n++) {
         int sCols[] = _tree.undecided(n + _leaf)._scoreCols; // Columns to score (null, or a list of selected cols)
         if (sCols == null || ArrayUtils.find(sCols, _col) >= 0) {
@@ -326,11 +337,20 @@ public class ScoreBuildHistogram2 extends ScoreBuildHistogram {
           int lo = (n == 0 ? 0 : nh[n - 1]);
           if (hi == lo || h == null) continue; // Ignore untracked columns in this split
           if (h._vals == null) h.init();
+          if (h._vals_dim == 6 && ! extractedResp) {
+            _chks[id][_respIdx].getDoubles(resp, 0, len);
+            extractedResp = true;
+          }
+          if (bins != null && h.isPrebinned()) {
+            if (! extractedBins) {
+              _chks[id][_binnedIdxs[_col]].getIntegers(bins, 0, len, -1);
+              extractedBins = true;
+            }
+            h.updateHistoPrebinned(ws, resp, _chks[id][_col], bins, ys, rs, hi, lo);
+            continue;
+          }
           if (! extracted) {
             _chks[id][_col].getDoubles(cs, 0, len);
-            if (h._vals_dim == 6) {
-              _chks[id][_respIdx].getDoubles(resp, 0, len);
-            }
             extracted = true;
           }
           h.updateHisto(ws, resp, cs, ys, rs, hi, lo);
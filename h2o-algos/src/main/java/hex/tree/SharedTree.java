@@ -17,6 +17,7 @@ import water.exceptions.H2OIllegalArgumentException;
 import water.exceptions.H2OModelBuilderIllegalArgumentException;
 import water.fvec.Chunk;
 import water.fvec.Frame;
+import water.fvec.NewChunk;
 import water.fvec.Vec;
 import water.udf.CFuncRef;
 import water.util.*;
@@ -72,6 +73,12 @@ public abstract class SharedTree<M extends SharedTreeModel<M,P,O>, P extends Sha
   protected transient Frame _trainPredsCache;
   protected transient Frame _validPredsCache;
 
+  // Global quantile bin index of each row, per predictor column (null if the column is not pre-binned)
+  protected transient Vec[] _binnedVecs;
+
+  // Row weights of the current tree, per class, used instead of the observation weights to build the histograms
+  protected transient Vec[] _sampleWeights;
+
   public boolean isSupervised(){return true;}
 
   @Override public boolean haveMojo() { return true; }
@@ -148,6 +155,9 @@ public abstract class SharedTree<M extends SharedTreeModel<M,P,O>, P extends Sha
     if (_parms._nbins_cats >= 1<<16) error ("_nbins_cats", "nbins_cats must be < " + (1<<16));
     if (_parms._nbins_top_level < _parms._nbins) error ("_nbins_top_level", "nbins_top_level must be >= nbins (" + _parms._nbins + ").");
     if (_parms._nbins_top_level >= 1<<16) error ("_nbins_top_level", "nbins_top_level must be < " + (1<<16));
+    if (_parms._prebin_features && _parms._histogram_type != SharedTreeModel.SharedTreeParameters.HistogramType.QuantilesGlobal
+            && _parms._histogram_type != SharedTreeModel.SharedTreeParameters.HistogramType.RoundRobin)
+      error("_prebin_features", "prebin_features requires histogram_type QuantilesGlobal (or RoundRobin).");
     if (_parms._max_depth <= 0) error ("_max_depth", "_max_depth must be > 0.");
     if (_parms._min_rows <=0) error ("_min_rows", "_min_rows must be > 0.");
     if (_parms._r2_stopping!=Double.MAX_VALUE) warn("_r2_stopping", "_r2_stopping is no longer supported - please use stopping_rounds, stopping_metric and stopping_tolerance instead.");
@@ -314,6 +324,8 @@ public abstract class SharedTree<M extends SharedTreeModel<M,P,O>, P extends Sha
           }
           qm.delete();
           DKV.remove(rndKey);
+          if (_parms._prebin_features)
+            _binnedVecs = prebin(splitPoints, keys);
         }
 
         // Also add to the basic working Frame these sets:
@@ -374,9 +386,53 @@ public abstract class SharedTree<M extends SharedTreeModel<M,P,O>, P extends Sha
           _trainPredsCache.remove();
           _trainPredsCache = null;
         }
+        if (_binnedVecs != null) {
+          for (Vec v : _binnedVecs) if (v != null) v.remove();
+          _binnedVecs = null;
+        }
+        if (_sampleWeights != null) {
+          for (Vec v : _sampleWeights) v.remove();
+          _sampleWeights = null;
+        }
       }
     }
 
+    /**
+     * Quantize the numeric predictors once into the index of their global quantile bin, so that
+     * histograms can be built from the bin indices instead of the raw values.
+     * @param splitPoints global quantile split points per column
+     * @param keys keys of the global quantiles, null for columns not binned by quantiles
+     * @return Vecs of bin indices (NA for missing values), null for columns that are not pre-binned
+     */
+    private Vec[] prebin(final double[][] splitPoints, Key[] keys) {
+      final int[] cols = new int[_ncols];
+      int n = 0;
+      for (int i = 0; i < _ncols; ++i)
+        if (keys[i] != null && splitPoints[i] != null) cols[n++] = i;
+      Vec[] binned = new Vec[_ncols];
+      if (n == 0) return binned;
+      final int ncols = n;
+      Vec[] vecs = new Vec[ncols];
+      for (int j = 0; j < ncols; ++j) vecs[j] = _train.vec(cols[j]);
+      Vec[] res = new MRTask() {
+        @Override public void map(Chunk[] cs, NewChunk[] ncs) {
+          for (int j = 0; j < ncols; ++j) {
+            double[] pts = splitPoints[cols[j]];
+            for (int r = 0; r < cs[j]._len; ++r) {
+              double d = cs[j].atd(r);
+              if (Double.isNaN(d)) { ncs[j].addNA(); continue; }
+              int b = Arrays.binarySearch(pts, d);
+              if (b < 0) b = Math.max(0, -b - 2); // bin with the closest split point below
+              ncs[j].addNum(b, 0);
+            }
+          }
+        }
+      }.doAll(ncols, Vec.T_NUM, new Frame(vecs)).outputFrame().vecs();
+      for (int j = 0; j < ncols; ++j) binned[cols[j]] = res[j];
+      Log.info("Pre-binned " + ncols + " columns into global quantile bins.");
+      return binned;
+    }
+
     /** Vec to be used as template to create workspaces */
     private Vec templateVec() {
       return isSupervised() ? _response : _train.anyVec();
@@ -487,13 +543,24 @@ public abstract class SharedTree<M extends SharedTreeModel<M,P,O>, P extends Sha
       fr2.add(fr._names[idx_tree(k)],vecs[idx_tree(k)]);                              //tree predictions
       int workIdx = fr2.numCols(); fr2.add(fr._names[idx_work(k)],vecs[idx_work(k)]); //target value to fit (copy of actual response for DRF, residual for GBM)
       int nidIdx  = fr2.numCols(); fr2.add(fr._names[idx_nids(k)],vecs[idx_nids(k)]); //node indices for tree construction
+      if (_sampleWeights != null) { //per-tree row weights replace the observation weights in the histograms
+        weightIdx = fr2.numCols(); fr2.add("sample_weights_" + k, _sampleWeights[k]);
+      }
+      int[] binnedIdxs = null;
+      if (_binnedVecs != null) { //global quantile bins of the pre-binned columns
+        binnedIdxs = new int[_ncols];
+        for (int c = 0; c < _ncols; c++) {
+          binnedIdxs[c] = _binnedVecs[c] == null ? -1 : fr2.numCols();
+          if (_binnedVecs[c] != null) fr2.add("binned_" + fr._names[c], _binnedVecs[c]);
+        }
+      }
       if (DEV_DEBUG) {
         System.out.println("Building a layer for class " + k + ":\n" + fr2.toTwoDimTable());
       }
       // Async tree building
       // step 1: build histograms
       // step 2: split nodes
-      H2O.submitTask(sb1ts[k] = new ScoreBuildOneTree(this,k,nbins, nbins_cats, tree, leafs, hcs, fr2, build_tree_one_node, _improvPerVar, _model._parms._distribution, respIdx, weightIdx, workIdx, nidIdx));
+      H2O.submitTask(sb1ts[k] = new ScoreBuildOneTree(this,k,nbins, nbins_cats, tree, leafs, hcs, fr2, build_tree_one_node, _improvPerVar, _model._parms._distribution, respIdx, weightIdx, workIdx, nidIdx, binnedIdxs));
     }
     // Block for all K trees to complete.
     boolean did_split=false;
@@ -533,10 +600,11 @@ public abstract class SharedTree<M extends SharedTreeModel<M,P,O>, P extends Sha
     final int _weightIdx;
     final int _workIdx;
     final int _nidIdx;
+    final int[] _binnedIdxs; // indices of the pre-binned columns, null if none
 
     boolean _did_split;
 
-    ScoreBuildOneTree(SharedTree st, int k, int nbins, int nbins_cats, DTree tree, int leafs[], DHistogram hcs[][][], Frame fr2, boolean build_tree_one_node, float[] improvPerVar, DistributionFamily family, int respIdx, int weightIdx, int workIdx, int nidIdx) {
+    ScoreBuildOneTree(SharedTree st, int k, int nbins, int nbins_cats, DTree tree, int leafs[], DHistogram hcs[][][], Frame fr2, boolean build_tree_one_node, float[] improvPerVar, DistributionFamily family, int respIdx, int weightIdx, int workIdx, int nidIdx, int[] binnedIdxs) {
       _st   = st;
       _k    = k;
       _nbins= nbins;
@@ -552,6 +620,7 @@ public abstract class SharedTree<M extends SharedTreeModel<M,P,O>, P extends Sha
       _weightIdx = weightIdx;
       _workIdx = workIdx;
       _nidIdx = nidIdx;
+      _binnedIdxs = binnedIdxs;
     }
     @Override public void compute2() {
       // Fuse 2 conceptual passes into one:
@@ -563,12 +632,17 @@ public abstract class SharedTree<M extends SharedTreeModel<M,P,O>, P extends Sha
       // got assigned into.  Collect counts, mean, variance, min, max per bin,
       // per column.
 //      new ScoreBuildHistogram(this,_k, _st._ncols, _nbins, _nbins_cats, _tree, _leafOffsets[_k], _hcs[_k], _family, _weightIdx, _workIdx, _nidIdx).dfork2(null,_fr2,_build_tree_one_node);
-      new ScoreBuildHistogram2(this,_k, _st._ncols, _nbins, _nbins_cats, _tree, _leafOffsets[_k], _hcs[_k], _family, _respIdx, _weightIdx, _workIdx, _nidIdx).dfork2(null,_fr2,_build_tree_one_node);
+      new ScoreBuildHistogram2(this,_k, _st._ncols, _nbins, _nbins_cats, _tree, _leafOffsets[_k], _hcs[_k], _family, _respIdx, _weightIdx, _workIdx, _nidIdx, _binnedIdxs).dfork2(null,_fr2,_build_tree_one_node);
     }
     @Override public void onCompletion(CountedCompleter caller) {
       ScoreBuildHistogram sbh = (ScoreBuildHistogram) caller;
       final int leafOffset = _leafOffsets[_k];
       int tmax = _tree.len();   // Number of total splits in tree K
+      for (int leaf = leafOffset; leaf < tmax; leaf++) { // Histogram subtraction: fill the histograms not built by the last pass
+        DTree.UndecidedNode udn = _tree.undecided(leaf);
+        if (udn._derivedCols != null)
+          udn.deriveHistograms(sbh._hcs[leaf - leafOffset], sbh._hcs[udn._siblingNid - leafOffset]);
+      }
       for (int leaf = leafOffset; leaf < tmax; leaf++) { // Visit all the new splits (leaves)
         DTree.UndecidedNode udn = _tree.undecided(leaf);
 //        System.out.println((_st._nclass==1?"Regression":("Class "+_st._response.domain()[_k]))+",\n  Undecided node:"+udn);
@@ -588,7 +662,7 @@ public abstract class SharedTree<M extends SharedTreeModel<M,P,O>, P extends Sha
       int new_leafs = _tree.len() - tmax; //new_leafs can be 0 if no actual splits were made
       _hcs[_k] = new DHistogram[new_leafs][/*ncol*/];
       for (int nl = tmax; nl < _tree.len(); nl++)
-        _hcs[_k][nl - tmax] = _tree.undecided(nl)._hs;
+        _hcs[_k][nl - tmax] = _tree.undecided(nl).histogramsToBuild();
 //      if (_did_split && new_leafs > 0) _tree._depth++;
       if (_did_split) _tree._depth++; //
     }
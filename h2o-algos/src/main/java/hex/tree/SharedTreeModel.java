@@ -61,6 +61,12 @@ public abstract class SharedTreeModel<
     public enum HistogramType { AUTO, UniformAdaptive, Random, QuantilesGlobal, RoundRobin }
     public HistogramType _histogram_type = HistogramType.AUTO; // What type of histogram to use for finding optimal split points
 
+    public boolean _histogram_subtraction = false; // Children keep the parent's bins, the larger child's histograms are parent minus sibling
+
+    public boolean _keep_parent_bins = false; // Children keep the parent's bins, without subtraction (implied by _histogram_subtraction)
+
+    public boolean _prebin_features = false; // Quantize numeric predictors once into global quantile bins, build histograms from bin indices
+
     public double _r2_stopping = Double.MAX_VALUE; // Stop when the r^2 metric equals or exceeds this value
 
     public int _nbins_top_level = 1<<10; //hardcoded maximum top-level number of bins for real-valued columns
@@ -435,7 +441,14 @@ public abstract class SharedTreeModel<
 
   protected double[] score0(double[] data, double[] preds, double offset, int ntrees) {
     Arrays.fill(preds,0);
-    return score0(data, preds, offset, 0, ntrees);
+    score0(data, preds, offset, 0, ntrees);
+    return unifyPreds(data, preds, offset, ntrees);
+  }
+
+  /** Turns the sums of the tree predictions of the first 'ntrees' trees into
+   *  the final prediction (before the supervised post-processing).  */
+  protected double[] unifyPreds(double[] data, double[] preds, double offset, int ntrees) {
+    return preds;
   }
 
   protected double[] score0(double[] data, double[] preds, double offset, int startTree, int ntrees) {
@@ -458,6 +471,88 @@ public abstract class SharedTreeModel<
     }
   }
 
+  @Override
+  protected BigScorePredict setupBigScorePredict(BigScore bs) {
+    return new TreeBigScorePredict();
+  }
+
+  /** Scores chunks by blocks of {@link SharedTreeMojoModel#BATCH_ROWS} rows:
+   *  each tree is run over the whole block before moving on to the next one,
+   *  keeping the tree in cache.  Gives the same predictions as scoring row by
+   *  row. */
+  private class TreeBigScorePredict implements BigScorePredict {
+    private final CompressedTree[][] _trees;
+
+    TreeBigScorePredict() {
+      Key[][] keys = _output._treeKeys;
+      _trees = new CompressedTree[keys.length][];
+      for (int tidx = 0; tidx < keys.length; tidx++) {
+        _trees[tidx] = new CompressedTree[keys[tidx].length];
+        for (int c = 0; c < keys[tidx].length; c++)
+          if (keys[tidx][c] != null)
+            _trees[tidx][c] = DKV.get(keys[tidx][c]).get();
+      }
+    }
+
+    @Override
+    public BigScoreChunkPredict initMap(Frame fr, Chunk[] chks) {
+      return new TreeBigScoreChunkPredict(_trees);
+    }
+  }
+
+  private class TreeBigScoreChunkPredict implements BigScoreChunkPredict {
+    private final CompressedTree[][] _trees;
+    private double[][] _rows;   // Rows of the current block
+    private double[][] _sums;   // Sums of the tree predictions for the current block
+    private int _from, _to;     // Current block of rows
+
+    TreeBigScoreChunkPredict(CompressedTree[][] trees) {
+      _trees = trees;
+    }
+
+    @Override
+    public double[] score0(Chunk[] chks, double offset, int row_in_chunk, double[] tmp, double[] preds) {
+      if (_rows == null || row_in_chunk < _from || row_in_chunk >= _to)
+        scoreBlock(chks, row_in_chunk, tmp.length, preds.length);
+      int r = row_in_chunk - _from;
+      System.arraycopy(_rows[r], 0, tmp, 0, tmp.length);
+      System.arraycopy(_sums[r], 0, preds, 0, preds.length);
+      double[] scored = unifyPreds(tmp, preds, offset, _trees.length);
+      if (needsPostProcess() && isSupervised())
+        score0PostProcessSupervised(scored, tmp);
+      return scored;
+    }
+
+    private void scoreBlock(Chunk[] chks, int from, int ncols, int npreds) {
+      if (_rows == null) {
+        _rows = new double[SharedTreeMojoModel.BATCH_ROWS][ncols];
+        _sums = new double[SharedTreeMojoModel.BATCH_ROWS][npreds];
+      }
+      _from = from;
+      _to = Math.min(chks[0]._len, from + SharedTreeMojoModel.BATCH_ROWS);
+      int n = _to - _from;
+      for (int c = 0; c < ncols; c++)
+        for (int r = 0; r < n; r++)
+          _rows[r][c] = chks[c].atd(_from + r);
+      for (int r = 0; r < n; r++)
+        Arrays.fill(_sums[r], 0);
+      // Trees in the same order as score0 adds them up, rows innermost
+      for (CompressedTree[] trees : _trees) {
+        for (int c = 0; c < trees.length; c++) {
+          if (trees[c] == null) continue;
+          int k = trees.length == 1 ? 0 : c + 1;
+          for (int r = 0; r < n; r++)
+            _sums[r][k] += trees[c].score(_rows[r], _output._domains);
+        }
+      }
+    }
+
+    @Override
+    public void close() {
+      // nothing to do
+    }
+  }
+
   /** Performs deep clone of given model.  */
   protected M deepClone(Key<M> result) {
     M newModel = IcedUtils.deepCopy(self());
@@ -151,6 +151,16 @@ public class GBM extends SharedTree<GBMModel,GBMModel.GBMParameters,GBMModel.GBM
       error("_max_abs_leafnode_pred", "max_abs_leafnode_pred must be larger than 0.");
     if (_parms._pred_noise_bandwidth < 0)
       error("_pred_noise_bandwidth", "pred_noise_bandwidth must be >= 0.");
+    if (_parms._goss) {
+      if (_parms._sample_rate < 1 || _parms._sample_rate_per_class != null)
+        error("_goss", "goss cannot be combined with sample_rate or sample_rate_per_class.");
+      if (!(0. < _parms._goss_top_rate && _parms._goss_top_rate < 1.0))
+        error("_goss_top_rate", "goss_top_rate must be between 0 and 1");
+      if (!(0. < _parms._goss_other_rate && _parms._goss_other_rate <= 1.0))
+        error("_goss_other_rate", "goss_other_rate must be between 0 and 1");
+      if (_parms._goss_top_rate + _parms._goss_other_rate > 1.0)
+        error("_goss_other_rate", "goss_top_rate + goss_other_rate must not exceed 1");
+    }
 
     if ((_train != null) && (_parms._monotone_constraints != null)) {
       TreeUtils.checkMonotoneConstraints(this, _train, _parms._monotone_constraints);
@@ -192,6 +202,9 @@ public class GBM extends SharedTree<GBMModel,GBMModel.GBMParameters,GBMModel.GBM
       }
       _model._output._init_f = _initialPrediction; //always write the initial value here (not just for Bernoulli)
 
+      if (_parms._goss)
+        _sampleWeights = _response.makeVolatileDoubles(_nclass);
+
       // Set the initial prediction into the tree column 0
       if (_initialPrediction != 0.0) {
         new FillVecWithConstant(_initialPrediction)
@@ -362,7 +375,7 @@ public class GBM extends SharedTree<GBMModel,GBMModel.GBMParameters,GBMModel.GBM
       // ----
       // ESL2, page 387.  Step 2b iii.  Compute the gammas (leaf node predictions === fit best constant), and store them back
       // into the tree leaves.  Includes learn_rate.
-      GammaPass gp = new GammaPass(frameMap, ktrees, leaves, DistributionFactory.getDistribution(_parms), _nclass);
+      GammaPass gp = new GammaPass(frameMap, ktrees, leaves, DistributionFactory.getDistribution(_parms), _nclass, _parms._goss);
       gp.doAll(_train);
       if (_parms._distribution == DistributionFamily.laplace) {
         fitBestConstantsQuantile(ktrees, leaves[0], 0.5); //special case for Laplace: compute the median for each leaf node and store that as prediction
@@ -418,6 +431,37 @@ public class GBM extends SharedTree<GBMModel,GBMModel.GBMParameters,GBMModel.GBM
       return _nclass == 2 ? 1 : _nclass; // Boolean Optimization (only one tree needed for 2-class problems)
     }
 
+    /**
+     * GOSS - keep the rows with the largest gradients, sample the rest and record the compensating
+     * row weights in the sample weights Vecs
+     */
+    private void gossSample(DTree[] ktrees, long seed) {
+      boolean hasWeights = hasWeightCol();
+      GossSample.GradientBuckets gbs[] = new GossSample.GradientBuckets[_nclass];
+      for (int k = 0; k < _nclass; k++)
+        if (ktrees[k] != null)
+          gbs[k] = new GossSample.GradientBuckets(hasWeights).dfork(null, gossFrame(k, false), _parms._build_tree_one_node);
+      GossSample ss[] = new GossSample[_nclass];
+      for (int k = 0; k < _nclass; k++)
+        if (gbs[k] != null)
+          ss[k] = GossSample.make(seed, gbs[k].getResult()._counts, _parms._goss_top_rate, _parms._goss_other_rate, hasWeights)
+                  .dfork(null, gossFrame(k, true), _parms._build_tree_one_node);
+      for (int k = 0; k < _nclass; k++) {
+        if (ss[k] != null) {
+          ss[k].getResult();
+          if (DEV_DEBUG) {
+            System.out.println("GOSS sampled OOB rows (rest rate " + ss[k]._restRate + "). NIDS:\n" + new Frame(vec_nids(_train, k)).toTwoDimTable());
+          }
+        }
+      }
+    }
+
+    private Frame gossFrame(int k, boolean sample) {
+      Frame fr = sample ? new Frame(vec_nids(_train, k), vec_work(_train, k), _response, _sampleWeights[k]) : new Frame(vec_work(_train, k), _response);
+      if (hasWeightCol()) fr.add(_parms._weights_column, _weights);
+      return fr;
+    }
+
     /**
      * Grow k regression trees (k=1 for regression and binomial, k=N for classification with N classes)
      * @param ktrees k trees to grow (must be properly initialized)
@@ -444,7 +488,9 @@ public class GBM extends SharedTree<GBMModel,GBMModel.GBMParameters,GBMModel.GBM
       }
 
       // Sample - mark the lines by putting 'OUT_OF_BAG' into nid(<klass>) vector
-      if (_parms._sample_rate < 1 || _parms._sample_rate_per_class != null) {
+      if (_parms._goss) {
+        gossSample(ktrees, rseed);
+      } else if (_parms._sample_rate < 1 || _parms._sample_rate_per_class != null) {
         Sample ss[] = new Sample[_nclass];
         for (int k = 0; k < _nclass; k++)
           if (ktrees[k] != null)
@@ -1030,15 +1076,17 @@ public class GBM extends SharedTree<GBMModel,GBMModel.GBMParameters,GBMModel.GBM
     private final int[] _leafs;  // Starting index of leaves (per class-tree)
     private final Distribution _dist;
     private final int _nclass;
+    private final boolean _fitOOBRows; // GOSS: rows left out of the sample still fit the leaves
     private double[/*tree/klass*/][/*tree-relative node-id*/] _num;
     private double[/*tree/klass*/][/*tree-relative node-id*/] _denom;
 
-    public GammaPass(FrameMap frameMap, DTree[] trees, int[] leafs, Distribution distribution, int nClasses) {
+    public GammaPass(FrameMap frameMap, DTree[] trees, int[] leafs, Distribution distribution, int nClasses, boolean fitOOBRows) {
       fm = frameMap;
       _leafs = leafs;
       _trees = trees;
       _dist = distribution;
       _nclass = nClasses;
+      _fitOOBRows = fitOOBRows;
     }
 
     double gamma(int tree, int nid) {
@@ -1116,9 +1164,10 @@ public class GBM extends SharedTree<GBMModel,GBMModel.GBMParameters,GBMModel.GBM
           nids_vals[row] = leafnid;
           assert !ress.isNA(row);
 
-          // OOB rows get placed properly (above), but they don't affect the computed Gamma (below)
+          // OOB rows get placed properly (above), but they don't affect the computed Gamma (below), except for GOSS:
+          // its sample only serves to find the splits
           // For Laplace/Quantile distribution, we need to compute the median of (y-offset-preds == y-f), will be done outside of here
-          if (wasOOBRow
+          if ((wasOOBRow && !_fitOOBRows)
               || _dist.distribution == DistributionFamily.laplace
               || _dist.distribution == DistributionFamily.huber
               || _dist.distribution == DistributionFamily.quantile) continue;
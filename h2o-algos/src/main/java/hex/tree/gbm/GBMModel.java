@@ -32,6 +32,9 @@ public class GBMModel extends SharedTreeModel<GBMModel, GBMModel.GBMParameters,
     public double _max_abs_leafnode_pred;
     public double _pred_noise_bandwidth;
     public KeyValue[] _monotone_constraints;
+    public boolean _goss;
+    public double _goss_top_rate;
+    public double _goss_other_rate;
 
     public GBMParameters() {
       super();
@@ -43,6 +46,9 @@ public class GBMModel extends SharedTreeModel<GBMModel, GBMModel.GBMParameters,
       _max_depth = 5;
       _max_abs_leafnode_pred = Double.MAX_VALUE;
       _pred_noise_bandwidth =0;
+      _goss = false;
+      _goss_top_rate = 0.2;
+      _goss_other_rate = 0.1;
     }
 
     public String algoName() { return "GBM"; }
@@ -262,12 +268,10 @@ public class GBMModel extends SharedTreeModel<GBMModel, GBMModel.GBMParameters,
     return preds;
   }
 
-  /** Bulk scoring API for one row.  Chunks are all compatible with the model,
-   *  and expect the last Chunks are for the final distribution and prediction.
-   *  Default method is to just load the data into the tmp array, then call
-   *  subclass scoring logic. */
-  @Override protected double[] score0(double data[/*ncols*/], double preds[/*nclasses+1*/], double offset, int ntrees) {
-    super.score0(data, preds, offset, ntrees);    // These are f_k(x) in Algorithm 10.4
+  /** Turns the summed tree predictions into class probabilities, or the
+   *  response for regression. */
+  @Override protected double[] unifyPreds(double data[/*ncols*/], double preds[/*nclasses+1*/], double offset, int ntrees) {
+    // preds hold f_k(x) of Algorithm 10.4
     return score0Probabilities(preds, offset);
   }
 
@@ -0,0 +1,120 @@
+package hex.tree.gbm;
+
+import hex.tree.ScoreBuildHistogram;
+import water.MRTask;
+import water.fvec.C4VolatileChunk;
+import water.fvec.C8DVolatileChunk;
+import water.fvec.Chunk;
+import water.util.ArrayUtils;
+import water.util.RandomUtils;
+
+import java.util.Random;
+
+/**
+ * Gradient-based One-Side Sampling (GOSS, as in LightGBM).
+ *
+ * Keeps all rows with the largest absolute (weighted) gradients, and a random sample of the other rows, whose
+ * weights are scaled up by the inverse of the sampling rate to keep the histograms unbiased.  Rows not sampled
+ * are flagged OUT_OF_BAG in the NIDs, the same way as {@link hex.tree.Sample} does it.  The sample only serves to
+ * find the splits: GBM fits the leaf values on all rows.
+ *
+ * Rows are ranked by buckets of the logarithm of their absolute gradient (8 buckets per power of 2), counted by
+ * {@link GradientBuckets} in a single pass.  The top rows are all rows in the highest buckets that hold at least
+ * top_rate of the rows.
+ *
+ * Input frame: NIDs, work (gradients), response, sample weights (output), [observation weights]
+ */
+class GossSample extends MRTask<GossSample> {
+  static final int NBUCKETS = 1 + 128 * 8;
+
+  final long _seed;
+  final int _topBucket;     // Rows in this or a higher bucket are all kept
+  final double _restRate;   // Sampling rate of the other rows
+  final boolean _hasWeights;
+
+  private GossSample(long seed, int topBucket, double restRate, boolean hasWeights) {
+    _seed = seed;
+    _topBucket = topBucket;
+    _restRate = restRate;
+    _hasWeights = hasWeights;
+  }
+
+  /**
+   * @param counts number of rows per gradient bucket
+   * @param topRate fraction of rows with the largest gradients to keep
+   * @param otherRate fraction of rows to sample from the rest (relative to all rows)
+   */
+  static GossSample make(long seed, long[] counts, double topRate, double otherRate, boolean hasWeights) {
+    long n = ArrayUtils.sum(counts);
+    long top = 0;
+    int b = counts.length;
+    while (b > 0 && top < topRate * n)
+      top += counts[--b];
+    long rest = n - top;
+    double restRate = rest == 0 ? 1 : Math.min(1, otherRate * n / rest);
+    return new GossSample(seed, b, restRate, hasWeights);
+  }
+
+  static int bucket(double g) {
+    if (!(g > 0)) return 0;
+    int e = Math.max(-64, Math.min(63, Math.getExponent(g))) + 64;
+    int m = (int) ((Double.doubleToRawLongBits(g) >>> 49) & 7); // top 3 bits of the mantissa
+    return 1 + e * 8 + m;
+  }
+
+  @Override
+  public void map(Chunk[] cs) {
+    C4VolatileChunk nids = (C4VolatileChunk) cs[0];
+    Chunk work = cs[1];
+    Chunk ys = cs[2];
+    double[] sw = ((C8DVolatileChunk) cs[3]).getValues();
+    Chunk weights = _hasWeights ? cs[4] : null;
+    Random rand = RandomUtils.getRNG(_seed);
+    int[] is = nids.getValues();
+    double amp = 1 / _restRate;
+    for (int row = 0; row < nids._len; row++) {
+      double w = weights == null ? 1 : weights.atd(row);
+      if (ys.isNA(row) || w == 0) { // Not counted by GradientBuckets either
+        is[row] = ScoreBuildHistogram.OUT_OF_BAG;
+        continue;
+      }
+      if (bucket(Math.abs(work.atd(row)) * w) >= _topBucket) {
+        sw[row] = w;
+        continue;
+      }
+      rand.setSeed(_seed + row + nids.start()); //seeding is independent of chunking
+      if (rand.nextFloat() < _restRate) sw[row] = w * amp;
+      else is[row] = ScoreBuildHistogram.OUT_OF_BAG;     // Flag row as being ignored by sampling
+    }
+  }
+
+  /**
+   * Counts rows per bucket of absolute (weighted) gradients.
+   * Input frame: work (gradients), response, [observation weights]
+   */
+  static class GradientBuckets extends MRTask<GradientBuckets> {
+    final boolean _hasWeights;
+    long[] _counts;
+
+    GradientBuckets(boolean hasWeights) { _hasWeights = hasWeights; }
+
+    @Override
+    public void map(Chunk[] cs) {
+      Chunk work = cs[0];
+      Chunk ys = cs[1];
+      Chunk weights = _hasWeights ? cs[2] : null;
+      _counts = new long[NBUCKETS];
+      for (int row = 0; row < work._len; row++) {
+        if (ys.isNA(row)) continue;
+        double w = weights == null ? 1 : weights.atd(row);
+        if (w == 0) continue;
+        _counts[bucket(Math.abs(work.atd(row)) * w)]++;
+      }
+    }
+
+    @Override
+    public void reduce(GradientBuckets mrt) {
+      ArrayUtils.add(_counts, mrt._counts);
+    }
+  }
+}
@@ -471,6 +471,70 @@ public class StackedEnsembleTest extends TestUtil {
       }
     }
 
+    @Test
+    public void test_SE_fused_scoring_matches_levelone_scoring() {
+      List<Lockable> deletables = new ArrayList<>();
+      boolean fused = StackedEnsembleModel.FUSED_SCORING;
+      try {
+        final int seed = 62832;
+        final Frame fr = parse_test_file("./smalldata/logreg/prostate_train.csv"); deletables.add(fr);
+        final Frame test = parse_test_file("./smalldata/logreg/prostate_test.csv"); deletables.add(test);
+
+        final String target = "CAPSULE";
+        int tidx = fr.find(target);
+        fr.replace(tidx, fr.vec(tidx).toCategoricalVec()).remove(); DKV.put(fr);
+        test.replace(tidx, test.vec(tidx).toCategoricalVec()).remove(); DKV.put(test);
+
+        SplitFrame sf = new SplitFrame(fr, new double[] { 0.7, 0.3 }, null);
+        sf.exec().get();
+        Key<Frame>[] ksplits = sf._destination_frames;
+        final Frame train = ksplits[0].get(); deletables.add(train);
+        final Frame blending = ksplits[1].get(); deletables.add(blending);
+
+        GBMModel.GBMParameters gbmParams = new GBMModel.GBMParameters();
+        gbmParams._train = train._key;
+        gbmParams._response_column = target;
+        gbmParams._ntrees = 5;
+        gbmParams._seed = seed;
+        GBMModel gbm = new GBM(gbmParams).trainModel().get(); deletables.add(gbm);
+
+        GLMModel.GLMParameters glmParams = new GLMModel.GLMParameters();
+        glmParams._train = train._key;
+        glmParams._response_column = target;
+        glmParams._family = GLMModel.GLMParameters.Family.binomial;
+        glmParams._seed = seed;
+        GLMModel glm = new GLM(glmParams).trainModel().get(); deletables.add(glm);
+
+        for (Algorithm algo : new Algorithm[]{Algorithm.AUTO, Algorithm.gbm}) {
+          StackedEnsembleParameters seParams = new StackedEnsembleParameters();
+          seParams._train = train._key;
+          seParams._blending = blending._key;
+          seParams._response_column = target;
+          seParams._base_models = new Key[]{gbm._key, glm._key};
+          seParams._metalearner_algorithm = algo;
+          seParams._seed = seed;
+          StackedEnsembleModel se = new StackedEnsemble(seParams).trainModel().get(); deletables.add(se);
+
+          StackedEnsembleModel.FUSED_SCORING = false;
+          Frame expected = se.score(test); deletables.add(expected);
+          ModelMetrics expectedMetrics = ModelMetrics.getFromDKV(se, test);
+          StackedEnsembleModel.FUSED_SCORING = true;
+          Frame actual = se.score(test); deletables.add(actual);
+          ModelMetrics actualMetrics = ModelMetrics.getFromDKV(se, test);
+
+          assertFrameEquals(expected, actual, 1e-10);
+          Assert.assertEquals(expectedMetrics.mse(), actualMetrics.mse(), 1e-10);
+          Assert.assertEquals(expectedMetrics.auc_obj()._auc, actualMetrics.auc_obj()._auc, 1e-10);
+        }
+      } finally {
+        StackedEnsembleModel.FUSED_SCORING = fused;
+        for (Lockable l: deletables) {
+          if (l instanceof Model) ((Model)l).deleteCrossValidationPreds();
+          l.delete();
+        }
+      }
+    }
+
     @Test
     public void test_SE_with_GLM_can_do_predictions_on_frames_with_unseen_categorical_values() {
       // test for PUBDEV-6266
@@ -9,6 +9,7 @@ import hex.glm.GLMModel.GLMParameters.Link;
 import hex.glm.GLMModel.GLMParameters.Solver;
 import hex.glm.GLMModel.GLMWeightsFun;
 import hex.glm.GLMTask.*;
+import hex.gram.Gram;
 import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.Ignore;
@@ -1051,6 +1052,98 @@ public class GLMTest  extends TestUtil {
     f.delete();
   }
 
+  /**
+   * Test the gram accumulated in blocks of rows matches the gram accumulated row by row
+   */
+  @Test
+  public void testBlockedGramComputation() {
+    Random rnd = new Random(987654321l);
+    int nrows = 1000; // not a multiple of the row block
+    int nnums = 45;   // not a multiple of the tile size
+    String[] dom = new String[]{"a", "b", "c", "d", "e", "f", "g"};
+    Vec.VectorGroup vg_1 = Vec.VectorGroup.VG_LEN1;
+    Vec[] vecs = new Vec[2 + nnums];
+    for (int c = 0; c < 2; ++c) {
+      long[] cs = MemoryManager.malloc8(nrows);
+      for (int i = 0; i < nrows; ++i) cs[i] = rnd.nextInt(dom.length);
+      vecs[c] = Vec.makeVec(cs, dom, vg_1.addVec());
+    }
+    for (int c = 2; c < vecs.length; ++c) {
+      double[] ds = MemoryManager.malloc8d(nrows);
+      for (int i = 0; i < nrows; ++i) ds[i] = c % 3 == 0 && rnd.nextInt(4) > 0 ? 0 : rnd.nextGaussian();
+      vecs[c] = Vec.makeVec(ds, vg_1.addVec());
+    }
+    Frame f = new Frame(Key.<Frame>make("TestBlockedGram"), null, vecs);
+    DKV.put(f);
+    DataInfo dinfo = new DataInfo(f, null, 0, true, DataInfo.TransformType.STANDARDIZE, DataInfo.TransformType.NONE, true, false, false, false, false, false);
+    try {
+      assertTrue(dinfo.numNums() >= Gram.MIN_BLOCKED_DENSE_N);
+      Chunk[] chks = new Chunk[dinfo._adaptedFrame.numCols()];
+      for (int c = 0; c < chks.length; ++c)
+        chks[c] = dinfo._adaptedFrame.vec(c).chunkForChunkIdx(0);
+      Gram rowByRow = new Gram(dinfo);
+      Gram blocked = new Gram(dinfo);
+      DataInfo.Row r = dinfo.newDenseRow();
+      for (int i = 0; i < nrows; ++i) {
+        dinfo.extractDenseRow(chks, i, r);
+        double w = rnd.nextDouble();
+        rowByRow.addRow(r, w);
+        blocked.addRowBlocked(r, w);
+      }
+      blocked.flushRowBlock();
+      for (int i = 0; i < rowByRow.fullN(); ++i)
+        for (int j = 0; j <= i; ++j)
+          assertEquals(rowByRow.get(i, j), blocked.get(i, j), 1e-10 * Math.max(1, Math.abs(rowByRow.get(i, j))));
+    } finally {
+      dinfo.remove();
+      f.delete();
+    }
+  }
+
+
+  /**
+   * Test the tiled parallel Cholesky decomposition and the blocked solves on a gram large enough to use them
+   */
+  @Test
+  public void testParallelCholesky() {
+    Random rnd = new Random(1234567l);
+    final int diagN = 100;
+    final int N = 2200; // dense part is above the parallel solve threshold
+    final Gram gram = new Gram(N, diagN, N - diagN, 0, false);
+    for (int i = 0; i < diagN; ++i)
+      gram._diag[i] = N + 1;
+    for (int i = 0; i < gram._xx.length; ++i) {
+      double[] row = gram._xx[i];
+      for (int j = 0; j < row.length - 1; ++j)
+        row[j] = 2 * rnd.nextDouble() - 1;
+      row[row.length - 1] = N + 1; // diagonally dominant => SPD
+    }
+    final double[] b = new double[N];
+    for (int i = 0; i < N; ++i)
+      b[i] = rnd.nextGaussian();
+    final double[] xParallel = b.clone();
+    final Gram.Cholesky[] chols = new Gram.Cholesky[2];
+    H2O.submitTask(new H2OCountedCompleter() {
+      @Override
+      public void compute2() {
+        chols[0] = gram.cholesky(null, true, null);
+        chols[1] = gram.cholesky(null, false, null);
+        if (chols[0].isSPD())
+          chols[0].solve(xParallel);
+        tryComplete();
+      }
+    }).join();
+    assertTrue(chols[0].isSPD());
+    assertTrue(chols[1].isSPD());
+    double[] xSerial = b.clone();
+    chols[1].solve(xSerial); // not on a F/J thread => serial solve
+    double[] ax = gram.mul(xParallel);
+    for (int i = 0; i < N; ++i) {
+      assertEquals(b[i], ax[i], 1e-8);
+      assertEquals(xSerial[i], xParallel[i], 1e-12);
+    }
+  }
+
 
   @Test @Ignore public void testConstantColumns(){
     GLMModel model1 = null, model2 = null, model3 = null, model4 = null;
@@ -122,6 +122,73 @@ public class KMeansTest extends TestUtil {
     }
   }
 
+  // Skipping distance computations with bounds must not change the model
+  @Test public void testTriangleInequality() {
+    Frame fr = null;
+    try {
+      fr = parse_test_file("smalldata/iris/iris_wheader.csv");
+      for (boolean estimateK : new boolean[]{false, true}) {
+        KMeansModel kmm = null, kmm2 = null;
+        try {
+          KMeansModel.KMeansParameters parms = new KMeansModel.KMeansParameters();
+          parms._train = fr._key;
+          parms._k = 12;
+          parms._init = KMeans.Initialization.PlusPlus;
+          parms._max_iterations = 50;
+          parms._estimate_k = estimateK;
+          kmm = doSeed(parms, 42);
+          parms._triangle_inequality = true;
+          kmm2 = doSeed(parms, 42);
+
+          assertArrayEquals(kmm._output._k, kmm2._output._k);
+          assertEquals(kmm._output._iterations, kmm2._output._iterations);
+          assertArrayEquals(kmm._output._size, kmm2._output._size);
+          assertArrayEquals(kmm._output._withinss, kmm2._output._withinss, 0);
+          assertArrayEquals(kmm._output._reassigned_count, kmm2._output._reassigned_count, 0);
+          for (int i = 0; i < kmm._output._centers_raw.length; i++)
+            assertArrayEquals(kmm._output._centers_raw[i], kmm2._output._centers_raw[i], 0);
+        } finally {
+          if( kmm  != null ) kmm.delete();
+          if( kmm2 != null ) kmm2.delete();
+        }
+      }
+    } finally {
+      if( fr  != null ) fr.delete();
+    }
+  }
+
+  @Test public void testMiniBatch() {
+    Frame fr = null;
+    KMeansModel kmm = null, kmm2 = null;
+    try {
+      fr = parse_test_file("smalldata/iris/iris_wheader.csv");
+      KMeansModel.KMeansParameters parms = new KMeansModel.KMeansParameters();
+      parms._train = fr._key;
+      parms._k = 3;
+      parms._init = KMeans.Initialization.PlusPlus;
+      parms._max_iterations = 100;
+      long start = System.currentTimeMillis();
+      kmm = doSeed(parms, 42);
+      long lloyds = System.currentTimeMillis() - start;
+
+      parms._mini_batch = true;
+      parms._mini_batch_size = 50;
+      start = System.currentTimeMillis();
+      kmm2 = doSeed(parms, 42);
+      long miniBatch = System.currentTimeMillis() - start;
+
+      Log.info("Lloyds: tot_withinss " + kmm._output._tot_withinss + " in " + lloyds + "ms; mini-batch: tot_withinss " +
+              kmm2._output._tot_withinss + " in " + miniBatch + "ms");
+      assertEquals(1, kmm2._output._iterations);
+      assertEquals(150, ArrayUtils.sum(kmm2._output._size));
+      assertTrue(kmm2._output._tot_withinss <= 1.1 * kmm._output._tot_withinss);
+    } finally {
+      if( fr  != null ) fr.delete();
+      if( kmm  != null ) kmm.delete();
+      if( kmm2 != null ) kmm2.delete();
+    }
+  }
+
   @Test public void testWeatherAutoK() {
     KMeansModel kmm = null;
     KMeansModel kmm2 = null;
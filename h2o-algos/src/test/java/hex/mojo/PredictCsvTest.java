@@ -14,6 +14,9 @@ import org.junit.rules.TemporaryFolder;
 import water.Scope;
 import water.TestUtil;
 import water.fvec.Frame;
+import water.fvec.TestFrameBuilder;
+import water.fvec.Vec;
+import water.util.ArrayUtils;
 import water.util.FileUtils;
 
 
@@ -21,6 +24,7 @@ import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.PrintStream;
+import java.nio.file.Files;
 import java.security.Permission;
 
 import static org.junit.Assert.*;
@@ -101,6 +105,66 @@ public class PredictCsvTest {
   }
 
 
+  @Test
+  public void testParallelScoring() throws IOException {
+    try {
+      Scope.enter();
+      int n = 2345;
+      java.util.Random r = new java.util.Random(42);
+      String[] cat = new String[n], y = new String[n];
+      double[] num = new double[n];
+      for (int i = 0; i < n; i++) {
+        cat[i] = "c" + r.nextInt(5);
+        num[i] = r.nextGaussian();
+        y[i] = num[i] + r.nextGaussian() > 0 ? "yes" : "no";
+      }
+      Frame train = Scope.track(new TestFrameBuilder()
+              .withName("predictCsvTrain")
+              .withColNames("cat", "num", "y")
+              .withVecTypes(Vec.T_CAT, Vec.T_NUM, Vec.T_CAT)
+              .withDataForCol(0, cat)
+              .withDataForCol(1, num)
+              .withDataForCol(2, y)
+              .build());
+
+      GBMModel.GBMParameters p = new GBMModel.GBMParameters();
+      p._train = train._key;
+      p._seed = 0xC0DE;
+      p._response_column = "y";
+      p._ntrees = 5;
+
+      GBMModel model = (GBMModel) Scope.track_generic(new GBM(p).trainModel().get());
+      final File modelFile = folder.newFile();
+      model.exportMojo(modelFile.getAbsolutePath(), true);
+
+      final File inputFile = folder.newFile();
+      try (PrintStream input = new PrintStream(inputFile)) {
+        input.println("cat,num");
+        for (int i = 0; i < n; i++)
+          input.println((i % 100 == 0 ? "NA" : cat[i]) + "," + num[i]);
+      }
+      String[] outputs = new String[2];
+      String[][] options = new String[][]{{}, {"--threads", "4", "--batch-size", "100"}};
+      for (int i = 0; i < options.length; i++) {
+        final File outputFile = folder.newFile();
+        String[] args = ArrayUtils.append(new String[]{"--mojo", modelFile.getAbsolutePath(),
+                "--input", inputFile.getAbsolutePath(),
+                "--output", outputFile.getAbsolutePath()}, options[i]);
+        try {
+          PredictCsv.main(args);
+          fail("Expected PredictCSV to exit");
+        } catch (PreventedExitException e) {
+          assertEquals(0, e.status); // PredictCsv is expected to finish without errors
+        }
+        outputs[i] = new String(Files.readAllBytes(outputFile.toPath()));
+      }
+      assertEquals(n + 1, outputs[0].split("\n").length);
+      assertEquals(outputs[0], outputs[1]);
+    } finally {
+      Scope.exit();
+    }
+  }
+
   protected static class PreventedExitException extends SecurityException {
     public final int status;
 
@@ -5,14 +5,19 @@ import hex.genmodel.algos.tree.SharedTreeGraph;
 import hex.genmodel.algos.tree.SharedTreeMojoModel;
 import hex.genmodel.algos.tree.SharedTreeNode;
 import hex.genmodel.algos.tree.SharedTreeSubgraph;
+import hex.tree.drf.DRF;
+import hex.tree.drf.DRFModel;
 import hex.tree.gbm.GBM;
 import hex.tree.gbm.GBMModel;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import water.DKV;
+import water.Key;
 import water.Scope;
 import water.TestUtil;
+import water.fvec.Chunk;
 import water.fvec.Frame;
+import water.fvec.TestFrameBuilder;
 import water.fvec.Vec;
 
 import java.io.IOException;
@@ -90,6 +95,121 @@ public class CompressedTreeTest extends TestUtil  {
     }
   }
 
+  @Test
+  public void testFlatTreeScoring() {
+    try {
+      Scope.enter();
+      int n = 2000;
+      java.util.Random r = new java.util.Random(7);
+      String[] cat = new String[n], few = new String[n];
+      double[] num = new double[n], y = new double[n];
+      for (int i = 0; i < n; i++) {
+        int level = r.nextInt(100);  // Wide enough for big bitset splits
+        cat[i] = i % 50 == 0 ? null : "c" + level;
+        few[i] = "f" + r.nextInt(3);
+        num[i] = i % 40 == 0 ? Double.NaN : r.nextGaussian();
+        y[i] = (level % 7) + (num[i] > 0 ? 2 : 0) + r.nextDouble();
+      }
+      Frame f = new TestFrameBuilder()
+              .withName("flatTreeFrame")
+              .withColNames("cat", "few", "num", "y")
+              .withVecTypes(Vec.T_CAT, Vec.T_CAT, Vec.T_NUM, Vec.T_NUM)
+              .withDataForCol(0, cat)
+              .withDataForCol(1, few)
+              .withDataForCol(2, num)
+              .withDataForCol(3, y)
+              .build();
+      Scope.track(f);
+      GBMModel.GBMParameters gbmParams = new GBMModel.GBMParameters();
+      gbmParams._seed = 42;
+      gbmParams._train = f._key;
+      gbmParams._response_column = "y";
+      gbmParams._ntrees = 10;
+      gbmParams._max_depth = 6;
+      GBMModel model = (GBMModel) Scope.track_generic(new GBM(gbmParams).trainModel().get());
+
+      String[][] domains = model._output._domains;
+      double[] row = new double[3];
+      for (int i = 0; i < 1000; i++) {
+        row[0] = r.nextInt(20) == 0 ? Double.NaN : r.nextInt(domains[0].length + 5) - 1; // Unseen levels too
+        row[1] = r.nextInt(20) == 0 ? Double.NaN : r.nextInt(4);
+        row[2] = r.nextInt(20) == 0 ? Double.NaN : r.nextGaussian();
+        for (Key<CompressedTree>[] keys : model._output._treeKeys) {
+          CompressedTree tree = keys[0].get();
+          assertEquals(SharedTreeMojoModel.scoreTree(tree._bits, row, false, domains), tree.score(row, domains), 0);
+        }
+      }
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  // In-cluster scoring runs the trees over blocks of rows; it must give the
+  // same predictions as scoring the rows one by one
+  @Test
+  public void testBlockScoring() {
+    try {
+      Scope.enter();
+      int n = 3000;
+      java.util.Random r = new java.util.Random(11);
+      String[] cat = new String[n], y = new String[n];
+      double[] num = new double[n], w = new double[n];
+      for (int i = 0; i < n; i++) {
+        int level = r.nextInt(10);
+        cat[i] = i % 30 == 0 ? null : "c" + level;
+        num[i] = i % 25 == 0 ? Double.NaN : r.nextGaussian();
+        y[i] = "y" + ((level + (num[i] > 0 ? 1 : 0) + r.nextInt(2)) % 3);
+        w[i] = i % 100 == 0 ? 0 : 1;
+      }
+      Frame f = new TestFrameBuilder()
+              .withName("blockScoringFrame")
+              .withColNames("cat", "num", "w", "y")
+              .withVecTypes(Vec.T_CAT, Vec.T_NUM, Vec.T_NUM, Vec.T_CAT)
+              .withDataForCol(0, cat)
+              .withDataForCol(1, num)
+              .withDataForCol(2, w)
+              .withDataForCol(3, y)
+              .withChunkLayout(1000, 700, 1300) // Full and partial blocks
+              .build();
+      Scope.track(f);
+      GBMModel.GBMParameters gbmParams = new GBMModel.GBMParameters();
+      gbmParams._seed = 42;
+      gbmParams._train = f._key;
+      gbmParams._response_column = "y";
+      gbmParams._weights_column = "w";
+      gbmParams._ntrees = 10;
+      DRFModel.DRFParameters drfParams = new DRFModel.DRFParameters();
+      drfParams._seed = 42;
+      drfParams._train = f._key;
+      drfParams._response_column = "y";
+      drfParams._ntrees = 10;
+      SharedTreeModel[] models = new SharedTreeModel[]{
+              (SharedTreeModel) Scope.track_generic(new GBM(gbmParams).trainModel().get()),
+              (SharedTreeModel) Scope.track_generic(new DRF(drfParams).trainModel().get())
+      };
+      for (SharedTreeModel model : models) {
+        assertArrayEquals(new String[]{"cat", "num"}, java.util.Arrays.copyOf(model._output._names, 2));
+        Frame preds = Scope.track(model.score(f));
+        double[] tmp = new double[model._output.nfeatures()];
+        double[] rowPreds = new double[preds.numCols()];
+        Vec[] vecs = f.vecs();
+        for (int cidx = 0; cidx < f.anyVec().nChunks(); cidx++) {
+          Chunk[] chks = new Chunk[vecs.length];
+          for (int c = 0; c < vecs.length; c++) chks[c] = vecs[c].chunkForChunkIdx(cidx);
+          for (int row = 0; row < chks[0]._len; row++) {
+            long grow = chks[0].start() + row;
+            if (model._parms._weights_column != null && w[(int) grow] == 0) continue; // Not scored
+            model.score0(chks, 0, row, tmp, rowPreds);
+            for (int c = 0; c < rowPreds.length; c++)
+              assertEquals("row " + grow, rowPreds[c], preds.vec(c).at(grow), 0);
+          }
+        }
+      }
+    } finally {
+      Scope.exit();
+    }
+  }
+
   @Test
   public void testMakeTreeKey() {
     try {
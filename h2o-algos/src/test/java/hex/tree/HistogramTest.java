@@ -1,9 +1,15 @@
 package hex.tree;
 
+import hex.genmodel.algos.tree.SharedTreeSubgraph;
+import hex.tree.drf.DRF;
+import hex.tree.drf.DRFModel;
 import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import water.*;
+import water.fvec.Chunk;
+import water.fvec.Frame;
+import water.fvec.NewChunk;
 import water.util.*;
 
 import java.util.Arrays;
@@ -313,4 +319,140 @@ public class HistogramTest extends TestUtil {
       Log.info("N=" + N + " Sum:" + sum + " Time: " + PrettyPrint.msecs(done - start, true));
     }
   }
+  @Test public void testSubtraction() {
+    Random rng = RandomUtils.getRNG(0xCAFE);
+    final int N = 10000;
+    double[] cs = new double[N];
+    double[] ys = new double[N];
+    double[] ws = new double[N];
+    int[] rows = new int[N];
+    int[] left = new int[N];
+    int[] right = new int[N];
+    int nl = 0, nr = 0;
+    for (int i = 0; i < N; ++i) {
+      cs[i] = i % 50 == 0 ? Double.NaN : rng.nextDouble() * 10;
+      ys[i] = rng.nextGaussian();
+      ws[i] = i % 7 == 0 ? 0 : 1 + rng.nextInt(3);
+      rows[i] = i;
+      if (rng.nextDouble() < 0.3) left[nl++] = i;
+      else right[nr++] = i;
+    }
+    DHistogram parent = new DHistogram("x", 20, 20, (byte) 0, 0, 10, 0, SharedTreeModel.SharedTreeParameters.HistogramType.UniformAdaptive, 1234, null, null);
+    parent.init();
+    parent.updateHisto(ws, null, cs, ys, rows, N, 0);
+    parent.reducePrecision();
+    DHistogram small = DHistogram.makeWithSameBins(parent, null);
+    small.init();
+    small.updateHisto(ws, null, cs, ys, left, nl, 0);
+    small.reducePrecision();
+    DHistogram built = DHistogram.makeWithSameBins(parent, null);
+    built.init();
+    built.updateHisto(ws, null, cs, ys, right, nr, 0);
+    built.reducePrecision();
+    DHistogram derived = DHistogram.makeWithSameBins(parent, null);
+    derived.initAsDifference(parent, small);
+    Assert.assertEquals(built.nbins(), derived.nbins());
+    for (int b = 0; b < built.nbins(); ++b) {
+      Assert.assertEquals(built.w(b), derived.w(b), 1e-10);
+      Assert.assertEquals(built.wY(b), derived.wY(b), 1e-5 * Math.max(1, Math.abs(parent.wY(b))));
+      Assert.assertEquals(built.wYY(b), derived.wYY(b), 1e-5 * Math.max(1, parent.wYY(b)));
+    }
+    Assert.assertEquals(built.wNA(), derived.wNA(), 1e-10);
+    Assert.assertEquals(built.wYNA(), derived.wYNA(), 1e-8);
+    Assert.assertEquals(built.wYYNA(), derived.wYYNA(), 1e-8);
+  }
+  @Test public void testSubtractionDuringTraining() {
+    Scope.enter();
+    try {
+      // integer response: all histogram sums are exact, derived histograms must then match the built ones exactly
+      Frame tfr = Scope.track(parse_test_file("smalldata/logreg/prostate.csv"));
+      DRFModel[] models = new DRFModel[2];
+      for (int i = 0; i < models.length; i++) {
+        DRFModel.DRFParameters parms = new DRFModel.DRFParameters();
+        parms._train = tfr._key;
+        parms._response_column = "AGE";
+        parms._ignored_columns = new String[]{"ID"};
+        parms._ntrees = 5;
+        parms._max_depth = 8;
+        parms._seed = 0xDECAFFEE;
+        parms._keep_parent_bins = i == 0;
+        parms._histogram_subtraction = i == 1;
+        models[i] = new DRF(parms).trainModel().get();
+        Scope.track_generic(models[i]);
+      }
+      Assert.assertEquals(models[0]._output._ntrees, models[1]._output._ntrees);
+      for (int i = 0; i < models[0]._output._ntrees; i++) {
+        SharedTreeSubgraph built = models[0]._output._treeKeys[i][0].get().toSharedTreeSubgraph(
+                models[0]._output._treeKeysAux[i][0].get(), models[0]._output._names, models[0]._output._domains);
+        SharedTreeSubgraph derived = models[1]._output._treeKeys[i][0].get().toSharedTreeSubgraph(
+                models[1]._output._treeKeysAux[i][0].get(), models[1]._output._names, models[1]._output._domains);
+        Assert.assertTrue(built.nodesArray.size() > 1);
+        Assert.assertEquals("tree " + i, built, derived);
+      }
+    } finally {
+      Scope.exit();
+    }
+  }
+  @Test public void testPrebinned() {
+    double[] globalPts = new double[100];
+    for (int i = 0; i < globalPts.length; ++i)
+      globalPts[i] = i * i / 1000.0;
+    Key k = Key.make();
+    DKV.put(new DHistogram.HistoQuantiles(k, globalPts));
+    try {
+      Random rng = RandomUtils.getRNG(0xBEEF);
+      final int N = 10000;
+      final double min = 2.05, maxEx = 7.5;
+      double[] cs = new double[N];
+      double[] ys = new double[N];
+      double[] ws = new double[N];
+      int[] bins = new int[N];
+      int[] rows = new int[N];
+      double actualMin = Double.MAX_VALUE, actualMax = -Double.MAX_VALUE;
+      for (int i = 0; i < N; ++i) {
+        cs[i] = i % 50 == 0 ? Double.NaN : min + rng.nextDouble() * (maxEx - min) * 0.99;
+        ys[i] = rng.nextGaussian();
+        ws[i] = 1;
+        rows[i] = i;
+        if (Double.isNaN(cs[i])) {
+          bins[i] = -1;
+        } else {
+          int b = Arrays.binarySearch(globalPts, cs[i]);
+          bins[i] = b < 0 ? -b - 2 : b;
+          actualMin = Math.min(actualMin, cs[i]);
+          actualMax = Math.max(actualMax, cs[i]);
+        }
+      }
+      DHistogram raw = new DHistogram("x", 20, 20, (byte) 0, min, maxEx, 0, SharedTreeModel.SharedTreeParameters.HistogramType.QuantilesGlobal, 1234, k, null);
+      raw._prebinned = true;
+      raw.init();
+      Assert.assertTrue(raw.isPrebinned());
+      raw.updateHisto(ws, null, cs, ys, rows, N, 0);
+      DHistogram prebinned = new DHistogram("x", 20, 20, (byte) 0, min, maxEx, 0, SharedTreeModel.SharedTreeParameters.HistogramType.QuantilesGlobal, 1234, k, null);
+      prebinned._prebinned = true;
+      prebinned.init();
+      Chunk col = new NewChunk(cs).compress();
+      prebinned.updateHistoPrebinned(ws, null, col, bins, ys, rows, N, 0);
+      Assert.assertEquals(raw.nbins(), prebinned.nbins());
+      for (int b = 0; b < raw.nbins(); ++b) {
+        Assert.assertEquals(raw.w(b), prebinned.w(b), 0);
+        Assert.assertEquals(raw.wY(b), prebinned.wY(b), 0);
+        Assert.assertEquals(raw.wYY(b), prebinned.wYY(b), 0);
+      }
+      Assert.assertEquals(raw.wNA(), prebinned.wNA(), 0);
+      Assert.assertEquals(actualMin, prebinned.find_min(), 0);
+      Assert.assertEquals(actualMax, prebinned.find_maxIn(), 0);
+      Assert.assertEquals(raw.find_min(), prebinned.find_min(), 0);
+      Assert.assertEquals(raw.find_maxIn(), prebinned.find_maxIn(), 0);
+
+      // fewer global split points than bins: padded like any other histogram, and filled from the raw values
+      DHistogram padded = new DHistogram("x", 100, 20, (byte) 0, min, maxEx, 0, SharedTreeModel.SharedTreeParameters.HistogramType.QuantilesGlobal, 1234, k, null);
+      padded._prebinned = true;
+      padded.init();
+      Assert.assertEquals(100, padded.nbins());
+      Assert.assertFalse(padded.isPrebinned());
+    } finally {
+      k.remove();
+    }
+  }
 }
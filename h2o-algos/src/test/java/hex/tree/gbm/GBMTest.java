@@ -11,6 +11,7 @@ import hex.genmodel.easy.exception.PredictException;
 import hex.genmodel.easy.prediction.BinomialModelPrediction;
 import hex.genmodel.easy.prediction.MultinomialModelPrediction;
 import hex.genmodel.utils.DistributionFamily;
+import hex.tree.CompressedTree;
 import hex.tree.Constraints;
 import hex.tree.SharedTreeModel;
 import org.junit.*;
@@ -2191,6 +2192,146 @@ public class GBMTest extends TestUtil {
     }
   }
 
+  @Test public void prebinFeatures() {
+    Scope.enter();
+    try {
+      Frame tfr = Scope.track(parse_test_file("smalldata/covtype/covtype.20k.data"));
+      int resp = 54;
+      Scope.track(tfr.replace(resp, tfr.vecs()[resp].toCategoricalVec()));
+      DKV.put(tfr);
+      GBMModel[] models = new GBMModel[2];
+      for (int i = 0; i < 2; ++i) {
+        GBMModel.GBMParameters parms = makeGBMParameters();
+        parms._train = tfr._key;
+        parms._response_column = tfr.names()[resp];
+        parms._histogram_type = SharedTreeModel.SharedTreeParameters.HistogramType.QuantilesGlobal;
+        parms._prebin_features = i == 1;
+        parms._nbins_top_level = 256;
+        parms._ntrees = 5;
+        parms._max_depth = 8;
+        parms._seed = 0xDECAFFEE;
+        models[i] = new GBM(parms).trainModel().get();
+        Scope.track_generic(models[i]);
+      }
+      // histograms filled from the bin indices are the same as the ones filled from the raw values
+      assertSameTrees(models[0], models[1]);
+      assertEquals(models[0]._output._training_metrics.mse(), models[1]._output._training_metrics.mse(), 0);
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  private static void assertSameTrees(GBMModel expected, GBMModel actual) {
+    assertEquals(expected._output._ntrees, actual._output._ntrees);
+    for (int i = 0; i < expected._output._ntrees; i++) {
+      for (int k = 0; k < expected._output._treeKeys[i].length; k++) {
+        Key<CompressedTree> ek = expected._output._treeKeys[i][k];
+        Key<CompressedTree> ak = actual._output._treeKeys[i][k];
+        if (ek == null) {
+          assertNull(ak);
+          continue;
+        }
+        SharedTreeSubgraph e = ek.get().toSharedTreeSubgraph(expected._output._treeKeysAux[i][k].get(),
+                expected._output._names, expected._output._domains);
+        SharedTreeSubgraph a = ak.get().toSharedTreeSubgraph(actual._output._treeKeysAux[i][k].get(),
+                actual._output._names, actual._output._domains);
+        assertEquals("tree " + i + ", class " + k, e, a);
+      }
+    }
+  }
+
+  @Test public void goss() {
+    Scope.enter();
+    try {
+      Frame tfr = Scope.track(parse_test_file("smalldata/covtype/covtype.20k.data"));
+      int resp = 54;
+      Scope.track(tfr.replace(resp, tfr.vecs()[resp].toCategoricalVec()));
+      DKV.put(tfr);
+      GBMModel[] models = new GBMModel[2];
+      for (int i = 0; i < 2; ++i) {
+        GBMModel.GBMParameters parms = makeGBMParameters();
+        parms._train = tfr._key;
+        parms._response_column = tfr.names()[resp];
+        if (i == 1) {
+          parms._goss = true;
+          parms._goss_top_rate = 0.5;
+          parms._goss_other_rate = 0.5;
+        }
+        parms._ntrees = 5;
+        parms._max_depth = 8;
+        parms._seed = 0xDECAFFEE;
+        models[i] = new GBM(parms).trainModel().get();
+        Scope.track_generic(models[i]);
+      }
+      // the rest is sampled at rate 1, all rows are kept with their weight: same trees as without sampling
+      assertSameTrees(models[0], models[1]);
+
+      GBMModel.GBMParameters parms = makeGBMParameters();
+      parms._train = tfr._key;
+      parms._response_column = tfr.names()[resp];
+      parms._goss = true;
+      parms._sample_rate = 0.5;
+      assertTrue(new GBM(parms).error_count() > 0);
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  @Test public void gossLeafValues() {
+    Scope.enter();
+    try {
+      final int n = 5000;
+      double[] x1 = new double[n];
+      double[] x2 = new double[n];
+      double[] y = new double[n];
+      Random r = new Random(0xC0FFEE);
+      for (int i = 0; i < n; i++) {
+        x1[i] = r.nextDouble();
+        x2[i] = r.nextDouble();
+        y[i] = 3 * x1[i] + Math.sin(6 * x2[i]) + r.nextGaussian();
+      }
+      Frame fr = Scope.track(new TestFrameBuilder()
+              .withName("gossLeafValues")
+              .withColNames("x1", "x2", "y")
+              .withVecTypes(Vec.T_NUM, Vec.T_NUM, Vec.T_NUM)
+              .withDataForCol(0, x1)
+              .withDataForCol(1, x2)
+              .withDataForCol(2, y)
+              .build());
+      GBMModel.GBMParameters parms = makeGBMParameters();
+      parms._train = fr._key;
+      parms._response_column = "y";
+      parms._distribution = gaussian;
+      parms._ntrees = 1;
+      parms._max_depth = 3;
+      parms._learn_rate = 1;
+      parms._goss = true;
+      parms._goss_top_rate = 0.2;
+      parms._goss_other_rate = 0.1; // the rest is sampled at a rate well below 1
+      parms._seed = 0xDECAFFEE;
+      GBMModel gbm = new GBM(parms).trainModel().get();
+      Scope.track_generic(gbm);
+
+      // With a single tree and no shrinkage, each leaf predicts the mean response of all its rows, not of the
+      // rows sampled to build the tree
+      Vec preds = Scope.track(gbm.score(fr)).vec(0);
+      Map<Double, double[]> leaves = new HashMap<>();
+      for (int i = 0; i < n; i++) {
+        double[] sum = leaves.get(preds.at(i));
+        if (sum == null) leaves.put(preds.at(i), sum = new double[2]);
+        sum[0] += y[i];
+        sum[1]++;
+      }
+      assertTrue(leaves.size() > 1);
+      for (Map.Entry<Double, double[]> leaf : leaves.entrySet()) {
+        double mean = leaf.getValue()[0] / leaf.getValue()[1];
+        assertEquals(mean, leaf.getKey(), 1e-5 * Math.max(1, Math.abs(mean)));
+      }
+    } finally {
+      Scope.exit();
+    }
+  }
+
   @Test public void sampleRatePerClass() {
     Frame tfr = null;
     Key[] ksplits = null;
@@ -0,0 +1,139 @@
+package hex.tree.gbm;
+
+import hex.tree.ScoreBuildHistogram;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.Scope;
+import water.TestUtil;
+import water.fvec.*;
+import water.util.ArrayUtils;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class GossSampleTest extends TestUtil {
+
+  @BeforeClass() public static void setup() {
+    stall_till_cloudsize(1);
+  }
+
+  @Test
+  public void bucket() {
+    assertEquals(0, GossSample.bucket(0));
+    assertEquals(0, GossSample.bucket(-1));
+    assertEquals(0, GossSample.bucket(Double.NaN));
+    assertTrue(GossSample.bucket(Double.MAX_VALUE) < GossSample.NBUCKETS);
+    assertTrue(GossSample.bucket(Double.MIN_VALUE) > 0);
+    assertTrue(GossSample.bucket(1.2) > GossSample.bucket(1));
+    assertTrue(GossSample.bucket(2) > GossSample.bucket(1.9));
+    double[] gs = new double[10000];
+    Random r = new Random(42);
+    for (int i = 0; i < gs.length; i++)
+      gs[i] = Math.abs(r.nextGaussian()) * Math.pow(10, r.nextInt(20) - 10);
+    Arrays.sort(gs);
+    for (int i = 1; i < gs.length; i++)
+      assertTrue(GossSample.bucket(gs[i - 1]) <= GossSample.bucket(gs[i]));
+  }
+
+  @Test
+  public void make() {
+    long[] counts = new long[]{5, 0, 10, 20, 65};
+    GossSample ss = GossSample.make(0, counts, 0.2, 0.1, false);
+    assertEquals(4, ss._topBucket);
+    assertEquals(0.1 * 100 / 35, ss._restRate, 1e-12);
+
+    ss = GossSample.make(0, counts, 0.7, 0.1, false);
+    assertEquals(3, ss._topBucket);
+    assertEquals(0.1 * 100 / 15, ss._restRate, 1e-12);
+
+    ss = GossSample.make(0, counts, 0.7, 0.5, false);
+    assertEquals(1, ss._restRate, 0);
+
+    ss = GossSample.make(0, counts, 1, 0.1, false);
+    assertEquals(0, ss._topBucket);
+    assertEquals(1, ss._restRate, 0);
+  }
+
+  @Test
+  public void sample() {
+    final double topRate = 0.2;
+    final double otherRate = 0.1;
+    final int n = 20000;
+    double[] g = new double[n];
+    double[] y = new double[n];
+    double[] w = new double[n];
+    Random r = new Random(0xDECAF);
+    for (int i = 0; i < n; i++) {
+      g[i] = r.nextGaussian();
+      y[i] = i % 17 == 0 ? Double.NaN : 1;
+      w[i] = i % 10 == 0 ? 0 : 1 + i % 3;
+    }
+    try {
+      Scope.enter();
+      Frame fr = new TestFrameBuilder()
+              .withColNames("g", "y", "w")
+              .withVecTypes(Vec.T_NUM, Vec.T_NUM, Vec.T_NUM)
+              .withDataForCol(0, g)
+              .withDataForCol(1, y)
+              .withDataForCol(2, w)
+              .withChunkLayout(5000, 5000, 3000, 7000)
+              .build();
+      Scope.track(fr);
+      Vec nids = Scope.track(fr.anyVec().makeVolatileInts(new int[]{0})[0]);
+      Vec sw = Scope.track(fr.anyVec().makeVolatileDoubles(1)[0]);
+
+      long[] counts = new GossSample.GradientBuckets(true).doAll(fr)._counts;
+      GossSample ss = GossSample.make(42, counts, topRate, otherRate, true);
+      ss.doAll(new Frame(nids, fr.vec("g"), fr.vec("y"), sw, fr.vec("w")));
+
+      // Absolute weighted gradients of the rows eligible for sampling
+      double[] ranked = new double[n];
+      int valid = 0;
+      for (int i = 0; i < n; i++)
+        if (!Double.isNaN(y[i]) && w[i] != 0)
+          ranked[valid++] = Math.abs(g[i]) * w[i];
+      assertEquals(valid, ArrayUtils.sum(counts));
+      ranked = Arrays.copyOf(ranked, valid);
+      Arrays.sort(ranked);
+      double topThreshold = ranked[valid - (int) Math.ceil(topRate * valid)];
+
+      int[] nid = new int[n];
+      double[] sws = new double[n];
+      for (int c = 0; c < nids.nChunks(); c++) {
+        Chunk nc = nids.chunkForChunkIdx(c);
+        int start = (int) nc.start();
+        System.arraycopy(((C4VolatileChunk) nc).getValues(), 0, nid, start, nc._len);
+        System.arraycopy(((C8DVolatileChunk) sw.chunkForChunkIdx(c)).getValues(), 0, sws, start, nc._len);
+      }
+
+      int kept = 0, top = 0;
+      for (int i = 0; i < n; i++) {
+        double gw = Math.abs(g[i]) * w[i];
+        if (Double.isNaN(y[i]) || w[i] == 0) {
+          assertEquals("row " + i, ScoreBuildHistogram.OUT_OF_BAG, nid[i]);
+          continue;
+        }
+        if (gw >= topThreshold) {
+          assertEquals("top-gradient row " + i + " not kept", 0, nid[i]);
+          assertEquals("top-gradient row " + i, w[i], sws[i], 0);
+        }
+        if (nid[i] == ScoreBuildHistogram.OUT_OF_BAG) continue;
+        kept++;
+        if (GossSample.bucket(gw) >= ss._topBucket) {
+          top++;
+          assertEquals(w[i], sws[i], 0);
+        } else {
+          assertEquals("sampled row " + i, w[i] / ss._restRate, sws[i], 1e-12);
+        }
+      }
+      assertTrue(top >= topRate * valid);
+      assertEquals(otherRate * valid / (valid - top), ss._restRate, 1e-12);
+      assertEquals(topRate + otherRate, (double) kept / valid, 0.03);
+    } finally {
+      Scope.exit();
+    }
+  }
+
+}
@@ -9,6 +9,7 @@ import water.rapids.Rapids;
 import water.rapids.Val;
 import water.rapids.ast.prims.mungers.AstGroup;
 import water.util.Log;
+import water.util.RandomUtils;
 import static ai.h2o.automl.targetencoding.TargetEncoderFrameHelper.*;
 
 import java.util.*;
@@ -662,6 +663,219 @@ public class TargetEncoder {
         }
     }
 
+    /**
+     * Applies pre-calculated encodings like {@link #applyTargetEncoding(Frame, String, Map, byte, String, boolean, double, boolean, long)}
+     * does, but without sorting and merging the dataset for each encoded column. Encoding maps have one row per level
+     * (and fold), so each of them is collected into arrays of numerators and denominators indexed by categorical level
+     * (and fold), which are sent to all the nodes; all the columns are then encoded in a single pass over the data.
+     *
+     * Unlike the merge-based method, rows keep their order and the encoded columns are appended after the original ones.
+     * Noise, if any, is drawn from a different random stream.
+     *
+     * @return copy of the `data` frame with encodings
+     */
+    public Frame applyTargetEncodingBroadcast(Frame data,
+                                              String targetColumnName,
+                                              Map<String, Frame> columnToEncodingMap,
+                                              byte dataLeakageHandlingStrategy,
+                                              String foldColumnName,
+                                              boolean withBlendedAvg,
+                                              double noiseLevel,
+                                              long seed) {
+
+        if(noiseLevel < 0 )
+            throw new IllegalStateException("`_noiseLevel` must be non-negative");
+
+        boolean kFold = dataLeakageHandlingStrategy == DataLeakageHandlingStrategy.KFold;
+        if (kFold && foldColumnName == null)
+            throw new IllegalStateException("`foldColumn` must be provided for dataLeakageHandlingStrategy = KFold");
+        if (seed == -1) seed = new Random().nextLong();
+
+        Frame dataWithAllEncodings = null;
+        try {
+          dataWithAllEncodings = data.deepCopy(Key.make().toString());
+          DKV.put(dataWithAllEncodings);
+
+          ensureTargetColumnIsBinaryCategorical(dataWithAllEncodings, targetColumnName);
+
+          int ncols = _columnNamesToEncode.length;
+          int[] teColumnIndexes = new int[ncols];
+          String[][] imputedDomains = new String[ncols][];
+          long[][] folds = kFold ? new long[ncols][] : null;
+          double[][] numerators = new double[ncols][];
+          double[][] denominators = new double[ncols][];
+          double[] priorMeans = new double[ncols];
+          String[] newEncodedColumnNames = new String[ncols];
+
+          for (int c = 0; c < ncols; c++) {
+            String teColumnName = _columnNamesToEncode[c];
+            Frame encodingMap = columnToEncodingMap.get(teColumnName);
+            if (!kFold) foldColumnIsInEncodingMapCheck(foldColumnName, encodingMap);
+
+            teColumnIndexes[c] = dataWithAllEncodings.find(teColumnName);
+            String[] domain = dataWithAllEncodings.vec(teColumnIndexes[c]).domain();
+            imputedDomains[c] = Arrays.copyOf(domain, domain.length + 1); // NAs get a new level, as in imputeNAsForColumn
+            imputedDomains[c][domain.length] = teColumnName + "_NA";
+            newEncodedColumnNames[c] = teColumnName + "_te";
+            priorMeans[c] = calculatePriorMean(encodingMap);
+            if (kFold) {
+              folds[c] = getUniqueValuesOfTheFoldColumn(encodingMap, encodingMap.find(foldColumnName));
+              Arrays.sort(folds[c]);
+            }
+            collectEncodingMap(encodingMap, teColumnName, kFold ? foldColumnName : null, imputedDomains[c],
+                    kFold ? folds[c] : null, c, numerators, denominators);
+          }
+
+          int foldColumnIndex = kFold ? dataWithAllEncodings.find(foldColumnName) : -1;
+          int targetIndex = dataLeakageHandlingStrategy == DataLeakageHandlingStrategy.LeaveOneOut ? dataWithAllEncodings.find(targetColumnName) : -1;
+          Frame encodings = new BroadcastEncodingTask(teColumnIndexes, imputedDomains, folds, numerators, denominators, priorMeans,
+                  foldColumnIndex, targetIndex, withBlendedAvg ? _blendingParams : null, noiseLevel, seed)
+                  .doAll(ncols, Vec.T_NUM, dataWithAllEncodings)
+                  .outputFrame(newEncodedColumnNames, null);
+
+          for (int c = 0; c < ncols; c++) {
+            Vec teVec = dataWithAllEncodings.vec(teColumnIndexes[c]);
+            teVec.setDomain(imputedDomains[c]);
+            DKV.put(teVec);
+          }
+          dataWithAllEncodings.add(encodings);
+          DKV.put(dataWithAllEncodings);
+          return dataWithAllEncodings;
+        } catch (Exception ex) {
+          if (dataWithAllEncodings != null) dataWithAllEncodings.delete();
+          throw ex;
+        }
+    }
+
+    /**
+     * Sums the numerators and denominators of the encoding map by level of the encoded column in the dataset (and by
+     * out-of-fold data for KFold); NaN where the encoding map has no rows, as after a merge.
+     */
+    private void collectEncodingMap(Frame encodingMap, String teColumnName, String foldColumnName, String[] domain,
+                                    long[] folds, int c, double[][] numerators, double[][] denominators) {
+      Map<String, Integer> levels = new HashMap<>();
+      for (int i = 0; i < domain.length; i++) levels.put(domain[i], i);
+
+      Vec levelVec = encodingMap.vec(teColumnName);
+      Vec foldVec = foldColumnName == null ? null : encodingMap.vec(foldColumnName);
+      Vec numeratorVec = encodingMap.vec("numerator");
+      Vec denominatorVec = encodingMap.vec("denominator");
+      String[] mapDomain = levelVec.domain();
+      int card = domain.length;
+      int nfolds = folds == null ? 1 : folds.length;
+      double[] num = new double[card], den = new double[card];               // All folds
+      double[] foldNum = new double[nfolds * card], foldDen = new double[nfolds * card];
+      for (long row = 0; row < encodingMap.numRows(); row++) {
+        if (levelVec.isNA(row)) continue;
+        Integer level = levels.get(mapDomain[(int) levelVec.at8(row)]);
+        if (level == null) continue; // Level not in the dataset
+        num[level] += numeratorVec.at(row);
+        den[level] += denominatorVec.at(row);
+        if (foldVec != null) {
+          int fold = Arrays.binarySearch(folds, foldVec.at8(row));
+          foldNum[fold * card + level] += numeratorVec.at(row);
+          foldDen[fold * card + level] += denominatorVec.at(row);
+        }
+      }
+      if (foldVec == null) {
+        for (int level = 0; level < card; level++)
+          if (den[level] == 0) num[level] = den[level] = Double.NaN;
+        numerators[c] = num;
+        denominators[c] = den;
+      } else { // Out-of-fold sums
+        for (int fold = 0; fold < nfolds; fold++)
+          for (int level = 0; level < card; level++) {
+            int i = fold * card + level;
+            foldNum[i] = num[level] - foldNum[i];
+            foldDen[i] = den[level] - foldDen[i];
+            if (foldDen[i] == 0) foldNum[i] = foldDen[i] = Double.NaN;
+          }
+        numerators[c] = foldNum;
+        denominators[c] = foldDen;
+      }
+    }
+
+    /**
+     * Encodes all the columns in one pass, looking up numerators and denominators by level (and fold) in arrays that
+     * are sent to every node with the task. NAs of the encoded columns are replaced in place with the NA level.
+     */
+    static class BroadcastEncodingTask extends MRTask<BroadcastEncodingTask> {
+      private final int[] _teColumnIndexes;
+      private final int[] _naLevels;
+      private final long[][] _folds;          // Sorted fold values of each encoding map, KFold only
+      private final double[][] _numerators;   // By [fold * cardinality +] level
+      private final double[][] _denominators;
+      private final double[] _priorMeans;
+      private final int _foldIdx;             // -1 if not KFold
+      private final int _targetIdx;           // -1 if not LeaveOneOut
+      private final BlendingParams _blendingParams; // null if not blended
+      private final double _noiseLevel;
+      private final long _seed;
+
+      BroadcastEncodingTask(int[] teColumnIndexes, String[][] imputedDomains, long[][] folds, double[][] numerators,
+                            double[][] denominators, double[] priorMeans, int foldIdx, int targetIdx,
+                            BlendingParams blendingParams, double noiseLevel, long seed) {
+        _teColumnIndexes = teColumnIndexes;
+        _naLevels = new int[imputedDomains.length];
+        for (int c = 0; c < _naLevels.length; c++) _naLevels[c] = imputedDomains[c].length - 1;
+        _folds = folds;
+        _numerators = numerators;
+        _denominators = denominators;
+        _priorMeans = priorMeans;
+        _foldIdx = foldIdx;
+        _targetIdx = targetIdx;
+        _blendingParams = blendingParams;
+        _noiseLevel = noiseLevel;
+        _seed = seed;
+      }
+
+      @Override
+      public void map(Chunk cs[], NewChunk ncs[]) {
+        Chunk fold = _foldIdx >= 0 ? cs[_foldIdx] : null;
+        Chunk target = _targetIdx >= 0 ? cs[_targetIdx] : null;
+        Random random = RandomUtils.getRNG(_seed + cs[0].start());
+        for (int c = 0; c < _teColumnIndexes.length; c++) {
+          Chunk column = cs[_teColumnIndexes[c]];
+          int card = _naLevels[c] + 1;
+          for (int i = 0; i < column._len; i++) {
+            int level;
+            if (column.isNA(i)) {
+              level = _naLevels[c];
+              column.set(i, level);
+            } else
+              level = (int) column.at8(i);
+            int idx = level;
+            if (fold != null) {
+              int f = fold.isNA(i) ? -1 : Arrays.binarySearch(_folds[c], fold.at8(i));
+              idx = f < 0 ? -1 : f * card + level;
+            }
+            double num = idx < 0 ? Double.NaN : _numerators[c][idx];
+            double den = idx < 0 ? Double.NaN : _denominators[c][idx];
+            if (target != null && !target.isNA(i)) {
+              num -= target.atd(i);
+              den -= 1;
+            }
+            double encoding;
+            if (Double.isNaN(num) || Double.isNaN(den))
+              encoding = Double.NaN;
+            else if (den == 0)
+              encoding = _priorMeans[c];
+            else if (_blendingParams != null) {
+              double lambda = 1.0 / (1 + Math.exp((_blendingParams.getK() - den) / _blendingParams.getF()));
+              encoding = lambda * (num / den) + (1 - lambda) * _priorMeans[c];
+            } else
+              encoding = num / den;
+            // Noise only goes to computed encodings, missing ones are imputed with the prior mean
+            if (Double.isNaN(encoding))
+              encoding = _priorMeans[c];
+            else if (_noiseLevel > 0)
+              encoding += random.nextDouble() * 2 * _noiseLevel - _noiseLevel;
+            ncs[c].addNum(encoding);
+          }
+        }
+      }
+    }
+
     Frame calculateEncoding(Frame preparedFrame, Frame encodingMap, String targetColumnName, String newEncodedColumnName, boolean withBlendedAvg) {
         if (withBlendedAvg) {
             return calculateAndAppendBlendedTEEncoding(preparedFrame, encodingMap, targetColumnName, newEncodedColumnName);
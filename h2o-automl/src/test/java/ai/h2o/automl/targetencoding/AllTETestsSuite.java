@@ -12,6 +12,7 @@ import org.junit.runners.Suite;
         TargetEncodingKFoldStrategyTest.class,
         TargetEncodingLeaveOneOutStrategyTest.class,
         TargetEncodingNoneStrategyTest.class,
+        TargetEncodingBroadcastTest.class,
         TargetEncodingMultiClassTargetTest.class,
         TargetEncodingTargetColumnTest.class,
         TargetEncodingExceptionsHandlingTest.class,
@@ -0,0 +1,117 @@
+package ai.h2o.automl.targetencoding;
+
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.TestUtil;
+import water.fvec.Frame;
+import water.fvec.TestFrameBuilder;
+import water.fvec.Vec;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+public class TargetEncodingBroadcastTest extends TestUtil {
+
+  @BeforeClass
+  public static void setup() {
+    stall_till_cloudsize(1);
+  }
+
+  private Frame fr = null;
+
+  private Frame makeFrame() {
+    return new TestFrameBuilder()
+            .withName("testFrame")
+            .withColNames("id", "ColA", "ColB", "ColC", "fold_column")
+            .withVecTypes(Vec.T_NUM, Vec.T_CAT, Vec.T_CAT, Vec.T_CAT, Vec.T_NUM)
+            .withDataForCol(0, ar(0, 1, 2, 3, 4, 5, 6, 7))
+            .withDataForCol(1, ar("a", "b", "b", "b", "a", null, "c", "a"))
+            .withDataForCol(2, ar("d", "e", "d", "e", "e", "d", null, "d"))
+            .withDataForCol(3, ar("2", "6", "6", "6", "6", "2", "6", "2"))
+            .withDataForCol(4, ar(1, 2, 2, 3, 2, 1, 3, 3))
+            .build();
+  }
+
+  @Test
+  public void broadcastMatchesMergeKFoldTest() {
+    checkBroadcastMatchesMerge(TargetEncoder.DataLeakageHandlingStrategy.KFold, "fold_column");
+  }
+
+  @Test
+  public void broadcastMatchesMergeLeaveOneOutTest() {
+    checkBroadcastMatchesMerge(TargetEncoder.DataLeakageHandlingStrategy.LeaveOneOut, null);
+    checkBroadcastMatchesMerge(TargetEncoder.DataLeakageHandlingStrategy.LeaveOneOut, "fold_column");
+  }
+
+  @Test
+  public void broadcastMatchesMergeNoneTest() {
+    checkBroadcastMatchesMerge(TargetEncoder.DataLeakageHandlingStrategy.None, null);
+    checkBroadcastMatchesMerge(TargetEncoder.DataLeakageHandlingStrategy.None, "fold_column");
+  }
+
+  @Test
+  public void broadcastKeepsRowOrderTest() {
+    fr = makeFrame();
+    String[] teColumns = {"ColA"};
+    TargetEncoder tec = new TargetEncoder(teColumns);
+    Map<String, Frame> targetEncodingMap = tec.prepareEncodingMap(fr, "ColC", "fold_column");
+    Frame result = tec.applyTargetEncodingBroadcast(fr, "ColC", targetEncodingMap,
+            TargetEncoder.DataLeakageHandlingStrategy.KFold, "fold_column", false, 0, 1234);
+    try {
+      assertEquals(fr.numCols() + 1, result.numCols());
+      assertEquals("ColA_te", result.name(result.numCols() - 1));
+      assertVecEquals(fr.vec("id"), result.vec("id"), 0);
+      // NAs are imputed with a new level
+      assertEquals("ColA_NA", result.vec("ColA").domain()[(int) result.vec("ColA").at8(5)]);
+    } finally {
+      result.delete();
+      encodingMapCleanUp(targetEncodingMap);
+    }
+  }
+
+  private void checkBroadcastMatchesMerge(byte strategy, String foldColumnName) {
+    for (boolean withBlendedAvg : new boolean[]{false, true}) {
+      fr = makeFrame();
+      String[] teColumns = {"ColA", "ColB"};
+      TargetEncoder tec = new TargetEncoder(teColumns);
+      Map<String, Frame> targetEncodingMap = tec.prepareEncodingMap(fr, "ColC", foldColumnName);
+      Frame merged = null, broadcast = null;
+      try {
+        merged = tec.applyTargetEncoding(fr, "ColC", targetEncodingMap, strategy, foldColumnName, withBlendedAvg, 0, true, 1234);
+        broadcast = tec.applyTargetEncodingBroadcast(fr, "ColC", targetEncodingMap, strategy, foldColumnName, withBlendedAvg, 0, 1234);
+        for (String teColumn : teColumns) {
+          // Merging sorts the rows, compare them by id
+          Map<Long, Double> expected = new HashMap<>();
+          for (long row = 0; row < merged.numRows(); row++)
+            expected.put(merged.vec("id").at8(row), merged.vec(teColumn + "_te").at(row));
+          for (long row = 0; row < broadcast.numRows(); row++) {
+            Double value = expected.get(broadcast.vec("id").at8(row));
+            assertNotNull(value);
+            assertEquals(value, broadcast.vec(teColumn + "_te").at(row), 1e-10);
+          }
+        }
+      } finally {
+        if (merged != null) merged.delete();
+        if (broadcast != null) broadcast.delete();
+        encodingMapCleanUp(targetEncodingMap);
+        fr.delete();
+        fr = null;
+      }
+    }
+  }
+
+  @After
+  public void afterEach() {
+    if (fr != null) fr.delete();
+  }
+
+  private void encodingMapCleanUp(Map<String, Frame> encodingMap) {
+    for (Map.Entry<String, Frame> map : encodingMap.entrySet()) {
+      map.getValue().delete();
+    }
+  }
+}
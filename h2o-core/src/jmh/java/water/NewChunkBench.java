@@ -43,6 +43,10 @@ public class NewChunkBench {
   private double[] rawLongSparse;
   private double[] rawFloatSparse;
   private double[] rawNASparse;
+  // for run-length, delta and bit-packed chunks
+  private double[] rawRuns;
+  private double[] rawTimestamps;
+  private double[] rawIds;
 
   @Benchmark
   public void writeIntegers() {
@@ -122,6 +126,24 @@ public class NewChunkBench {
     Assert.assertTrue(chunks instanceof CXIChunk);
   }
 
+  @Benchmark
+  public void writeRuns() {
+    Chunk chunks = new NewChunk(rawRuns).compress();
+    Assert.assertTrue(chunks instanceof CRLEChunk);
+  }
+
+  @Benchmark
+  public void writeTimestamps() {
+    Chunk chunks = new NewChunk(rawTimestamps).compress();
+    Assert.assertTrue(chunks instanceof CDeltaChunk);
+  }
+
+  @Benchmark
+  public void writeBitPacked() {
+    Chunk chunks = new NewChunk(rawIds).compress();
+    Assert.assertTrue(chunks instanceof CFORChunk);
+  }
+
   @Setup
   public void setup() {
     rawFloat = new double[rows]; // generate data
@@ -138,6 +160,9 @@ public class NewChunkBench {
     rawIntegerSparse = new double[rows];
     rawLongSparse = new double[rows];
     rawFloatSparse = new double[rows];
+    rawRuns = new double[rows];
+    rawTimestamps = new double[rows];
+    rawIds = new double[rows];
     Long lConstants = (long) Integer.MAX_VALUE+100;
     for (int row = 0; row < rows; ++row) {
       rawFloat[row] = 1.1+row%100;
@@ -149,6 +174,9 @@ public class NewChunkBench {
       rawIntegerConstants[row] = 1000;
       rawLongConstants[row] = lConstants;
       rawNAConstants[row] = Double.NaN;
+      rawRuns[row] = row / 1000;
+      rawTimestamps[row] = 1485333188427L + 1000L * row + row % 7;
+      rawIds[row] = 1000000000L + (row * 7919L) % (1 << 20);
     }
 
     rawDoubleSparse[17] = Math.PI;
@@ -0,0 +1,119 @@
+package water.fvec;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import water.util.UnsafeUtils;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares per-row {@link Chunk#atd(int)} against the bulk decoders
+ * {@link Chunk#getDoubles(double[], int, int)} and
+ * {@link Chunk#getSparseDoubles(double[], int[])} for the common compression schemes.
+ * The data of each type is generated so that it compresses to the named chunk class.
+ */
+@Fork(1)
+@Threads(1)
+@State(Scope.Thread)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ChunkBulkAccessBench {
+
+  @Param({"C1", "C2", "C4", "C8", "C8D", "C4F", "C1S", "C2S", "CBS", "CXI", "CXF", "CRLE", "CDelta", "CFOR"})
+  private String _type;
+
+  @Param({"100000"})
+  private int _rows;
+
+  private static final int BLOCK = 1024;
+
+  private Chunk _chk;
+  private double[] _buf;
+  private double[] _sparseVals;
+  private int[] _sparseIds;
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+            .include(ChunkBulkAccessBench.class.getSimpleName())
+            .build();
+
+    new Runner(opt).run();
+  }
+
+  @Setup(Level.Trial)
+  public void setup() {
+    water.util.Log.setLogLevel("ERRR");
+    Random r = new Random(0xDECAF);
+    NewChunk nc = new NewChunk(null, 0);
+    long t = 1485333188427L;
+    for (int i = 0; i < _rows; i++) {
+      if (i % 97 == 0 && !"CBS".equals(_type) && !"CXI".equals(_type) && !"CDelta".equals(_type)) { nc.addNA(); continue; }
+      switch (_type) {
+        case "C1":  nc.addNum(r.nextInt(200)); break;
+        case "C2":  nc.addNum(r.nextInt(30000)); break;
+        case "C4":  nc.addNum(r.nextInt()); break;
+        case "C8":  nc.addNum(r.nextLong()); break;
+        case "C8D": nc.addNum(r.nextDouble()); break;
+        case "C4F": break; // Built directly below
+        case "C1S": nc.addNum(r.nextInt(200), -2); break;
+        case "C2S": nc.addNum(r.nextInt(30000), -3); break;
+        case "CBS": nc.addNum(r.nextInt(2)); break;
+        case "CXI": nc.addNum(r.nextInt(50) == 0 ? 1 + r.nextInt(1000) : 0); break;
+        case "CXF": nc.addNum(r.nextInt(50) == 0 ? r.nextDouble() : 0); break;
+        case "CRLE": nc.addNum(i / 1000); break;
+        case "CDelta": nc.addNum(t += 1000 + r.nextInt(200)); break; // Timestamps
+        case "CFOR": nc.addNum(1000000000L + r.nextInt(1 << 20)); break;
+        default: throw new IllegalArgumentException(_type);
+      }
+    }
+    _chk = "C4F".equals(_type) ? makeC4F(r) : nc.compress(); // Floats are never picked by NewChunk
+    if (!_chk.getClass().getSimpleName().startsWith(_type))
+      throw new IllegalStateException("Expected " + _type + " chunk, got " + _chk.getClass().getSimpleName());
+    _buf = new double[BLOCK];
+    _sparseVals = new double[_rows];
+    _sparseIds = new int[_rows];
+  }
+
+  private Chunk makeC4F(Random r) {
+    byte[] mem = new byte[_rows << 2];
+    for (int i = 0; i < _rows; i++)
+      UnsafeUtils.set4f(mem, i << 2, i % 97 == 0 ? Float.NaN : r.nextFloat());
+    return new C4FChunk(mem);
+  }
+
+  @Benchmark
+  public double atd() {
+    double sum = 0;
+    for (int i = 0; i < _chk._len; i++) {
+      double d = _chk.atd(i);
+      if (!Double.isNaN(d)) sum += d;
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public double getDoubles() {
+    double sum = 0;
+    for (int b = 0; b < _chk._len; b += BLOCK) {
+      int n = Math.min(BLOCK, _chk._len - b);
+      _chk.getDoubles(_buf, b, b + n, 0);
+      for (int i = 0; i < n; i++) sum += _buf[i];
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public double getSparseDoubles() {
+    double sum = 0;
+    int n = _chk.getSparseDoubles(_sparseVals, _sparseIds, 0);
+    for (int i = 0; i < n; i++) sum += _sparseVals[i];
+    return sum;
+  }
+
+}
@@ -1735,9 +1735,22 @@ public abstract class Model<M extends Model<M,P,O>, P extends Model.Parameters,
     assert(_output.nfeatures() == tmp.length);
     for( int i=0; i< tmp.length; i++ )
       tmp[i] = chks[i].atd(row_in_chunk);
-    double [] scored = score0(tmp, preds, offset);
+    return scoreRow(tmp, offset, preds);
+  }
+
+  /** False if scoring row by row with {@link #score0(Chunk[], double, int, double[], double[])} is not supported,
+   *  or is much slower than scoring a whole frame (eg. models scoring batches of rows natively). */
+  public boolean haveFastRowScoring() {
+    return true;
+  }
+
+  /** Row scoring API for one row of adapted data, in the order the model
+   *  expects; same predictions, including post-processing, as the bulk
+   *  scoring API. */
+  public final double[] scoreRow( double[] data, double offset, double[] preds ) {
+    double [] scored = score0(data, preds, offset);
     if(needsPostProcess() && isSupervised())
-      score0PostProcessSupervised(scored, tmp);
+      score0PostProcessSupervised(scored, data);
     return scored;
   }
 
@@ -78,12 +78,15 @@ class Cleaner extends Thread {
       Histo h = Histo.current(false);
       long now = System.currentTimeMillis();
       long dirty = _dirty; // When things first got dirtied
+      MemoryManager.reclaimOffHeap(); // Free off-heap copies of unreachable Values
+      boolean offHeapLow = MemoryManager.offHeapLow() && H2O.ARGS.cleaner; // Only spilling frees the pool
 
       // Start cleaning if: "dirty" was set a "long" time ago, or we beyond
       // the desired cache levels. Inverse: go back to sleep if the cache
       // is below desired levels & nothing has been dirty awhile.
       if( h._cached < DESIRED && // Cache is low and
-          (now-dirty < 5000) ) { // not dirty a long time
+          (now-dirty < 5000) &&  // not dirty a long time and
+          !offHeapLow ) {        // off-heap pool is not full
         // Block asleep, waking every 5 secs to check for stuff, or when poked
         block_store_cleaner();
         continue; // Awoke; loop back and re-check histogram.
@@ -127,12 +130,25 @@ class Cleaner extends Thread {
         Value val = (Value)ov;
         byte[] m = val.rawMem();
         Object p = val.rawPOJO();
-        if( m == null && p == null ) continue; // Nothing to throw out
+        boolean compressed = val.isCompressed(); // Only Chunks are compressed
+        boolean offHeap = val.isOffHeap();       // Only Chunks are off-heap
+        if( m == null && p == null && !compressed && !offHeap ) continue; // Nothing to throw out
         if( val.isLockable() ) continue; // we do not want to throw out Lockables.
-        boolean isChunk = p instanceof Chunk && !((Chunk)p).isVolatile();
+        boolean isChunk = compressed || offHeap || (p instanceof Chunk && !((Chunk)p).isVolatile());
+        long touched = val._lastAccessedTime;
+        // Move settled Chunks out of the heap, if an off-heap pool is set.
+        // Chunks still being written in-place are left alone, same as for
+        // spilling below.  Off-heap Chunks back in use only drop their heap
+        // forms again.
+        if( isChunk && (m != null || p != null) && !compressed && MemoryManager.offHeapMax() > 0 &&
+            touched <= now-5000 && ((Key)ok).home() && val.moveOffHeap() ) {
+          freed += val._max;
+          m = null;
+          p = null;
+          offHeap = true;
+        }
         // Ignore things younger than the required age.  In particular, do
         // not spill-to-disk all dirty things we find.
-        long touched = val._lastAccessedTime;
         if( touched > clean_to_age ) { // Too recently touched?
           // But can toss out a byte-array if already deserialized & on disk
           // (no need for both forms).  Note no savings for Chunks, for which m==p._mem
@@ -140,9 +156,22 @@ class Cleaner extends Thread {
             val.freeMem();      // Toss serialized form, since can rebuild from POJO
             freed += val._max;
           }
+          // In use again: the compressed copy is stale weight
+          if( compressed && (m != null || p != null) ) {
+            freed += val.compressedSize();
+            val.freeCompressed();
+          }
           dirty_store(touched); // But may write it out later
           continue;             // Too young
         }
+        // Under pressure, first compress cold Chunks in memory; they are
+        // spilled to disk on a later pass, if they stay cold and memory low.
+        if( force && H2O.ARGS.mem_compress && isChunk && !offHeap && (m != null || p != null) &&
+            !val.isPersisted() && ((Key)ok).home() && val.compressMem() ) {
+          freed += val._max - val.compressedSize();
+          continue;
+        }
+
         // Spiller turned off?
         if( !H2O.ARGS.cleaner ) continue;
 
@@ -164,8 +193,13 @@ class Cleaner extends Thread {
             // attempt to write again.  (will retry next run when memory is low)
             diskFull = true;
           }
-          if( m == null ) m = val.rawMem();
-          if( m != null ) cleaned += m.length; // Accumulate i/o bytes
+          if( m == null && p == null && (compressed || offHeap) ) {
+            cleaned += val._max;
+            if( val.isPersisted() ) val.freeMem(); // Reloaded just to be written
+          } else {
+            if( m == null ) m = val.rawMem();
+            if( m != null ) cleaned += m.length; // Accumulate i/o bytes
+          }
           io_ns += System.nanoTime() - now_ns; // Accumulate i/o time
         }
         // And, under pressure, free all
@@ -173,7 +207,11 @@ class Cleaner extends Thread {
           val.freeMem ();  if( m != null ) freed += val._max;  m = null;
           val.freePOJO();  if( p != null ) freed += val._max;  p = null;
           if( isChunk ) freed -= val._max; // Double-counted freed mem for Chunks since val._pojo._mem & val._mem are the same.
+          if( compressed ) { freed += val.compressedSize(); val.freeCompressed(); }
         }
+        // Off-heap copies make way once the off-heap pool fills up
+        if( offHeap && offHeapLow && val.isPersisted() )
+          val.freeOffHeap();
         // If we have both forms, toss the byte[] form - can be had by
         // serializing again.
         if( m != null && p != null && !isChunk ) {
@@ -184,6 +222,7 @@ class Cleaner extends Thread {
         // If a GC cycle happened and we can no longer alloc, start forcing
         // from RAM as we go
         force = (h._cached >= DESIRED || !MemoryManager.CAN_ALLOC); // Forced to clean
+        offHeapLow = MemoryManager.offHeapLow() && H2O.ARGS.cleaner;
       }
 
       String s1 = "Cleaner pass took: "+PrettyPrint.msecs(System.currentTimeMillis()-now,true)+
@@ -191,7 +230,8 @@ class Cleaner extends Thread {
       h = Histo.current(true); // Force a new histogram
       MemoryManager.set_goals("postclean",false);
       // No logging if under memory pressure: can deadlock the cleaner thread
-      String s2 = h+" diski_o="+PrettyPrint.bytes(cleaned)+", freed="+(freed>>20)+"M, DESIRED="+(DESIRED>>20)+"M";
+      String s2 = h+" diski_o="+PrettyPrint.bytes(cleaned)+", freed="+(freed>>20)+"M, DESIRED="+(DESIRED>>20)+"M"+
+                  (H2O.ARGS.mem_compress ? ", compressed="+Value.compressedValues()+", loads(compressed/disk)="+Value.compressedLoads()+"/"+Value.diskLoads() : "");
       if( MemoryManager.canAlloc() ) Log.debug(s1,s2);
       else                           System.err.println(s1+"\n"+s2);
       // For testing thread
@@ -235,6 +275,8 @@ class Cleaner extends Thread {
     long _total;  // Total data in local K/V
     long _when;   // When was this histogram computed
     long _swapped;// On-disk stuff
+    long _offheap;// Off-heap Chunk data
+    long _compressed;// Compressed Chunk data, included in _cached
     Value _vold;  // For assertions: record the oldest Value
     boolean _clean; // Was "clean" K/V when built?
 
@@ -250,6 +292,8 @@ class Cleaner extends Thread {
       long cached = 0; // Total K/V cached in ram
       long total = 0;  // Total K/V in local node
       long swapped=0;  // Total K/V persisted
+      long offheap=0;  // Total K/V held off-heap
+      long compressed=0; // Total K/V held compressed
       long oldest = Long.MAX_VALUE; // K/V with the longest time since being touched
       Value vold = null;
       // Start the walk at slot 2, because slots 0,1 hold meta-data
@@ -265,9 +309,13 @@ class Cleaner extends Thread {
         int len = 0;
         byte[] m = val.rawMem();
         Object p = val.rawPOJO();
+        offheap += val.offHeapSize(); // Not on the Java heap
         if( m != null ) len += val._max;
         if( p != null ) len += val._max;
         if( m != null && p instanceof Chunk ) len -= val._max; // Do not double-count Chunks
+        int zlen = val.compressedSize();
+        compressed += zlen;
+        len += zlen;
         if( len == 0 ) continue;
         cached += len; // Accumulate total amount of cached keys
 
@@ -284,6 +332,8 @@ class Cleaner extends Thread {
       _cached = cached; // Total cached; NOTE: larger than sum of histogram buckets
       _total = total;   // Total used data
       _swapped = swapped;
+      _offheap = offheap;
+      _compressed = compressed;
       _oldest = oldest; // Oldest seen in this pass
       _vold = vold;
       _clean = clean && _dirty==Long.MAX_VALUE; // Looks like a clean K/V the whole time?
@@ -307,7 +357,7 @@ class Cleaner extends Thread {
     @Override public String toString() {
       long x = _eldest;
       long now = System.currentTimeMillis();
-      return "H(cached:"+(_cached>>20)+"M, eldest:"+x+"L < +"+(_oldest-x)+"ms <...{"+_hStep+"ms}...< +"+(_hStep*_hs.length)+"ms < +"+(now-x)+")";
+      return "H(cached:"+(_cached>>20)+"M, "+(_offheap > 0 ? "offheap:"+(_offheap>>20)+"M, " : "")+(_compressed > 0 ? "compressed:"+(_compressed>>20)+"M, " : "")+"eldest:"+x+"L < +"+(_oldest-x)+"ms <...{"+_hStep+"ms}...< +"+(_hStep*_hs.length)+"ms < +"+(now-x)+")";
     }
   }
 }
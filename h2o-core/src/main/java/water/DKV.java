@@ -199,7 +199,7 @@ public abstract class DKV {
     Value val = Value.STORE_get(key);
     // Hit in local cache?
     if( val != null ) {
-      if( val.rawMem() != null || val.rawPOJO() != null || val.isPersisted() )
+      if( val.rawMem() != null || val.rawPOJO() != null || val.isCompressed() || val.isPersisted() )
         return val;
       assert !key.home(); // Master must have *something*; we got nothing & need to fetch
     }
@@ -222,8 +222,48 @@ public abstract class DKV {
     TaskPutKey tpk = home.pendingPutKey(key);
     if( tpk != null ) return tpk._xval == null || tpk._xval.isNull() ? null : tpk._xval;
 
+    // Already being fetched along with other keys?  Wait for that.
+    RPC<TaskGetKeys> tgks = TaskGetKeys.pending(key);
+    if( tgks != null ) return blocking ? TaskGetKeys.get(tgks,key) : null;
+
     // Get data "the hard way"
     RPC<TaskGetKey> tgk = TaskGetKey.start(home,key);
     return blocking ? TaskGetKey.get(tgk) : null;
   }
+
+  /** Return the {@link Value}s mapped to the keys, null for keys with no
+   *  mapping.  Keys missing locally are fetched with one request per home
+   *  node, instead of one per key.  Blocks till data available, always
+   *  caches.
+   *  @return The {@link Value}s mapped to the keys */
+  static public Value[] get( Key[] keys ) {
+    prefetch(keys);
+    Value[] vals = new Value[keys.length];
+    for( int i = 0; i < keys.length; i++ )
+      vals[i] = get(keys[i]);   // Local hits, or wait on the batched fetches
+    return vals;
+  }
+  /** Prefetch and cache the Values for the keys, with one request per home
+   *  node.  Non-blocking. */
+  static public void prefetch( Key[] keys ) {
+    H2O cloud = H2O.CLOUD;
+    // Remote misses, grouped by home node
+    Key[][] misses = null;
+    int[] nmiss = null;
+    for( Key key : keys ) {
+      Value val = Value.STORE_get(key);
+      if( val != null && (val.rawMem() != null || val.rawPOJO() != null || val.isCompressed() || val.isPersisted()) )
+        continue;               // Hit in local cache
+      int idx = key.home(cloud);
+      H2ONode home = cloud._memary[idx];
+      if( home == H2O.SELF || home.pendingPutKey(key) != null ) continue;
+      if( misses == null ) { misses = new Key[cloud.size()][]; nmiss = new int[cloud.size()]; }
+      if( misses[idx] == null ) misses[idx] = new Key[keys.length];
+      misses[idx][nmiss[idx]++] = key;
+    }
+    if( misses == null ) return;
+    for( int idx = 0; idx < misses.length; idx++ )
+      if( nmiss[idx] == 1 ) prefetch(misses[idx][0]);
+      else if( nmiss[idx] > 1 ) TaskGetKeys.start(cloud._memary[idx],misses[idx],nmiss[idx]);
+  }
 }
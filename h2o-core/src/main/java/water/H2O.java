@@ -110,6 +110,20 @@ final public class H2O {
             "    -ice_root <fileSystemPath>\n" +
             "          The directory where H2O spills temporary data to disk.\n" +
             "\n" +
+            "    -ice_store <fs|segmented>\n" +
+            "          Layout of the data spilled to ice_root: one file per Value (fs)\n" +
+            "          or appended to large segment files (segmented).\n" +
+            "          (The default is fs.)\n" +
+            "\n" +
+            "    -off_heap_mem <size>\n" +
+            "          Native memory used to hold cold Chunk data outside of the Java\n" +
+            "          heap, e.g. 4g or 512m.  Data beyond this limit stays on the heap.\n" +
+            "          (The default is 0, off-heap storage disabled.)\n" +
+            "\n" +
+            "    -mem_compress\n" +
+            "          When memory is low, compress cold Chunks in memory (LZ4) before\n" +
+            "          spilling them to disk.\n" +
+            "\n" +
             "    -log_dir <fileSystemPath>\n" +
             "          The directory where H2O writes logs to disk.\n" +
             "          (This usually has a good default that you need not change.)\n" +
@@ -335,9 +349,20 @@ final public class H2O {
     /** -ice_root=ice_root; ice root directory; where temp files go */
     public String ice_root;
 
+    /** -ice_store=fs|segmented; layout of spilled data in ice_root */
+    public String ice_store = ICE_STORE_FS;
+    public static final String ICE_STORE_FS = "fs";
+    public static final String ICE_STORE_SEGMENTED = "segmented";
+
     /** -cleaner; enable user-mode spilling of big data to disk in ice_root */
     public boolean cleaner = false;
 
+    /** -off_heap_mem=size; bytes of native memory for Chunk payloads, 0 to disable */
+    public long off_heap_mem = 0;
+
+    /** -mem_compress; compress cold Chunks in memory before spilling them to disk */
+    public boolean mem_compress = false;
+
     /** -nthreads=nthreads; Max number of F/J threads in the low-priority batch queue */
     public short nthreads= (short)Runtime.getRuntime().availableProcessors();
 
@@ -465,6 +490,23 @@ final public class H2O {
       return 0;
     }
 
+    public long parseMemSize(String a) {
+      String v = a.trim().toLowerCase();
+      int shift = 0;
+      if (v.endsWith("k")) shift = 10;
+      else if (v.endsWith("m")) shift = 20;
+      else if (v.endsWith("g")) shift = 30;
+      else if (v.endsWith("t")) shift = 40;
+      if (shift > 0) v = v.substring(0, v.length() - 1);
+      try {
+        long x = Long.parseLong(v);
+        if (x >= 0) return x << shift;
+      }
+      catch (Exception e) { }
+      parseFailed("Argument " + _lastMatchedFor + " must be a memory size such as 512m or 4g (was given '" + a + "')" );
+      return 0;
+    }
+
     public int parsePort(String portString){
       int portNum = parseInt(portString);
       if(portNum < 0 || portNum > 65535){
@@ -544,6 +586,14 @@ final public class H2O {
         i = s.incrementAndCheck(i, args);
         trgt.ice_root = args[i];
       }
+      else if (s.matches("ice_store")) {
+        i = s.incrementAndCheck(i, args);
+        trgt.ice_store = args[i];
+      }
+      else if (s.matches("off_heap_mem")) {
+        i = s.incrementAndCheck(i, args);
+        trgt.off_heap_mem = s.parseMemSize(args[i]);
+      }
       else if (s.matches("log_dir")) {
         i = s.incrementAndCheck(i, args);
         trgt.log_dir = args[i];
@@ -607,6 +657,9 @@ final public class H2O {
       else if(s.matches("cleaner")) {
         trgt.cleaner = true;
       }
+      else if(s.matches("mem_compress")) {
+        trgt.mem_compress = true;
+      }
       else if (s.matches("jks")) {
         i = s.incrementAndCheck(i, args);
         trgt.jks = args[i];
@@ -688,6 +741,10 @@ final public class H2O {
   }
 
   private static void validateArguments() {
+    if (! (OptArgs.ICE_STORE_FS.equals(ARGS.ice_store) || OptArgs.ICE_STORE_SEGMENTED.equals(ARGS.ice_store))) {
+      parseFailed("Invalid -ice_store (" + ARGS.ice_store + "), must be one of: " + OptArgs.ICE_STORE_FS + ", " + OptArgs.ICE_STORE_SEGMENTED);
+    }
+
     if (ARGS.jks != null) {
       if (! new File(ARGS.jks).exists()) {
         parseFailed("File does not exist: " + ARGS.jks);
@@ -4,12 +4,20 @@ import jsr166y.ForkJoinPool;
 import jsr166y.ForkJoinPool.ManagedBlocker;
 import water.util.Log;
 import water.util.PrettyPrint;
+import water.util.UnsafeUtils;
 
 import javax.management.Notification;
 import javax.management.NotificationEmitter;
 import java.lang.management.*;
+import java.lang.ref.PhantomReference;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
 /**
  * Manages memory assigned to key/value pairs. All byte arrays used in
@@ -154,6 +162,7 @@ abstract public class MemoryManager {
 
     // No logging if under memory pressure: can deadlock the cleaner thread
     String s = m+msg+", (K/V:"+PrettyPrint.bytes(cacheUsageGC)+" + POJO:"+PrettyPrint.bytes(pojoUsedGC)+" + FREE:"+PrettyPrint.bytes(freeHeap)+" == MEM_MAX:"+PrettyPrint.bytes(MEM_MAX)+"), desiredKV="+PrettyPrint.bytes(Cleaner.DESIRED)+(oom?" OOM!":" NO-OOM");
+    if( offHeapMax() > 0 ) s += ", OFF-HEAP:"+PrettyPrint.bytes(offHeapUsed())+" of "+PrettyPrint.bytes(offHeapMax());
     if( CAN_ALLOC ) { if( oom ) Log.warn(s); else Log.debug(s); }
     else            System.err.println(s);
   }
@@ -301,6 +310,121 @@ abstract public class MemoryManager {
   public static float  [] arrayCopyOf( float [] orig, int sz) { return arrayCopyOfRange(orig,0,sz); }
   public static double [] arrayCopyOf( double[] orig, int sz) { return arrayCopyOfRange(orig,0,sz); }
 
+  // ---
+  // Off-heap pool, bounded by -off_heap_mem.  Holds copies of the serialized
+  // form of cold Chunks outside of the Java heap (see Value#moveOffHeap), so
+  // that large data does not need a large heap.  Chunks never point into the
+  // pool: a Value copies its block back to the heap when it is needed again.
+  // Blocks are reference counted.  The owning Value holds one reference, and
+  // each copy back to the heap holds another while it runs.  The owner drops
+  // its reference once it is spilled to disk, or else once it is unreachable:
+  // a Value removed from the K/V store may still be read by a task holding
+  // it.  The memory is freed when the last reference is dropped.
+  private static final AtomicLong OFF_HEAP_USED = new AtomicLong();
+  private static final ReferenceQueue<Object> OFF_HEAP_OWNERS = new ReferenceQueue<>();
+  private static final Set<OwnerRef> OFF_HEAP_OWNER_REFS = Collections.newSetFromMap(new ConcurrentHashMap<OwnerRef,Boolean>());
+
+  /** Bytes currently allocated off-heap */
+  public static long offHeapUsed() { return OFF_HEAP_USED.get(); }
+  /** Size of the off-heap pool, or 0 if disabled */
+  public static long offHeapMax() { return H2O.ARGS.off_heap_mem; }
+  /** True if the off-heap pool is nearly full, and off-heap data should be swapped to disk */
+  static boolean offHeapLow() {
+    long max = offHeapMax();
+    return max > 0 && OFF_HEAP_USED.get() > max - (max>>3);
+  }
+
+  /** A reference counted block of off-heap memory.  Starts with the single
+   *  reference of its owner. */
+  static final class OffHeapBlock {
+    private final long _addr;
+    final int _len;
+    private volatile int _refs = 1; // Memory is freed when this drops to 0
+    private volatile int _owned = 1; // Owner reference not dropped yet
+    private OffHeapBlock(long addr, int len) { _addr = addr; _len = len; }
+
+    /** Copy of the block in a fresh heap array.
+     *  @return the copy, or null if the block was already freed */
+    byte[] read() {
+      if( !acquire() ) return null;
+      try {
+        byte[] mem = malloc1(_len);
+        UnsafeUtils.copyFromAddress(_addr, mem, _len);
+        return mem;
+      } finally {
+        release();
+      }
+    }
+
+    /** Drop the reference of the owner; safe to call more than once. */
+    void releaseOwner() {
+      if( _ownedUpdater.compareAndSet(this, 1, 0) ) release();
+    }
+    boolean isFreed() { return _refs == 0; }
+
+    private boolean acquire() {
+      while( true ) {
+        int refs = _refs;
+        if( refs == 0 ) return false;
+        if( _refsUpdater.compareAndSet(this, refs, refs+1) ) return true;
+      }
+    }
+    private void release() {
+      int refs = _refsUpdater.decrementAndGet(this);
+      assert refs >= 0;
+      if( refs == 0 ) {
+        UnsafeUtils.freeMemory(_addr);
+        OFF_HEAP_USED.addAndGet(-_len);
+      }
+    }
+  }
+  private static final AtomicIntegerFieldUpdater<OffHeapBlock> _refsUpdater =
+    AtomicIntegerFieldUpdater.newUpdater(OffHeapBlock.class, "_refs");
+  private static final AtomicIntegerFieldUpdater<OffHeapBlock> _ownedUpdater =
+    AtomicIntegerFieldUpdater.newUpdater(OffHeapBlock.class, "_owned");
+
+  // Drops the reference of a block's owner once the owner is unreachable
+  private static final class OwnerRef extends PhantomReference<Object> {
+    final OffHeapBlock _blk;
+    OwnerRef(Object owner, OffHeapBlock blk) { super(owner, OFF_HEAP_OWNERS); _blk = blk; }
+  }
+
+  /** Copy a byte array to a new block of off-heap memory, owned by owner.
+   *  @return the block, or null if the off-heap pool is disabled or full */
+  static OffHeapBlock mallocOffHeap(Object owner, byte[] mem) {
+    reclaimOffHeap();
+    int len = mem.length;
+    long max = offHeapMax();
+    if( max <= 0 || len <= 0 ) return null;
+    if( OFF_HEAP_USED.addAndGet(len) > max ) {
+      OFF_HEAP_USED.addAndGet(-len);
+      return null;
+    }
+    long addr;
+    try { addr = UnsafeUtils.allocateMemory(len); }
+    catch( OutOfMemoryError oom ) { // Native memory exhausted; stay on heap
+      OFF_HEAP_USED.addAndGet(-len);
+      return null;
+    }
+    UnsafeUtils.copyToAddress(mem, addr, len);
+    OffHeapBlock blk = new OffHeapBlock(addr, len);
+    OFF_HEAP_OWNER_REFS.add(new OwnerRef(owner, blk));
+    return blk;
+  }
+
+  /** Drop the owner reference of all blocks whose owner became unreachable.
+   *  @return number of such blocks */
+  static int reclaimOffHeap() {
+    int n = 0;
+    Reference<?> ref;
+    while( (ref = OFF_HEAP_OWNERS.poll()) != null ) {
+      OFF_HEAP_OWNER_REFS.remove(ref);
+      ((OwnerRef)ref)._blk.releaseOwner();
+      n++;
+    }
+    return n;
+  }
+
   // Memory available for tasks (we assume 3/4 of the heap is available for tasks)
   static final AtomicLong _taskMem = new AtomicLong(MEM_MAX-(MEM_MAX>>2));
 
@@ -20,6 +20,9 @@ public class TaskGetKey extends DTask<TaskGetKey> {
   // requests close in time.  Batch them up.
   private static final NonBlockingHashMap<Key,RPC<TaskGetKey>> TGKS = new NonBlockingHashMap();
 
+  // Is a fetch of the key in-flight?
+  static boolean pending( Key key ) { return TGKS.containsKey(key); }
+
   // Get a value from a named remote node
   static Value get( H2ONode target, Key key ) { return get(start(target,key)); }
 
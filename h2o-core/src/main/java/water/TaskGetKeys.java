@@ -0,0 +1,101 @@
+package water;
+
+import water.nbhm.NonBlockingHashMap;
+
+/**
+ * Get many keys from the same remote node in one request.  Same as {@link
+ * TaskGetKey}, but readers of many remote Values (e.g. row slicing, scans
+ * over remote Chunks) pay one round-trip per node instead of one per Key.
+ */
+public class TaskGetKeys extends DTask<TaskGetKeys> {
+  /** Most keys fetched by a request; keeps a request of large Chunks at a reasonable size */
+  static final int MAX_KEYS = 32;
+
+  Key[] _keys;               // Set by client/sender JVM, cleared by server JVM
+  Value[] _vals;             // Set by server JVM, read by client JVM
+  transient Key[] _xkeys;    // Set by client, read by client
+  transient H2ONode _h2o;    // Set by server JVM, read by server JVM on ACKACK
+
+  // Keys being fetched by a request in-flight.  Gets of the same Key wait on
+  // the request, instead of fetching the Key again.
+  private static final NonBlockingHashMap<Key,RPC<TaskGetKeys>> PENDING = new NonBlockingHashMap<>();
+
+  /** @return the request in-flight fetching the key, or null */
+  static RPC<TaskGetKeys> pending( Key key ) { return PENDING.get(key); }
+
+  /** Block for the request, and return the Value fetched for the key */
+  static Value get( RPC<TaskGetKeys> rpc, Key key ) {
+    TaskGetKeys tgks = rpc.get(); // Block for it
+    for( int i = 0; i < tgks._xkeys.length; i++ )
+      if( tgks._xkeys[i].equals(key) )
+        return tgks._vals[i];
+    throw H2O.fail("Key " + key + " not fetched by this request");
+  }
+
+  // Start RPCs to fetch keys homed on the target, at most MAX_KEYS each.
+  // Keys already being fetched are skipped.
+  static void start( H2ONode target, Key[] keys, int len ) {
+    for( int i = 0; i < len; i += MAX_KEYS )
+      start1(target, keys, i, Math.min(len, i + MAX_KEYS));
+  }
+
+  private static void start1( H2ONode target, Key[] keys, int from, int to ) {
+    TaskGetKeys tgks = new TaskGetKeys();
+    RPC<TaskGetKeys> rpc = new RPC<>(target, tgks, 1.0f);
+    Key[] ks = new Key[to - from];
+    int n = 0;
+    for( int i = from; i < to; i++ ) {
+      Key k = keys[i];
+      if( TaskGetKey.pending(k) ) continue;
+      if( PENDING.putIfMatchUnlocked(k, rpc, null) == null )
+        ks[n++] = k;            // Claimed
+    }
+    if( n == 0 ) return;        // All in-flight already
+    tgks._keys = tgks._xkeys = n == ks.length ? ks : java.util.Arrays.copyOf(ks, n);
+    rpc.setTaskNum().call();    // Start the op
+  }
+
+  private TaskGetKeys() { super(H2O.GET_KEY_PRIORITY); }
+
+  // Top-level non-recursive invoke
+  @Override public void dinvoke( H2ONode sender ) {
+    _h2o = sender;
+    Key[] ks = _keys;
+    _keys = null;         // Not part of the return result
+    _vals = new Value[ks.length];
+    for( int i = 0; i < ks.length; i++ ) {
+      assert ks[i].home(); // Gets are always from home
+      // Track replicas, retrying on a Value racing with its deletion; see TaskGetKey
+      Value val;
+      do  val = Value.STORE_get(ks[i]);
+      while( val != null && !val.setReplica(sender) );
+      _vals[i] = val;
+    }
+    tryComplete();
+  }
+  @Override public void compute2() { throw H2O.fail(); }
+
+  // Received an ACK; executes on the node asking&receiving the Values
+  @Override public void onAck() {
+    for( int i = 0; i < _xkeys.length; i++ ) {
+      Key k = _xkeys[i];
+      Value val = _vals[i];
+      if( val != null ) {       // Set transient fields after deserializing
+        assert !k.home() && val._key == null;
+        val._key = k;
+      }
+      // Cache the result, over a null or empty Value; see TaskGetKey.onAck
+      Value old = H2O.STORE.get(k);
+      if( old != null && !old.isEmpty() ) old=null;
+      Value res = H2O.putIfMatch(k,val,old);
+      if( res != old ) _vals[i] = res;
+      PENDING.remove(k);        // Clear from dup cache
+    }
+  }
+
+  // Received an ACKACK; executes on the node sending the Values
+  @Override public void onAckAck() {
+    for( Value val : _vals )
+      if( val != null ) val.lowerActiveGetCount(_h2o);
+  }
+}
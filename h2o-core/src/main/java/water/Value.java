@@ -2,10 +2,13 @@ package water;
 
 import java.io.IOException;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 import jsr166y.ForkJoinPool;
+import water.fvec.Chunk;
 import water.fvec.Frame;
 import water.fvec.Vec;
+import water.util.LZ4;
 import water.util.Log;
 import water.util.StringUtils;
 
@@ -107,8 +110,97 @@ public final class Value extends Iced implements ForkJoinPool.ManagedBlocker {
     _pojo = null;
   }
 
+  // ---
+  // A copy of _mem in off-heap memory, the tier between the heap and the
+  // disk when -off_heap_mem is set: the Cleaner copies settled Chunks there
+  // and drops their heap forms.  Chunks never point into off-heap memory;
+  // memOrLoad copies the block back to the heap.  The contents of a Value are
+  // immutable, so the block is kept while the Value is back in use, and its
+  // heap forms can be dropped again cheaply.  Released once the Value is
+  // spilled to disk, or else unreachable (see MemoryManager.OffHeapBlock):
+  // not on removal, since tasks may still read a removed Value.
+  private transient volatile MemoryManager.OffHeapBlock _offHeap;
+  private static final AtomicReferenceFieldUpdater<Value,MemoryManager.OffHeapBlock> OFF_HEAP_UPDATER =
+    AtomicReferenceFieldUpdater.newUpdater(Value.class, MemoryManager.OffHeapBlock.class, "_offHeap");
+  final boolean isOffHeap() { return _offHeap != null; }
+  final int offHeapSize() { MemoryManager.OffHeapBlock blk = _offHeap; return blk == null ? 0 : blk._len; }
+
+  /** Keep only an off-heap copy of a cold Chunk.  Called by the Cleaner.
+   *  @return false if the Value is not a heap Chunk, or the off-heap pool is
+   *  full */
+  final boolean moveOffHeap() {
+    if( _offHeap == null ) {
+      if( _zmem != null ) return false;
+      Freezable pojo = _pojo;   // Read once!
+      if( pojo != null && !(pojo instanceof Chunk) ) return false;
+      MemoryManager.OffHeapBlock blk = MemoryManager.mallocOffHeap(this, memOrLoad());
+      if( blk == null ) return false;
+      _offHeap = blk;           // Set before dropping the other forms; racing readers always find one
+    }
+    _pojo = null;
+    _mem = null;
+    return true;
+  }
+
+  /** Release the off-heap copy, once this Value is spilled to disk.  Safe to
+   *  call more than once. */
+  final void freeOffHeap() {
+    assert isPersisted() || !_key.home();
+    MemoryManager.OffHeapBlock blk = OFF_HEAP_UPDATER.getAndSet(this, null);
+    if( blk != null ) blk.releaseOwner();
+  }
+
+  // ---
+  // An LZ4 compressed copy of _mem, the in-memory tier between the heap and
+  // the disk: cold Chunks are compressed by the Cleaner when memory is low
+  // (see -mem_compress), and only spilled to disk on a later pass.  Kept when
+  // the Value is decompressed, so the heap copies can be dropped again
+  // cheaply; dropped once the Value is persisted or in use again.
+  private transient volatile byte[] _zmem;
+  private transient boolean _incompressible; // Compression tried, not worth it
+  final boolean isCompressed() { return _zmem != null; }
+  final int compressedSize() { byte[] z = _zmem; return z == null ? 0 : z.length; }
+
+  // Reloads of Values which are neither deserialized nor serialized in the
+  // heap, by the tier serving them: the compressed copy, or the disk.
+  private static final AtomicLong COMPRESSED_LOADS = new AtomicLong();
+  private static final AtomicLong DISK_LOADS = new AtomicLong();
+  private static final AtomicLong COMPRESSED_VALUES = new AtomicLong();
+  /** @return number of Values reloaded from their in-memory compressed copy */
+  public static long compressedLoads() { return COMPRESSED_LOADS.get(); }
+  /** @return number of Values reloaded from disk */
+  public static long diskLoads() { return DISK_LOADS.get(); }
+  /** @return number of Values compressed by the Cleaner */
+  public static long compressedValues() { return COMPRESSED_VALUES.get(); }
+
+  /** Keep only a compressed copy of a cold Chunk.  Called by the Cleaner.
+   *  @return false if the Value does not compress well enough (in which
+   *  case it is not tried again), or is not a heap Chunk */
+  final boolean compressMem() {
+    if( _zmem == null ) {
+      if( _incompressible ) return false;
+      Freezable pojo = _pojo;   // Read once!
+      if( pojo != null && !(pojo instanceof Chunk) ) return false;
+      if( _offHeap != null ) return false;
+      byte[] mem = memOrLoad();
+      byte[] z = LZ4.compress(mem);
+      if( z.length > mem.length - (mem.length >> 2) ) { _incompressible = true; return false; }
+      _zmem = z;                // Set before dropping the other forms; racing readers always find one
+      COMPRESSED_VALUES.incrementAndGet();
+    }
+    _pojo = null;
+    _mem = null;
+    return true;
+  }
+  /** Drop the compressed copy, once the Value is persisted or back in use */
+  final void freeCompressed() {
+    assert _mem != null || _pojo != null || isPersisted() || !_key.home();
+    _zmem = null;
+  }
+
   /** The FAST path get-byte-array - final method for speed.  Will (re)build
-   *  the mem array from either the POJO or disk.  Never returns NULL.
+   *  the mem array from either the POJO, the compressed or off-heap copy, or
+   *  disk.  Never returns NULL.
    *  @return byte[] holding the serialized POJO  */
   public final byte[] memOrLoad() {
     byte[] mem = _mem;          // Read once!
@@ -117,11 +209,20 @@ public final class Value extends Iced implements ForkJoinPool.ManagedBlocker {
     if( pojo != null )          // Has the POJO, make raw bytes
       return _mem = pojo.asBytes();
     if( _max == 0 ) return (_mem = new byte[0]);
+    byte[] z = _zmem;           // Read once!
+    if( z != null ) {
+      COMPRESSED_LOADS.incrementAndGet();
+      return (_mem = LZ4.decompress(z));
+    }
+    MemoryManager.OffHeapBlock blk = _offHeap; // Read once!
+    if( blk != null && (mem = blk.read()) != null ) // Null if released meanwhile, once on disk
+      return (_mem = mem);
+    DISK_LOADS.incrementAndGet();
     return (_mem = loadPersist());
   }
   // Just an empty shell of a Value, no local data but the Value is "real".
   // Any attempt to look at the Value will require a remote fetch.
-  final boolean isEmpty() { return _max > 0 && _mem==null && _pojo == null && !isPersisted(); }
+  final boolean isEmpty() { return _max > 0 && _mem==null && _pojo == null && _zmem == null && _offHeap == null && !isPersisted(); }
 
   /** The FAST path get-POJO as an {@link Iced} subclass - final method for
    *  speed.  Will (re)build the POJO from the _mem array.  Never returns NULL.
@@ -5,7 +5,9 @@ import water.*;
 import water.api.schemas3.*;
 import water.exceptions.*;
 import water.fvec.Frame;
+import water.fvec.FrameSnapshot;
 import water.fvec.Vec;
+import water.util.ExportFileFormat;
 import water.util.Log;
 import water.util.PrettyPrint;
 
@@ -245,7 +247,25 @@ public class FramesHandler<I extends FramesHandler.Frames, S extends SchemaV3<I,
     Frame fr = getFromDKV("key", s.frame_id.key());
     Log.info("ExportFiles processing (" + s.path + ")");
     Frame.CSVStreamParams csvParms = new Frame.CSVStreamParams().setSeparator(s.separator);
-    s.job = new JobV3(Frame.export(fr, s.path, s.frame_id.key().toString(), s.force, s.num_parts, s.compression, csvParms));
+    ExportFileFormat format = s.format == null ? ExportFileFormat.csv : ExportFileFormat.parse(s.format);
+    s.job = new JobV3(Frame.export(fr, s.path, s.frame_id.key().toString(), s.force, s.num_parts, format, s.compression, csvParms));
+    return s;
+  }
+
+  /** Save a frame to a snapshot directory, see {@link FrameSnapshot}. */
+  @SuppressWarnings("unused") // called through reflection by RequestServer
+  public JobV3 save(int version, FrameSaveV3 s) {
+    Frame fr = getFromDKV("key", s.frame_id.key());
+    Log.info("SaveFrame processing (" + s.dir + ")");
+    return new JobV3(FrameSnapshot.save(fr, s.dir, s.force));
+  }
+
+  /** Load a frame from a snapshot directory, see {@link FrameSnapshot}. */
+  @SuppressWarnings("unused") // called through reflection by RequestServer
+  public FrameLoadV3 load(int version, FrameLoadV3 s) {
+    Key<Frame> key = s.frame_id == null ? Key.<Frame>make() : s.frame_id.key();
+    Frame fr = FrameSnapshot.load(key, s.dir);
+    s.frame_id = new KeyV3.FrameKeyV3(fr._key);
     return s;
   }
 
@@ -255,16 +275,16 @@ public class FramesHandler<I extends FramesHandler.Frames, S extends SchemaV3<I,
     Frame frame = getFromDKV("key", s.frame_id.key()); // safe
 
     if( null != frame) {
-      Futures fs = new Futures();
+      List<Vec> vecs = new ArrayList<>();
       int i = 0;
       for( Vec v : frame.vecs() ) {
         if (null == DKV.get(v._key))
           Log.warn("For Frame: " + frame._key + ", Vec number: " + i + " (" + frame.name(i)+ ") is missing; not returning it.");
         else
-          v.startRollupStats(fs, Vec.DO_HISTOGRAMS);
+          vecs.add(v);
         i++;
       }
-      fs.blockForPending();
+      Vec.bulkRollupStats(vecs.toArray(new Vec[vecs.size()]), Vec.DO_HISTOGRAMS);
     }
 
     return doFetch(version, s);
@@ -156,6 +156,14 @@ public class RegisterV3Api extends AbstractRegister {
             "POST /3/Frames/{frame_id}/export", FramesHandler.class, "export",
             "Export a Frame to the given path with optional overwrite.");
 
+    context.registerEndpoint("saveFrame",
+            "POST /3/Frames/{frame_id}/save", FramesHandler.class, "save",
+            "Save a Frame in H2O's native Chunk format to the given directory.");
+
+    context.registerEndpoint("loadFrame",
+            "POST /3/Frames/load", FramesHandler.class, "load",
+            "Load a Frame saved in H2O's native Chunk format from the given directory.");
+
     context.registerEndpoint("frameColumnSummary",
             "GET /3/Frames/{frame_id}/columns/{column}/summary", FramesHandler.class, "columnSummary",
             "Return the summary metrics for a column, e.g. min, max, mean, sigma, percentiles, etc.");
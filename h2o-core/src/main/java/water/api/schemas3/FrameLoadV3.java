@@ -0,0 +1,16 @@
+package water.api.schemas3;
+
+import water.Iced;
+import water.api.API;
+
+/**
+ * Frame snapshot load REST end-point.
+ */
+public class FrameLoadV3 extends RequestSchemaV3<Iced, FrameLoadV3> {
+
+  @API(help="Save loaded frame under given key into DKV.", direction=API.Direction.INOUT)
+  public KeyV3.FrameKeyV3 frame_id;
+
+  @API(help="Source directory (hdfs, s3, local) containing the saved frame")
+  public String dir;
+}
@@ -0,0 +1,19 @@
+package water.api.schemas3;
+
+import water.Iced;
+import water.api.API;
+
+/**
+ * Frame snapshot save REST end-point.
+ */
+public class FrameSaveV3 extends RequestSchemaV3<Iced, FrameSaveV3> {
+
+  @API(help="Name of Frame of interest", json=false)
+  public KeyV3.FrameKeyV3 frame_id;
+
+  @API(help="Destination directory (hdfs, s3, local)")
+  public String dir;
+
+  @API(help="Overwrite files in the destination directory in case it is not empty or throw exception if set to false.")
+  public boolean force = true;
+}
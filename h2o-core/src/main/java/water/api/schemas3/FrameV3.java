@@ -1,7 +1,6 @@
 package water.api.schemas3;
 
 import water.DKV;
-import water.Futures;
 import water.Key;
 import water.MemoryManager;
 import water.api.API;
@@ -17,6 +16,8 @@ import water.util.FrameUtils;
 import water.util.Log;
 import water.util.PrettyPrint;
 
+import java.util.Arrays;
+
 /**
  * All the details on a Frame.  Note that inside ColV3 there are fields which won't be
  * populated if we don't compute rollups, e.g. via
@@ -275,24 +276,20 @@ public class FrameV3 extends FrameBaseV3<Frame, FrameV3> {
     this.full_column_count = full_column_count;
     this.columns = new ColV3[column_count];
     Vec[] vecs = f.vecs();
-    Futures fs = new Futures();
-    // Compute rollups in parallel as needed, by starting all of them and using
-    // them when filling in the ColV3 Schemas.
+    // Compute rollups as needed, all together, before filling in the ColV3 Schemas.
     // NOTE: SKIP deleted Vecs!  The columns entry will be null for deleted Vecs.
+    Vec[] present = new Vec[column_count];
+    int npresent = 0;
     for( int i = 0; i < column_count; i++ )
       if (null == DKV.get(vecs[column_offset + i]._key))
         Log.warn("For Frame: " + f._key + ", Vec number: " + (column_offset + i) + " (" + f.name((column_offset + i))+ ") is missing; not returning it.");
       else
-        vecs[column_offset + i].startRollupStats(fs);
-
+        present[npresent++] = vecs[column_offset + i];
+    Vec.bulkRollupStats(Arrays.copyOf(present, npresent), false);
 
     for( int i = 0; i < column_count; i++ )
-      if (null == DKV.get(vecs[column_offset + i]._key))
-        Log.warn("For Frame: " + f._key + ", Vec number: " + (column_offset + i) + " (" + f.name((column_offset + i))+ ") is missing; not returning it.");
-      else
+      if (null != DKV.get(vecs[column_offset + i]._key))
         columns[i] = new ColV3(f._names[column_offset + i], vecs[column_offset + i], this.row_offset, this.row_count, i < full_column_count);
-
-    fs.blockForPending();
     this.is_text = f.numCols()==1 && vecs[0] instanceof ByteVec;
     this.default_percentiles = Vec.PERCENTILES;
 
@@ -3,6 +3,7 @@ package water.fvec;
 import water.parser.BufferedString;
 import water.util.UnsafeUtils;
 
+import java.util.Arrays;
 import java.util.UUID;
 
 /**
@@ -61,6 +62,10 @@ public class C0DChunk extends Chunk {
   
   @Override public boolean isSparseNA(){return Double.isNaN(_con);}
   @Override public int sparseLenNA() {return  Double.isNaN(_con)?0:_len;}
+  @Override public double [] getDoubles(double [] vals, int from, int to, double NA){
+    Arrays.fill(vals, 0, to-from, Double.isNaN(_con)?NA:_con);
+    return vals;
+  }
   @Override public int getSparseDoubles(double [] vals, int [] ids, double NA){
     if(_con == 0) return 0;
     double con = Double.isNaN(_con)?NA:_con;
@@ -2,6 +2,8 @@ package water.fvec;
 
 import water.util.UnsafeUtils;
 
+import java.util.Arrays;
+
 /**
  * The constant 'long' column.
  */
@@ -40,6 +42,23 @@ public class C0LChunk extends Chunk {
     return _len;
   }
 
+  @Override public double [] getDoubles(double [] vals, int from, int to, double NA){
+    Arrays.fill(vals, 0, to-from, _con);
+    return vals;
+  }
+  @Override public int [] getIntegers(int [] vals, int from, int to, int NA){
+    Arrays.fill(vals, 0, to-from, (int)_con);
+    return vals;
+  }
+  @Override public int getSparseDoubles(double [] vals, int [] ids, double NA){
+    if(_con == 0) return 0;
+    for(int i = 0; i < _len; ++i) {
+      vals[i] = _con;
+      ids[i] = i;
+    }
+    return _len;
+  }
+
   @Override
   public <T extends ChunkVisitor> T processRows(T v, int from, int to){
     if(_con == 0)
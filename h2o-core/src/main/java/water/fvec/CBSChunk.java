@@ -102,6 +102,25 @@ public class CBSChunk extends Chunk {
     return false;
   }
 
+  @Override public double [] getDoubles(double [] vals, int from, int to, double NA){
+    int mask = (1 | _bpv);
+    for(int i = from; i < to; ++i) {
+      int bits = _bpv*i;
+      byte b = read(_mem[_OFF + (bits>>3)], bits & 7, mask);
+      vals[i-from] = b == _NA?NA:b;
+    }
+    return vals;
+  }
+  @Override public int [] getIntegers(int [] vals, int from, int to, int NA){
+    int mask = (1 | _bpv);
+    for(int i = from; i < to; ++i) {
+      int bits = _bpv*i;
+      byte b = read(_mem[_OFF + (bits>>3)], bits & 7, mask);
+      vals[i-from] = b == _NA?NA:b;
+    }
+    return vals;
+  }
+
   private void processRow(int r, ChunkVisitor v){
     int i = read(r);
     if(i == _NA) v.addNAs(1);
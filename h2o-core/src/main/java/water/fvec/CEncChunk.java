@@ -0,0 +1,121 @@
+package water.fvec;
+
+import water.util.PrettyPrint;
+import water.util.UnsafeUtils;
+
+/**
+ * Base of the chunks storing integer mantissas in a lightweight encoding
+ * (run-length {@link CRLEChunk}, delta {@link CDeltaChunk}, frame-of-reference
+ * {@link CFORChunk}), chosen by {@link NewChunk#compress()} when they are much
+ * smaller than a fixed-width chunk.
+ *
+ * value(i) = mantissa(i) * 10^exp, with exp <= 0; decimals are computed the
+ * same way as NewChunk does, by dividing by the power of 10.
+ *
+ * Header, shared by all the encodings:
+ * <pre>
+ *   0: len (int)   4: exp (byte)   5: bits (byte)   6: flags (byte)   8: encoding parameter (long)
+ * </pre>
+ * Bit-packed values are read with unaligned 8 byte loads, so packed data is
+ * followed by 8 bytes of padding and holds at most {@link #MAX_BITS} bits per value.
+ *
+ * The encoded chunks are read-only: setting a value inflates the chunk.
+ */
+public abstract class CEncChunk extends Chunk {
+  static protected final int _OFF = 16;
+  /** Mantissa of missing values, on input of the encoders and as returned by {@link #get(int)} */
+  static final long NA = Long.MIN_VALUE;
+  static final int MAX_BITS = 56;
+
+  protected transient int _exp;
+
+  CEncChunk(byte[] bs) { _mem = bs; _start = -1; initFromBytes(); }
+
+  static byte[] header(int size, int len, int exp, int bits, int flags, long param) {
+    byte[] bs = new byte[size];
+    UnsafeUtils.set4(bs, 0, len);
+    bs[4] = (byte) exp;
+    bs[5] = (byte) bits;
+    bs[6] = (byte) flags;
+    UnsafeUtils.set8(bs, 8, param);
+    return bs;
+  }
+
+  @Override public void initFromBytes() {
+    _start = -1;  _cidx = -1;
+    set_len(UnsafeUtils.get4(_mem, 0));
+    _exp = _mem[4];
+    init(_mem[5], _mem[6], UnsafeUtils.get8(_mem, 8));
+  }
+
+  /** Decode the encoding specific part of the header */
+  abstract void init(int bits, int flags, long param);
+
+  /** @return mantissa of row i, or {@link #NA} */
+  abstract long get(int i);
+
+  // Number of bits of an unsigned value
+  static int bits(long x) { return 64 - Long.numberOfLeadingZeros(x); }
+
+  static int packedSize(int n, int bits) { return (int) (((long) n * bits + 7) >> 3) + 8; }
+
+  static void pack(byte[] bs, int off, int i, int bits, long x) {
+    long o = (long) i * bits;
+    int b = off + (int) (o >>> 3);
+    UnsafeUtils.set8(bs, b, UnsafeUtils.get8(bs, b) | (x << (o & 7)));
+  }
+
+  static long unpack(byte[] bs, int off, int i, int bits, long mask) {
+    long o = (long) i * bits;
+    return (UnsafeUtils.get8(bs, off + (int) (o >>> 3)) >>> (o & 7)) & mask;
+  }
+
+  protected final double toDouble(long m) { return _exp == 0 ? m : PrettyPrint.pow10(m, _exp); }
+
+  @Override protected final double atd_impl(int i) {
+    long m = get(i);
+    return m == NA ? Double.NaN : toDouble(m);
+  }
+  @Override protected final long at8_impl(int i) {
+    long m = get(i);
+    if( m == NA ) throw new IllegalArgumentException("at8_abs but value is missing");
+    return _exp == 0 ? m : (long) toDouble(m);
+  }
+  @Override protected final boolean isNA_impl(int i) { return get(i) == NA; }
+  @Override boolean set_impl(int idx, long l) { return false; }
+  @Override boolean set_impl(int idx, double d) { return false; }
+  @Override boolean set_impl(int idx, float f) { return false; }
+  @Override boolean setNA_impl(int idx) { return false; }
+  @Override public boolean hasFloat() { return _exp < 0; }
+
+  protected final void processRow(ChunkVisitor v, long m) {
+    if( m == NA ) v.addNAs(1);
+    else if( _exp == 0 ) v.addValue(m);
+    else if( v.expandedVals() ) v.addValue(m, _exp);
+    else v.addValue(toDouble(m));
+  }
+
+  @Override public <T extends ChunkVisitor> T processRows(T v, int from, int to) {
+    for( int i = from; i < to; i++ ) processRow(v, get(i));
+    return v;
+  }
+
+  @Override public <T extends ChunkVisitor> T processRows(T v, int[] ids) {
+    for( int i : ids ) processRow(v, get(i));
+    return v;
+  }
+
+  @Override public double[] getDoubles(double[] vals, int from, int to, double NA) {
+    for( int i = from; i < to; i++ ) {
+      long m = get(i);
+      vals[i - from] = m == CEncChunk.NA ? NA : toDouble(m);
+    }
+    return vals;
+  }
+
+  @Override public double[] getDoubles(double[] vals, int[] ids) {
+    int k = 0;
+    for( int i : ids ) vals[k++] = atd_impl(i);
+    return vals;
+  }
+}
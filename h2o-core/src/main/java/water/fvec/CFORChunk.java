@@ -0,0 +1,54 @@
+package water.fvec;
+
+/**
+ * Frame-of-reference chunk: mantissas stored as their offset from the chunk
+ * minimum, bit-packed with as many bits as the range needs (0 to 56).
+ * If there are missing values, the largest offset is the NA.
+ */
+public class CFORChunk extends CEncChunk {
+  private static final int HAS_NA = 1;
+  private transient long _base;
+  private transient int _bits;
+  private transient long _mask;
+  private transient boolean _hasNA;
+
+  CFORChunk(byte[] bs) { super(bs); }
+
+  @Override void init(int bits, int flags, long base) {
+    _bits = bits;
+    _mask = bits == 0 ? 0 : -1L >>> (64 - bits);
+    _hasNA = (flags & HAS_NA) != 0;
+    _base = base;
+  }
+
+  /** Bits per value needed for mantissas in [min, max], or -1 if it is more than {@link #MAX_BITS} */
+  static int bits(long min, long max, boolean hasNA) {
+    long range = max - min + (hasNA ? 1 : 0);
+    if( range < 0 ) return -1; // Overflow
+    int bits = bits(range);
+    return bits > MAX_BITS ? -1 : bits;
+  }
+
+  static int size(int len, int bits) { return _OFF + packedSize(len, bits); }
+
+  /**
+   * @param ms mantissas, {@link #NA} for missing values
+   * @param min smallest mantissa
+   * @param bits as given by {@link #bits(long, long, boolean)}
+   */
+  static CFORChunk encode(long[] ms, int len, int exp, long min, int bits, boolean hasNA) {
+    byte[] bs = header(size(len, bits), len, exp, bits, hasNA ? HAS_NA : 0, min);
+    long na = bits == 0 ? 0 : -1L >>> (64 - bits);
+    if( bits > 0 )
+      for( int i = 0; i < len; i++ )
+        pack(bs, _OFF, i, bits, ms[i] == NA ? na : ms[i] - min);
+    return new CFORChunk(bs);
+  }
+
+  @Override long get(int i) {
+    long x = unpack(_mem, _OFF, i, _bits, _mask);
+    return _hasNA && x == _mask ? NA : _base + x;
+  }
+
+  @Override public boolean hasNA() { return _hasNA; }
+}
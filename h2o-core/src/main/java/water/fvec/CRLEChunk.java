@@ -0,0 +1,100 @@
+package water.fvec;
+
+import water.util.UnsafeUtils;
+
+/**
+ * Run-length chunk, for columns of long runs of the same value (sorted or
+ * grouped keys, slowly changing flags, blocks of missing values).
+ *
+ * Stores the mantissa of every run (8 bytes, {@link #NA} for missing values)
+ * followed by the end row of every run (4 bytes).  Rows are looked up by a
+ * binary search, skipped when the row is in the run of the last lookup.
+ */
+public class CRLEChunk extends CEncChunk {
+  private transient int _nruns;
+  private transient int _endOff;    // Offset of the run ends
+  private transient int _run;       // Run of the last lookup; a cache, so races are benign
+
+  CRLEChunk(byte[] bs) { super(bs); }
+
+  @Override void init(int bits, int flags, long nruns) {
+    _nruns = (int) nruns;
+    _endOff = _OFF + (_nruns << 3);
+    _run = 0;
+  }
+
+  static int runs(long[] ms, int len) {
+    int nruns = len == 0 ? 0 : 1;
+    for( int i = 1; i < len; i++ )
+      if( ms[i] != ms[i - 1] ) nruns++;
+    return nruns;
+  }
+
+  static int size(int nruns) { return _OFF + 12 * nruns; }
+
+  /** @param nruns as given by {@link #runs(long[], int)} */
+  static CRLEChunk encode(long[] ms, int len, int exp, int nruns) {
+    byte[] bs = header(size(nruns), len, exp, 0, 0, nruns);
+    int endOff = _OFF + (nruns << 3);
+    int r = 0;
+    for( int i = 0; i < len; i++ ) {
+      if( i + 1 == len || ms[i + 1] != ms[i] ) {
+        UnsafeUtils.set8(bs, _OFF + (r << 3), ms[i]);
+        UnsafeUtils.set4(bs, endOff + (r << 2), i + 1);
+        r++;
+      }
+    }
+    assert r == nruns;
+    return new CRLEChunk(bs);
+  }
+
+  private int end(int r) { return UnsafeUtils.get4(_mem, _endOff + (r << 2)); }
+  private long value(int r) { return UnsafeUtils.get8(_mem, _OFF + (r << 3)); }
+
+  /** @return the run of row i */
+  private int run(int i) {
+    int r = _run;
+    if( i < end(r) && (r == 0 || i >= end(r - 1)) ) return r;
+    int lo = 0, hi = _nruns - 1;
+    while( lo < hi ) {
+      int mid = (lo + hi) >>> 1;
+      if( end(mid) <= i ) lo = mid + 1;
+      else hi = mid;
+    }
+    return _run = lo;
+  }
+
+  @Override long get(int i) { return value(run(i)); }
+
+  @Override public boolean hasNA() {
+    for( int r = 0; r < _nruns; r++ )
+      if( value(r) == NA ) return true;
+    return false;
+  }
+
+  @Override public <T extends ChunkVisitor> T processRows(T v, int from, int to) {
+    if( from >= to ) return v;
+    int r = run(from);
+    for( int i = from; i < to; r++ ) {
+      int n = Math.min(end(r), to) - i;
+      long m = value(r);
+      if( m == NA ) v.addNAs(n);
+      else if( m == 0 ) v.addZeros(n);
+      else for( int j = 0; j < n; j++ ) processRow(v, m);
+      i += n;
+    }
+    return v;
+  }
+
+  @Override public double[] getDoubles(double[] vals, int from, int to, double NA) {
+    if( from >= to ) return vals;
+    int r = run(from);
+    for( int i = from; i < to; r++ ) {
+      int e = Math.min(end(r), to);
+      long m = value(r);
+      double d = m == CEncChunk.NA ? NA : toDouble(m);
+      for( ; i < e; i++ ) vals[i - from] = d;
+    }
+    return vals;
+  }
+}
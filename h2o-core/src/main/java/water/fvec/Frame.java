@@ -165,7 +165,9 @@ public class Frame extends Lockable<Frame> {
     super(key);
 
     // Require all Vecs already be installed in the K/V store
-    for( Vec vec : vecs ) DKV.prefetch(vec._key);
+    Key[] keys = new Key[vecs.length];
+    for( int i=0; i<vecs.length; i++ ) keys[i] = vecs[i]._key;
+    DKV.prefetch(keys);
     for( Vec vec : vecs ) {
       assert DKV.get(vec._key) != null : " null vec: "+vec._key;
     }
@@ -342,7 +344,7 @@ public class Frame extends Lockable<Frame> {
   // Compute vectors for caching
   private Vec[] vecs_impl() {
     // Load all Vec headers; load them all in parallel by starting prefetches
-    for( Key<Vec> key : _keys ) DKV.prefetch(key);
+    DKV.prefetch(_keys);
     Vec [] vecs = new Vec[_keys.length];
     for( int i=0; i<_keys.length; i++ ) vecs[i] = _keys[i].get();
     return vecs;
@@ -484,11 +486,14 @@ public class Frame extends Lockable<Frame> {
     return card;
   }
 
-  public Vec[] bulkRollups() {
-    Futures fs = new Futures();
+  public Vec[] bulkRollups() { return bulkRollups(false); }
+
+  /** Compute the rollups of all columns, those missing in a single pass over the data.
+   * @param doHisto also compute histograms
+   * @return the Vecs of this frame */
+  public Vec[] bulkRollups(boolean doHisto) {
     Vec[] vecs = vecs();
-    for(Vec v : vecs)  v.startRollupStats(fs);
-    fs.blockForPending();
+    Vec.bulkRollupStats(vecs, doHisto);
     return vecs;
   }
 
@@ -1238,10 +1243,11 @@ public class Frame extends Lockable<Frame> {
       long  last_c0 = anyv.espc()[last_ci];            // ...         last chunk start
       long  last_c1 = anyv.espc()[last_ci + 1];        // ...         last chunk end
       Chunk[] last_cs = new Chunk[vecs.length];       // ...         last chunks
-      for (int c = 0; c < _cols.length; c++) {
+      for (int c = 0; c < _cols.length; c++)
         vecs[c] = _base.vecs()[_cols[c]];
+      Vec.prefetchChunks(vecs, last_ci);
+      for (int c = 0; c < _cols.length; c++)
         last_cs[c] = vecs[c].chunkForChunkIdx(last_ci);
-      }
       for (int i = 0; i < ix[0]._len; i++) {
         // select one row
         r = ix[0].at8(i);   // next row to select
@@ -1253,6 +1259,7 @@ public class Frame extends Lockable<Frame> {
             last_ci = anyv.elem2ChunkIdx(r);
             last_c0 = anyv.espc()[last_ci];
             last_c1 = anyv.espc()[last_ci + 1];
+            Vec.prefetchChunks(vecs, last_ci);
             for (int c = 0; c < vecs.length; c++)
               last_cs[c] = vecs[c].chunkForChunkIdx(last_ci);
           }
@@ -1490,6 +1497,18 @@ public class Frame extends Lockable<Frame> {
 
   public static Job export(Frame fr, String path, String frameName, boolean overwrite, int nParts, 
                            String compression, CSVStreamParams csvParms) {
+    return export(fr, path, frameName, overwrite, nParts, ExportFileFormat.csv, compression, csvParms);
+  }
+
+  public static Job export(Frame fr, String path, String frameName, boolean overwrite, int nParts,
+                           ExportFileFormat format, String compression, CSVStreamParams csvParms) {
+    BinaryFormatExporter exporter = null;
+    if (format != ExportFileFormat.csv) {
+      exporter = BinaryFormatExporter.Finder.find(format);
+      if (exporter == null)
+        throw new H2OIllegalArgumentException("Export to " + format +
+                " is not available, the module providing it is not on the classpath.");
+    }
     boolean forceSingle = nParts == 1;
     // Validate input
     if (forceSingle) {
@@ -1505,8 +1524,10 @@ public class Frame extends Lockable<Frame> {
                 " to store part files! The target needs to be either an existing empty directory or not exist yet.");
       }
     }
-    CompressionFactory compressionFactory = compression != null ? CompressionFactory.make(compression) : null;
     Job job =  new Job<>(fr._key, "water.fvec.Frame", "Export dataset");
+    if (exporter != null)
+      return job.start(exporter.export(fr, path, overwrite, nParts, compression, job), fr.anyVec().nChunks());
+    CompressionFactory compressionFactory = compression != null ? CompressionFactory.make(compression) : null;
     FrameUtils.ExportTaskDriver t = new FrameUtils.ExportTaskDriver(
             fr, path, frameName, overwrite, job, nParts, compressionFactory, csvParms);
     return job.start(t, fr.anyVec().nChunks());
@@ -1652,6 +1673,9 @@ public class Frame extends Lockable<Frame> {
         }
         // fetch the next non-empty chunks
         Chunk[] newChks = new Chunk[_curChks.length];
+        Vec[] vecs = new Vec[_curChks.length];
+        for (int i = 0; i < _curChks.length; i++) vecs[i] = _curChks[i]._vec;
+        Vec.prefetchChunks(vecs, _curChkIdx);
         for (int i = 0; i < _curChks.length; i++) {
           newChks[i] = _curChks[i]._vec.chunkForChunkIdx(_curChkIdx);
           // flush the remote chunk
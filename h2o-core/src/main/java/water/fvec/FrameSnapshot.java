@@ -0,0 +1,218 @@
+package water.fvec;
+
+import water.*;
+import water.exceptions.H2OIllegalArgumentException;
+import water.util.FileUtils;
+import water.util.Log;
+
+import java.io.*;
+
+/**
+ * Save a parsed Frame in H2O's own Chunk format, and load it back without
+ * re-parsing.
+ *
+ * A snapshot is a directory (local, HDFS, S3...) holding a {@code frame.meta}
+ * file - column names, types, domains, the row layout and the rollups - and
+ * one {@code chunk-NNNNN} file per chunk index, holding the serialized Chunks
+ * of all the columns.  Chunk files are written in parallel by the nodes
+ * holding the Chunks, and read back by the home nodes of the Chunks.  Chunk
+ * homes only depend on the chunk index and the cloud size, so a snapshot
+ * loaded into a cloud of the same size restores the original Chunk homes;
+ * on local (not shared) file systems that is also the only way to load it.
+ */
+public class FrameSnapshot {
+
+  static final String META_FILE = "frame.meta";
+
+  /** Frame metadata stored in the snapshot. */
+  static class Meta extends Iced<Meta> {
+    String[] _names;
+    byte[] _types;
+    String[][] _domains;
+    long[] _espc;
+    RollupStats[] _rollups;
+    int _cloudSize;
+  }
+
+  /**
+   * Save the frame to a snapshot directory. The frame is read-locked by the
+   * returned job until the snapshot is written.
+   * @param fr frame to save, all its Vecs must be plain (not computed) Vecs
+   * @param dir target directory, must be empty or not exist yet
+   * @param force overwrite existing files
+   * @return job writing the snapshot
+   */
+  public static Job<Frame> save(final Frame fr, final String dir, final boolean force) {
+    for (Vec v : fr.vecs())
+      if (v.getClass() != Vec.class)
+        throw new H2OIllegalArgumentException("Cannot save column of type " + v.getClass().getSimpleName() +
+                ", make a deep copy of the frame first.");
+    if (!force && !H2O.getPM().isEmptyDirectoryAllNodes(dir))
+      throw new H2OIllegalArgumentException("dir", "saveFrame", "Target directory " + dir + " is not empty.");
+    final Job<Frame> job = new Job<>(fr._key, "water.fvec.Frame", "Save frame");
+    return job.start(new H2O.H2OCountedCompleter() {
+      @Override public void compute2() {
+        fr.read_lock(job._key);
+        try {
+          saveImpl(fr, dir, force, job);
+        } finally {
+          fr.unlock(job._key);
+        }
+        tryComplete();
+      }
+    }, fr.anyVec().nChunks());
+  }
+
+  private static void saveImpl(Frame fr, String dir, boolean force, Job job) {
+    Vec[] vecs = fr.bulkRollups();
+    Meta meta = new Meta();
+    meta._names = fr.names();
+    meta._types = fr.types();
+    meta._domains = fr.domains();
+    meta._espc = fr.anyVec().espc();
+    meta._rollups = new RollupStats[vecs.length];
+    for (int i = 0; i < vecs.length; i++)
+      meta._rollups[i] = RollupStats.getOrNull(vecs[i], vecs[i].rollupStatsKey());
+    meta._cloudSize = H2O.CLOUD.size();
+    new SaveChunksTask(dir, force, job).doAll(fr);
+    OutputStream os = null;
+    try {
+      os = H2O.getPM().create(dir + "/" + META_FILE, force);
+      new AutoBuffer(os, true).put(meta).close();
+    } finally {
+      FileUtils.closeSilently(os);
+    }
+    Log.info("Saved frame " + fr._key + " (" + meta._espc.length + " chunk boundaries) to " + dir + ".");
+  }
+
+  /**
+   * Load a frame from a snapshot directory and install it in the DKV.
+   * @param key key of the loaded frame
+   * @param dir snapshot directory
+   * @return loaded frame
+   */
+  public static Frame load(Key<Frame> key, String dir) {
+    Meta meta;
+    InputStream is = null;
+    try {
+      is = H2O.getPM().open(dir + "/" + META_FILE);
+      AutoBuffer ab = new AutoBuffer(is);
+      meta = ab.get();
+      ab.close();
+    } finally {
+      FileUtils.closeSilently(is);
+    }
+    if (meta._cloudSize != H2O.CLOUD.size())
+      Log.warn("Frame in " + dir + " was saved from a cloud of " + meta._cloudSize + " nodes, loading into " +
+              H2O.CLOUD.size() + " nodes; Chunks will have different homes.");
+    Key<Vec>[] keys = new Vec.VectorGroup().addVecs(meta._names.length);
+    int rowLayout = Vec.ESPC.rowLayout(keys[0], meta._espc);
+    new LoadChunksTask(dir, keys, meta._espc.length - 1).doAllNodes();
+    Futures fs = new Futures();
+    Vec[] vecs = new Vec[keys.length];
+    for (int i = 0; i < keys.length; i++) {
+      vecs[i] = new Vec(keys[i], rowLayout, meta._domains[i], meta._types[i]);
+      DKV.put(vecs[i], fs);
+    }
+    fs.blockForPending();
+    for (int i = 0; i < keys.length; i++)
+      if (meta._rollups[i] != null)
+        DKV.put(vecs[i].rollupStatsKey(), meta._rollups[i], fs);
+    Frame fr = new Frame(key, meta._names, vecs);
+    DKV.put(fr, fs);
+    fs.blockForPending();
+    return fr;
+  }
+
+  static String chunkPath(String dir, int cidx) {
+    return dir + "/chunk-" + String.valueOf(100000 + cidx).substring(1);
+  }
+
+  /** Writes the Chunks of each chunk index to their own file. */
+  private static class SaveChunksTask extends MRTask<SaveChunksTask> {
+    final String _dir;
+    final boolean _force;
+    final Job _job;
+
+    SaveChunksTask(String dir, boolean force, Job job) { _dir = dir; _force = force; _job = job; }
+
+    @Override protected void setupLocal() {
+      if (!H2O.getPM().mkdirs(_dir)) Log.warn("Path ", _dir, " was not created.");
+    }
+
+    @Override public void map(Chunk[] cs) {
+      DataOutputStream os = null;
+      try {
+        os = new DataOutputStream(new BufferedOutputStream(H2O.getPM().create(chunkPath(_dir, cs[0].cidx()), _force)));
+        os.writeInt(cs.length);
+        for (Chunk c : cs) {
+          // Class names rather than TypeMap ids, those differ between clouds
+          byte[] mem = c.asBytes();
+          os.writeUTF(c.getClass().getName());
+          os.writeInt(mem.length);
+          os.write(mem);
+        }
+        os.close();
+        os = null;
+        _job.update(1);
+      } catch (IOException e) {
+        throw new RuntimeException(e);
+      } finally {
+        FileUtils.closeSilently(os);
+      }
+    }
+  }
+
+  /** Reads the Chunks homed on each node, installs them in the DKV as-is. */
+  private static class LoadChunksTask extends MRTask<LoadChunksTask> {
+    final String _dir;
+    final Key<Vec>[] _keys;
+    final int _nChunks;
+
+    LoadChunksTask(String dir, Key<Vec>[] keys, int nChunks) { _dir = dir; _keys = keys; _nChunks = nChunks; }
+
+    @Override protected void setupLocal() {
+      int n = 0;
+      int[] cidxs = new int[_nChunks];
+      for (int cidx = 0; cidx < _nChunks; cidx++)
+        if (Vec.chunkKey(_keys[0], cidx).home()) cidxs[n++] = cidx;
+      if (n == 0) return;
+      H2O.submitTask(new LocalMR(new LoadChunks(_dir, _keys, java.util.Arrays.copyOf(cidxs, n)), n)).join();
+    }
+  }
+
+  private static class LoadChunks extends MrFun<LoadChunks> {
+    private final String _dir;
+    private final Key<Vec>[] _keys;
+    private final int[] _cidxs;
+
+    LoadChunks(String dir, Key<Vec>[] keys, int[] cidxs) { _dir = dir; _keys = keys; _cidxs = cidxs; }
+
+    @Override protected void map(int t) {
+      int cidx = _cidxs[t];
+      String path = chunkPath(_dir, cidx);
+      DataInputStream is = null;
+      Futures fs = new Futures();
+      try {
+        is = new DataInputStream(new BufferedInputStream(H2O.getPM().open(path)));
+        int ncols = is.readInt();
+        if (ncols != _keys.length)
+          throw new IllegalStateException("Expected " + _keys.length + " columns in " + path + ", found " + ncols);
+        for (Key<Vec> vkey : _keys) {
+          String clazz = is.readUTF();
+          byte[] mem = MemoryManager.malloc1(is.readInt());
+          is.readFully(mem);
+          Key ckey = Vec.chunkKey(vkey, cidx);
+          DKV.put(ckey, new Value(ckey, mem.length, mem, (short) TypeMap.onIce(clazz), Value.ICE), fs);
+        }
+      } catch (IOException e) {
+        throw new RuntimeException("Cannot read " + path + " (a snapshot on a local file system can only be " +
+                "loaded into a cloud of the same size)", e);
+      } finally {
+        FileUtils.closeSilently(is);
+      }
+      fs.blockForPending();
+    }
+  }
+
+}
@@ -1326,6 +1326,19 @@ public class NewChunk extends Chunk {
       }
       return new CXIChunk(bufS(_len, 4,8, na_sparse));
     }
+    // Run-length, delta or frame-of-reference encoding, if much smaller than
+    // the fixed-width chunk picked below.
+    if( _len >= MIN_ENCODED_LEN && !overflow && (fpoint ? (xmin >= -10 && -MAX_ENCODED < lemin && lemax < MAX_ENCODED)
+                                                          : (-MAX_ENCODED < min && max < MAX_ENCODED)) ) {
+      int bytesPerRow;          // Of the fixed-width chunk
+      if( fpoint ) {
+        boolean ints = (int)lemin == lemin && (int)lemax == lemax;
+        bytesPerRow = floatOverflow ? 8 : ints && leRange < 255 ? 1 : ints && leRange < 65535 ? 2 : leRange < 4294967295l ? 4 : 8;
+      } else
+        bytesPerRow = leRange < 255 ? 1 : leRange < 65535 ? 2 : Integer.MIN_VALUE < min && max <= Integer.MAX_VALUE ? 4 : 8;
+      Chunk c = compressEncoded(fpoint ? xmin : 0, bytesPerRow);
+      if( c != null ) return c;
+    }
     // Exponent scaling: replacing numbers like 1.3 with 13e-1.  '13' fits in a
     // byte and we scale the column by 0.1.  A set of numbers like
     // {1.2,23,0.34} then is normalized to always be represented with 2 digits
@@ -1379,6 +1392,65 @@ public class NewChunk extends Chunk {
     return new C8Chunk( bufX(0,0,0,3));
   }
 
+  // Smallest chunk worth a lightweight encoding, and bound on the absolute
+  // value of the encoded mantissas (exactly representable as doubles)
+  static final int MIN_ENCODED_LEN = 1024;
+  private static final long MAX_ENCODED = 1L << 52;
+
+  // Encode the mantissas of a dense chunk in the 10^exp scale with the
+  // smallest of the run-length, delta and frame-of-reference encodings.
+  // Returns null unless it saves at least a quarter of the fixed-width chunk,
+  // as the encodings are slower to decode.  Bit-packing only replaces 4 and 8
+  // byte integers: bytes and shorts are cheaper to read and already small, and
+  // decimals are left to the scaled chunks.
+  private Chunk compressEncoded(int exp, int bytesPerRow) {
+    long fixedSize = (long)bytesPerRow*_len;
+    long best = fixedSize - (fixedSize >> 2);
+    boolean packed = exp == 0 && bytesPerRow >= 4;
+    // Count runs and get the range, without allocating; if only run-length
+    // encoding is allowed, give up as soon as there are too many runs.
+    long maxRuns = packed ? Long.MAX_VALUE : (best - CRLEChunk.size(0))/CRLEChunk.size(1);
+    long lo = Long.MAX_VALUE, hi = Long.MIN_VALUE, prev = 0;
+    boolean hasNA = false;
+    int nruns = 0;
+    for( int i = 0; i < _len; i++ ) {
+      long m = mantissa(i, exp);
+      if( i == 0 || m != prev ) {
+        if( ++nruns > maxRuns ) return null;
+        prev = m;
+      }
+      if( m == CEncChunk.NA ) { hasNA = true; continue; }
+      if( m < lo ) lo = m;
+      if( m > hi ) hi = m;
+    }
+    int rleSize = CRLEChunk.size(nruns);
+    int forBits = packed ? CFORChunk.bits(lo, hi, hasNA) : -1;
+    int forSize = forBits < 0 ? Integer.MAX_VALUE : CFORChunk.size(_len, forBits);
+    if( rleSize > best && forSize > best && (!packed || hasNA) ) return null;
+    long[] ms = MemoryManager.malloc8(_len);
+    for( int i = 0; i < _len; i++ )
+      ms[i] = mantissa(i, exp);
+    int deltaBits = !packed || hasNA ? -1 : CDeltaChunk.bits(ms, _len);
+    int deltaSize = deltaBits < 0 ? Integer.MAX_VALUE : CDeltaChunk.size(_len, deltaBits);
+    if( rleSize <= best && rleSize <= forSize && rleSize <= deltaSize )
+      return CRLEChunk.encode(ms, _len, exp, nruns);
+    if( forSize <= best && forSize <= deltaSize )
+      return CFORChunk.encode(ms, _len, exp, lo, forBits, hasNA);
+    if( deltaSize <= best )
+      return CDeltaChunk.encode(ms, _len, exp, deltaBits);
+    return null;
+  }
+
+  // Mantissa of dense row i in the 10^exp scale, or CEncChunk.NA
+  private long mantissa(int i, int exp) {
+    if( isNA2(i) ) return CEncChunk.NA;
+    long l = _ms.get(i);
+    int x = _xs.get(i);
+    if( x == Integer.MIN_VALUE ) x = 0; // Categorical flag, no scaling
+    x -= exp;
+    return x >= 0 ? l*PrettyPrint.pow10i(x) : l/PrettyPrint.pow10i(-x);
+  }
+
   private static long [] NAS = {C1Chunk._NA,C2Chunk._NA,C4Chunk._NA,C8Chunk._NA};
 
   // Compute a sparse integer buffer
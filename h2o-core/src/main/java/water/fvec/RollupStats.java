@@ -14,7 +14,9 @@ import water.parser.BufferedString;
 import water.util.ArrayUtils;
 import water.util.Log;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
 
 /** A class to compute the rollup stats.  These are computed lazily, thrown
  *  away if the Vec is written into, and then recomputed lazily.  Error to ask
@@ -254,6 +256,35 @@ final class RollupStats extends Iced {
     return _maxs[_maxs.length-1];
   }
 
+  // Final touches once all chunks are reduced: sigma, short vecs, categorical mean and sizes
+  private static RollupStats finish(RollupStats rs, Vec vec) {
+    if( rs == null )
+      rs = new RollupStats(0);
+    else {
+      rs._sigma = Math.sqrt(rs._sigma/(rs._rows-1));
+      if (rs._rows == 1) rs._sigma = 0;
+      if (rs._rows < 5) for (int i=0; i<5-rs._rows; i++) {  // Fix PUBDEV-150 for files under 5 rows
+        rs._maxs[4-i] = Double.NaN;
+        rs._mins[4-i] = Double.NaN;
+      }
+    }
+    // mean & sigma not allowed on more than 2 classes; for 2 classes the assumption is that it's true/false
+    String[] ss = vec.domain();
+    if( vec.isCategorical() && ss.length > 2 )
+      rs._mean = rs._sigma = Double.NaN;
+    if( ss != null ) {
+      long dsz = (2/*hdr*/+1/*len*/+ss.length)*8;  // Size of base domain array
+      for( String s : vec.domain() )
+        if( s != null )
+          dsz += 2*s.length() + (2/*hdr*/+1/*value*/+1/*hash*/+2/*hdr*/+1/*len*/)*8;
+      rs._size += dsz;             // Account for domain size in Vec size
+      // Account for Chunk key size
+      int keysize = (2/*hdr*/+1/*kb*/+1/*hash*/+2/*hdr*/+1/*len*/)*8+ vec._key._kb.length;
+      rs._size += vec.nChunks()*(keysize*4/*key+value ptr in DKV, plus 50% fill rate*/);
+    }
+    return rs;
+  }
+
   private static class Roll extends MRTask<Roll> {
     final Key _rskey;
     RollupStats _rs;
@@ -264,33 +295,7 @@ final class RollupStats extends Iced {
     Roll( H2OCountedCompleter cmp, Key rskey ) { super(cmp); _rskey=rskey; }
     @Override public void map( Chunk c ) { _rs = new RollupStats(0).map(c); }
     @Override public void reduce( Roll roll ) { _rs.reduce(roll._rs); }
-    @Override public void postGlobal() {
-      if( _rs == null )
-        _rs = new RollupStats(0);
-      else {
-        _rs._sigma = Math.sqrt(_rs._sigma/(_rs._rows-1));
-        if (_rs._rows == 1) _rs._sigma = 0;
-        if (_rs._rows < 5) for (int i=0; i<5-_rs._rows; i++) {  // Fix PUBDEV-150 for files under 5 rows
-          _rs._maxs[4-i] = Double.NaN;
-          _rs._mins[4-i] = Double.NaN;
-        }
-      }
-      // mean & sigma not allowed on more than 2 classes; for 2 classes the assumption is that it's true/false
-      Vec vec = _fr.anyVec();
-      String[] ss = vec.domain();
-      if( vec.isCategorical() && ss.length > 2 )
-        _rs._mean = _rs._sigma = Double.NaN;
-      if( ss != null ) {
-        long dsz = (2/*hdr*/+1/*len*/+ss.length)*8;  // Size of base domain array
-        for( String s : vec.domain() )
-          if( s != null )
-            dsz += 2*s.length() + (2/*hdr*/+1/*value*/+1/*hash*/+2/*hdr*/+1/*len*/)*8;
-        _rs._size += dsz;             // Account for domain size in Vec size
-        // Account for Chunk key size
-        int keysize = (2/*hdr*/+1/*kb*/+1/*hash*/+2/*hdr*/+1/*len*/)*8+ vec._key._kb.length;
-        _rs._size += vec.nChunks()*(keysize*4/*key+value ptr in DKV, plus 50% fill rate*/);
-      }
-    }
+    @Override public void postGlobal() { _rs = finish(_rs, _fr.anyVec()); }
     // Just toooo common to report always.  Drowning in multi-megabyte log file writes.
     @Override public boolean logVerbose() { return false; }
 
@@ -364,6 +369,83 @@ final class RollupStats extends Iced {
   double h_stride() { return h_stride(_bins.length); }
   private double h_stride(int nbins) { return (_maxs[0]-_mins[0]+(_isInt?1:0))/nbins; }
 
+  // Number of histogram bins to compute; or 0 when the histogram needs no pass
+  // over the data and has been set already (all NAs, non-math and constant Vecs)
+  private int histoBins(Vec vec) {
+    // All NAs or non-math; histogram has zero bins
+    if (_naCnt == vec.length() || vec.isUUID()) {
+      _bins = new long[0];
+      return 0;
+    }
+    // Constant: use a single bin
+    double span = _maxs[0] - _mins[0];
+    final long rows = vec.length() - _naCnt;
+    assert rows > 0 : "rows = " + rows + ", vec.len() = " + vec.length() + ", naCnt = " + _naCnt;
+    if (span == 0) {
+      _bins = new long[]{rows};
+      return 0;
+    }
+    // Number of bins: MAX_SIZE by default.  For integers, bins for each unique int
+    // - unless the count gets too high; allow a very high count for categoricals.
+    int nbins = MAX_SIZE;
+    if (_isInt && span < Integer.MAX_VALUE) {
+      nbins = (int) span + 1;      // 1 bin per int
+      int lim = vec.isCategorical() ? Categorical.MAX_CATEGORICAL_COUNT : MAX_SIZE;
+      nbins = Math.min(lim, nbins); // Cap nbins at sane levels
+    }
+    return nbins;
+  }
+
+  // Install a computed histogram and the percentiles derived from it
+  private void setHisto(long[] bins, Vec vec) {
+    final long rows = vec.length() - _naCnt;
+    long sum = ArrayUtils.sum(bins);
+    assert sum == rows:"expected " + rows + " rows, got " + sum;
+    _bins = bins;
+    // Compute percentiles from histogram
+    _pctiles = new double[Vec.PERCENTILES.length];
+    int j = 0;                 // Histogram bin number
+    int k = 0;                 // The next non-zero bin after j
+    long hsum = 0;             // Rolling histogram sum
+    double base = h_base();
+    double stride = h_stride();
+    double lastP = -1.0;       // any negative value to pass assert below first time
+    for (int i = 0; i < Vec.PERCENTILES.length; i++) {
+      final double P = Vec.PERCENTILES[i];
+      assert P >= 0 && P <= 1 && P >= lastP;   // rely on increasing percentiles here. If P has dup then strange but accept, hence >= not >
+      lastP = P;
+      double pdouble = 1.0 + P * (rows - 1);   // following stats:::quantile.default type 7
+      long pint = (long) pdouble;          // 1-based into bin vector
+      double h = pdouble - pint;           // any fraction h to linearly interpolate between?
+      assert P != 1 || (h == 0.0 && pint == rows);  // i.e. max
+      while (hsum < pint) hsum += _bins[j++];
+      // j overshot by 1 bin; we added _bins[j-1] and this goes from too low to either exactly right or too big
+      // pint now falls in bin j-1 (the ++ happened even when hsum==pint), so grab that bin value now
+      _pctiles[i] = base + stride * (j - 1);
+      if (h > 0 && pint == hsum) {
+        // linearly interpolate between adjacent non-zero bins
+        //      i) pint is the last of (j-1)'s bin count (>1 when either duplicates exist in input, or stride makes dups at lower accuracy)
+        // AND ii) h>0 so we do need to find the next non-zero bin
+        if (k < j) k = j; // if j jumped over the k needed for the last P, catch k up to j
+        // Saves potentially winding k forward over the same zero stretch many times
+        while (_bins[k] == 0) k++;  // find the next non-zero bin
+        _pctiles[i] += h * stride * (k - j + 1);
+      } // otherwise either h==0 and we know which bin, or fraction is between two positions that fall in the same bin
+      // this guarantees we are within one bin of the exact answer; i.e. within (max-min)/MAX_SIZE
+    }
+  }
+
+  private static void histo( Chunk c, double base, double stride, long[] bins ) {
+    for( int i=c.nextNZ(-1); i< c._len; i=c.nextNZ(i) ) {
+      double d = c.atd(i);
+      if( !Double.isNaN(d) ) bins[idx(d, base, stride, bins)]++;
+    }
+    // Sparse?  We skipped all the zeros; do them now
+    if( c.isSparseZero() )
+      bins[idx(0.0, base, stride, bins)] += (c._len - c.sparseLenZero());
+  }
+  private static int idx( double d, double base, double stride, long[] bins ) { int idx = (int)((d-base)/stride); return Math.min(idx,bins.length-1); }
+
   // Compute expensive histogram
   private static class Histo extends MRTask<Histo> {
     final double _base, _stride; // Inputs
@@ -372,15 +454,8 @@ final class RollupStats extends Iced {
     Histo( H2OCountedCompleter cmp, RollupStats rs, int nbins ) { super(cmp);_base = rs.h_base(); _stride = rs.h_stride(nbins); _nbins = nbins; }
     @Override public void map( Chunk c ) {
       _bins = new long[_nbins];
-      for( int i=c.nextNZ(-1); i< c._len; i=c.nextNZ(i) ) {
-        double d = c.atd(i);
-        if( !Double.isNaN(d) ) _bins[idx(d)]++;
-      }
-      // Sparse?  We skipped all the zeros; do them now
-      if( c.isSparseZero() )
-        _bins[idx(0.0)] += (c._len - c.sparseLenZero());
+      histo(c, _base, _stride, _bins);
     }
-    private int idx( double d ) { int idx = (int)((d-_base)/_stride); return Math.min(idx,_bins.length-1); }
 
     @Override public void reduce( Histo h ) { ArrayUtils.add(_bins,h._bins); }
     // Just toooo common to report always.  Drowning in multi-megabyte log file writes.
@@ -490,65 +565,230 @@ final class RollupStats extends Iced {
     }
 
     final void computeHisto(final RollupStats rs, Vec vec, final Value nnn) {
-      // All NAs or non-math; histogram has zero bins
-      if (rs._naCnt == vec.length() || vec.isUUID()) {
-        rs._bins = new long[0];
-        installResponse(nnn, rs);
-        return;
+      int nbins = rs.histoBins(vec);
+      if (nbins > 0)
+        rs.setHisto(new Histo(null, rs, nbins).doAll(vec)._bins, vec);
+      installResponse(nnn, rs);
+    }
+  }
+
+  // --------------------------------------------------------------------------
+  // Frame-wide rollups
+
+  /**
+   * Computes the rollups, and the histograms when asked for, of many Vecs with a single pass over their chunks
+   * (two with histograms) instead of separate tasks, and passes over the data, for each Vec.
+   *
+   * The rollups of the Vecs are locked on their home nodes first, as {@link ComputeRollupsTask} does, so concurrent
+   * requests for them wait for this pass.  Vecs which cannot be locked (rollups present or being computed, Vecs
+   * being modified) are left to the per-Vec tasks.  Blocks until rollups of all the Vecs are available.
+   */
+  static void computeAll(Vec[] vecs, boolean computeHisto) {
+    ArrayList<Vec> todo = new ArrayList<>();
+    HashSet<Key> seen = new HashSet<>();
+    for( Vec v : vecs ) {
+      if( v instanceof InteractionWrappedVec || v.length() == 0 || !seen.add(v._key) ) continue;
+      if( !todo.isEmpty() && !todo.get(0).isCompatibleWith(v) ) continue;
+      if( DKV.get(v._key) != null && DKV.get(v.rollupStatsKey()) == null )
+        todo.add(v);
+    }
+    if( todo.size() > 1 )
+      rollAll(todo.toArray(new Vec[todo.size()]), computeHisto);
+    Futures fs = new Futures();
+    for( Vec v : vecs ) start(v, fs, computeHisto);
+    fs.blockForPending();
+  }
+
+  private static void rollAll(Vec[] vecs, boolean computeHisto) {
+    final Key lockKey = Key.make();
+    final H2ONode[] nodes = H2O.CLOUD.members();
+    // Vecs by the home node of their rollups
+    int[][] homed = new int[nodes.length][];
+    for( int n = 0; n < nodes.length; n++ ) {
+      int[] idx = new int[vecs.length];
+      int cnt = 0;
+      for( int i = 0; i < vecs.length; i++ )
+        if( vecs[i].rollupStatsKey().home_node() == nodes[n] ) idx[cnt++] = i;
+      homed[n] = Arrays.copyOf(idx, cnt);
+    }
+    RollupStats[] rss = null;
+    RPC[] rpcs = new RPC[nodes.length];
+    try {
+      for( int n = 0; n < nodes.length; n++ ) {
+        if( homed[n].length == 0 ) continue;
+        Key[] rskeys = new Key[homed[n].length];
+        for( int i = 0; i < rskeys.length; i++ ) rskeys[i] = vecs[homed[n][i]].rollupStatsKey();
+        rpcs[n] = new RPC<>(nodes[n], new LockRollupsTask(lockKey, rskeys)).call();
       }
-      // Constant: use a single bin
-      double span = rs._maxs[0] - rs._mins[0];
-      final long rows = vec.length() - rs._naCnt;
-      assert rows > 0 : "rows = " + rows + ", vec.len() = " + vec.length() + ", naCnt = " + rs._naCnt;
-      if (span == 0) {
-        rs._bins = new long[]{rows};
-        installResponse(nnn, rs);
-        return;
+      boolean[] locked = new boolean[vecs.length];
+      int nlocked = 0;
+      for( int n = 0; n < nodes.length; n++ ) {
+        if( rpcs[n] == null ) continue;
+        boolean[] l = ((LockRollupsTask) rpcs[n].get())._locked;
+        for( int i = 0; i < l.length; i++ )
+          if( l[i] ) { locked[homed[n][i]] = true; nlocked++; }
       }
-      // Number of bins: MAX_SIZE by default.  For integers, bins for each unique int
-      // - unless the count gets too high; allow a very high count for categoricals.
-      int nbins = MAX_SIZE;
-      if (rs._isInt && span < Integer.MAX_VALUE) {
-        nbins = (int) span + 1;      // 1 bin per int
-        int lim = vec.isCategorical() ? Categorical.MAX_CATEGORICAL_COUNT : MAX_SIZE;
-        nbins = Math.min(lim, nbins); // Cap nbins at sane levels
+      if( nlocked > 0 ) {
+        Vec[] lvecs = new Vec[nlocked];
+        int[] lidx = new int[nlocked];
+        for( int i = 0, j = 0; i < vecs.length; i++ )
+          if( locked[i] ) { lidx[j] = i; lvecs[j++] = vecs[i]; }
+        RollAll r = new RollAll().doAll(lvecs);
+        RollupStats[] lrss = new RollupStats[nlocked];
+        for( int j = 0; j < nlocked; j++ ) {
+          lrss[j] = finish(r._rs == null ? null : r._rs[j], lvecs[j]);
+          lrss[j]._checksum ^= lvecs[j].length();
+        }
+        if( computeHisto ) histoAll(lvecs, lrss);
+        rss = new RollupStats[vecs.length];
+        for( int j = 0; j < nlocked; j++ ) rss[lidx[j]] = lrss[j];
       }
-      Histo histo = new Histo(null, rs, nbins).doAll(vec);
-      long sum = ArrayUtils.sum(histo._bins);
-      assert sum == rows:"expected " + rows + " rows, got " + sum;
-      rs._bins = histo._bins;
-      // Compute percentiles from histogram
-      rs._pctiles = new double[Vec.PERCENTILES.length];
-      int j = 0;                 // Histogram bin number
-      int k = 0;                 // The next non-zero bin after j
-      long hsum = 0;             // Rolling histogram sum
-      double base = rs.h_base();
-      double stride = rs.h_stride();
-      double lastP = -1.0;       // any negative value to pass assert below first time
-      for (int i = 0; i < Vec.PERCENTILES.length; i++) {
-        final double P = Vec.PERCENTILES[i];
-        assert P >= 0 && P <= 1 && P >= lastP;   // rely on increasing percentiles here. If P has dup then strange but accept, hence >= not >
-        lastP = P;
-        double pdouble = 1.0 + P * (rows - 1);   // following stats:::quantile.default type 7
-        long pint = (long) pdouble;          // 1-based into bin vector
-        double h = pdouble - pint;           // any fraction h to linearly interpolate between?
-        assert P != 1 || (h == 0.0 && pint == rows);  // i.e. max
-        while (hsum < pint) hsum += rs._bins[j++];
-        // j overshot by 1 bin; we added _bins[j-1] and this goes from too low to either exactly right or too big
-        // pint now falls in bin j-1 (the ++ happened even when hsum==pint), so grab that bin value now
-        rs._pctiles[i] = base + stride * (j - 1);
-        if (h > 0 && pint == hsum) {
-          // linearly interpolate between adjacent non-zero bins
-          //      i) pint is the last of (j-1)'s bin count (>1 when either duplicates exist in input, or stride makes dups at lower accuracy)
-          // AND ii) h>0 so we do need to find the next non-zero bin
-          if (k < j) k = j; // if j jumped over the k needed for the last P, catch k up to j
-          // Saves potentially winding k forward over the same zero stretch many times
-          while (rs._bins[k] == 0) k++;  // find the next non-zero bin
-          rs._pctiles[i] += h * stride * (k - j + 1);
-        } // otherwise either h==0 and we know which bin, or fraction is between two positions that fall in the same bin
-        // this guarantees we are within one bin of the exact answer; i.e. within (max-min)/MAX_SIZE
+    } finally {
+      // Install the rollups; or just release the locks if they could not be computed
+      for( int n = 0; n < nodes.length; n++ ) {
+        if( rpcs[n] == null ) continue;
+        RollupStats[] nrss = null;
+        if( rss != null ) {
+          nrss = new RollupStats[homed[n].length];
+          for( int i = 0; i < nrss.length; i++ ) nrss[i] = rss[homed[n][i]];
+        }
+        rpcs[n] = new RPC<>(nodes[n], new InstallRollupsTask(lockKey, nrss)).call();
       }
-      installResponse(nnn, rs);
+      for( RPC rpc : rpcs )
+        if( rpc != null ) rpc.get();
+    }
+  }
+
+  // Histograms of all the Vecs which need one, in one more pass
+  private static void histoAll(Vec[] vecs, RollupStats[] rss) {
+    int[] nbins = new int[vecs.length];
+    int cnt = 0;
+    for( int i = 0; i < vecs.length; i++ )
+      if( !vecs[i].isString() && (nbins[i] = rss[i].histoBins(vecs[i])) > 0 ) cnt++;
+    if( cnt == 0 ) return;
+    Vec[] hvecs = new Vec[cnt];
+    RollupStats[] hrss = new RollupStats[cnt];
+    int[] hbins = new int[cnt];
+    for( int i = 0, j = 0; i < vecs.length; i++ )
+      if( nbins[i] > 0 ) { hvecs[j] = vecs[i]; hrss[j] = rss[i]; hbins[j++] = nbins[i]; }
+    HistoAll h = new HistoAll(hrss, hbins).doAll(hvecs);
+    for( int j = 0; j < cnt; j++ )
+      hrss[j].setHisto(h._bins == null ? new long[hbins[j]] : h._bins[j], hvecs[j]);
+  }
+
+  private static class RollAll extends MRTask<RollAll> {
+    RollupStats[] _rs;
+
+    @Override
+    protected boolean modifiesVolatileVecs(){return false;}
+
+    @Override public void map( Chunk[] cs ) {
+      _rs = new RollupStats[cs.length];
+      for( int i = 0; i < cs.length; i++ ) _rs[i] = new RollupStats(0).map(cs[i]);
+    }
+    @Override public void reduce( RollAll roll ) {
+      if( _rs == null ) _rs = roll._rs;
+      else if( roll._rs != null )
+        for( int i = 0; i < _rs.length; i++ ) _rs[i].reduce(roll._rs[i]);
+    }
+    // Just toooo common to report always.  Drowning in multi-megabyte log file writes.
+    @Override public boolean logVerbose() { return false; }
+  }
+
+  private static class HistoAll extends MRTask<HistoAll> {
+    final double[] _base, _stride; // Inputs
+    final int[] _nbins;            // Inputs
+    long[][] _bins;                // Outputs
+    HistoAll( RollupStats[] rss, int[] nbins ) {
+      _base = new double[rss.length];
+      _stride = new double[rss.length];
+      for( int i = 0; i < rss.length; i++ ) { _base[i] = rss[i].h_base(); _stride[i] = rss[i].h_stride(nbins[i]); }
+      _nbins = nbins;
+    }
+    @Override protected boolean modifiesVolatileVecs(){return false;}
+    @Override public void map( Chunk[] cs ) {
+      _bins = new long[cs.length][];
+      for( int i = 0; i < cs.length; i++ ) {
+        _bins[i] = new long[_nbins[i]];
+        histo(cs[i], _base[i], _stride[i], _bins[i]);
+      }
+    }
+    @Override public void reduce( HistoAll h ) {
+      if( _bins == null ) _bins = h._bins;
+      else if( h._bins != null )
+        for( int i = 0; i < _bins.length; i++ ) ArrayUtils.add(_bins[i], h._bins[i]);
+    }
+    // Just toooo common to report always.  Drowning in multi-megabyte log file writes.
+    @Override public boolean logVerbose() { return false; }
+  }
+
+  // Frame-wide rollups locked on this node: the "computing" values installed, and the task their waiters join
+  private static final class FrameRollupsLock {
+    final Value[] _computing;
+    final CountedCompleter _done;
+    FrameRollupsLock(Value[] computing, CountedCompleter done) { _computing = computing; _done = done; }
+  }
+  private static final NonBlockingHashMap<Key,FrameRollupsLock> _frameRollupsLocks = new NonBlockingHashMap<>();
+
+  // Marks rollups homed on this node as being computed, unless they are present, computing or mutating already
+  private static final class LockRollupsTask extends DTask<LockRollupsTask> {
+    final Key _lockKey;
+    final Key[] _rsKeys;
+    boolean[] _locked;           // Output
+
+    LockRollupsTask(Key lockKey, Key[] rsKeys) {
+      super((byte)(Thread.currentThread() instanceof H2O.FJWThr ? currThrPriority()+1 : H2O.MIN_HI_PRIORITY-3));
+      _lockKey = lockKey;
+      _rsKeys = rsKeys;
+    }
+
+    @Override public void compute2() {
+      CountedCompleter done = new CountedCompleter() { @Override public void compute() {} };
+      Value[] computing = new Value[_rsKeys.length];
+      _locked = new boolean[_rsKeys.length];
+      Futures fs = new Futures();
+      for( int i = 0; i < _rsKeys.length; i++ ) {
+        assert _rsKeys[i].home();
+        if( DKV.get(_rsKeys[i]) != null ) continue;
+        RollupStats rs = RollupStats.makeComputing();
+        rs._tsk = done;
+        Value nnn = new Value(_rsKeys[i], rs);
+        if( DKV.DputIfMatch(_rsKeys[i], nnn, null, fs) == null ) {
+          computing[i] = nnn;
+          _locked[i] = true;
+        }
+      }
+      fs.blockForPending();
+      _frameRollupsLocks.put(_lockKey, new FrameRollupsLock(computing, done));
+      tryComplete();
+    }
+  }
+
+  // Replaces the "computing" values installed by LockRollupsTask with the computed rollups, or removes them
+  private static final class InstallRollupsTask extends DTask<InstallRollupsTask> {
+    final Key _lockKey;
+    final RollupStats[] _rss;    // Computed rollups, by rollups key; null if the computation failed
+
+    InstallRollupsTask(Key lockKey, RollupStats[] rss) {
+      super((byte)(Thread.currentThread() instanceof H2O.FJWThr ? currThrPriority()+1 : H2O.MIN_HI_PRIORITY-3));
+      _lockKey = lockKey;
+      _rss = rss;
+    }
+
+    @Override public void compute2() {
+      FrameRollupsLock lock = _frameRollupsLocks.remove(_lockKey);
+      if( lock != null ) {
+        Futures fs = new Futures();
+        for( int i = 0; i < lock._computing.length; i++ ) {
+          Value nnn = lock._computing[i];
+          if( nnn == null ) continue;
+          // Fails, leaving the rollups alone, if the Vec started mutating meanwhile
+          DKV.DputIfMatch(nnn._key, _rss == null ? null : new Value(nnn._key, _rss[i]), nnn, fs);
+        }
+        fs.blockForPending();
+        lock._done.complete(null);
+      }
+      tryComplete();
     }
   }
 }
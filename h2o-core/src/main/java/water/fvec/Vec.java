@@ -914,6 +914,16 @@ public class Vec extends Keyed<Vec> {
    */
   public void startRollupStats(Futures fs, boolean doHisto) { RollupStats.start(this,fs,doHisto); }
 
+  /**
+   * Compute basic stats (and histograms if requested) of many Vecs, typically all Vecs of a Frame, and block until
+   * they are available.  Rollups missing for compatible Vecs are computed together, in a single pass over the data
+   * instead of a pass per Vec.
+   *
+   * @param vecs Vecs to compute the rollups of
+   * @param doHisto Also compute histograms, requires a second pass over the data.
+   */
+  public static void bulkRollupStats(Vec[] vecs, boolean doHisto) { RollupStats.computeAll(vecs, doHisto); }
+
   /** A high-quality 64-bit checksum of the Vec's content, useful for
    *  establishing dataset identity.
    *  @return Checksum of the Vec's content  */
@@ -1022,11 +1032,43 @@ public class Vec extends Keyed<Vec> {
    *  {@code DKV.get()}.  Warning: this pulls the data locally; using this call
    *  on every Chunk index on the same node will probably trigger an OOM!  */
   public Value chunkIdx( int cidx ) {
-    Value val = DKV.get(chunkKey(cidx));
+    Key key = chunkKey(cidx);
+    if( !key.home() ) prefetchAhead(cidx);
+    Value val = DKV.get(key);
     assert checkMissing(cidx,val) : "Missing chunk " + chunkKey(cidx);
     return val;
   }
 
+  /** Number of Chunks fetched ahead of a linear scan over remote Chunks */
+  static final int PREFETCH_CHUNKS = 8;
+  // Last remote chunk# read, and the end of the chunk#s prefetched so far.
+  // Filled in racily; a race costs at most a redundant or a skipped prefetch.
+  private transient int _lastRemoteCidx = -2, _prefetchEnd;
+
+  // A read of the remote chunk# following the last one read starts a linear
+  // scan; fetch the next Chunks in batches, ahead of the reader.
+  private void prefetchAhead( int cidx ) {
+    int last = _lastRemoteCidx;
+    _lastRemoteCidx = cidx;
+    if( cidx != last+1 ) { _prefetchEnd = 0; return; } // Random access
+    int lo = Math.max(cidx+1,_prefetchEnd);
+    if( lo > cidx+PREFETCH_CHUNKS/2 ) return;          // Still well ahead
+    int hi = Math.min(cidx+1+PREFETCH_CHUNKS,nChunks());
+    if( lo >= hi ) return;
+    _prefetchEnd = hi;
+    Key[] keys = new Key[hi-lo];
+    for( int i = lo; i < hi; i++ ) keys[i-lo] = chunkKey(i);
+    DKV.prefetch(keys);
+  }
+
+  /** Prefetch the Chunks at chunk# <em>cidx</em> of all the Vecs, with one
+   *  request per home node.  Non-blocking. */
+  public static void prefetchChunks( Vec[] vecs, int cidx ) {
+    Key[] keys = new Key[vecs.length];
+    for( int i = 0; i < vecs.length; i++ ) keys[i] = vecs[i].chunkKey(cidx);
+    DKV.prefetch(keys);
+  }
+
   private boolean checkMissing(int cidx, Value val) {
     if( val != null ) return true;
     Log.err("Error: Missing chunk " + cidx + " for " + _key);
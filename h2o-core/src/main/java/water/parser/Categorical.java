@@ -1,8 +1,10 @@
 package water.parser;
 
+import java.util.Arrays;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import water.Iced;
+import water.MemoryManager;
 import water.util.IcedHashMap;
 import water.util.Log;
 import water.util.PrettyPrint;
@@ -28,6 +30,8 @@ public final class Categorical extends Iced {
   int _maxId = -1;
   volatile IcedHashMap<BufferedString, Integer> _map;
   boolean maxDomainExceeded = false;
+  transient byte[] _packedDomain; // Sorted domain, packed by packDomain()
+  transient int[] _packedIds;     // Token ids of the packed domain words, in order
 
   Categorical() { _map = new IcedHashMap<>(); }
 
@@ -60,6 +64,33 @@ public final class Categorical extends Iced {
     return  _map.keySet().toArray(new BufferedString[_map.size()]);
   }
 
+  /**
+   * Sorts and packs the domain (see {@link PackedDomains}), keeping it together with the token ids of its words
+   * so that they can be mapped to a unified domain without a lookup per level.
+   * @return the packed domain
+   */
+  byte[] packDomain() {
+    BufferedString[] domain = getColumnDomain();
+    Arrays.sort(domain);
+    int[] ids = new int[domain.length];
+    for (int i = 0; i < domain.length; i++)
+      ids[i] = _map.get(domain[i]);
+    _packedIds = ids;
+    return _packedDomain = PackedDomains.pack(domain);
+  }
+
+  /**
+   * Maps token ids to indexes in a unified domain.
+   * @param unified packed unified domain, containing the packed domain of this map
+   * @return token id to index in the unified domain, -1 for ids not in use
+   */
+  int[] tokenIdsToDomain(byte[] unified) {
+    int[] map = MemoryManager.malloc4(maxId() + 1);
+    Arrays.fill(map, -1);
+    PackedDomains.mapOrdinals(_packedDomain, _packedIds, unified, map);
+    return map;
+  }
+
   /**
    * Converts domain values represented as BufferedStrings to UTF-8 encoding {@see BufferedString.toString()}.
    * If the source value is not actually in UTF-8, the characters will be represented in hexadecimal notation.
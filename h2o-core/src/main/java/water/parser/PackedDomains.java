@@ -128,4 +128,139 @@ public class PackedDomains {
     return data;
   }
 
+
+  /**
+   * Merges any number of packed domains at once, a k-way merge over the sorted words of all of them.
+   * Allocates only the result, sized by a first counting pass.
+   */
+  public static byte[] merge(byte[][] domains) {
+    if (domains.length == 1)
+      return domains[0];
+    WordHeap heap = new WordHeap(domains);
+    int words = 0;
+    int size = 4;
+    while (!heap.isEmpty()) {
+      byte[] d = domains[heap.poll()];
+      size += encodeAsInt(d, heap._word) + 4;
+      words++;
+    }
+    for (byte[] d : domains)
+      if (d.length == size)
+        return d;
+    byte[] data = MemoryManager.malloc1(size);
+    decodeAsInt(words, data, 0);
+    int pos = 4;
+    heap = new WordHeap(domains);
+    while (!heap.isEmpty()) {
+      byte[] d = domains[heap.poll()];
+      int len = encodeAsInt(d, heap._word) + 4;
+      System.arraycopy(d, heap._word, data, pos, len);
+      pos += len;
+    }
+    return data;
+  }
+
+  /**
+   * Fills a map from ordinals of a domain to ordinals of a unified domain containing it.
+   * Both domains are walked once, in order; words missing from the unified domain are left unmapped.
+   * @param domain packed sorted domain
+   * @param ids ordinal to map from, for each word of the domain
+   * @param unified packed sorted unified domain
+   * @param map output, map[ids[i]] is set to the index of the i-th word of the domain in the unified domain
+   */
+  public static void mapOrdinals(byte[] domain, int[] ids, byte[] unified, int[] map) {
+    final int n = sizeOf(domain);
+    int pos = 4;
+    int uPos = 4;
+    int u = 0;
+    for (int i = 0; i < n; i++) {
+      int c = -1;
+      while (uPos < unified.length && (c = compare(unified, uPos, domain, pos)) < 0) {
+        uPos += encodeAsInt(unified, uPos) + 4;
+        u++;
+      }
+      if (c == 0)
+        map[ids[i]] = u;
+      pos += encodeAsInt(domain, pos) + 4;
+    }
+  }
+
+  // Compares the words starting (with their length) at positions pa and pb, same order as BufferedString
+  static int compare(byte[] a, int pa, byte[] b, int pb) {
+    int lenA = encodeAsInt(a, pa);
+    int lenB = encodeAsInt(b, pb);
+    pa += 4;
+    pb += 4;
+    int l = lenA > lenB ? lenB : lenA;
+    for (int i = 0; i < l; i++) {
+      int x = (0xFF & a[pa + i]) - (0xFF & b[pb + i]);
+      if (x != 0)
+        return x;
+    }
+    return lenA - lenB;
+  }
+
+  // Min-heap of domains ordered by their current word
+  private static final class WordHeap {
+    private final byte[][] _domains;
+    private final int[] _pos;  // Position of the current word in each domain
+    private final int[] _heap;
+    private int _n;
+    int _word;                 // Position of the last polled word in its domain
+
+    WordHeap(byte[][] domains) {
+      _domains = domains;
+      _pos = new int[domains.length];
+      _heap = new int[domains.length];
+      for (int i = 0; i < domains.length; i++) {
+        _pos[i] = 4;
+        if (domains[i].length > 4)
+          _heap[_n++] = i;
+      }
+      for (int i = _n / 2 - 1; i >= 0; i--)
+        siftDown(i);
+    }
+
+    boolean isEmpty() { return _n == 0; }
+
+    /** Takes the smallest word, skipping it in every domain that has it; returns the domain it was read from. */
+    int poll() {
+      int d = _heap[0];
+      _word = _pos[d];
+      advance();
+      while (_n > 0 && compare(_domains[_heap[0]], _pos[_heap[0]], _domains[d], _word) == 0)
+        advance();
+      return d;
+    }
+
+    private void advance() {
+      int d = _heap[0];
+      _pos[d] += encodeAsInt(_domains[d], _pos[d]) + 4;
+      if (_pos[d] == _domains[d].length)
+        _heap[0] = _heap[--_n];
+      if (_n > 0)
+        siftDown(0);
+    }
+
+    private void siftDown(int i) {
+      int d = _heap[i];
+      while (true) {
+        int c = 2 * i + 1;
+        if (c >= _n)
+          break;
+        if (c + 1 < _n && less(_heap[c + 1], _heap[c]))
+          c++;
+        if (!less(_heap[c], d))
+          break;
+        _heap[i] = _heap[c];
+        i = c;
+      }
+      _heap[i] = d;
+    }
+
+    private boolean less(int a, int b) {
+      return compare(_domains[a], _pos[a], _domains[b], _pos[b]) < 0;
+    }
+  }
+
 }
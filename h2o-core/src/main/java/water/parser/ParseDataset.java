@@ -302,6 +302,7 @@ public final class ParseDataset {
     final int[] ecols = Arrays.copyOf(ecols2, n); // skipped columns are excluded already
     Frame fr;
     ParseFinalizer finalizer = ParseFinalizer.get(setup);
+    byte[][] packedDomains = null; // unified domains, packed
     // If we have any, go gather unified categorical domains
     if( n > 0 ) {
       if (!setup.getParseType().isDomainProvided) { // Domains are not provided via setup we need to collect them
@@ -309,6 +310,7 @@ public final class ParseDataset {
         {
           GatherCategoricalDomainsTask gcdt = new GatherCategoricalDomainsTask(mfpt._cKey, ecols,
                   mfpt._parseSetup._parse_columns_indices).doAllNodes();
+          packedDomains = gcdt.getPackedDomains();
           //Test domains for excessive length.
           List<String> offendingColNames = new ArrayList<>();
           for (int i = 0; i < ecols.length; i++) {
@@ -349,7 +351,8 @@ public final class ParseDataset {
           RPC[] rpcs = new RPC[H2O.CLOUD.size()];
           for (int i = 0; i < fcdt.length; i++){
             H2ONode[] nodes = H2O.CLOUD.members();
-            fcdt[i] = new CreateParse2GlobalCategoricalMaps(mfpt._cKey, fr._key, ecols, mfpt._parseSetup._parse_columns_indices);
+            fcdt[i] = new CreateParse2GlobalCategoricalMaps(mfpt._cKey, fr._key, ecols, mfpt._parseSetup._parse_columns_indices,
+                    packedDomains);
             rpcs[i] = new RPC<>(nodes[i], fcdt[i]).call();
           }
           for (RPC rpc : rpcs)
@@ -425,46 +428,51 @@ public final class ParseDataset {
     private final Key   _frKey;
     private final int[] _ecol;
     private final int[] _parseColumns;
+    private final byte[][] _packedDomains; // unified domains of the categorical columns
 
-    private CreateParse2GlobalCategoricalMaps(Key parseCatMapsKey, Key key, int[] ecol, int[] parseColumns) {
+    private static final byte[] EMPTY_DOMAIN = PackedDomains.pack(new BufferedString[0]);
+
+    private CreateParse2GlobalCategoricalMaps(Key parseCatMapsKey, Key key, int[] ecol, int[] parseColumns,
+                                              byte[][] packedDomains) {
       _parseCatMapsKey = parseCatMapsKey;
       _frKey = key;
       _ecol = ecol; // contains the categoricals column indices only
       _parseColumns = parseColumns;
+      _packedDomains = packedDomains;
     }
 
     @Override public void compute2() {
-      Frame _fr = DKV.getGet(_frKey); // does not contain skipped columns
+      final Frame fr = DKV.getGet(_frKey); // does not contain skipped columns
       // get the node local category->ordinal maps for each column from initial parse pass
       if( !MultiFileParseTask._categoricals.containsKey(_parseCatMapsKey) ) {
         tryComplete();
         return;
       }
-        final Categorical[] parseCatMaps = MultiFileParseTask._categoricals.get(_parseCatMapsKey); // include skipped columns
-        int[][] _nodeOrdMaps = new int[_ecol.length][];
-
-        // create old_ordinal->new_ordinal map for each cat column
-        for (int eColIdx = 0; eColIdx < _ecol.length; eColIdx++) {
-          int colIdx = _parseColumns[_ecol[eColIdx]];
-          if (parseCatMaps[colIdx].size() != 0) {
-            _nodeOrdMaps[eColIdx] = MemoryManager.malloc4(parseCatMaps[colIdx].maxId() + 1);
-            Arrays.fill(_nodeOrdMaps[eColIdx], -1);
-            //Bulk String->BufferedString conversion is slightly faster, but consumes memory
-            final BufferedString[] unifiedDomain = _fr.vec(_ecol[eColIdx]).isCategorical()?
-                    BufferedString.toBufferedString(_fr.vec(_ecol[eColIdx]).domain()):new BufferedString[0];
-            //final String[] unifiedDomain = _fr.vec(colIdx).domain();
-            for (int i = 0; i < unifiedDomain.length; i++) {
-              //final BufferedString cat = new BufferedString(unifiedDomain[i]);
-              if (parseCatMaps[colIdx].containsKey(unifiedDomain[i])) {
-                _nodeOrdMaps[eColIdx][parseCatMaps[colIdx].getTokenId(unifiedDomain[i])] = i;
-              }
+      final Categorical[] parseCatMaps = MultiFileParseTask._categoricals.get(_parseCatMapsKey); // include skipped columns
+      final int[][] nodeOrdMaps = new int[_ecol.length][];
+
+      // create old_ordinal->new_ordinal map for each cat column, walking the sorted local and unified domains
+      H2OCountedCompleter[] maptasks = new H2OCountedCompleter[_ecol.length];
+      for (int eColIdx = 0; eColIdx < _ecol.length; eColIdx++) {
+        final int fi = eColIdx;
+        maptasks[eColIdx] = new H2OCountedCompleter(currThrPriority()) {
+          @Override
+          public void compute2() {
+            int colIdx = _parseColumns[_ecol[fi]];
+            if (parseCatMaps[colIdx].size() != 0) {
+              final byte[] unifiedDomain = fr.vec(_ecol[fi]).isCategorical() && _packedDomains != null ?
+                      _packedDomains[fi] : EMPTY_DOMAIN;
+              nodeOrdMaps[fi] = parseCatMaps[colIdx].tokenIdsToDomain(unifiedDomain);
+            } else {
+              Log.debug("Column " + colIdx + " was marked as categorical but categorical map is empty!");
             }
-          } else {
-            Log.debug("Column " + colIdx + " was marked as categorical but categorical map is empty!");
+            tryComplete();
           }
-        }
-        // Store the local->global ordinal maps in DKV by node parse categorical key and node index
-        DKV.put(Key.make(_parseCatMapsKey.toString() + "parseCatMapNode" + H2O.SELF.index()), new CategoricalUpdateMap(_nodeOrdMaps));
+        };
+      }
+      ForkJoinTask.invokeAll(maptasks);
+      // Store the local->global ordinal maps in DKV by node parse categorical key and node index
+      DKV.put(Key.make(_parseCatMapsKey.toString() + "parseCatMapNode" + H2O.SELF.index()), new CategoricalUpdateMap(nodeOrdMaps));
       tryComplete();
     }
   }
@@ -521,7 +529,8 @@ public final class ParseDataset {
   private static class GatherCategoricalDomainsTask extends MRTask<GatherCategoricalDomainsTask> {
     private final Key _k;
     private final int[] _catColIdxs;
-    private byte[][] _packedDomains;
+    private byte[][] _nodeDomains;   // packed sorted domains of the nodes reduced so far, node after node
+    private byte[][] _packedDomains; // per column, unified domain
     private final int[] _parseColumns;
 
     private GatherCategoricalDomainsTask(Key k, int[] ccols, int[] parseColumns) {
@@ -533,38 +542,58 @@ public final class ParseDataset {
     @Override
     public void setupLocal() {
       if (!MultiFileParseTask._categoricals.containsKey(_k)) return;
-      _packedDomains = new byte[_catColIdxs.length][];
-      final BufferedString[][] _perColDomains = new BufferedString[_catColIdxs.length][];
+      final byte[][] packedDomains = new byte[_catColIdxs.length][];
       final Categorical[] _colCats = MultiFileParseTask._categoricals.get(_k); // still refer to all columns
-      int i = 0;
-      for (int col : _catColIdxs) {
-        _colCats[_parseColumns[col]].convertToUTF8(_parseColumns[col] + 1);
-        _perColDomains[i] = _colCats[_parseColumns[col]].getColumnDomain();
-        Arrays.sort(_perColDomains[i]);
-        _packedDomains[i] = PackedDomains.pack(_perColDomains[i]);
-        i++;
+      H2OCountedCompleter[] domtasks = new H2OCountedCompleter[_catColIdxs.length];
+      for (int i = 0; i < _catColIdxs.length; i++) {
+        final int fi = i;
+        domtasks[i] = new H2OCountedCompleter(currThrPriority()) {
+          @Override
+          public void compute2() {
+            int col = _parseColumns[_catColIdxs[fi]];
+            _colCats[col].convertToUTF8(col + 1);
+            packedDomains[fi] = _colCats[col].packDomain();
+            tryComplete();
+          }
+        };
       }
+      ForkJoinTask.invokeAll(domtasks);
+      _nodeDomains = packedDomains;
       Log.trace("Done locally collecting domains on each node.");
     }
-    
+
+    // Node domains are only collected here, and merged all at once in postGlobal
     @Override
     public void reduce(final GatherCategoricalDomainsTask other) {
-      if (_packedDomains == null) {
-        _packedDomains = other._packedDomains;
-      } else if (other._packedDomains != null) { // merge two packed domains
-        H2OCountedCompleter[] domtasks = new H2OCountedCompleter[_catColIdxs.length];
-        for (int i = 0; i < _catColIdxs.length; i++) {
-          final int fi = i;
-          domtasks[i] = new H2OCountedCompleter(currThrPriority()) {
-            @Override
-            public void compute2() {
-              _packedDomains[fi] = PackedDomains.merge(_packedDomains[fi], other._packedDomains[fi]);
-              tryComplete();
-            }
-          };
-        }
-        ForkJoinTask.invokeAll(domtasks);
+      if (_nodeDomains == null) {
+        _nodeDomains = other._nodeDomains;
+      } else if (other._nodeDomains != null) {
+        _nodeDomains = ArrayUtils.append(_nodeDomains, other._nodeDomains);
       }
+    }
+
+    @Override
+    public void postGlobal() {
+      if (_nodeDomains == null) return;
+      final int ncols = _catColIdxs.length;
+      final int nodes = _nodeDomains.length / ncols;
+      _packedDomains = new byte[ncols][];
+      H2OCountedCompleter[] domtasks = new H2OCountedCompleter[_catColIdxs.length];
+      for (int i = 0; i < _catColIdxs.length; i++) {
+        final int fi = i;
+        domtasks[i] = new H2OCountedCompleter(currThrPriority()) {
+          @Override
+          public void compute2() {
+            byte[][] domains = new byte[nodes][];
+            for (int j = 0; j < nodes; j++)
+              domains[j] = _nodeDomains[j * ncols + fi];
+            _packedDomains[fi] = PackedDomains.merge(domains);
+            tryComplete();
+          }
+        };
+      }
+      ForkJoinTask.invokeAll(domtasks);
+      _nodeDomains = null;
       Log.trace("Done merging domains.");
     }
 
@@ -575,6 +604,10 @@ public final class ParseDataset {
     public String[] getDomain(int colIdx) {
       return _packedDomains == null ? null : PackedDomains.unpackToStrings(_packedDomains[colIdx]);
     }
+
+    public byte[][] getPackedDomains() {
+      return _packedDomains;
+    }
   }
 
   // --------------------------------------------------------------------------
@@ -1062,11 +1095,8 @@ public final class ParseDataset {
   public static void logParseResults(Frame fr) {
     long numRows = fr.anyVec().length();
     Log.info("Parse result for " + fr._key + " (" + Long.toString(numRows) + " rows, "+Integer.toString(fr.numCols())+" columns):");
-    // get all rollups started in parallell, otherwise this takes ages!
-    Futures fs = new Futures();
-    Vec[] vecArr = fr.vecs();
-    for(Vec v:vecArr)  v.startRollupStats(fs);
-    fs.blockForPending();
+    // get all rollups in one pass, otherwise this takes ages!
+    Vec[] vecArr = fr.bulkRollups();
 
     int namelen = 0;
     for (String s : fr.names()) namelen = Math.max(namelen, s.length());
@@ -107,10 +107,10 @@ public class PersistManager {
     boolean windowsPath = iceRoot.toString().matches("^[a-zA-Z]:.*");
 
     if (windowsPath) {
-      ice = new PersistFS(new File(iceRoot.toString()));
+      ice = newLocalIce(new File(iceRoot.toString()));
     }
     else if ((iceRoot.getScheme() == null) || Schemes.FILE.equals(iceRoot.getScheme())) {
-      ice = new PersistFS(new File(iceRoot.getPath()));
+      ice = newLocalIce(new File(iceRoot.getPath()));
     }
     else if( Schemes.HDFS.equals(iceRoot.getScheme()) ) {
       Log.err("HDFS ice_root not yet supported.  Exiting.");
@@ -173,6 +173,15 @@ public class PersistManager {
     }
   }
 
+  /** Swap store on the local file system, as selected by -ice_store */
+  private static PersistFS newLocalIce(File root) {
+    if (H2O.OptArgs.ICE_STORE_SEGMENTED.equals(H2O.ARGS.ice_store)) {
+      Log.info("Using segmented ice store in " + root);
+      return new PersistSegmentedFS(root);
+    }
+    return new PersistFS(root);
+  }
+
   public void store(int backend, Value v) throws IOException {
     stats[backend].store_count.incrementAndGet();
     I[backend].store(v);
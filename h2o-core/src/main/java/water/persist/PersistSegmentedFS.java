@@ -0,0 +1,322 @@
+package water.persist;
+
+import water.H2O;
+import water.Key;
+import water.Value;
+import water.nbhm.NonBlockingHashMap;
+import water.util.Log;
+import water.util.PrettyPrint;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Swap-to-disk backend for the Cleaner which appends spilled Values into a
+ * few large segment files instead of creating one file (and one directory
+ * per Vec) for every Value.
+ * <p>
+ * Values are appended to the single active segment; an in-memory index maps
+ * each Key to its (segment, offset, length).  A full segment is sealed and
+ * memory-mapped read-only, the active segment is read back with positional
+ * {@link FileChannel} reads.  Deleting a Value only marks its bytes dead;
+ * once enough of a sealed segment is dead, a background thread copies the
+ * remaining live Values to the active segment and removes the file.
+ * <p>
+ * Plain file-system operations (import/export of user files) are inherited
+ * from {@link PersistFS}.  Enabled with {@code -ice_store segmented}.
+ */
+public class PersistSegmentedFS extends PersistFS {
+
+  /** Size at which the active segment is sealed and a new one is started. */
+  static final long DEFAULT_SEGMENT_SIZE = Long.getLong(H2O.OptArgs.SYSTEM_PROP_PREFIX + "persist.segment.size", 256L << 20);
+  /** Fraction of dead bytes in a sealed segment which triggers its compaction. */
+  static final double DEFAULT_COMPACT_RATIO = Double.parseDouble(System.getProperty(H2O.OptArgs.SYSTEM_PROP_PREFIX + "persist.segment.compactRatio", "0.5"));
+
+  private final long _segmentSize;
+  private final double _compactRatio;
+  private final File _segDir;
+  // Key -> location of the spilled bytes
+  private final NonBlockingHashMap<Key, Entry> _index = new NonBlockingHashMap<>();
+  // All open segments, by id
+  private final NonBlockingHashMap<Integer, Segment> _segments = new NonBlockingHashMap<>();
+  private final LinkedBlockingQueue<Segment> _compactQueue = new LinkedBlockingQueue<>();
+  private Segment _active;      // Guarded by 'this'
+  private int _nextSegmentId;   // Guarded by 'this'
+
+  PersistSegmentedFS(File root) {
+    this(root, DEFAULT_SEGMENT_SIZE, DEFAULT_COMPACT_RATIO);
+    Compactor c = new Compactor();
+    c.start();
+  }
+
+  // Without a background compactor; compaction is driven by calls to compact()
+  PersistSegmentedFS(File root, long segmentSize, double compactRatio) {
+    super(root);
+    _segmentSize = segmentSize;
+    _compactRatio = compactRatio;
+    _segDir = new File(_dir, "segments");
+  }
+
+  @Override public byte[] load(Value v) throws IOException {
+    while( true ) {
+      Entry e = _index.get(v._key);
+      if( e == null || e._len < v._max ) {
+        // Racey delete of a spilled value
+        assert !v.isPersisted() : (e == null ? -1 : e._len) + " " + v._max + " " + v._key;
+        return null;
+      }
+      byte[] b = e._seg.read(e._off, e._len);
+      if( b != null ) return b;
+      // Segment was compacted away under us; the index already points to the new location
+    }
+  }
+
+  @Override public void store(Value v) throws IOException {
+    assert !v.isPersisted();
+    byte[] m = v.memOrLoad(); // we are not single threaded anymore
+    if( m != null && m.length != v._max ) {
+      Log.warn("Value size mismatch? " + v._key + " byte[].len=" + m.length+" v._max="+v._max);
+      v._max = m.length; // Implies update of underlying POJO, then re-serializing it without K/V storing it
+    }
+    if( m == null ) throw new java.io.FileNotFoundException("Value " + v._key + " was removed");
+    Entry old = _index.put(v._key, append(m));
+    if( old != null ) kill(old);
+  }
+
+  @Override public void delete(Value v) {
+    Entry e = _index.remove(v._key);
+    if( e != null ) kill(e);     // Silently ignore missing values
+  }
+
+  @Override public void cleanUp() {
+    synchronized( this ) {
+      for( Segment seg : _segments.values() )
+        seg.close();
+      _segments.clear();
+      _index.clear();
+      _compactQueue.clear();
+      _active = null;
+    }
+    super.cleanUp();
+  }
+
+  // Append bytes to the active segment, rolling over to a new one if full.
+  private synchronized Entry append(byte[] m) throws IOException {
+    Segment seg = _active;
+    if( seg == null || (seg._size > 0 && seg._size + m.length > _segmentSize) ) {
+      if( seg != null ) seal(seg);
+      seg = _active = newSegment();
+    }
+    long off = seg._size;
+    seg.write(m, off);
+    seg._size += m.length;
+    return new Entry(seg, off, m.length);
+  }
+
+  private Segment newSegment() throws IOException {
+    if( !_segDir.mkdirs() && !_segDir.exists() )
+      throw new IOException("mkdirs failed making " + _segDir);
+    int id = _nextSegmentId++;
+    Segment seg = new Segment(id, new File(_segDir, "seg_" + id + ".ice"));
+    _segments.put(seg._id, seg);
+    return seg;
+  }
+
+  private void seal(Segment seg) throws IOException {
+    seg.seal();
+    maybeCompact(seg);
+  }
+
+  // Account bytes which are no longer reachable from the index
+  private void kill(Entry e) {
+    e._seg._dead.addAndGet(e._len);
+    maybeCompact(e._seg);
+  }
+
+  private void maybeCompact(Segment seg) {
+    if( seg._sealed && seg._dead.get() >= _compactRatio * seg._size && seg._compacting.compareAndSet(false, true) )
+      _compactQueue.add(seg);
+  }
+
+  /** Synchronously compact all segments queued for compaction.
+   *  @return number of segments removed */
+  int compact() throws IOException {
+    int n = 0;
+    Segment seg;
+    while( (seg = _compactQueue.poll()) != null ) {
+      compact(seg);
+      n++;
+    }
+    return n;
+  }
+
+  // Move all live Values out of the given (sealed) segment, then drop it.
+  private void compact(Segment seg) throws IOException {
+    long moved = 0;
+    for( Map.Entry<Key, Entry> kv : _index.entrySet() ) {
+      Entry e = kv.getValue();
+      if( e._seg != seg ) continue;
+      byte[] b = seg.read(e._off, e._len);
+      if( b == null ) continue; // Dropped by a racing cleanUp
+      Entry ne = append(b);
+      if( _index.replace(kv.getKey(), e, ne) ) moved += e._len;
+      else kill(ne);            // Deleted or re-stored meanwhile
+    }
+    _segments.remove(seg._id);
+    seg.close();
+    Log.debug("Compacted ice segment " + seg._file.getName() + ": moved " + PrettyPrint.bytes(moved) +
+              ", reclaimed " + PrettyPrint.bytes(seg._size - moved));
+  }
+
+  /** Number of open segment files; for testing. */
+  int segmentCount() { return _segments.size(); }
+
+  /** Location of a spilled Value. */
+  private static final class Entry {
+    final Segment _seg;
+    final long _off;
+    final int _len;
+    Entry(Segment seg, long off, int len) { _seg = seg; _off = off; _len = len; }
+  }
+
+  /** One append-only segment file. */
+  private static final class Segment {
+    final int _id;
+    final File _file;
+    final FileChannel _ch;
+    final AtomicLong _dead = new AtomicLong(); // Bytes no longer referenced by the index
+    final AtomicBoolean _compacting = new AtomicBoolean();
+    // Read lock for loads, write lock for closing the segment
+    final ReentrantReadWriteLock _lock = new ReentrantReadWriteLock();
+    long _size;                 // Bytes appended; only changed by the owning PersistSegmentedFS
+    volatile boolean _sealed;   // No more appends
+    volatile boolean _closed;   // File is gone
+    private volatile MappedByteBuffer _map; // Set once sealed
+
+    Segment(int id, File file) throws IOException {
+      _id = id;
+      _file = file;
+      _ch = new RandomAccessFile(file, "rw").getChannel();
+    }
+
+    void write(byte[] m, long off) throws IOException {
+      ByteBuffer bb = ByteBuffer.wrap(m);
+      long pos = off;
+      while( bb.hasRemaining() )
+        pos += _ch.write(bb, pos);
+    }
+
+    void seal() throws IOException {
+      _sealed = true;
+      if( _size > 0 && _size <= Integer.MAX_VALUE )
+        _map = _ch.map(FileChannel.MapMode.READ_ONLY, 0, _size);
+    }
+
+    // Returns null if the segment was closed
+    byte[] read(long off, int len) throws IOException {
+      _lock.readLock().lock();
+      try {
+        if( _closed ) return null;
+        byte[] b = new byte[len];
+        MappedByteBuffer map = _map;
+        if( map != null ) {
+          ByteBuffer bb = map.duplicate();
+          bb.position((int) off);
+          bb.get(b);
+        } else {
+          ByteBuffer bb = ByteBuffer.wrap(b);
+          long pos = off;
+          while( bb.hasRemaining() ) {
+            int n = _ch.read(bb, pos);
+            if( n < 0 ) throw new EOFException("Unexpected end of " + _file + " at " + pos);
+            pos += n;
+          }
+        }
+        return b;
+      } finally {
+        _lock.readLock().unlock();
+      }
+    }
+
+    void close() {
+      _lock.writeLock().lock();
+      try {
+        if( _closed ) return;
+        _closed = true;
+        if( _map != null ) {
+          unmap(_map);          // Free the disk space now, not at some future GC (and let Windows delete the file)
+          _map = null;
+        }
+        try { _ch.close(); } catch( IOException ignore ) { }
+        if( !_file.delete() && _file.exists() )
+          Log.warn("Could not delete ice segment " + _file + ", its disk space stays allocated.");
+      } finally {
+        _lock.writeLock().unlock();
+      }
+    }
+  }
+
+  /**
+   * Releases a mapped buffer with its cleaner, the buffer must not be accessed afterwards.
+   * @return false if the JVM does not allow it; the mapping is then released when the buffer is collected
+   */
+  static boolean unmap(MappedByteBuffer map) {
+    try {
+      Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+      Method invokeCleaner;
+      try {
+        invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+      } catch( NoSuchMethodException e ) {
+        invokeCleaner = null;
+      }
+      if( invokeCleaner != null ) { // Java 9+
+        Field f = unsafeClass.getDeclaredField("theUnsafe");
+        f.setAccessible(true);
+        invokeCleaner.invoke(f.get(null), map);
+      } else {                      // Java 7/8: ((sun.nio.ch.DirectBuffer) map).cleaner().clean()
+        Method cleanerMethod = map.getClass().getMethod("cleaner");
+        cleanerMethod.setAccessible(true);
+        Object cleaner = cleanerMethod.invoke(map);
+        if( cleaner == null ) return false;
+        Method clean = cleaner.getClass().getMethod("clean");
+        clean.setAccessible(true);
+        clean.invoke(cleaner);
+      }
+      return true;
+    } catch( Exception e ) {
+      Log.warn("Could not unmap ice segment buffer: " + e);
+      return false;
+    }
+  }
+
+  /** Background compaction of sealed segments. */
+  private class Compactor extends Thread {
+    Compactor() {
+      super("IceCompactor");
+      setDaemon(true);
+    }
+    @Override public void run() {
+      while( true ) {
+        try {
+          Segment seg = _compactQueue.take();
+          if( !seg._closed ) compact(seg);
+        } catch( InterruptedException ignore ) {
+        } catch( Throwable t ) {
+          Log.warn("Ice segment compaction failed: " + t.getMessage());
+        }
+      }
+    }
+  }
+}
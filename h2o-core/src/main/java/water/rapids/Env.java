@@ -284,6 +284,7 @@ public class Env extends Iced {
     init(new AstComma());
     init(new AstLs());
     init(new AstSetProperty());
+    init(new AstExport());
 
     // Search
     init(new AstMatch());
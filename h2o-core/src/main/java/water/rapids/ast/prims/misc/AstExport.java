@@ -0,0 +1,41 @@
+package water.rapids.ast.prims.misc;
+
+import water.fvec.Frame;
+import water.rapids.Val;
+import water.rapids.ast.AstBuiltin;
+import water.rapids.vals.ValStr;
+import water.util.ExportFileFormat;
+
+/**
+ * Export a frame to a file or a directory of part files, in one of the
+ * {@link ExportFileFormat}s.  Blocks until the export finishes.
+ */
+public class AstExport extends AstBuiltin<AstExport> {
+
+  @Override
+  public String[] args() {
+    return new String[]{"frame", "path", "force", "nparts", "format"};
+  }
+
+  @Override
+  public int nargs() {
+    return 1 + 5;
+  } // (export frame path force nparts format)
+
+  @Override
+  public String str() {
+    return "export";
+  }
+
+  @Override
+  protected ValStr exec(Val[] args) {
+    Frame fr = args[1].getFrame();
+    String path = args[2].getStr();
+    boolean force = args[3].getNum() == 1;
+    int nParts = (int) args[4].getNum();
+    ExportFileFormat format = ExportFileFormat.parse(args[5].getStr());
+    Frame.export(fr, path, String.valueOf(fr._key), force, nParts, format, null, new Frame.CSVStreamParams()).get();
+    return new ValStr(path);
+  }
+
+}
@@ -35,17 +35,19 @@ import java.util.Arrays;
 public class AstGroup extends AstPrimitive {
   public enum NAHandling {ALL, RM, IGNORE}
 
-  // Functions handled by GroupBy
+  // Functions handled by GroupBy.  The reduction state of a group is a run of
+  // initVal().length doubles, starting at an offset into a (possibly shared)
+  // array.
   public enum FCN {
     nrow() {
       @Override
-      public void op(double[] d0s, double d1) {
-        d0s[0]++;
+      public void op(double[] d0s, int o, double d1) {
+        d0s[o]++;
       }
 
       @Override
-      public void atomic_op(double[] d0s, double[] d1s) {
-        d0s[0] += d1s[0];
+      public void combine(double[] d0s, int o0, double[] d1s, int o1, int len) {
+        d0s[o0] += d1s[o1];
       }
 
       @Override
@@ -55,13 +57,13 @@ public class AstGroup extends AstPrimitive {
     },
     mean() {
       @Override
-      public void op(double[] d0s, double d1) {
-        d0s[0] += d1;
+      public void op(double[] d0s, int o, double d1) {
+        d0s[o] += d1;
       }
 
       @Override
-      public void atomic_op(double[] d0s, double[] d1s) {
-        d0s[0] += d1s[0];
+      public void combine(double[] d0s, int o0, double[] d1s, int o1, int len) {
+        d0s[o0] += d1s[o1];
       }
 
       @Override
@@ -71,13 +73,13 @@ public class AstGroup extends AstPrimitive {
     },
     sum() {
       @Override
-      public void op(double[] d0s, double d1) {
-        d0s[0] += d1;
+      public void op(double[] d0s, int o, double d1) {
+        d0s[o] += d1;
       }
 
       @Override
-      public void atomic_op(double[] d0s, double[] d1s) {
-        d0s[0] += d1s[0];
+      public void combine(double[] d0s, int o0, double[] d1s, int o1, int len) {
+        d0s[o0] += d1s[o1];
       }
 
       @Override
@@ -87,13 +89,13 @@ public class AstGroup extends AstPrimitive {
     },
     sumSquares() {
       @Override
-      public void op(double[] d0s, double d1) {
-        d0s[0] += d1 * d1;
+      public void op(double[] d0s, int o, double d1) {
+        d0s[o] += d1 * d1;
       }
 
       @Override
-      public void atomic_op(double[] d0s, double[] d1s) {
-        d0s[0] += d1s[0];
+      public void combine(double[] d0s, int o0, double[] d1s, int o1, int len) {
+        d0s[o0] += d1s[o1];
       }
 
       @Override
@@ -103,14 +105,15 @@ public class AstGroup extends AstPrimitive {
     },
     var() {
       @Override
-      public void op(double[] d0s, double d1) {
-        d0s[0] += d1 * d1;
-        d0s[1] += d1;
+      public void op(double[] d0s, int o, double d1) {
+        d0s[o] += d1 * d1;
+        d0s[o + 1] += d1;
       }
 
       @Override
-      public void atomic_op(double[] d0s, double[] d1s) {
-        ArrayUtils.add(d0s, d1s);
+      public void combine(double[] d0s, int o0, double[] d1s, int o1, int len) {
+        d0s[o0] += d1s[o1];
+        d0s[o0 + 1] += d1s[o1 + 1];
       }
 
       @Override
@@ -127,14 +130,15 @@ public class AstGroup extends AstPrimitive {
     },
     sdev() {
       @Override
-      public void op(double[] d0s, double d1) {
-        d0s[0] += d1 * d1;
-        d0s[1] += d1;
+      public void op(double[] d0s, int o, double d1) {
+        d0s[o] += d1 * d1;
+        d0s[o + 1] += d1;
       }
 
       @Override
-      public void atomic_op(double[] d0s, double[] d1s) {
-        ArrayUtils.add(d0s, d1s);
+      public void combine(double[] d0s, int o0, double[] d1s, int o1, int len) {
+        d0s[o0] += d1s[o1];
+        d0s[o0 + 1] += d1s[o1 + 1];
       }
 
       @Override
@@ -151,13 +155,13 @@ public class AstGroup extends AstPrimitive {
     },
     min() {
       @Override
-      public void op(double[] d0s, double d1) {
-        d0s[0] = Math.min(d0s[0], d1);
+      public void op(double[] d0s, int o, double d1) {
+        d0s[o] = Math.min(d0s[o], d1);
       }
 
       @Override
-      public void atomic_op(double[] d0s, double[] d1s) {
-        op(d0s, d1s[0]);
+      public void combine(double[] d0s, int o0, double[] d1s, int o1, int len) {
+        op(d0s, o0, d1s[o1]);
       }
 
       @Override
@@ -172,13 +176,13 @@ public class AstGroup extends AstPrimitive {
     },
     max() {
       @Override
-      public void op(double[] d0s, double d1) {
-        d0s[0] = Math.max(d0s[0], d1);
+      public void op(double[] d0s, int o, double d1) {
+        d0s[o] = Math.max(d0s[o], d1);
       }
 
       @Override
-      public void atomic_op(double[] d0s, double[] d1s) {
-        op(d0s, d1s[0]);
+      public void combine(double[] d0s, int o0, double[] d1s, int o1, int len) {
+        op(d0s, o0, d1s[o1]);
       }
 
       @Override
@@ -194,12 +198,12 @@ public class AstGroup extends AstPrimitive {
     median() {  // we will be doing our own thing here for median
 
       @Override
-      public void op(double[] d0s, double d1) {
+      public void op(double[] d0s, int o, double d1) {
         ;
       }
 
       @Override
-      public void atomic_op(double[] d0s, double[] d1s) {
+      public void combine(double[] d0s, int o0, double[] d1s, int o1, int len) {
         ;
       }
 
@@ -210,18 +214,19 @@ public class AstGroup extends AstPrimitive {
 
       @Override
       public double[] initVal(int maxx) {
-        return new double[maxx];
+        return new double[0]; // No per-group state, see BuildGroup
       }
     },
     mode() {
       @Override
-      public void op(double[] d0s, double d1) {
-        d0s[(int) d1]++;
+      public void op(double[] d0s, int o, double d1) {
+        d0s[o + (int) d1]++;
       }
 
       @Override
-      public void atomic_op(double[] d0s, double[] d1s) {
-        ArrayUtils.add(d0s, d1s);
+      public void combine(double[] d0s, int o0, double[] d1s, int o1, int len) {
+        for (int i = 0; i < len; i++)
+          d0s[o0 + i] += d1s[o1 + i];
       }
 
       @Override
@@ -235,12 +240,21 @@ public class AstGroup extends AstPrimitive {
       }
     },;
 
-    public abstract void op(double[] d0, double d1);
+    public abstract void op(double[] d0s, int o, double d1);
 
-    public abstract void atomic_op(double[] d0, double[] d1);
+    // Fold the 'len' long state d1s[o1...] into d0s[o0...]
+    public abstract void combine(double[] d0s, int o0, double[] d1s, int o1, int len);
 
     public abstract double postPass(double ds[], long n);
 
+    public final void op(double[] d0, double d1) {
+      op(d0, 0, d1);
+    }
+
+    public final void atomic_op(double[] d0, double[] d1) {
+      combine(d0, 0, d1, 0, d1.length);
+    }
+
     public double[] initVal(int maxx) {
       return new double[]{0};
     }
@@ -277,13 +291,16 @@ public class AstGroup extends AstPrimitive {
   }
 
   public ValFrame performGroupingWithAggregations(Frame fr, int[] gbCols, AGG[] aggs) {
+    // Nearly a group per row: sort and scan instead of hashing all groups
+    if (SortedGroups.preferred(fr, gbCols))
+      return new ValFrame(SortedGroups.groupBy(fr, gbCols, aggs, prepareFCNames(fr, aggs)));
+
     final boolean hasMedian = hasMedian(aggs);
-    final IcedHashMap<G, String> gss = doGroups(fr, gbCols, aggs, hasMedian);
-    final G[] grps = gss.keySet().toArray(new G[gss.size()]);
+    final G[] grps = groups(fr, gbCols, aggs, hasMedian);
 
     applyOrdering(gbCols, grps);
 
-    final int medianActionsNeeded = hasMedian ? calculateMediansForGRPS(fr, gbCols, aggs, gss, grps) : -1;
+    final int medianActionsNeeded = hasMedian ? calculateMediansForGRPS(fr, gbCols, aggs, toMap(grps), grps) : -1;
 
     MRTask mrFill = prepareMRFillTask(grps, aggs, medianActionsNeeded);
 
@@ -437,11 +454,22 @@ public class AstGroup extends AstPrimitive {
   }
 
   public static IcedHashMap<G, String> doGroups(Frame fr, int[] gbCols, AGG[] aggs, boolean hasMedian) {
+    return toMap(groups(fr, gbCols, aggs, hasMedian));
+  }
+
+  // Same as doGroups, but returns the groups as an array, in no particular order
+  public static G[] groups(Frame fr, int[] gbCols, AGG[] aggs, boolean hasMedian) {
     // do the group by work now
     long start = System.currentTimeMillis();
-    GBTask p1 = new GBTask(gbCols, aggs, hasMedian).doAll(fr);
+    GBTask p1 = new GBTask(fr, gbCols, aggs).doAll(fr);
     Log.info("Group By Task done in " + (System.currentTimeMillis() - start) / 1000. + " (s)");
-    return p1._gss;
+    return p1._groups == null ? new G[0] : p1._groups.groups(aggs, hasMedian);
+  }
+
+  private static IcedHashMap<G, String> toMap(G[] grps) {
+    IcedHashMap<G, String> gss = new IcedHashMap<>();
+    for (G g : grps) gss.put(g, "");
+    return gss;
   }
 
   // Utility for AstDdply; return a single aggregate for counting rows-per-group
@@ -499,6 +527,13 @@ public class AstGroup extends AstPrimitive {
       if (!Double.isNaN(d1) || _na == NAHandling.IGNORE) n0s[i]++;
     }
 
+    // Same as op() above, for the flat state of a group at ds[off...] and
+    // its element count at ns[ni]
+    public void op(double[] ds, int off, long[] ns, int ni, double d1) {
+      if (!Double.isNaN(d1) || _na == NAHandling.ALL) _fcn.op(ds, off, d1);
+      if (!Double.isNaN(d1) || _na == NAHandling.IGNORE) ns[ni]++;
+    }
+
     // Atomically update the array pair {dss[i],ns[i]} with the pair {d1,n1}.
     // Same as op() above, but called racily and updates atomically.
     public void atomic_op(double[][] d0ss, long[] n0s, int i, double[] d1s, long n1) {
@@ -518,56 +553,52 @@ public class AstGroup extends AstPrimitive {
   // Main worker MRTask.  Makes 1 pass over the data, and accumulates both all
   // groups and all aggregates
   public static class GBTask extends MRTask<GBTask> {
-    final IcedHashMap<G, String> _gss; // Shared per-node, common, racy
+    private static final int BLOCK = 1024; // Rows decoded at once
     private final int[] _gbCols; // Columns used to define group
     private final AGG[] _aggs;   // Aggregate descriptions
-    private final boolean _hasMedian;
+    private final GroupTable _proto; // Empty table, only defines the layout
+    GroupTable _groups;          // Groups found, with their aggregates
 
-
-    GBTask(int[] gbCols, AGG[] aggs, boolean hasMedian) {
+    GBTask(Frame fr, int[] gbCols, AGG[] aggs) {
       _gbCols = gbCols;
       _aggs = aggs;
-      _gss = new IcedHashMap<>();
-      _hasMedian = hasMedian;
+      _proto = new GroupTable(fr, gbCols, aggs);
     }
 
     @Override
     public void map(Chunk[] cs) {
       // Groups found in this Chunk
-      IcedHashMap<G, String> gs = new IcedHashMap<>();
-      G gWork = new G(_gbCols.length, _aggs, _hasMedian); // Working Group
-      G gOld;                   // Existing Group to be filled in
-      for (int row = 0; row < cs[0]._len; row++) {
-        // Find the Group being worked on
-        gWork.fill(row, cs, _gbCols);            // Fill the worker Group for the hashtable lookup
-        if (gs.putIfAbsent(gWork, "") == null) { // Insert if not absent (note: no race, no need for atomic)
-          gOld = gWork;                          // Inserted 'gWork' into table
-          gWork = new G(_gbCols.length, _aggs, _hasMedian);   // need entirely new G
-        } else gOld = gs.getk(gWork);            // Else get existing group
-
-        for (int i = 0; i < _aggs.length; i++) // Accumulate aggregate reductions
-          _aggs[i].op(gOld._dss, gOld._ns, i, cs[_aggs[i]._col].atd(row));
-      }
-      // This is a racy update into the node-local shared table of groups
-      reduce(gs);               // Atomically merge Group stats
+      GroupTable gt = new GroupTable(_proto);
+      double[] key = new double[_gbCols.length]; // Working Group key
+      // Bulk-decode the used columns a block of rows at a time, instead of
+      // a virtual atd() call per row and column
+      int len = cs[0]._len;
+      double[][] vals = new double[cs.length][];
+      for (int c : _gbCols) if (vals[c] == null) vals[c] = new double[Math.min(BLOCK, len)];
+      for (AGG agg : _aggs) if (vals[agg._col] == null) vals[agg._col] = new double[Math.min(BLOCK, len)];
+      for (int block = 0; block < len; block += BLOCK) {
+        int n = Math.min(BLOCK, len - block);
+        for (int c = 0; c < vals.length; c++)
+          if (vals[c] != null) cs[c].getDoubles(vals[c], block, block + n);
+        for (int row = 0; row < n; row++) {
+          for (int c = 0; c < key.length; c++)
+            key[c] = vals[_gbCols[c]][row];
+          gt.add(gt.group(key, 0), _aggs, vals, row); // Find or create the Group, and accumulate aggregates
+        }
+      }
+      _groups = gt;
     }
 
-    // Racy update on a subtle path: reduction is always single-threaded, but
-    // the shared global hashtable being reduced into is ALSO being written by
-    // parallel map calls.
+    // Plain single-threaded merge of the tables; fold the smaller one into
+    // the larger one
     @Override
     public void reduce(GBTask t) {
-      if (_gss != t._gss) reduce(t._gss);
-    }
-
-    // Non-blocking race-safe update of the shared per-node groups hashtable
-    private void reduce(IcedHashMap<G, String> r) {
-      for (G rg : r.keySet())
-        if (_gss.putIfAbsent(rg, "") != null) {
-          G lg = _gss.getk(rg);
-          for (int i = 0; i < _aggs.length; i++)
-            _aggs[i].atomic_op(lg._dss, lg._ns, i, rg._dss[i], rg._ns[i]); // Need to atomically merge groups here
-        }
+      GroupTable a = _groups, b = t._groups;
+      if (a == null) { _groups = b; return; }
+      if (b == null) return;
+      if (a.size() < b.size()) { GroupTable tmp = a; a = b; b = tmp; }
+      a.merge(b, _aggs);
+      _groups = a;
     }
   }
 
@@ -722,6 +753,7 @@ public class AstGroup extends AstPrimitive {
 
             if (totalRows == 0) {
               medianVal = Double.NaN;  // return NAN for empty frames.  Should not have happened!
+              vgrps[0].remove();
             } else {
               Frame myFrame = new Frame(Key.<Frame>make(), vgrps, true);
               long midRow = totalRows / 2;
@@ -0,0 +1,233 @@
+package water.rapids.ast.prims.mungers;
+
+import water.AutoBuffer;
+import water.Iced;
+import water.fvec.Frame;
+import water.fvec.Vec;
+import water.rapids.ast.prims.mungers.AstGroup.AGG;
+import water.rapids.ast.prims.mungers.AstGroup.G;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash table of groups for {@link AstGroup}.
+ * <p>
+ * Group keys, aggregate state and row counts live in three primitive arrays
+ * indexed by group number (groups are numbered in order of insertion),
+ * instead of a {@link G} object per group in a hash map.  A single integer or
+ * categorical key column with a small range is indexed directly by its value
+ * instead of hashed.  Only the filled part of the arrays goes over the wire.
+ */
+public class GroupTable extends Iced<GroupTable> {
+  /** Largest range of a single integer key column which is indexed directly. */
+  static final int DIRECT_MAX = 4096;
+
+  private int _nkeys;           // Key columns
+  private int _naggs;           // Aggregates
+  private int[] _aggOff;        // Offset of each aggregate into the state of a group
+  private int _width;           // Doubles of aggregate state per group
+  private double[] _init;       // Initial state of a group
+  private long _min;            // Direct mode: smallest key value
+  private int _range;           // Direct mode: number of key values, NA excluded; 0 when hashing
+
+  private int _size;            // Number of groups
+  private double[] _keys;       // _nkeys per group
+  private double[] _state;      // _width per group
+  private long[] _ns;           // _naggs per group
+  private transient int[] _slots; // Hashed or direct key -> group+1; 0 for an empty slot
+  private transient int _cap;   // Groups which fit in the arrays
+
+  public GroupTable() { }       // For serialization
+
+  /** An empty table for grouping 'fr' by 'gbCols' */
+  public GroupTable(Frame fr, int[] gbCols, AGG[] aggs) {
+    _nkeys = gbCols.length;
+    _naggs = aggs.length;
+    _aggOff = new int[_naggs];
+    double[][] inits = new double[_naggs][];
+    for (int i = 0; i < _naggs; i++) {
+      inits[i] = aggs[i].initVal();
+      _aggOff[i] = _width;
+      _width += inits[i].length;
+    }
+    _init = new double[_width];
+    for (int i = 0; i < _naggs; i++)
+      System.arraycopy(inits[i], 0, _init, _aggOff[i], inits[i].length);
+    if (_nkeys == 1) {
+      Vec v = fr.vec(gbCols[0]);
+      if (v.isCategorical()) {
+        _min = 0;
+        _range = v.cardinality();
+      } else if (v.isInt() && !v.isTime() && v.naCnt() < v.length()) {
+        _min = (long) v.min();
+        _range = (int) Math.min((long) v.max() - _min + 1, Integer.MAX_VALUE);
+      }
+      if (_range > DIRECT_MAX) _range = 0;
+    }
+    init(8);
+  }
+
+  /** An empty table with the same layout as 'proto' */
+  public GroupTable(GroupTable proto) {
+    _nkeys = proto._nkeys;
+    _naggs = proto._naggs;
+    _aggOff = proto._aggOff;
+    _width = proto._width;
+    _init = proto._init;
+    _min = proto._min;
+    _range = proto._range;
+    init(8);
+  }
+
+  private void init(int cap) {
+    _size = 0;
+    _cap = cap;
+    _keys = new double[cap * _nkeys];
+    _state = new double[cap * _width];
+    _ns = new long[cap * _naggs];
+    _slots = new int[_range > 0 ? _range + 1 : 2 * cap];
+  }
+
+  /** Number of groups */
+  public int size() { return _size; }
+
+  /** Group number of the key key[off..off+nkeys), adding a new group if missing */
+  public int group(double[] key, int off) {
+    if (_slots == null) rehash(); // Fresh from the wire
+    if (_range > 0) {
+      double d = key[off];
+      int idx = Double.isNaN(d) ? _range : (int) ((long) d - _min);
+      int g = _slots[idx] - 1;
+      if (g < 0) {
+        g = addGroup(key, off);
+        _slots[idx] = g + 1;
+      }
+      return g;
+    }
+    int mask = _slots.length - 1;
+    for (int s = hash(key, off) & mask; ; s = (s + 1) & mask) {
+      int g = _slots[s] - 1;
+      if (g < 0) {
+        g = addGroup(key, off);
+        _slots[s] = g + 1;
+        if (2 * _size > _slots.length) rehash();
+        return g;
+      }
+      if (sameKey(g, key, off)) return g;
+    }
+  }
+
+  /** Accumulate the row 'row' of the decoded columns 'vals' into group 'g' */
+  public void add(int g, AGG[] aggs, double[][] vals, int row) {
+    int so = g * _width, no = g * _naggs;
+    for (int i = 0; i < _naggs; i++)
+      aggs[i].op(_state, so + _aggOff[i], _ns, no + i, vals[aggs[i]._col][row]);
+  }
+
+  /** Fold all groups of 't' into this table */
+  public void merge(GroupTable t, AGG[] aggs) {
+    for (int tg = 0; tg < t._size; tg++) {
+      int g = group(t._keys, tg * _nkeys);
+      int so = g * _width, tso = tg * _width;
+      for (int i = 0; i < _naggs; i++) {
+        int len = (i + 1 < _naggs ? _aggOff[i + 1] : _width) - _aggOff[i];
+        aggs[i]._fcn.combine(_state, so + _aggOff[i], t._state, tso + _aggOff[i], len);
+        _ns[g * _naggs + i] += t._ns[tg * _naggs + i];
+      }
+    }
+  }
+
+  /** One {@link G} per group, in order of insertion */
+  public G[] groups(AGG[] aggs, boolean hasMedian) {
+    G[] res = new G[_size];
+    for (int g = 0; g < _size; g++) {
+      G gr = new G(_nkeys, aggs, hasMedian);
+      System.arraycopy(_keys, g * _nkeys, gr._gs, 0, _nkeys);
+      for (int i = 0; i < _naggs; i++) {
+        System.arraycopy(_state, g * _width + _aggOff[i], gr._dss[i], 0, gr._dss[i].length);
+        gr._ns[i] = _ns[g * _naggs + i];
+      }
+      gr._hash = gr.hash();
+      res[g] = gr;
+    }
+    return res;
+  }
+
+  private int addGroup(double[] key, int off) {
+    int g = _size;
+    if (g == _cap) {
+      _cap = Math.max(8, 2 * g);
+      _keys = Arrays.copyOf(_keys, _cap * _nkeys);
+      _state = Arrays.copyOf(_state, _cap * _width);
+      _ns = Arrays.copyOf(_ns, _cap * _naggs);
+    }
+    System.arraycopy(key, off, _keys, g * _nkeys, _nkeys);
+    System.arraycopy(_init, 0, _state, g * _width, _width);
+    return _size++;
+  }
+
+  // Rebuild the slots from the keys
+  private void rehash() {
+    if (_range > 0) {
+      _slots = new int[_range + 1];
+      for (int g = 0; g < _size; g++) {
+        double d = _keys[g];
+        _slots[Double.isNaN(d) ? _range : (int) ((long) d - _min)] = g + 1;
+      }
+      return;
+    }
+    int len = 16;
+    while (len < 4 * _size) len <<= 1;
+    int[] slots = new int[len];
+    int mask = len - 1;
+    for (int g = 0; g < _size; g++) {
+      int s = hash(_keys, g * _nkeys) & mask;
+      while (slots[s] != 0) s = (s + 1) & mask;
+      slots[s] = g + 1;
+    }
+    _slots = slots;
+  }
+
+  // Keys compare as in Arrays.equals(double[],double[]): all NaNs are equal
+  private boolean sameKey(int g, double[] key, int off) {
+    int ko = g * _nkeys;
+    for (int c = 0; c < _nkeys; c++)
+      if (Double.doubleToLongBits(_keys[ko + c]) != Double.doubleToLongBits(key[off + c]))
+        return false;
+    return true;
+  }
+
+  private int hash(double[] key, int off) {
+    long h = 0;
+    for (int c = 0; c < _nkeys; c++)
+      h = (h + Double.doubleToLongBits(key[off + c])) * 0x9E3779B97F4A7C15L;
+    return (int) (h ^ (h >>> 32));
+  }
+
+  // Custom serializer: send only the filled part of the arrays
+  public final AutoBuffer write_impl(AutoBuffer ab) {
+    ab.put4(_nkeys).put4(_naggs).putA4(_aggOff).put4(_width).putA8d(_init).put8(_min).put4(_range);
+    ab.put4(_size);
+    ab.putA8d(Arrays.copyOf(_keys, _size * _nkeys));
+    ab.putA8d(Arrays.copyOf(_state, _size * _width));
+    ab.putA8(Arrays.copyOf(_ns, _size * _naggs));
+    return ab;
+  }
+
+  public final GroupTable read_impl(AutoBuffer ab) {
+    _nkeys = ab.get4();
+    _naggs = ab.get4();
+    _aggOff = ab.getA4();
+    _width = ab.get4();
+    _init = ab.getA8d();
+    _min = ab.get8();
+    _range = ab.get4();
+    _size = ab.get4();
+    _keys = ab.getA8d();
+    _state = ab.getA8d();
+    _ns = ab.getA8();
+    _cap = _size;
+    _slots = null;              // Rebuilt on first use
+    return this;
+  }
+}
@@ -0,0 +1,241 @@
+package water.rapids.ast.prims.mungers;
+
+import water.H2O;
+import water.MRTask;
+import water.fvec.Chunk;
+import water.fvec.Frame;
+import water.fvec.NewChunk;
+import water.fvec.Vec;
+import water.rapids.Merge;
+import water.rapids.ast.prims.mungers.AstGroup.AGG;
+import water.rapids.ast.prims.mungers.AstGroup.FCN;
+import water.rapids.ast.prims.mungers.AstGroup.NAHandling;
+import water.util.Log;
+
+import java.util.Arrays;
+
+/**
+ * Sort based group-by for {@link AstGroup}.
+ * <p>
+ * When nearly every row is its own group, the hash tables of {@link GroupTable}
+ * end up holding the whole frame on a single node.  Instead the used columns
+ * are radix sorted on the group keys with {@link Merge#sort}, and a single pass
+ * over the sorted frame folds each run of equal keys into one output row.
+ * Groups come out in key order, NAs first, as from the hash path; no node
+ * holds more than the groups of its own chunks.
+ */
+public class SortedGroups {
+  /** Smallest estimated number of groups for which the sort is used */
+  static long SORT_THRESHOLD = Long.getLong(H2O.OptArgs.SYSTEM_PROP_PREFIX + "rapids.groupby.sortThreshold", 1000000);
+  /** Smallest fraction of distinct keys in the sampled rows for which the sort is used */
+  static final double MIN_DISTINCT_RATIO = 0.5;
+  /** Rows sampled over the whole frame for the cardinality estimate */
+  static final int SAMPLE_ROWS = 1 << 16;
+
+  /** True if grouping 'fr' by 'gbCols' is estimated to make so many groups
+   *  that sorting beats hashing */
+  public static boolean preferred(Frame fr, int[] gbCols) {
+    if (gbCols.length == 0 || fr.numRows() < SORT_THRESHOLD) return false;
+    for (int c : gbCols) {
+      Vec v = fr.vec(c);
+      if (!v.isNumeric() && !v.isCategorical() && !v.isTime()) return false;
+    }
+    SampleTask st = new SampleTask(fr, gbCols).doAll(fr);
+    if (st._sampled == 0) return false;
+    double ratio = (double) st._groups.size() / st._sampled;
+    Log.info("Group By estimated " + (long) (ratio * fr.numRows()) + " groups from " + st._sampled + " sampled rows");
+    return ratio >= MIN_DISTINCT_RATIO && ratio * fr.numRows() >= SORT_THRESHOLD;
+  }
+
+  /** Group 'fr' by 'gbCols' and aggregate with 'aggs'; same output as the
+   *  hash based {@link AstGroup#performGroupingWithAggregations} */
+  public static Frame groupBy(Frame fr, int[] gbCols, AGG[] aggs, String[] fcNames) {
+    long start = System.currentTimeMillis();
+    // Sort only the used columns, keys first
+    int[] remap = new int[fr.numCols()];
+    Arrays.fill(remap, -1);
+    Frame used = new Frame();
+    int[] keys = new int[gbCols.length];
+    for (int i = 0; i < gbCols.length; i++) keys[i] = use(fr, used, remap, gbCols[i]);
+    AGG[] uaggs = new AGG[aggs.length];
+    for (int i = 0; i < aggs.length; i++)
+      uaggs[i] = new AGG(aggs[i]._fcn, use(fr, used, remap, aggs[i]._col), aggs[i]._na, aggs[i]._maxx);
+    Frame sorted = Merge.sort(used, keys);
+
+    String[] names = new String[gbCols.length + aggs.length];
+    String[][] domains = new String[names.length][];
+    byte[] types = new byte[names.length];
+    for (int i = 0; i < gbCols.length; i++) {
+      names[i] = fr.name(gbCols[i]);
+      domains[i] = fr.vec(gbCols[i]).domain();
+      types[i] = fr.vec(gbCols[i]).get_type();
+    }
+    for (int i = 0; i < aggs.length; i++) {
+      names[gbCols.length + i] = fcNames[i];
+      types[gbCols.length + i] = Vec.T_NUM;
+    }
+    Frame res;
+    try {
+      res = new ScanTask(keys, uaggs).doAll(types, sorted).outputFrame(names, domains);
+    } finally {
+      sorted.remove();
+    }
+    Log.info("Sorted Group By done in " + (System.currentTimeMillis() - start) / 1000. + " (s)");
+    return res;
+  }
+
+  // Index of column 'col' of 'fr' in 'used', adding it if needed
+  private static int use(Frame fr, Frame used, int[] remap, int col) {
+    if (remap[col] < 0) {
+      remap[col] = used.numCols();
+      used.add(fr.name(col), fr.vec(col));
+    }
+    return remap[col];
+  }
+
+  // Distinct keys among evenly spaced sample rows of every chunk
+  private static class SampleTask extends MRTask<SampleTask> {
+    private final int[] _gbCols;
+    private final int _perChunk;
+    private final GroupTable _proto;
+    GroupTable _groups;
+    long _sampled;
+
+    SampleTask(Frame fr, int[] gbCols) {
+      _gbCols = gbCols;
+      _perChunk = Math.max(16, SAMPLE_ROWS / fr.anyVec().nChunks());
+      _proto = new GroupTable(fr, gbCols, new AGG[0]);
+    }
+
+    @Override
+    public void map(Chunk[] cs) {
+      GroupTable gt = new GroupTable(_proto);
+      double[] key = new double[_gbCols.length];
+      int len = cs[0]._len;
+      int stride = Math.max(1, len / _perChunk);
+      for (int row = 0; row < len; row += stride) {
+        for (int c = 0; c < key.length; c++)
+          key[c] = cs[_gbCols[c]].atd(row);
+        gt.group(key, 0);
+        _sampled++;
+      }
+      _groups = gt;
+    }
+
+    @Override
+    public void reduce(SampleTask t) {
+      if (_groups.size() < t._groups.size()) { GroupTable tmp = _groups; _groups = t._groups; t._groups = tmp; }
+      _groups.merge(t._groups, new AGG[0]);
+      _sampled += t._sampled;
+    }
+  }
+
+  // One pass over the sorted frame.  Each chunk emits the groups starting in
+  // it; a group running past the end of the chunk is finished by reading
+  // ahead into the following chunks.
+  private static class ScanTask extends MRTask<ScanTask> {
+    private final int[] _keys;  // Key columns of the sorted frame
+    private final AGG[] _aggs;  // Aggregates, on columns of the sorted frame
+
+    ScanTask(int[] keys, AGG[] aggs) {
+      _keys = keys;
+      _aggs = aggs;
+    }
+
+    @Override
+    public void map(Chunk[] cs, NewChunk[] ncs) {
+      int len = cs[0]._len;
+      if (len == 0) return;
+      Vec[] vecs = _fr.vecs();
+      double[][] vals = decode(cs);
+      double[] key = new double[_keys.length];
+      int row = 0;
+      // Skip the rest of a group started in an earlier chunk
+      long start = cs[0].start();
+      if (start > 0) {
+        for (int c = 0; c < key.length; c++)
+          key[c] = vecs[_keys[c]].at(start - 1);
+        while (row < len && sameKey(vals, row, key)) row++;
+      }
+      double[][] inits = new double[_aggs.length][], dss = new double[_aggs.length][];
+      for (int i = 0; i < _aggs.length; i++) {
+        inits[i] = _aggs[i].initVal();
+        dss[i] = inits[i].clone();
+      }
+      long[] ns = new long[_aggs.length];
+      double[][] medians = new double[_aggs.length][];
+      int[] nmedians = new int[_aggs.length];
+      for (int i = 0; i < _aggs.length; i++)
+        if (_aggs[i]._fcn == FCN.median) medians[i] = new double[16];
+      while (row < len) {
+        for (int c = 0; c < key.length; c++)
+          key[c] = vals[_keys[c]][row];
+        for (int i = 0; i < _aggs.length; i++)
+          System.arraycopy(inits[i], 0, dss[i], 0, inits[i].length);
+        Arrays.fill(ns, 0);
+        Arrays.fill(nmedians, 0);
+        while (row < len && sameKey(vals, row, key))
+          add(vals, row++, dss, ns, medians, nmedians);
+        if (row == len) {       // Group may go on in the next chunks
+          for (int cidx = cs[0].cidx() + 1; cidx < vecs[0].nChunks(); cidx++) {
+            Chunk[] next = new Chunk[vecs.length];
+            for (int c = 0; c < vecs.length; c++) next[c] = vecs[c].chunkForChunkIdx(cidx);
+            double[][] nvals = decode(next);
+            int nlen = next[0]._len, r = 0;
+            while (r < nlen && sameKey(nvals, r, key))
+              add(nvals, r++, dss, ns, medians, nmedians);
+            if (r < nlen) break;
+          }
+        }
+        int j = 0;
+        for (double k : key) ncs[j++].addNum(k);
+        for (int i = 0; i < _aggs.length; i++)
+          ncs[j++].addNum(medians[i] != null
+              ? median(medians[i], nmedians[i])
+              : _aggs[i]._fcn.postPass(dss[i], ns[i]));
+      }
+    }
+
+    private static double[][] decode(Chunk[] cs) {
+      double[][] vals = new double[cs.length][];
+      for (int c = 0; c < cs.length; c++)
+        vals[c] = cs[c].getDoubles(new double[cs[c]._len], 0, cs[c]._len);
+      return vals;
+    }
+
+    // Keys compare as in GroupTable: all NaNs are equal
+    private boolean sameKey(double[][] vals, int row, double[] key) {
+      for (int c = 0; c < key.length; c++)
+        if (Double.doubleToLongBits(vals[_keys[c]][row]) != Double.doubleToLongBits(key[c]))
+          return false;
+      return true;
+    }
+
+    private void add(double[][] vals, int row, double[][] dss, long[] ns, double[][] medians, int[] nmedians) {
+      for (int i = 0; i < _aggs.length; i++) {
+        double d = vals[_aggs[i]._col][row];
+        if (medians[i] == null) {
+          _aggs[i].op(dss, ns, i, d);
+        } else if (!Double.isNaN(d) || _aggs[i]._na != NAHandling.RM) {
+          if (nmedians[i] == medians[i].length) medians[i] = Arrays.copyOf(medians[i], 2 * nmedians[i]);
+          medians[i][nmedians[i]++] = d;
+        }
+      }
+    }
+
+    // Median of the first n values of ds, with NAs ordered first as in the
+    // sort used by the hash path
+    private static double median(double[] ds, int n) {
+      if (n == 0) return Double.NaN;
+      Arrays.sort(ds, 0, n);    // NaNs go last
+      int nas = 0;
+      while (nas < n && Double.isNaN(ds[n - 1 - nas])) nas++;
+      int mid = n / 2;
+      return n % 2 == 0 ? 0.5 * (nth(ds, mid - 1, nas) + nth(ds, mid, nas)) : nth(ds, mid, nas);
+    }
+
+    private static double nth(double[] sorted, int i, int nas) {
+      return i < nas ? Double.NaN : sorted[i - nas];
+    }
+  }
+}
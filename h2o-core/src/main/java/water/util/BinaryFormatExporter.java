@@ -0,0 +1,43 @@
+package water.util;
+
+import water.H2O;
+import water.Job;
+import water.fvec.Frame;
+
+import java.util.ServiceLoader;
+
+/**
+ * Exporter of Frames to a binary file format (e.g. Parquet) provided by an
+ * optional module.  Implementations are discovered with a {@link ServiceLoader}.
+ */
+public interface BinaryFormatExporter {
+
+  /**
+   * Makes the task exporting the frame.  The task is started by the caller as
+   * the driver of the export job; it must update the job with the number of
+   * Chunks exported.
+   *
+   * @param frame frame to export, read-locked by the task while exporting
+   * @param path target file (single part) or directory (multiple parts)
+   * @param force overwrite existing files
+   * @param nParts number of part files, 1 for a single file, -1 to choose automatically
+   * @param compression format specific compression codec, or null for the default
+   * @param job export job
+   * @return export task
+   */
+  H2O.H2OCountedCompleter export(Frame frame, String path, boolean force, int nParts, String compression, Job job);
+
+  boolean supports(ExportFileFormat format);
+
+  class Finder {
+    /** @return exporter for the format, or null if no module provides one */
+    public static BinaryFormatExporter find(ExportFileFormat format) {
+      for (BinaryFormatExporter exporter : ServiceLoader.load(BinaryFormatExporter.class)) {
+        if (exporter.supports(format))
+          return exporter;
+      }
+      return null;
+    }
+  }
+
+}
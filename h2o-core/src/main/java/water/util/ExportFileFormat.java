@@ -0,0 +1,21 @@
+package water.util;
+
+import water.exceptions.H2OIllegalArgumentException;
+
+import java.util.Arrays;
+
+/**
+ * File formats a Frame can be exported to, see {@link water.fvec.Frame#export}.
+ */
+public enum ExportFileFormat {
+  csv, parquet;
+
+  /** Case-insensitive lookup of a format by its name. */
+  public static ExportFileFormat parse(String format) {
+    for (ExportFileFormat f : values())
+      if (f.name().equalsIgnoreCase(format))
+        return f;
+    throw new H2OIllegalArgumentException("Unsupported export format '" + format + "', accepted values are: " +
+            Arrays.toString(values()) + ".");
+  }
+}
@@ -0,0 +1,133 @@
+package water.util;
+
+/**
+ * Fast block compression in the LZ4 block format: sequences of literals and
+ * back-references into the last 64KB.  Favors speed over ratio (single probe
+ * hash table, no entropy coding); used to keep cold data compressed in memory.
+ *
+ * Compressed arrays start with the length of the uncompressed data (4 bytes).
+ */
+public final class LZ4 {
+  private static final int MIN_MATCH = 4;
+  private static final int LAST_LITERALS = 5;   // The last 5 bytes are always literals
+  private static final int MF_LIMIT = 12;       // and no match starts in the last 12 bytes
+  private static final int MAX_DISTANCE = 65535;
+  private static final int HASH_LOG = 12;
+  private static final int SKIP_STRENGTH = 6;   // Probe faster through incompressible data
+  private static final int HEADER = 4;
+
+  private LZ4() {}
+
+  private static int hash(int x) { return (x * -1640531535) >>> (32 - HASH_LOG); }
+
+  private static int writeLength(int len, byte[] dst, int op) {
+    while( len >= 255 ) { dst[op++] = (byte)255; len -= 255; }
+    dst[op++] = (byte)len;
+    return op;
+  }
+
+  /** Compressed size of n bytes in the worst case */
+  public static int maxCompressedLength(int n) { return HEADER + n + n/255 + 16; }
+
+  public static byte[] compress(byte[] src) {
+    byte[] dst = new byte[maxCompressedLength(src.length)];
+    int len = compress(src, dst);
+    return java.util.Arrays.copyOf(dst, len);
+  }
+
+  /** @return the number of bytes written to dst, at most {@link #maxCompressedLength(int)} of src.length */
+  public static int compress(byte[] src, byte[] dst) {
+    final int end = src.length;
+    UnsafeUtils.set4(dst, 0, end);
+    int op = HEADER, anchor = 0;
+    if( end > MF_LIMIT ) {
+      final int mfLimit = end - MF_LIMIT, matchLimit = end - LAST_LITERALS;
+      final int[] table = new int[1 << HASH_LOG]; // Last position of each hash; 0 is a valid (checked) candidate
+      int ip = 1;
+      search:
+      while( true ) {
+        // Find a match, probing further apart the longer nothing is found
+        int ref, skip = 1 << SKIP_STRENGTH;
+        while( true ) {
+          if( ip > mfLimit ) break search;
+          int h = hash(UnsafeUtils.get4(src, ip));
+          ref = table[h];
+          table[h] = ip;
+          if( ip - ref <= MAX_DISTANCE && UnsafeUtils.get4(src, ref) == UnsafeUtils.get4(src, ip) ) break;
+          ip += skip++ >>> SKIP_STRENGTH;
+        }
+        // Extend the match backwards
+        while( ip > anchor && ref > 0 && src[ip-1] == src[ref-1] ) { ip--; ref--; }
+        // Literals
+        int token = op++;
+        int lits = ip - anchor;
+        if( lits >= 15 ) { dst[token] = (byte)(15 << 4); op = writeLength(lits - 15, dst, op); }
+        else dst[token] = (byte)(lits << 4);
+        System.arraycopy(src, anchor, dst, op, lits);
+        op += lits;
+        // Matches, as long as the next position matches too
+        while( true ) {
+          int dist = ip - ref;
+          dst[op++] = (byte)dist;
+          dst[op++] = (byte)(dist >>> 8);
+          ip += MIN_MATCH;
+          ref += MIN_MATCH;
+          int start = ip;
+          while( ip < matchLimit && src[ip] == src[ref] ) { ip++; ref++; }
+          int mlen = ip - start;
+          if( mlen >= 15 ) { dst[token] |= 15; op = writeLength(mlen - 15, dst, op); }
+          else dst[token] |= mlen;
+          anchor = ip;
+          if( ip > mfLimit ) break search;
+          table[hash(UnsafeUtils.get4(src, ip - 2))] = ip - 2;
+          int h = hash(UnsafeUtils.get4(src, ip));
+          ref = table[h];
+          table[h] = ip;
+          if( ip - ref > MAX_DISTANCE || UnsafeUtils.get4(src, ref) != UnsafeUtils.get4(src, ip) ) break;
+          token = op++;         // Match without literals
+          dst[token] = 0;
+        }
+        ip++;
+      }
+    }
+    // Last literals
+    int lits = end - anchor;
+    if( lits >= 15 ) { dst[op++] = (byte)(15 << 4); op = writeLength(lits - 15, dst, op); }
+    else dst[op++] = (byte)(lits << 4);
+    System.arraycopy(src, anchor, dst, op, lits);
+    return op + lits;
+  }
+
+  /** @return length of the data compressed in src */
+  public static int decompressedLength(byte[] src) { return UnsafeUtils.get4(src, 0); }
+
+  public static byte[] decompress(byte[] src) {
+    byte[] dst = new byte[decompressedLength(src)];
+    decompress(src, dst);
+    return dst;
+  }
+
+  /** Decompress src into dst, which must hold {@link #decompressedLength(byte[])} bytes */
+  public static void decompress(byte[] src, byte[] dst) {
+    int ip = HEADER, op = 0;
+    while( true ) {
+      int token = src[ip++] & 0xFF;
+      int lits = token >>> 4;
+      if( lits == 15 ) { int b; do { b = src[ip++] & 0xFF; lits += b; } while( b == 255 ); }
+      System.arraycopy(src, ip, dst, op, lits);
+      ip += lits;
+      op += lits;
+      if( ip >= src.length ) break; // Last sequence has no match
+      int ref = op - ((src[ip] & 0xFF) | (src[ip+1] & 0xFF) << 8);
+      ip += 2;
+      int mlen = token & 15;
+      if( mlen == 15 ) { int b; do { b = src[ip++] & 0xFF; mlen += b; } while( b == 255 ); }
+      mlen += MIN_MATCH;
+      if( ref < 0 ) throw new IllegalArgumentException("Malformed LZ4 data at offset " + ip);
+      if( op - ref >= mlen ) System.arraycopy(dst, ref, dst, op, mlen);
+      else for( int i = 0; i < mlen; i++ ) dst[op + i] = dst[ref + i]; // Overlapping copy repeats the pattern
+      op += mlen;
+    }
+    if( op != dst.length ) throw new IllegalArgumentException("Malformed LZ4 data: " + op + " bytes instead of " + dst.length);
+  }
+}
@@ -22,4 +22,10 @@ public class UnsafeUtils {
 
   public static void copyMemory( byte[] srcBase, long srcOff, byte[] dstBase, long dstOff, long len )
   { _unsafe.copyMemory(srcBase,_Bbase+srcOff,dstBase,_Bbase+dstOff,len); }
+
+  // Raw off-heap memory
+  public static long allocateMemory( long len ) { return _unsafe.allocateMemory(len); }
+  public static void freeMemory( long addr ) { _unsafe.freeMemory(addr); }
+  public static void copyToAddress( byte[] src, long addr, long len ) { _unsafe.copyMemory(src,_Bbase,null,addr,len); }
+  public static void copyFromAddress( long addr, byte[] dst, long len ) { _unsafe.copyMemory(null,addr,dst,_Bbase,len); }
 }
@@ -126,4 +126,35 @@ public class DKVTest extends TestUtil {
     }
   }
 
+  private static class GetMany extends MRTask<GetMany> {
+    final Key[] _keys;
+    GetMany(Key[] keys) { _keys = keys; }
+    @Override public void setupLocal() {
+      Value[] vals = DKV.get(_keys);
+      for (int i = 0; i < _keys.length; ++i) {
+        if (i == _keys.length-1) assertNull(vals[i]);  // never put
+        else assertEquals(i, ((IcedInt) vals[i].get())._val);
+      }
+    }
+  }
+
+  /**
+   * Batched gets return the same Values as single gets, on every node, for
+   * keys homed everywhere and for a missing key.
+   */
+  @Test
+  public void testGetMany() {
+    final int nodes = H2O.CLOUD.size();
+    final Key[] keys = new Key[3*nodes+1];
+    try {
+      for (int i = 0; i < keys.length-1; ++i)
+        DKV.put(keys[i] = Key.make((byte) 1, Key.HIDDEN_USER_KEY, true, H2O.CLOUD._memary[i % nodes]), new IcedInt(i));
+      keys[keys.length-1] = Key.make();
+      new GetMany(keys).doAllNodes();
+    } finally {
+      for (Key k : keys)
+        if (k != null) DKV.remove(k);
+    }
+  }
+
 }
@@ -0,0 +1,140 @@
+package water;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.fvec.Chunk;
+import water.fvec.Vec;
+
+import static org.junit.Assert.*;
+
+/**
+ * The off-heap tier: cold Chunks moved off-heap by the Cleaner are copied
+ * back to the heap on access, survive writes and removal of their Value, and
+ * their memory is only freed once no reference to it is left.
+ */
+public class OffHeapValueTest extends TestUtil {
+  @BeforeClass() public static void setup() { stall_till_cloudsize(1); }
+
+  private long _oldMax;
+  @Before public void enableOffHeap() { _oldMax = H2O.ARGS.off_heap_mem; H2O.ARGS.off_heap_mem = 16L << 20; }
+  @After  public void restoreOffHeap() { H2O.ARGS.off_heap_mem = _oldMax; }
+
+  private static double[] data(int n) {
+    double[] ds = new double[n];
+    for( int i = 0; i < n; i++ ) ds[i] = i * 0.5;
+    return ds;
+  }
+
+  @Test public void testMoveAndReload() {
+    Vec v = null;
+    try {
+      double[] ds = data(10000);
+      v = Vec.makeVec(ds, Vec.newKey());
+      Key ck = v.chunkKey(0);
+      Value val = H2O.STORE.get(ck);
+      long used = MemoryManager.offHeapUsed();
+      assertTrue(val.moveOffHeap());
+      assertTrue(val.isOffHeap());
+      assertNull(val.rawMem());
+      assertNull(val.rawPOJO());
+      assertFalse(val.isEmpty());
+      assertEquals(val._max, val.offHeapSize());
+      assertEquals(used + val._max, MemoryManager.offHeapUsed());
+      assertSame(val, DKV.get(ck));  // Still a local hit
+
+      Chunk c = val.get();           // Back on the heap
+      assertEquals(val._max, val.rawMem().length);
+      for( int i = 0; i < ds.length; i++ )
+        assertEquals(ds[i], c.atd(i), 0);
+      // Moving again only drops the heap copies
+      assertTrue(val.moveOffHeap());
+      assertEquals(used + val._max, MemoryManager.offHeapUsed());
+      assertEquals(ds[17], v.at(17), 0);
+    } finally {
+      if( v != null ) v.remove();
+    }
+  }
+
+  @Test public void testWriteAndReload() {
+    Vec v = null;
+    try {
+      double[] ds = data(10000);
+      v = Vec.makeVec(ds, Vec.newKey());
+      Key ck = v.chunkKey(0);
+      Value val = H2O.STORE.get(ck);
+      assertTrue(val.moveOffHeap());
+
+      // Write through a Chunk reloaded from off-heap, and put it back
+      Chunk c = v.chunkForChunkIdx(0);
+      c.set(3, 42.5);
+      c.set(4, Double.NaN);
+      v.postWrite(c.close(0, new Futures())).blockForPending();
+      Value val2 = H2O.STORE.get(ck);
+      assertNotSame(val, val2);
+      assertFalse(val2.isOffHeap());
+      assertEquals(42.5, v.at(3), 0);
+      assertTrue(v.isNA(4));
+
+      // The replaced Value keeps its off-heap copy for readers still holding
+      // it (its heap copy was written in place)
+      assertTrue(val.isOffHeap());
+      assertTrue(val.moveOffHeap());
+      Chunk old = ((Chunk)TypeMap.newInstance(val.type())).reloadFromBytes(val.memOrLoad());
+      assertEquals(ds[3], old.atd(3), 0);
+
+      // Evict the new Value and reload it
+      assertTrue(val2.moveOffHeap());
+      assertNull(val2.rawPOJO());
+      for( int i = 0; i < ds.length; i++ ) {
+        if( i == 3 ) assertEquals(42.5, v.at(i), 0);
+        else if( i == 4 ) assertTrue(v.isNA(i));
+        else assertEquals(ds[i], v.at(i), 0);
+      }
+    } finally {
+      if( v != null ) v.remove();
+    }
+  }
+
+  @Test public void testReadAfterRemove() {
+    Vec v = Vec.makeVec(data(1000), Vec.newKey());
+    Value val = H2O.STORE.get(v.chunkKey(0));
+    assertTrue(val.moveOffHeap());
+    v.remove();
+    // A task holding the Value still sees its data
+    Chunk c = val.get();
+    assertEquals(0.5, c.atd(1), 0);
+  }
+
+  @Test public void testBlockReferences() {
+    byte[] mem = new byte[]{1, 2, 3, 4, 5};
+    long used = MemoryManager.offHeapUsed();
+    Object owner = new Object();
+    MemoryManager.OffHeapBlock blk = MemoryManager.mallocOffHeap(owner, mem);
+    assertNotNull(blk);
+    assertEquals(used + mem.length, MemoryManager.offHeapUsed());
+    assertArrayEquals(mem, blk.read());
+    blk.releaseOwner();
+    blk.releaseOwner();         // Releasing twice is harmless
+    assertTrue(blk.isFreed());
+    assertNull(blk.read());
+    assertEquals(used, MemoryManager.offHeapUsed());
+  }
+
+  @Test public void testPoolFull() {
+    Vec v = null;
+    try {
+      v = Vec.makeVec(data(10000), Vec.newKey());
+      Value val = H2O.STORE.get(v.chunkKey(0));
+      H2O.ARGS.off_heap_mem = MemoryManager.offHeapUsed() + 10;
+      assertFalse(val.moveOffHeap());
+      assertNotNull(val.rawPOJO());
+      H2O.ARGS.off_heap_mem = 0;
+      assertFalse(val.moveOffHeap()); // Disabled
+      assertFalse(val.isOffHeap());
+    } finally {
+      if( v != null ) v.remove();
+    }
+  }
+}
@@ -0,0 +1,68 @@
+package water;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.fvec.Chunk;
+import water.fvec.Vec;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * The compressed in-memory tier: cold Chunks compressed by the Cleaner are
+ * reloaded transparently, and incompressible Chunks are left alone.
+ */
+public class ValueCompressionTest extends TestUtil {
+  @BeforeClass() public static void setup() { stall_till_cloudsize(1); }
+
+  @Test public void testCompressAndReload() {
+    Vec v = null;
+    try {
+      double[] ds = new double[20000];
+      for( int i = 0; i < ds.length; i++ ) ds[i] = (i % 50) + 0.25; // Fits no integer chunk, repeats
+      v = Vec.makeVec(ds, Vec.newKey());
+      Key ck = v.chunkKey(0);
+      Value val = H2O.STORE.get(ck);
+      int max = val._max;
+      long loads = Value.compressedLoads();
+      assertTrue(val.compressMem());
+      assertTrue(val.isCompressed());
+      assertNull(val.rawMem());
+      assertNull(val.rawPOJO());
+      assertTrue(val.compressedSize() < max / 4);
+      assertFalse(val.isEmpty());
+      assertSame(val, DKV.get(ck));  // Still a local hit
+
+      Chunk c = val.get();
+      assertEquals(loads + 1, Value.compressedLoads());
+      assertEquals(max, val.rawMem().length);
+      assertEquals(ds.length, c._len);
+      for( int i = 0; i < ds.length; i++ )
+        assertEquals(ds[i], c.atd(i), 0);
+      // Compressing again only drops the heap copies
+      assertTrue(val.compressMem());
+      assertEquals(ds[17], v.at(17), 0);
+    } finally {
+      if( v != null ) v.remove();
+    }
+  }
+
+  @Test public void testIncompressible() {
+    Vec v = null;
+    try {
+      Random rnd = new Random(0xDECAF);
+      double[] ds = new double[10000];
+      for( int i = 0; i < ds.length; i++ ) ds[i] = rnd.nextInt(); // Random 4 byte integers
+      v = Vec.makeVec(ds, Vec.newKey());
+      Value val = H2O.STORE.get(v.chunkKey(0));
+      v.at(0);                  // Make sure the Chunk is loaded
+      assertFalse(val.compressMem());
+      assertFalse(val.isCompressed());
+      assertNotNull(val.rawPOJO());
+      assertFalse(val.compressMem()); // Not tried again
+    } finally {
+      if( v != null ) v.remove();
+    }
+  }
+}
@@ -0,0 +1,67 @@
+package water.fvec;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.TestUtil;
+
+import java.util.Arrays;
+import java.util.Random;
+
+public class CDeltaChunkTest extends TestUtil {
+  @BeforeClass() public static void setup() { stall_till_cloudsize(1); }
+
+  @Test public void test_inflate_impl() {
+    Random rnd = new Random(42);
+    // Timestamps in ms, about a second apart with some jitter, and ids with gaps
+    long[][] data = new long[3][5000];
+    long t = 1485333188427L;
+    for (int i = 0; i < data[0].length; i++) {
+      data[0][i] = t;
+      t += 1000 + rnd.nextInt(200) - 100;
+    }
+    for (int i = 0; i < data[1].length; i++)
+      data[1][i] = 1000000000L + 37L * i;
+    long id = -70000000L;
+    for (int i = 0; i < data[2].length; i++) {
+      data[2][i] = id;
+      id -= rnd.nextInt(5) == 0 ? 100 : 1;
+    }
+    for (long[] vals : data) {
+      NewChunk nc = new NewChunk(null, 0);
+      for (long v : vals) nc.addNum(v);
+      Chunk cc = nc.compress();
+      String msg = "c = " + cc.getClass().getSimpleName();
+      Assert.assertTrue(msg, cc instanceof CDeltaChunk);
+      Assert.assertFalse(cc.hasNA());
+      Assert.assertFalse(cc.hasFloat());
+      Assert.assertTrue(msg, cc._mem.length < vals.length * 3);
+      for (int i = 0; i < vals.length; i++) {
+        Assert.assertFalse(cc.isNA(i));
+        Assert.assertEquals(msg + " i: " + i, vals[i], cc.at8(i));
+        Assert.assertEquals(msg + " i: " + i, vals[i], cc.atd(i), 0);
+      }
+      double[] ds = cc.getDoubles(new double[300], 4700, 5000);
+      for (int i = 0; i < ds.length; i++)
+        Assert.assertEquals(cc.atd(4700 + i), ds[i], 0);
+
+      NewChunk nc2 = cc.extractRows(new NewChunk(null, 0), 0, cc._len);
+      for (int i = 0; i < cc._len; i++)
+        Assert.assertEquals(cc.atd(i), nc2.atd(i), 0);
+      Chunk cc2 = nc2.compress();
+      Assert.assertTrue(cc2 instanceof CDeltaChunk);
+      Assert.assertTrue(Arrays.equals(cc._mem, cc2._mem));
+    }
+  }
+
+  @Test public void test_NAs_not_delta_encoded() {
+    NewChunk nc = new NewChunk(null, 0);
+    for (int i = 0; i < 5000; i++)
+      if (i == 100) nc.addNA();
+      else nc.addNum(1485333188427L + 1000L * i);
+    Chunk cc = nc.compress();
+    Assert.assertFalse(cc instanceof CDeltaChunk);
+    Assert.assertTrue(cc.isNA(100));
+    Assert.assertEquals(1485333188427L + 1000L * 4999, cc.at8(4999));
+  }
+}
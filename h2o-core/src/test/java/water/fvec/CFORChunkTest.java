@@ -0,0 +1,75 @@
+package water.fvec;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.TestUtil;
+
+import java.util.Arrays;
+import java.util.Random;
+
+public class CFORChunkTest extends TestUtil {
+  @BeforeClass() public static void setup() { stall_till_cloudsize(1); }
+
+  @Test public void test_inflate_impl() {
+    Random rnd = new Random(0xf0);
+    // Ranges too large for a short, with and without missing values
+    for (long range : new long[]{1 << 17, 1 << 20, 1 << 23, 1L << 31})
+      for (boolean nas : new boolean[]{false, true}) {
+        long base = 1234567890123L;
+        long[] vals = new long[4096];
+        NewChunk nc = new NewChunk(null, 0);
+        for (int i = 0; i < vals.length; i++) {
+          vals[i] = base + (long) (rnd.nextDouble() * range);
+          if (nas && i % 10 == 3) nc.addNA();
+          else nc.addNum(vals[i]);
+        }
+        Chunk cc = nc.compress();
+        String msg = "range = " + range + " nas = " + nas + " c = " + cc.getClass().getSimpleName();
+        Assert.assertTrue(msg, cc instanceof CFORChunk);
+        Assert.assertEquals(nas, cc.hasNA());
+        Assert.assertFalse(cc.hasFloat());
+        Assert.assertTrue(msg, cc._mem.length < vals.length * 6);
+        for (int i = 0; i < vals.length; i++) {
+          if (nas && i % 10 == 3) {
+            Assert.assertTrue(cc.isNA(i));
+            Assert.assertTrue(Double.isNaN(cc.atd(i)));
+          } else {
+            Assert.assertFalse(cc.isNA(i));
+            Assert.assertEquals(msg, vals[i], cc.at8(i));
+            Assert.assertEquals(msg, vals[i], cc.atd(i), 0);
+          }
+        }
+        double[] ds = cc.getDoubles(new double[cc._len], 0, cc._len);
+        for (int i = 0; i < ds.length; i++)
+          Assert.assertEquals(cc.atd(i), ds[i], 0);
+
+        NewChunk nc2 = cc.extractRows(new NewChunk(null, 0), 0, cc._len);
+        for (int i = 0; i < cc._len; i++)
+          Assert.assertEquals(cc.atd(i), nc2.atd(i), 0);
+        Chunk cc2 = nc2.compress();
+        Assert.assertTrue(cc2 instanceof CFORChunk);
+        Assert.assertTrue(Arrays.equals(cc._mem, cc2._mem));
+      }
+  }
+
+  @Test public void test_at8_NA() {
+    NewChunk nc = new NewChunk(null, 0);
+    for (int i = 0; i < 2000; i++)
+      if (i == 7) nc.addNA();
+      else nc.addNum(100000 + (i * 7919) % 300000);
+    Chunk cc = nc.compress();
+    Assert.assertTrue(cc instanceof CFORChunk);
+    try {
+      cc.at8(7);
+      Assert.fail("Expected an exception on a missing value");
+    } catch (IllegalArgumentException expected) {
+    }
+  }
+
+  @Test public void test_decimals_not_packed() {
+    NewChunk nc = new NewChunk(null, 0);
+    for (int i = 0; i < 4096; i++) nc.addNum(1234567 + (i * 7919) % 300000, -2);
+    Assert.assertTrue(nc.compress() instanceof C4SChunk);
+  }
+}
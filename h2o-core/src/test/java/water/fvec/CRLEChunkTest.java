@@ -0,0 +1,100 @@
+package water.fvec;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.TestUtil;
+import water.util.PrettyPrint;
+
+import java.util.Arrays;
+
+public class CRLEChunkTest extends TestUtil {
+  @BeforeClass() public static void setup() { stall_till_cloudsize(1); }
+
+  // Sorted keys with runs of 1 to 100 rows, and a block of missing values
+  private static NewChunk runs(int len, int exp) {
+    NewChunk nc = new NewChunk(null, 0);
+    long m = -500;
+    for (int i = 0; i < len; m += 7) {
+      int n = 1 + (int) (Math.abs(m * 31) % 100);
+      for (int j = 0; j < n && i < len; j++, i++) {
+        if (i >= 3000 && i < 3200) nc.addNA();
+        else nc.addNum(m, exp);
+      }
+    }
+    return nc;
+  }
+
+  @Test public void test_inflate_impl() {
+    for (int exp : new int[]{0, -2}) {
+      NewChunk nc = runs(10000, exp);
+      Chunk cc = nc.compress();
+      Assert.assertTrue(cc.getClass().getSimpleName(), cc instanceof CRLEChunk);
+      Assert.assertEquals(10000, cc._len);
+      Assert.assertEquals(exp < 0, cc.hasFloat());
+      Assert.assertTrue(cc.hasNA());
+      nc = runs(10000, exp);
+      for (int i = 0; i < cc._len; i++) {
+        Assert.assertEquals(nc.isNA(i), cc.isNA(i));
+        if (!nc.isNA(i)) { // // NewChunk computes decimals as m*10^e, which can be an ulp off
+          Assert.assertEquals(nc.atd(i), cc.atd(i), Math.ulp(cc.atd(i)));
+          if (exp == 0) Assert.assertEquals(nc.at8(i), cc.at8(i));
+        }
+      }
+      // Random access, both directions
+      for (int i = cc._len - 1; i >= 0; i -= 37)
+        Assert.assertEquals(nc.atd(i), cc.atd(i), Math.ulp(cc.atd(i)));
+      double[] vals = cc.getDoubles(new double[777], 2900, 3677);
+      for (int i = 0; i < vals.length; i++)
+        Assert.assertEquals(cc.atd(2900 + i), vals[i], 0);
+
+      NewChunk nc2 = cc.extractRows(new NewChunk(null, 0), 0, cc._len);
+      Assert.assertEquals(cc._len, nc2._len);
+      for (int i = 0; i < cc._len; i++)
+        Assert.assertEquals(cc.atd(i), nc2.atd(i), Math.ulp(cc.atd(i)));
+      Chunk cc2 = nc2.compress();
+      Assert.assertTrue(cc2 instanceof CRLEChunk);
+      Assert.assertTrue(Arrays.equals(cc._mem, cc2._mem));
+
+      Chunk cc3 = cc.deepCopy();
+      cc3.initFromBytes();
+      for (int i = 0; i < cc._len; i += 13)
+        Assert.assertEquals(cc.atd(i), cc3.atd(i), 0);
+    }
+  }
+
+  @Test public void test_decimals() {
+    NewChunk nc = new NewChunk(null, 0);
+    for (int i = 0; i < 5000; i++) nc.addNum(-1234567 + i / 500, -3);
+    Chunk cc = nc.compress();
+    Assert.assertTrue(cc instanceof CRLEChunk);
+    for (int i = 0; i < 5000; i++)
+      Assert.assertEquals(PrettyPrint.pow10(-1234567 + i / 500, -3), cc.atd(i), 0);
+  }
+
+  @Test public void test_short_chunk() {
+    // Not worth an encoding below NewChunk.MIN_ENCODED_LEN rows
+    NewChunk nc = new NewChunk(null, 0);
+    for (int i = 0; i < 100; i++) nc.addNum(100000 * (i / 50));
+    Assert.assertFalse(nc.compress() instanceof CRLEChunk);
+  }
+
+  @Test public void test_set() {
+    water.Key key = Vec.newKey();
+    Vec vec = new Vec(key, Vec.ESPC.rowLayout(key, new long[]{0, 5000})).makeZero();
+    Vec.Writer w = vec.open();
+    for (int i = 0; i < 5000; i++) w.set(i, 1000000L * (i / 1000));
+    w.close();
+    Chunk cc = vec.chunkForChunkIdx(0);
+    Assert.assertTrue(cc instanceof CRLEChunk);
+    // Encoded chunks are read-only, writes inflate them
+    cc.set(10, 3.5);
+    cc.setNA(20);
+    Assert.assertTrue(cc.chk2() instanceof NewChunk);
+    Assert.assertEquals(3.5, cc.atd(10), 0);
+    Assert.assertTrue(cc.isNA(20));
+    Assert.assertEquals(0, cc.at8(999));
+    Assert.assertEquals(4000000L, cc.at8(4999));
+    vec.remove();
+  }
+}
@@ -0,0 +1,81 @@
+package water.fvec;
+
+import org.junit.*;
+
+import water.TestUtil;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * The specialized bulk decoders must match the generic {@link ChunkVisitor} based ones.
+ */
+public class ChunkBulkAccessTest extends TestUtil {
+  @BeforeClass() public static void setup() { stall_till_cloudsize(1); }
+
+  private interface Gen { void add(NewChunk nc, Random r, int i); }
+
+  private static Chunk make(int len, Gen g) {
+    Random r = new Random(42);
+    NewChunk nc = new NewChunk(null, 0);
+    for (int i = 0; i < len; i++) g.add(nc, r, i);
+    return nc.compress();
+  }
+
+  private static List<Chunk> chunks() {
+    List<Chunk> res = new ArrayList<>();
+    res.add(make(1000, new Gen() { public void add(NewChunk nc, Random r, int i) { if (i % 7 == 0) nc.addNA(); else nc.addNum(r.nextInt(100)); }}));   // C1
+    res.add(make(1000, new Gen() { public void add(NewChunk nc, Random r, int i) { if (i % 7 == 0) nc.addNA(); else nc.addNum(r.nextInt(30000)); }})); // C2
+    res.add(make(1000, new Gen() { public void add(NewChunk nc, Random r, int i) { if (i % 7 == 0) nc.addNA(); else nc.addNum(r.nextFloat()); }}));   // C4F
+    res.add(make(1000, new Gen() { public void add(NewChunk nc, Random r, int i) { if (i % 7 == 0) nc.addNA(); else nc.addNum(r.nextDouble()); }}));  // C8D
+    res.add(make(1000, new Gen() { public void add(NewChunk nc, Random r, int i) { nc.addNum(r.nextInt(2)); }}));                                     // CBS
+    res.add(make(1000, new Gen() { public void add(NewChunk nc, Random r, int i) { if (i % 7 == 0) nc.addNA(); else nc.addNum(r.nextInt(2)); }}));    // CBS w/NAs
+    res.add(make(1000, new Gen() { public void add(NewChunk nc, Random r, int i) { nc.addNum(i % 13 == 0 ? 1 : 0); }}));                            // CXI bitvector
+    res.add(make(1000, new Gen() { public void add(NewChunk nc, Random r, int i) { if (i % 31 == 0) nc.addNA(); else nc.addNum(i % 13 == 0 ? r.nextInt(5000) : 0); }})); // CXI
+    res.add(make(1000, new Gen() { public void add(NewChunk nc, Random r, int i) { if (i % 13 == 0) nc.addNum(r.nextInt(5000)); else nc.addNA(); }})); // CXI NA-sparse
+    res.add(make(1000, new Gen() { public void add(NewChunk nc, Random r, int i) { nc.addNum(i % 13 == 0 ? r.nextDouble() : 0); }}));                // CXF
+    res.add(make(1000, new Gen() { public void add(NewChunk nc, Random r, int i) { if (i % 13 == 0) nc.addNum(r.nextDouble()); else nc.addNA(); }})); // CXF NA-sparse
+    res.add(new C0LChunk(7, 1000));
+    res.add(new C0LChunk(0, 1000));
+    res.add(new C0DChunk(3.5, 1000));
+    res.add(new C0DChunk(Double.NaN, 1000));
+    return res;
+  }
+
+  @Test public void testDense() {
+    for (Chunk c : chunks()) {
+      int[][] ranges = new int[][]{{0, c._len}, {0, 1}, {13, 14}, {100, 357}, {c._len - 3, c._len}};
+      for (int[] rg : ranges) {
+        int n = rg[1] - rg[0];
+        double[] expected = c.processRows(new ChunkVisitor.DoubleAryVisitor(new double[n], -1), rg[0], rg[1]).vals;
+        double[] actual = c.getDoubles(new double[n], rg[0], rg[1], -1);
+        Assert.assertArrayEquals(c.getClass().getSimpleName(), expected, actual, 0);
+        for (int i = 0; i < n; i++)
+          Assert.assertEquals(c.isNA(rg[0] + i) ? -1 : c.atd(rg[0] + i), actual[i], 0);
+      }
+      if (!c.hasFloat() && !(c instanceof C0DChunk)) {
+        int[] expected = c.processRows(new ChunkVisitor.IntAryVisitor(new int[c._len], -1), 0, c._len).vals;
+        int[] actual = c.getIntegers(new int[c._len], 0, c._len, -1);
+        Assert.assertArrayEquals(c.getClass().getSimpleName(), expected, actual);
+      }
+    }
+  }
+
+  @Test public void testSparse() {
+    for (Chunk c : chunks()) {
+      if (c instanceof C0DChunk && c.isSparseNA()) continue; // C0D keeps its own convention for all-NA chunks
+      double[] ev = new double[c._len], av = new double[c._len];
+      int[] eids = new int[c._len], aids = new int[c._len];
+      int en = c.processRows(new ChunkVisitor.SparseDoubleAryVisitor(ev, eids, c.isSparseNA(), -1), 0, c._len).sparseLen();
+      int an = c.getSparseDoubles(av, aids, -1);
+      String name = c.getClass().getSimpleName();
+      Assert.assertEquals(name, en, an);
+      Assert.assertArrayEquals(name, Arrays.copyOf(eids, en), Arrays.copyOf(aids, an));
+      Assert.assertArrayEquals(name, Arrays.copyOf(ev, en), Arrays.copyOf(av, an), 0);
+      if (c.isSparseZero() || c.isSparseNA())
+        Assert.assertTrue(name, an <= Math.min(c.sparseLenZero(), c.sparseLenNA()));
+    }
+  }
+}
@@ -0,0 +1,59 @@
+package water.fvec;
+
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import water.DKV;
+import water.Key;
+import water.Scope;
+import water.TestUtil;
+
+import java.io.File;
+
+import static org.junit.Assert.*;
+
+public class FrameSnapshotTest extends TestUtil {
+
+  @Rule
+  public TemporaryFolder tmpFolder = new TemporaryFolder();
+
+  @BeforeClass public static void setup() {
+    stall_till_cloudsize(1);
+  }
+
+  @Test public void testSaveLoad() throws Exception {
+    Scope.enter();
+    try {
+      Frame fr = Scope.track(new TestFrameBuilder()
+              .withName("snapshotSource")
+              .withColNames("num", "cat", "str")
+              .withVecTypes(Vec.T_NUM, Vec.T_CAT, Vec.T_STR)
+              .withDataForCol(0, ard(1.5, Double.NaN, 3, 4, -5, 6))
+              .withDataForCol(1, ar("a", "b", null, "b", "c", "a"))
+              .withDataForCol(2, ar("x", null, "yy", "z", "w", "v"))
+              .withChunkLayout(2, 3, 1)
+              .build());
+      File dir = tmpFolder.newFolder("snapshot");
+      FrameSnapshot.save(fr, dir.getPath(), false).get();
+      assertTrue(new File(dir, FrameSnapshot.META_FILE).exists());
+      for (int cidx = 0; cidx < fr.anyVec().nChunks(); cidx++)
+        assertTrue(new File(FrameSnapshot.chunkPath(dir.getPath(), cidx)).exists());
+
+      Key<Frame> key = Key.make("snapshotLoaded");
+      Frame loaded = Scope.track(FrameSnapshot.load(key, dir.getPath()));
+      assertNotNull(DKV.get(key));
+      assertArrayEquals(fr.names(), loaded.names());
+      assertArrayEquals(fr.anyVec().espc(), loaded.anyVec().espc());
+      assertArrayEquals(fr.vec("cat").domain(), loaded.vec("cat").domain());
+      assertTrue(isBitIdentical(fr, loaded));
+      // Rollups are restored, not recomputed
+      assertNotNull(RollupStats.getOrNull(loaded.vec("num"), loaded.vec("num").rollupStatsKey()));
+      assertEquals(fr.vec("num").mean(), loaded.vec("num").mean(), 0);
+      assertEquals(1, loaded.vec("num").naCnt());
+    } finally {
+      Scope.exit();
+    }
+  }
+
+}
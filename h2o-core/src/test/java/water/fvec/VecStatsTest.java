@@ -4,6 +4,7 @@ import static org.junit.Assert.*;
 import org.junit.*;
 
 import java.util.Random;
+import water.DKV;
 import water.Futures;
 import water.TestUtil;
 import water.Key;
@@ -71,4 +72,67 @@ public class VecStatsTest extends TestUtil {
     vec.remove();
 
   }
+
+  @Test public void testBulkRollups() {
+    Frame frame = null;
+    try {
+      int n = 5000;
+      Random random = new Random(0xB01);
+      double[] nums = new double[n], sparse = new double[n], cons = new double[n];
+      long[] ints = new long[n];
+      String[] cats = new String[n], strs = new String[n];
+      for( int r = 0; r < n; r++ ) {
+        nums[r] = random.nextInt(20) == 0 ? Double.NaN : random.nextGaussian() * 100;
+        if( r == 17 ) nums[r] = Double.POSITIVE_INFINITY;
+        sparse[r] = random.nextInt(50) == 0 ? random.nextInt(7) : 0;
+        cons[r] = 3;
+        ints[r] = random.nextInt(1000) - 500;
+        cats[r] = random.nextInt(30) == 0 ? null : "L" + random.nextInt(12);
+        strs[r] = "s" + r;
+      }
+      frame = new TestFrameBuilder()
+          .withColNames("num", "sparse", "const", "int", "cat", "str")
+          .withVecTypes(Vec.T_NUM, Vec.T_NUM, Vec.T_NUM, Vec.T_NUM, Vec.T_CAT, Vec.T_STR)
+          .withDataForCol(0, nums).withDataForCol(1, sparse).withDataForCol(2, cons)
+          .withDataForCol(3, ints).withDataForCol(4, cats).withDataForCol(5, strs)
+          .withChunkLayout(1000, 1500, 2000, 500)
+          .build();
+      Vec[] vecs = frame.vecs();
+
+      frame.bulkRollups(Vec.DO_HISTOGRAMS);
+      RollupStats[] bulk = new RollupStats[vecs.length];
+      for( int i = 0; i < vecs.length; i++ ) {
+        bulk[i] = RollupStats.getOrNull(vecs[i], vecs[i].rollupStatsKey());
+        assertNotNull(bulk[i]);
+        assertEquals(!vecs[i].isString(), bulk[i].hasHisto());
+      }
+      // Same rollups when computed a Vec at a time
+      for( Vec v : vecs ) DKV.remove(v.rollupStatsKey());
+      for( int i = 0; i < vecs.length; i++ ) {
+        RollupStats rs = RollupStats.get(vecs[i], Vec.DO_HISTOGRAMS);
+        assertNotSame(bulk[i], rs);
+        assertEquals(rs._naCnt, bulk[i]._naCnt);
+        assertEquals(rs._nzCnt, bulk[i]._nzCnt);
+        assertEquals(rs._rows, bulk[i]._rows);
+        assertEquals(rs._pinfs, bulk[i]._pinfs);
+        assertEquals(rs._ninfs, bulk[i]._ninfs);
+        assertEquals(rs._size, bulk[i]._size);
+        assertEquals(rs._isInt, bulk[i]._isInt);
+        assertEquals(rs._checksum, bulk[i]._checksum);
+        // Partial results may be reduced in a different order
+        assertEquals(rs._mean, bulk[i]._mean, 1e-12 * Math.abs(rs._mean));
+        assertEquals(rs._sigma, bulk[i]._sigma, 1e-12 * rs._sigma);
+        assertArrayEquals(rs._mins, bulk[i]._mins, 0);
+        assertArrayEquals(rs._maxs, bulk[i]._maxs, 0);
+        assertArrayEquals(rs._bins, bulk[i]._bins);
+        assertArrayEquals(rs._pctiles, bulk[i]._pctiles, 0);
+      }
+      // Nothing left to compute
+      frame.bulkRollups(Vec.DO_HISTOGRAMS);
+      for( int i = 0; i < vecs.length; i++ )
+        assertNotNull(RollupStats.getOrNull(vecs[i], vecs[i].rollupStatsKey()));
+    } finally {
+      if( frame != null ) frame.delete();
+    }
+  }
 }
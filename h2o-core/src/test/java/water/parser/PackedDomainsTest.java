@@ -2,6 +2,10 @@ package water.parser;
 
 import org.junit.Test;
 
+import java.util.Arrays;
+import java.util.Random;
+import java.util.TreeSet;
+
 import static org.junit.Assert.*;
 import static water.parser.PackedDomains.*;
 
@@ -119,6 +123,48 @@ public class PackedDomainsTest {
     assertArrayEquals(pack(third), merge(third, third));
   }
 
+  @Test
+  public void testMergeMany() throws Exception {
+    assertArrayEquals(allWords, unpackToStrings(PackedDomains.merge(new byte[][]{pack(first), pack(second), pack(third)})));
+    assertArrayEquals(allWords, unpackToStrings(PackedDomains.merge(new byte[][]{pack(third), pack(empty), pack(first), pack(second), pack(third)})));
+    assertArrayEquals(pack(second), PackedDomains.merge(new byte[][]{pack(second)}));
+    assertArrayEquals(pack(second), PackedDomains.merge(new byte[][]{pack(second), pack(empty), pack(second)}));
+    assertArrayEquals(pack(empty), PackedDomains.merge(new byte[][]{pack(empty), pack(empty)}));
+  }
+
+  @Test
+  public void testMergeManyLikePairwise() throws Exception {
+    Random r = new Random(42);
+    for (int k = 1; k < 8; k++) {
+      byte[][] domains = new byte[k][];
+      byte[] pairwise = pack(empty);
+      for (int i = 0; i < k; i++) {
+        TreeSet<String> words = new TreeSet<>();
+        for (int w = r.nextInt(50); w > 0; w--)
+          words.add(Integer.toString(r.nextInt(100), 36) + (r.nextBoolean() ? "" : "\u00e9"));
+        BufferedString[] bss = new BufferedString[words.size()];
+        int j = 0;
+        for (String w : words) bss[j++] = new BufferedString(w);
+        Arrays.sort(bss);
+        domains[i] = PackedDomains.pack(bss);
+        pairwise = PackedDomains.merge(pairwise, domains[i]);
+      }
+      assertArrayEquals(pairwise, PackedDomains.merge(domains));
+    }
+  }
+
+  @Test
+  public void testMapOrdinals() throws Exception {
+    byte[] unified = PackedDomains.merge(new byte[][]{pack(first), pack(second), pack(third)});
+    int[] map = new int[10];
+    Arrays.fill(map, -1);
+    mapOrdinals(pack(third), new int[]{5, 1, 9, 2, 7}, unified, map);
+    assertArrayEquals(new int[]{-1, 4, 8, -1, -1, 0, -1, 10, -1, 7}, map);
+    Arrays.fill(map, -1);
+    mapOrdinals(pack("absolute", "missing", "neo"), new int[]{0, 1, 2}, unified, map);
+    assertArrayEquals(new int[]{5, -1, 6, -1, -1, -1, -1, -1, -1, -1}, map);
+  }
+
   private static byte[] merge(String[] s1, String[] s2) {
     return PackedDomains.merge(pack(s1), pack(s2));
   }
@@ -0,0 +1,127 @@
+package water.persist;
+
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import water.H2O;
+import water.Key;
+import water.TestUtil;
+import water.Value;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class PersistSegmentedFSTest extends TestUtil {
+
+  @BeforeClass
+  public static void setup() { stall_till_cloudsize(1); }
+
+  @Rule
+  public TemporaryFolder tmp = new TemporaryFolder();
+
+  private static Value makeValue(int i, int len) {
+    byte[] b = new byte[len];
+    for (int j = 0; j < len; j++) b[j] = (byte) (i * 31 + j);
+    return new Value(Key.make("seg_test_" + i), b);
+  }
+
+  @Test
+  public void testStoreLoadDelete() throws Exception {
+    File root = tmp.newFolder();
+    PersistSegmentedFS p = new PersistSegmentedFS(root, 1000, 0.5);
+    Value[] vals = new Value[20];
+    for (int i = 0; i < vals.length; i++) {
+      vals[i] = makeValue(i, 100 + i);
+      p.store(vals[i]);
+      vals[i].setDsk();
+    }
+    // 20 values of ~110 bytes in segments of 1000 bytes
+    assertEquals(3, p.segmentCount());
+    assertEquals(3, new File(root, "ice" + H2O.API_PORT + "/segments").list().length);
+    for (Value v : vals)
+      assertArrayEquals(v.memOrLoad(), p.load(v));
+
+    p.delete(vals[0]);
+    Value fresh = new Value(vals[0]._key, new byte[vals[0]._max]);
+    assertNull(p.load(fresh));
+    p.cleanUp();
+    assertEquals(0, p.segmentCount());
+  }
+
+  @Test
+  public void testCompaction() throws Exception {
+    PersistSegmentedFS p = new PersistSegmentedFS(tmp.newFolder(), 1000, 0.5);
+    Value[] vals = new Value[30];
+    for (int i = 0; i < vals.length; i++) {
+      vals[i] = makeValue(i, 100);
+      p.store(vals[i]);
+      vals[i].setDsk();
+    }
+    assertEquals(3, p.segmentCount());
+    assertEquals(0, p.compact());
+
+    // Delete most of the first (sealed) segment
+    for (int i = 0; i < 6; i++)
+      p.delete(vals[i]);
+    assertEquals(1, p.compact());
+    assertEquals(3, p.segmentCount());
+
+    // Live values moved out of the compacted segment are still readable
+    for (int i = 6; i < vals.length; i++)
+      assertArrayEquals(vals[i].memOrLoad(), p.load(vals[i]));
+    p.cleanUp();
+  }
+
+  @Test
+  public void testCompactionDeletesSegmentFile() throws Exception {
+    File root = tmp.newFolder();
+    PersistSegmentedFS p = new PersistSegmentedFS(root, 1000, 0.5);
+    Value[] vals = new Value[30];
+    for (int i = 0; i < vals.length; i++) {
+      vals[i] = makeValue(i, 100);
+      p.store(vals[i]);
+      vals[i].setDsk();
+    }
+    List<File> before = listFiles(root, new ArrayList<File>());
+    for (int i = 0; i < 6; i++)
+      p.delete(vals[i]);
+    assertEquals(1, p.compact());
+    // the mapping of the compacted segment is released, so its file is really gone
+    int deleted = 0;
+    for (File f : before)
+      if (!f.exists()) deleted++;
+    assertEquals(1, deleted);
+    p.cleanUp();
+  }
+
+  @Test
+  public void testUnmap() throws Exception {
+    File f = tmp.newFile();
+    RandomAccessFile raf = new RandomAccessFile(f, "rw");
+    try {
+      raf.write(new byte[4096]);
+      MappedByteBuffer map = raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, 4096);
+      assertTrue(PersistSegmentedFS.unmap(map));
+    } finally {
+      raf.close();
+    }
+    assertTrue(f.delete());
+  }
+
+  private static List<File> listFiles(File dir, List<File> res) {
+    File[] fs = dir.listFiles();
+    if (fs != null)
+      for (File f : fs)
+        if (f.isDirectory()) listFiles(f, res);
+        else res.add(f);
+    return res;
+  }
+
+}
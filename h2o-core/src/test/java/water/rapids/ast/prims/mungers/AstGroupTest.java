@@ -51,6 +51,153 @@ public class AstGroupTest extends TestUtil {
     res.delete();
   }
 
+  // Groups by a small-range integer column (direct-indexed, with NAs), by a
+  // wide-range one (hashed) and by two columns, against a plain Java
+  // computation
+  @Test
+  public void testGroupTableModes() {
+    int n = 20000;
+    double[] small = new double[n], wide = new double[n], v = new double[n];
+    java.util.Random r = new java.util.Random(0xFEED);
+    for (int i = 0; i < n; i++) {
+      small[i] = i % 101 == 0 ? Double.NaN : r.nextInt(50) - 10;
+      wide[i] = (long) r.nextInt(2000) * 1000003L;
+      v[i] = i % 17 == 0 ? Double.NaN : r.nextDouble();
+    }
+    fr = new TestFrameBuilder()
+            .withName("gtFrame")
+            .withColNames("small", "wide", "v")
+            .withVecTypes(Vec.T_NUM, Vec.T_NUM, Vec.T_NUM)
+            .withDataForCol(0, small)
+            .withDataForCol(1, wide)
+            .withDataForCol(2, v)
+            .withChunkLayout(5000, 2500, 7500, 5000)
+            .build();
+    for (int[] gb : new int[][]{{0}, {1}, {0, 1}}) {
+      java.util.Map<java.util.List<Double>, double[]> exp = new java.util.HashMap<>();
+      for (int i = 0; i < n; i++) {
+        java.util.List<Double> key = new java.util.ArrayList<>();
+        for (int c : gb) key.add(c == 0 ? small[i] : wide[i]);
+        double[] e = exp.get(key);
+        if (e == null) exp.put(key, e = new double[3]);
+        e[0]++;                          // nrow
+        if (!Double.isNaN(v[i])) { e[1] += v[i]; e[2]++; } // sum, count for mean with "rm"
+      }
+      String cols = gb.length == 1 ? "[" + gb[0] + "]" : "[0, 1]";
+      Frame res = Rapids.exec("(GB gtFrame " + cols + " nrow 2 \"all\" sum 2 \"rm\" mean 2 \"rm\")").getFrame();
+      try {
+        assertEquals(exp.size(), res.numRows());
+        for (long row = 0; row < res.numRows(); row++) {
+          java.util.List<Double> key = new java.util.ArrayList<>();
+          for (int c = 0; c < gb.length; c++) key.add(res.vec(c).at(row));
+          double[] e = exp.get(key);
+          assertNotNull(key.toString(), e);
+          assertEquals(e[0], res.vec(gb.length).at(row), 0);
+          assertEquals(e[1], res.vec(gb.length + 1).at(row), 1e-8);
+          assertEquals(e[1] / e[2], res.vec(gb.length + 2).at(row), 1e-8);
+        }
+        // Sorted by the group keys, NAs first
+        if (gb.length == 1)
+          for (long row = 1; row < res.numRows(); row++)
+            assertTrue(Double.isNaN(res.vec(0).at(row - 1)) || res.vec(0).at(row - 1) < res.vec(0).at(row));
+      } finally {
+        res.delete();
+      }
+    }
+  }
+
+  @Test
+  public void testGroupTableSerialization() {
+    fr = new TestFrameBuilder()
+            .withName("gtFrame")
+            .withColNames("k", "v")
+            .withVecTypes(Vec.T_CAT, Vec.T_NUM)
+            .withDataForCol(0, ar("a", "b", "a", null, "c"))
+            .withDataForCol(1, ard(1, 2, 3, 4, 5))
+            .build();
+    AstGroup.AGG[] aggs = new AstGroup.AGG[]{new AstGroup.AGG(AstGroup.FCN.sum, 1, AstGroup.NAHandling.ALL, 0),
+            new AstGroup.AGG(AstGroup.FCN.var, 1, AstGroup.NAHandling.ALL, 0)};
+    GroupTable gt = new GroupTable(fr, new int[]{0}, aggs);
+    double[][] vals = new double[][]{{0, 1, 0, Double.NaN, 2}, {1, 2, 3, 4, 5}};
+    double[] key = new double[1];
+    for (int row = 0; row < 5; row++) {
+      key[0] = vals[0][row];
+      gt.add(gt.group(key, 0), aggs, vals, row);
+    }
+    assertEquals(4, gt.size());
+    GroupTable copy = new AutoBuffer().put(gt).flipForReading().get();
+    assertEquals(4, copy.size());
+    copy.merge(gt, aggs);       // Lookups on a deserialized table
+    assertEquals(4, copy.size());
+    AstGroup.G[] grps = copy.groups(aggs, false);
+    assertEquals(0, grps[0]._gs[0], 0);
+    assertEquals(8, grps[0]._dss[0][0], 0); // 2x (1+3)
+    assertEquals(20, grps[0]._dss[1][0], 0); // 2x (1+9)
+    assertEquals(4, grps[0]._ns[0]);
+    assertTrue(Double.isNaN(grps[2]._gs[0]));
+    assertEquals(8, grps[2]._dss[0][0], 0);
+  }
+
+  // The sort based path must produce the same frame as the hash based one,
+  // including groups spanning several chunks and NA keys
+  @Test
+  public void testSortedGroups() {
+    int n = 20000;
+    double[] key = new double[n], v = new double[n];
+    String[] cat = new String[n];
+    java.util.Random r = new java.util.Random(0xBEEF);
+    for (int i = 0; i < n; i++) {
+      key[i] = i % 997 == 0 ? Double.NaN : 4000 <= i && i < 8000 ? 7777 : r.nextInt(n);
+      v[i] = i % 13 == 0 ? Double.NaN : r.nextInt(1000) / 10.0;
+      cat[i] = "l" + r.nextInt(4);
+    }
+    fr = new TestFrameBuilder()
+            .withName("sgFrame")
+            .withColNames("key", "v", "cat")
+            .withVecTypes(Vec.T_NUM, Vec.T_NUM, Vec.T_CAT)
+            .withDataForCol(0, key)
+            .withDataForCol(1, v)
+            .withDataForCol(2, cat)
+            .withChunkLayout(5000, 2500, 7500, 5000)
+            .build();
+    String aggs = " nrow 1 \"all\" sum 1 \"rm\" mean 1 \"all\" var 1 \"rm\" mode 2 \"all\" median 1 \"rm\")";
+    long threshold = SortedGroups.SORT_THRESHOLD;
+    Frame hashed = null, sorted = null;
+    try {
+      SortedGroups.SORT_THRESHOLD = 100;
+      assertTrue(SortedGroups.preferred(fr, new int[]{0}));
+      assertFalse(SortedGroups.preferred(fr, new int[]{2})); // Few distinct keys
+      sorted = Rapids.exec("(GB sgFrame [0]" + aggs).getFrame();
+      SortedGroups.SORT_THRESHOLD = Long.MAX_VALUE;
+      // The hash path sorts a frame per group for a median; leave it out
+      hashed = Rapids.exec("(GB sgFrame [0]" + aggs.substring(0, aggs.indexOf(" median")) + ")").getFrame();
+      assertEquals(hashed.numRows(), sorted.numRows());
+      for (int c = 0; c < hashed.numCols(); c++) {
+        assertEquals(hashed.name(c), sorted.name(c));
+        for (long row = 0; row < hashed.numRows(); row++)
+          assertEquals(hashed.name(c) + " row " + row, hashed.vec(c).at(row), sorted.vec(c).at(row), 1e-8);
+      }
+      assertTrue(Double.isNaN(sorted.vec(0).at(0)));
+      // Medians against a plain Java computation
+      java.util.Map<Double, java.util.List<Double>> vals = new java.util.HashMap<>();
+      for (int i = 0; i < n; i++) {
+        if (!vals.containsKey(key[i])) vals.put(key[i], new java.util.ArrayList<Double>());
+        if (!Double.isNaN(v[i])) vals.get(key[i]).add(v[i]);
+      }
+      for (long row = 0; row < sorted.numRows(); row++) {
+        java.util.List<Double> l = vals.get(sorted.vec(0).at(row));
+        java.util.Collections.sort(l);
+        double median = l.isEmpty() ? Double.NaN : l.size() % 2 == 1 ? l.get(l.size() / 2)
+                : 0.5 * (l.get(l.size() / 2 - 1) + l.get(l.size() / 2));
+        assertEquals("row " + row, median, sorted.vec(6).at(row), 1e-8);
+      }
+    } finally {
+      SortedGroups.SORT_THRESHOLD = threshold;
+      if (hashed != null) hashed.delete();
+      if (sorted != null) sorted.delete();
+    }
+  }
+
   @After
   public void afterEach() {
     fr.delete();
@@ -0,0 +1,80 @@
+package water.util;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class LZ4Test {
+
+  private static byte[] roundTrip(byte[] src) {
+    byte[] z = LZ4.compress(src);
+    assertTrue(z.length <= LZ4.maxCompressedLength(src.length));
+    assertEquals(src.length, LZ4.decompressedLength(z));
+    byte[] res = LZ4.decompress(z);
+    assertArrayEquals(src, res);
+    return z;
+  }
+
+  @Test public void testEmptyAndSmall() {
+    roundTrip(new byte[0]);
+    for( int n = 1; n < 40; n++ ) {
+      byte[] bs = new byte[n];
+      for( int i = 0; i < n; i++ ) bs[i] = (byte)(i % 3);
+      roundTrip(bs);
+    }
+  }
+
+  @Test public void testRandom() {
+    Random rnd = new Random(0xCAFE);
+    for( int n : new int[]{100, 4096, 1 << 17} ) {
+      byte[] bs = new byte[n];
+      rnd.nextBytes(bs);
+      byte[] z = roundTrip(bs);
+      assertTrue(z.length > n);  // Incompressible, but bounded
+    }
+  }
+
+  @Test public void testRepetitive() {
+    byte[] zeros = new byte[1 << 20];
+    assertTrue(roundTrip(zeros).length < zeros.length / 200);
+    // Short repeated patterns: matches overlapping their own output
+    for( int p = 1; p <= 9; p++ ) {
+      byte[] bs = new byte[10000];
+      for( int i = 0; i < bs.length; i++ ) bs[i] = (byte)(i % p * 31);
+      assertTrue(roundTrip(bs).length < bs.length / 20);
+    }
+  }
+
+  @Test public void testFarMatches() {
+    // Repeats further apart than the 64KB window are literals
+    Random rnd = new Random(42);
+    byte[] block = new byte[70000];
+    rnd.nextBytes(block);
+    byte[] bs = new byte[3 * block.length];
+    for( int i = 0; i < 3; i++ ) System.arraycopy(block, 0, bs, i * block.length, block.length);
+    roundTrip(bs);
+    byte[] near = Arrays.copyOf(block, 2 * 30000);
+    System.arraycopy(block, 0, near, 30000, 30000);
+    assertTrue(roundTrip(near).length < 31000);
+  }
+
+  @Test public void testMixed() {
+    // Numbers with few significant bytes, as in Chunk data
+    Random rnd = new Random(7);
+    byte[] bs = new byte[8 * 50000];
+    for( int i = 0; i < 50000; i++ )
+      UnsafeUtils.set8d(bs, i << 3, rnd.nextInt(100) / 4.0);
+    assertTrue(roundTrip(bs).length < bs.length / 2);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMalformed() {
+    byte[] z = LZ4.compress(new byte[1000]);
+    z[z.length - 1] ^= 0x7F;
+    UnsafeUtils.set4(z, 0, 2000);
+    LZ4.decompress(z);
+  }
+}
@@ -411,6 +411,11 @@ public class XGBoostModel extends Model<XGBoostModel, XGBoostModel.XGBoostParame
     return new XGBoostMojoWriter(this);
   }
 
+  @Override // per row scoring deserializes the booster for every row
+  public boolean haveFastRowScoring() {
+    return false;
+  }
+
   private ModelMetrics makeMetrics(Frame data, Frame originalData, boolean isTrain, String description) {
     Log.debug("Making metrics: " + description);
     XGBoostScoreTask.XGBoostScoreTaskResult score = XGBoostScoreTask.runScoreTask(
@@ -0,0 +1,182 @@
+package hex.genmodel.algos.tree;
+
+import hex.genmodel.utils.ByteBufferWrapper;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Decoded form of a compressed tree, for fast repeated scoring.
+ * <p>
+ * {@link SharedTreeMojoModel#scoreTree} decodes node type, column, NA
+ * direction, split value and skip offsets of every node it visits from the
+ * byte stream, on every row.  A FlatTree decodes them once into parallel
+ * arrays indexed by node number, so scoring a row is a walk over a few int
+ * and float arrays.  Categorical splits still read their bits from the
+ * original tree bytes.
+ * <p>
+ * Scores exactly as {@link SharedTreeMojoModel#scoreTree} does for the
+ * current tree format (MOJO version 1.20 and later); computing leaf
+ * assignments is left to the byte stream walk.
+ */
+public final class FlatTree implements Serializable {
+  private static final int NA_RIGHT = 1;   // NA (or a level out of range) goes right
+  private static final int NA_VS_REST = 2; // Split is NA vs non-NA, non-NA goes left
+  private static final int BITSET = 4;     // Split is a categorical bitset test
+
+  private final byte[] _tree;     // Original tree, holding the bitsets
+  private final int _root;        // Root node, or ~leaf for a single leaf tree
+  private final int[] _col;       // Split column per node
+  private final float[] _split;   // Split value per node, for numeric splits
+  private final int[] _left;      // Left child per node, or ~leaf
+  private final int[] _right;     // Right child per node, or ~leaf
+  private final byte[] _flags;    // NA_RIGHT | NA_VS_REST | BITSET per node
+  private final int[] _bs;        // Bitset used for the range check per node, or -1
+  private final int[] _bsByte;    // Bitset: first byte in _tree
+  private final int[] _bsMin;     // Bitset: smallest level covered
+  private final int[] _bsLen;     // Bitset: number of levels covered
+  private final float[] _leaves;  // Leaf predictions
+
+  private FlatTree(Builder b, byte[] tree) {
+    _tree = tree;
+    _root = b._root;
+    _col = Arrays.copyOf(b._col, b._nodes);
+    _split = Arrays.copyOf(b._split, b._nodes);
+    _left = Arrays.copyOf(b._left, b._nodes);
+    _right = Arrays.copyOf(b._right, b._nodes);
+    _flags = Arrays.copyOf(b._flags, b._nodes);
+    _bs = Arrays.copyOf(b._bs, b._nodes);
+    _bsByte = Arrays.copyOf(b._bsByte, b._nbs);
+    _bsMin = Arrays.copyOf(b._bsMin, b._nbs);
+    _bsLen = Arrays.copyOf(b._bsLen, b._nbs);
+    _leaves = Arrays.copyOf(b._leaves, b._nleaves);
+  }
+
+  /**
+   * Decode a tree in the current compressed format.
+   * @param tree the compressed tree
+   */
+  public static FlatTree compile(byte[] tree) {
+    Builder b = new Builder();
+    b._root = b.node(new ByteBufferWrapper(tree), -1);
+    return new FlatTree(b, tree);
+  }
+
+  /** Number of internal (split) nodes */
+  public int nodes() { return _col.length; }
+
+  /**
+   * Prediction of this tree for the given row.
+   * @param row input row
+   * @param domains domains of the model; levels past the end of a domain are treated as NAs
+   */
+  public double score(double[] row, String[][] domains) {
+    int n = _root;
+    while (n >= 0) {
+      int col = _col[n];
+      double d = row[col];
+      int flags = _flags[n];
+      boolean right;
+      if (Double.isNaN(d) || (_bs[n] >= 0 && !inRange(_bs[n], (int) d)) ||
+          (domains != null && domains[col] != null && domains[col].length <= (int) d))
+        right = (flags & NA_RIGHT) != 0;
+      else if ((flags & NA_VS_REST) != 0)
+        right = false;
+      else if ((flags & BITSET) == 0)
+        right = d >= _split[n];
+      else
+        right = contains(_bs[n], (int) d);
+      n = right ? _right[n] : _left[n];
+    }
+    return _leaves[~n];
+  }
+
+  private boolean inRange(int bs, int level) {
+    level -= _bsMin[bs];
+    return level >= 0 && level < _bsLen[bs];
+  }
+
+  private boolean contains(int bs, int level) {
+    int idx = level - _bsMin[bs];
+    return (_tree[_bsByte[bs] + (idx >> 3)] & ((byte) 1 << (idx & 7))) != 0;
+  }
+
+  // Growable arrays filled by a preorder walk of the byte stream
+  private static final class Builder {
+    int _root;
+    int _nodes, _nbs, _nleaves;
+    int[] _col = new int[16], _left = new int[16], _right = new int[16], _bs = new int[16];
+    float[] _split = new float[16];
+    byte[] _flags = new byte[16];
+    int[] _bsByte = new int[4], _bsMin = new int[4], _bsLen = new int[4];
+    float[] _leaves = new float[16];
+
+    // Decode the subtree at the current position; 'bs' is the bitset last
+    // decoded on the path from the root, as the byte stream walk keeps it
+    int node(ByteBufferWrapper ab, int bs) {
+      int nodeType = ab.get1U();
+      int colId = ab.get2();
+      if (colId == 65535) return leaf(ab.get4f());
+      int naSplitDir = ab.get1U();
+      boolean naVsRest = naSplitDir == NaSplitDir.NAvsREST.value();
+      boolean leftward = naSplitDir == NaSplitDir.NALeft.value() || naSplitDir == NaSplitDir.Left.value();
+      int lmask = nodeType & 51;
+      int equal = nodeType & 12;
+      assert equal != 4;  // no longer supported
+      float splitVal = -1;
+      if (!naVsRest) {
+        if (equal == 0) {
+          splitVal = ab.get4f();
+        } else if (equal == 8) {
+          bs = bitset(ab.position(), 0, 32);
+          ab.skip(4);
+        } else {
+          int bitoff = ab.get2();
+          int nbits = ab.get4();
+          bs = bitset(ab.position(), bitoff, nbits);
+          ab.skip(((nbits - 1) >> 3) + 1);
+        }
+      }
+      int n = _nodes++;
+      if (n == _col.length) {
+        int cap = 2 * n;
+        _col = Arrays.copyOf(_col, cap);
+        _left = Arrays.copyOf(_left, cap);
+        _right = Arrays.copyOf(_right, cap);
+        _bs = Arrays.copyOf(_bs, cap);
+        _split = Arrays.copyOf(_split, cap);
+        _flags = Arrays.copyOf(_flags, cap);
+      }
+      _col[n] = colId;
+      _split[n] = splitVal;
+      _bs[n] = equal != 0 ? bs : -1;
+      _flags[n] = (byte) ((leftward ? 0 : NA_RIGHT) | (naVsRest ? NA_VS_REST : 0) | (equal != 0 && !naVsRest ? BITSET : 0));
+      if (lmask <= 3) ab.skip(lmask + 1); // Size of the left subtree
+      // Children go through locals: decoding them may grow the arrays
+      int left = (lmask & 16) != 0 ? leaf(ab.get4f()) : node(ab, bs);
+      int rmask = (nodeType & 0xC0) >> 2;
+      int right = (rmask & 16) != 0 ? leaf(ab.get4f()) : node(ab, bs);
+      _left[n] = left;
+      _right[n] = right;
+      return n;
+    }
+
+    private int leaf(float pred) {
+      if (_nleaves == _leaves.length) _leaves = Arrays.copyOf(_leaves, 2 * _nleaves);
+      _leaves[_nleaves] = pred;
+      return ~_nleaves++;
+    }
+
+    private int bitset(int byteOff, int bitoff, int nbits) {
+      if (_nbs == _bsByte.length) {
+        _bsByte = Arrays.copyOf(_bsByte, 2 * _nbs);
+        _bsMin = Arrays.copyOf(_bsMin, 2 * _nbs);
+        _bsLen = Arrays.copyOf(_bsLen, 2 * _nbs);
+      }
+      _bsByte[_nbs] = byteOff;
+      _bsMin[_nbs] = bitoff;
+      _bsLen[_nbs] = nbits;
+      return _nbs++;
+    }
+  }
+}
@@ -21,6 +21,10 @@ public abstract class SharedTreeMojoModel extends MojoModel implements SharedTre
     private static final int NsdLeft = NaSplitDir.Left.value();
 
     private ScoreTree _scoreTree;
+    private FlatTree[] _flat_trees; // Decoded trees used for scoring, when the format allows
+
+    /** Rows scored together by each tree in batch scoring; a block of rows and the nodes of a tree fit in cache */
+    public static final int BATCH_ROWS = 256;
 
     /**
      * {@code _ntree_groups} is the number of trees requested by the user. For
@@ -62,6 +66,25 @@ public abstract class SharedTreeMojoModel extends MojoModel implements SharedTre
         _scoreTree = new ScoreTree1(); // Second version
       } else
         _scoreTree = new ScoreTree2(); // Current version
+      useFlatTrees(true);
+    }
+
+    /**
+     * Switches scoring between the decoded {@link FlatTree} form of the trees
+     * (the default, for the current tree format) and walking the compressed
+     * byte form directly.  Decoded trees take a few times more memory.
+     * @param enable true to score with decoded trees
+     */
+    public void useFlatTrees(boolean enable) {
+      if (!enable || !(_scoreTree instanceof ScoreTree2)) {
+        _flat_trees = null;
+      } else if (_flat_trees == null) {
+        FlatTree[] trees = new FlatTree[_compressed_trees.length];
+        for (int i = 0; i < trees.length; i++)
+          if (_compressed_trees[i] != null)
+            trees[i] = FlatTree.compile(_compressed_trees[i]);
+        _flat_trees = trees;
+      }
     }
 
     public final int getNTreeGroups() {
@@ -701,11 +724,15 @@ public abstract class SharedTreeMojoModel extends MojoModel implements SharedTre
      */
     public final void scoreTreeRange(double[] row, int fromIndex, int toIndex, double[] preds) {
         final int clOffset = _nclasses == 1 ? 0 : 1;
+        final FlatTree[] flatTrees = _flat_trees;
         for (int classIndex = 0; classIndex < _ntrees_per_group; classIndex++) {
             int k = clOffset + classIndex;
             int itree = treeIndex(fromIndex, classIndex);
             for (int groupIndex = fromIndex; groupIndex < toIndex; groupIndex++) {
-                if (_compressed_trees[itree] != null) { // Skip all empty trees
+                if (flatTrees != null) {
+                  if (flatTrees[itree] != null)
+                    preds[k] += flatTrees[itree].score(row, _domains);
+                } else if (_compressed_trees[itree] != null) { // Skip all empty trees
                   preds[k] += _scoreTree.scoreTree(_compressed_trees[itree], row, false, _domains);
                 }
                 itree++;
@@ -713,6 +740,67 @@ public abstract class SharedTreeMojoModel extends MojoModel implements SharedTre
         }
     }
 
+    /**
+     * Generates (partial, per-class) predictions for a block of rows using only trees from a given range.
+     * Trees are visited in the outer loop and rows in the inner one, so that the nodes of a tree stay
+     * in cache while it scores the whole block.  Each row adds up its tree predictions in the same order
+     * as {@link #scoreTreeRange(double[], int, int, double[])}, giving identical results.
+     * @param rows input rows
+     * @param fromRow first row of the block (inclusive)
+     * @param toRow last row of the block (exclusive)
+     * @param fromIndex low endpoint (inclusive) of the tree range
+     * @param toIndex high endpoint (exclusive) of the tree range
+     * @param preds arrays of partial predictions, one per row
+     */
+    public final void scoreTreeRange(double[][] rows, int fromRow, int toRow, int fromIndex, int toIndex, double[][] preds) {
+        final int clOffset = _nclasses == 1 ? 0 : 1;
+        final FlatTree[] flatTrees = _flat_trees;
+        for (int classIndex = 0; classIndex < _ntrees_per_group; classIndex++) {
+            int k = clOffset + classIndex;
+            int itree = treeIndex(fromIndex, classIndex);
+            for (int groupIndex = fromIndex; groupIndex < toIndex; groupIndex++) {
+                if (flatTrees != null) {
+                  FlatTree tree = flatTrees[itree];
+                  if (tree != null)
+                    for (int r = fromRow; r < toRow; r++)
+                      preds[r][k] += tree.score(rows[r], _domains);
+                } else if (_compressed_trees[itree] != null) { // Skip all empty trees
+                  byte[] tree = _compressed_trees[itree];
+                  for (int r = fromRow; r < toRow; r++)
+                    preds[r][k] += _scoreTree.scoreTree(tree, rows[r], false, _domains);
+                }
+                itree++;
+            }
+        }
+    }
+
+    /**
+     * Scores a batch of rows; same results as calling {@link #score0(double[], double, double[])} on each row.
+     * Rows are scored in blocks of {@link #BATCH_ROWS}, each tree passing over a whole block at a time.
+     * @param rows input rows
+     * @param offsets offset of each row, or null for no offsets
+     * @param preds output arrays, one per row, each of the size of a single row prediction
+     * @return preds
+     */
+    public final double[][] score0(double[][] rows, double[] offsets, double[][] preds) {
+        for (int from = 0; from < rows.length; from += BATCH_ROWS) {
+            int to = Math.min(rows.length, from + BATCH_ROWS);
+            for (int r = from; r < to; r++)
+                java.util.Arrays.fill(preds[r], 0);
+            scoreTreeRange(rows, from, to, 0, _ntree_groups, preds);
+            for (int r = from; r < to; r++)
+                unifyPreds(rows[r], offsets == null ? 0.0 : offsets[r], preds[r]);
+        }
+        return preds;
+    }
+
+    /**
+     * Scores a batch of rows without offsets, see {@link #score0(double[][], double[], double[][])}.
+     */
+    public final double[][] score0(double[][] rows, double[][] preds) {
+        return score0(rows, null, preds);
+    }
+
     // note that _ntree_group = _treekeys.length
     // ntrees_per_group = _treeKeys[0].length
     public String[] getDecisionPathNames() {
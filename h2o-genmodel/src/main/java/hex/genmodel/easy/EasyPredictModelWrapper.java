@@ -315,6 +315,23 @@ public class EasyPredictModelWrapper implements Serializable {
   }
 
 
+  /**
+   * Create a predictor for repeated predictions that reuses its input and output buffers, see
+   * {@link PreparedPredictor}.  A prepared predictor must be used by a single thread.
+   *
+   * @return A new predictor.
+   * @throws PredictException if the model category or an enabled advanced scoring feature
+   *                          (leaf node assignment, staged probabilities, contributions, GLRM reconstruction)
+   *                          is not supported by prepared predictors
+   */
+  public PreparedPredictor prepare() throws PredictException {
+    if (enableLeafAssignment || enableStagedProbabilities || enableContributions || enableGLRMReconstruct)
+      throw new PredictException("Prepared predictors do not support leaf node assignment, staged probabilities, " +
+              "contributions or GLRM reconstruction.");
+    return new PreparedPredictor(this, errorConsumer, convertUnknownCategoricalLevelsToNa, convertInvalidNumbersToNa,
+            useExtendedOutput);
+  }
+
   /**
    * Make a prediction on a new data point.
    *
@@ -0,0 +1,297 @@
+package hex.genmodel.easy;
+
+import hex.ModelCategory;
+import hex.genmodel.GenModel;
+import hex.genmodel.IClusteringModel;
+import hex.genmodel.algos.deepwater.DeepwaterMojoModel;
+import hex.genmodel.easy.exception.PredictException;
+import hex.genmodel.easy.exception.PredictNumberFormatException;
+import hex.genmodel.easy.exception.PredictUnknownCategoricalLevelException;
+import hex.genmodel.easy.exception.PredictUnknownTypeException;
+import hex.genmodel.easy.prediction.*;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * A predictor for repeated single row predictions that does not allocate per row.  Obtain one with
+ * {@link EasyPredictModelWrapper#prepare()}.
+ *
+ * Column indexes and categorical domain maps are resolved once, when the predictor is created.  The input row
+ * buffer, the predictions buffer and the prediction object are reused by every call: the prediction returned
+ * by a predict method is only valid until the next call.  Copy what needs to be kept.
+ *
+ * Besides {@link RowData}, rows can be given by position, in the order of the model columns
+ * ({@link #getColumnNames()}): as doubles, with categorical values given as level indexes, or as strings, parsed
+ * the same way as the string values of a {@link RowData}.
+ *
+ * Predictions are the same as those of the corresponding predict method of the wrapper, and unknown levels and
+ * invalid numbers are handled according to the wrapper configuration.
+ *
+ * A PreparedPredictor is not thread safe; create one per thread.
+ */
+public class PreparedPredictor {
+  private final GenModel m;
+  private final EasyPredictModelWrapper.ErrorConsumer errorConsumer;
+  private final boolean convertUnknownCategoricalLevelsToNa;
+  private final boolean convertInvalidNumbersToNa;
+
+  private final ModelCategory category;
+  private final String[] columnNames;        // Names of the input columns, by position
+  private final HashMap<String, Integer>[] domainMaps; // Level name to index per input column, null for numeric ones
+  private final String[] responseDomain;
+  private final double[] rawData;
+  private final double[] preds;
+  private final AbstractPrediction prediction;
+  private final double[] calibrated;         // Reused calibrated probabilities of binomial models
+
+  @SuppressWarnings("unchecked")
+  PreparedPredictor(EasyPredictModelWrapper wrapper, EasyPredictModelWrapper.ErrorConsumer errorConsumer,
+                    boolean convertUnknownCategoricalLevelsToNa, boolean convertInvalidNumbersToNa,
+                    boolean useExtendedOutput) throws PredictException {
+    m = wrapper.m;
+    this.errorConsumer = errorConsumer;
+    this.convertUnknownCategoricalLevelsToNa = convertUnknownCategoricalLevelsToNa;
+    this.convertInvalidNumbersToNa = convertInvalidNumbersToNa;
+    if (m instanceof DeepwaterMojoModel &&
+            (((DeepwaterMojoModel) m)._problem_type.equals("image") || ((DeepwaterMojoModel) m)._problem_type.equals("text")))
+      throw new PredictException("Prepared predictors do not support image or text models.");
+
+    category = m.getModelCategory();
+    int nfeatures = m.nfeatures();
+    columnNames = Arrays.copyOf(m.getNames(), nfeatures);
+    domainMaps = new HashMap[nfeatures];
+    for (int i = 0; i < nfeatures; i++)
+      domainMaps[i] = wrapper.domainMap.get(i);
+    rawData = new double[nfeatures];
+    preds = new double[m.getPredsSize(category)];
+
+    String[] domain = m.getDomainValues(m.getResponseIdx());
+    double[] calibratedProbabilities = null;
+    switch (category) {
+      case Binomial:
+        if (domain == null && m.getNumResponseClasses() == 2)
+          domain = new String[]{"0", "1"}; // quasibinomial
+        BinomialModelPrediction bp = new BinomialModelPrediction();
+        bp.classProbabilities = new double[m.getNumResponseClasses()];
+        calibratedProbabilities = new double[m.getNumResponseClasses()];
+        prediction = bp;
+        break;
+      case Multinomial:
+        MultinomialModelPrediction mp = new MultinomialModelPrediction();
+        mp.classProbabilities = new double[m.getNumResponseClasses()];
+        prediction = mp;
+        break;
+      case Ordinal:
+        OrdinalModelPrediction op = new OrdinalModelPrediction();
+        op.classProbabilities = new double[m.getNumResponseClasses()];
+        prediction = op;
+        break;
+      case Regression:
+        prediction = new RegressionModelPrediction();
+        break;
+      case Clustering:
+        ClusteringModelPrediction cp = new ClusteringModelPrediction();
+        if (useExtendedOutput && m instanceof IClusteringModel)
+          cp.distances = new double[((IClusteringModel) m).getNumClusters()];
+        prediction = cp;
+        break;
+      case AnomalyDetection:
+        prediction = new AnomalyDetectionPrediction();
+        break;
+      default:
+        throw new PredictException("Prepared predictors do not support " + category + " models.");
+    }
+    responseDomain = domain;
+    calibrated = calibratedProbabilities;
+  }
+
+  /**
+   * @return names of the input columns, in the order expected by the positional predict methods
+   */
+  public String[] getColumnNames() {
+    return columnNames.clone();
+  }
+
+  /**
+   * @param columnName name of an input column
+   * @return position of the column in a positional row, or -1 if the model does not use the column
+   */
+  public int getColumnIndex(String columnName) {
+    for (int i = 0; i < columnNames.length; i++)
+      if (columnNames[i].equals(columnName))
+        return i;
+    return -1;
+  }
+
+  /**
+   * @param columnIndex position of an input column
+   * @return level names of a categorical column, null for a numeric column
+   */
+  public String[] getDomainValues(int columnIndex) {
+    return m.getDomainValues(columnIndex);
+  }
+
+  public AbstractPrediction predict(RowData data) throws PredictException {
+    return predict(data, 0.0);
+  }
+
+  /**
+   * Make a prediction on a new data point.
+   *
+   * @param data A new data point.
+   * @param offset Prediction offset
+   * @return The prediction, valid until the next call.
+   * @throws PredictException
+   */
+  public AbstractPrediction predict(RowData data, double offset) throws PredictException {
+    for (int i = 0; i < columnNames.length; i++) {
+      Object o = data.get(columnNames[i]);
+      rawData[i] = o == null ? Double.NaN : convert(i, o);
+    }
+    return score(offset);
+  }
+
+  public AbstractPrediction predict(double[] row) throws PredictException {
+    return predict(row, 0.0);
+  }
+
+  /**
+   * Make a prediction on a new data point given by position.
+   *
+   * @param row Values of the input columns, categorical values given as level indexes, NaN for missing values.
+   * @param offset Prediction offset
+   * @return The prediction, valid until the next call.
+   * @throws PredictException
+   */
+  public AbstractPrediction predict(double[] row, double offset) throws PredictException {
+    checkLength(row.length);
+    System.arraycopy(row, 0, rawData, 0, rawData.length);
+    return score(offset);
+  }
+
+  public AbstractPrediction predict(String[] row) throws PredictException {
+    return predict(row, 0.0);
+  }
+
+  /**
+   * Make a prediction on a new data point given by position.
+   *
+   * @param row Values of the input columns, null for missing values.
+   * @param offset Prediction offset
+   * @return The prediction, valid until the next call.
+   * @throws PredictException
+   */
+  public AbstractPrediction predict(String[] row, double offset) throws PredictException {
+    checkLength(row.length);
+    for (int i = 0; i < rawData.length; i++)
+      rawData[i] = row[i] == null ? Double.NaN : convert(i, row[i]);
+    return score(offset);
+  }
+
+  private void checkLength(int len) throws PredictException {
+    if (len < rawData.length)
+      throw new PredictException("Expected " + rawData.length + " values, got " + len + ".");
+  }
+
+  // Same conversions as EasyPredictModelWrapper.fillRawData
+  private double convert(int index, Object o) throws PredictException {
+    String columnName = columnNames[index];
+    HashMap<String, Integer> columnDomainMap = domainMaps[index];
+    if (columnDomainMap == null) {
+      double value = Double.NaN;
+      if (o instanceof String) {
+        String s = ((String) o).trim();
+        try {
+          value = Double.parseDouble(s);
+        } catch (NumberFormatException nfe) {
+          if (!convertInvalidNumbersToNa)
+            throw new PredictNumberFormatException("Unable to parse value: " + s + ", from column: " + columnName + ", as Double; " + nfe.getMessage());
+        }
+      } else if (o instanceof Double) {
+        value = (Double) o;
+      } else {
+        throw new PredictUnknownTypeException(
+                "Unexpected object type " + o.getClass().getName() + " for numeric column " + columnName);
+      }
+      if (Double.isNaN(value))
+        errorConsumer.dataTransformError(columnName, o, "Given non-categorical value is unparseable, treating as NaN.");
+      return value;
+    }
+    if (o instanceof String) {
+      String levelName = (String) o;
+      Integer levelIndex = columnDomainMap.get(levelName);
+      if (levelIndex == null)
+        levelIndex = columnDomainMap.get(columnName + "." + levelName);
+      if (levelIndex != null)
+        return levelIndex;
+      if (convertUnknownCategoricalLevelsToNa) {
+        errorConsumer.unseenCategorical(columnName, o, "Previously unseen categorical level detected, marking as NaN.");
+        return Double.NaN;
+      }
+      errorConsumer.dataTransformError(columnName, o, "Unknown categorical level detected.");
+      throw new PredictUnknownCategoricalLevelException("Unknown categorical level (" + columnName + "," + levelName + ")", columnName, levelName);
+    } else if (o instanceof Double && Double.isNaN((double) o)) {
+      errorConsumer.dataTransformError(columnName, o, "Missing factor value detected, setting to NaN");
+      return Double.NaN; // Missing factor is the only Double value allowed
+    }
+    errorConsumer.dataTransformError(columnName, o, "Unknown categorical variable type.");
+    throw new PredictUnknownTypeException(
+            "Unexpected object type " + o.getClass().getName() + " for categorical column " + columnName);
+  }
+
+  private AbstractPrediction score(double offset) {
+    if (category == ModelCategory.Clustering && ((ClusteringModelPrediction) prediction).distances != null) {
+      ClusteringModelPrediction p = (ClusteringModelPrediction) prediction;
+      p.cluster = ((IClusteringModel) m).distances(rawData, p.distances);
+      return p;
+    }
+    Arrays.fill(preds, 0);
+    if (offset == 0)
+      m.score0(rawData, preds);
+    else
+      m.score0(rawData, offset, preds);
+    switch (category) {
+      case Binomial: {
+        BinomialModelPrediction p = (BinomialModelPrediction) prediction;
+        p.labelIndex = (int) preds[0];
+        p.label = responseDomain[p.labelIndex];
+        System.arraycopy(preds, 1, p.classProbabilities, 0, p.classProbabilities.length);
+        if (m.calibrateClassProbabilities(preds)) {
+          System.arraycopy(preds, 1, calibrated, 0, calibrated.length);
+          p.calibratedClassProbabilities = calibrated;
+        } else {
+          p.calibratedClassProbabilities = null;
+        }
+        break;
+      }
+      case Multinomial: {
+        MultinomialModelPrediction p = (MultinomialModelPrediction) prediction;
+        p.labelIndex = (int) preds[0];
+        p.label = responseDomain[p.labelIndex];
+        System.arraycopy(preds, 1, p.classProbabilities, 0, p.classProbabilities.length);
+        break;
+      }
+      case Ordinal: {
+        OrdinalModelPrediction p = (OrdinalModelPrediction) prediction;
+        p.labelIndex = (int) preds[0];
+        p.label = responseDomain[p.labelIndex];
+        System.arraycopy(preds, 1, p.classProbabilities, 0, p.classProbabilities.length);
+        break;
+      }
+      case Regression:
+        ((RegressionModelPrediction) prediction).value = preds[0];
+        break;
+      case Clustering:
+        ((ClusteringModelPrediction) prediction).cluster = (int) preds[0];
+        break;
+      case AnomalyDetection: {
+        AnomalyDetectionPrediction p = (AnomalyDetectionPrediction) prediction;
+        p.normalizedScore = preds[0];
+        p.score = preds[1];
+        break;
+      }
+    }
+    return prediction;
+  }
+}
@@ -15,7 +15,10 @@ import java.io.BufferedWriter;
 import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
 import java.util.*;
+import java.util.concurrent.*;
 
 /**
  * Simple driver program for reading a CSV file and making predictions.  Added support for separators that are
@@ -34,8 +37,11 @@ public class PredictCsv {
   public boolean setInvNumNA = false;    // enable .setConvertInvalidNumbersToNa(true)
   public boolean getTreePath = false; // enable tree models to obtain the leaf-assignment information
   boolean returnGLRMReconstruct = false; // for GLRM, return x factor by default unless set this to true
+  private int threads = 1;          // number of scoring threads
+  private int batchSize = 1000;     // number of lines scored together by a thread
   // Model instance
   private EasyPredictModelWrapper model;
+  private EasyPredictModelWrapper.Config config; // configuration of the model, for the wrappers of scoring threads
 
   public static void main(String[] args) {
     // Parse command line arguments
@@ -215,123 +221,222 @@ public class PredictCsv {
       else  // file empty, throw an error
         throw new Exception("Input dataset file is empty!");
 
-      while ((splitLine = reader.readNext()) != null) {
-        // Parse the CSV line.  Don't handle quoted commas.  This isn't a parser test.
-        RowData row = formatDataRow(splitLine, inputColumnNames);
-        // Do the prediction.
-        // Emit the result to the output file.
-        switch (category) {
-          case AutoEncoder: { // write the expanded predictions out
-            AutoEncoderModelPrediction p = model.predictAutoEncoder(row);
-            for (int i=0; i < p.reconstructed.length; i++) {
-              output.write(myDoubleToString(p.reconstructed[i]));
-
-              if (i < lastCommaAutoEn)
-                output.write(',');
+      if (threads > 1) {
+        predictParallel(reader, inputColumnNames, category, lastCommaAutoEn, output);
+      } else {
+        while ((splitLine = reader.readNext()) != null) {
+          // Parse the CSV line.  Don't handle quoted commas.  This isn't a parser test.
+          RowData row = formatDataRow(splitLine, inputColumnNames);
+          // Do the prediction and emit the result to the output file.
+          writePrediction(model, row, category, lastCommaAutoEn, output);
+          output.write("\n");
+          lineNum++;
+        }
+      }
+    }
+    catch (Exception e) {
+      if (e instanceof ExecutionException && e.getCause() instanceof LineException) {
+        lineNum = ((LineException) e.getCause()).lineNum;
+        e = (Exception) e.getCause().getCause();
+      }
+      System.out.println("Caught exception on line " + lineNum);
+      System.out.println("");
+      e.printStackTrace();
+      System.exit(1);
+    } finally {
+      // Clean up.
+      output.close();
+      reader.close();
+    }
+  }
+
+  /**
+   * Scores the rest of the input with {@link #threads} worker threads.  A reader thread splits the input into
+   * batches of {@link #batchSize} lines, each worker scores whole batches with a wrapper of its own, and the
+   * calling thread writes the scored batches out in input order.  At most two batches per worker are in flight.
+   */
+  private void predictParallel(final CSVReader reader, final String[] inputColumnNames, final ModelCategory category,
+                               final int lastCommaAutoEn, Writer output) throws Exception {
+    final ThreadLocal<EasyPredictModelWrapper> models = new ThreadLocal<EasyPredictModelWrapper>() {
+      @Override
+      protected EasyPredictModelWrapper initialValue() {
+        return new EasyPredictModelWrapper(config);
+      }
+    };
+    final ExecutorService workers = Executors.newFixedThreadPool(threads);
+    final ExecutorService readerThread = Executors.newSingleThreadExecutor();
+    final BlockingQueue<Future<String>> pending = new ArrayBlockingQueue<>(2 * threads);
+    final Future<String> end = new FutureTask<>(new Callable<String>() {
+      @Override
+      public String call() { return null; }
+    });
+    try {
+      Future<?> read = readerThread.submit(new Callable<Void>() {
+        @Override
+        public Void call() throws Exception {
+          boolean interrupted = false;
+          try {
+            int firstLine = 1;
+            String[] splitLine;
+            List<String[]> lines = new ArrayList<>(batchSize);
+            while ((splitLine = reader.readNext()) != null) {
+              lines.add(splitLine);
+              if (lines.size() == batchSize) {
+                pending.put(workers.submit(scoreBatch(models, lines, firstLine, inputColumnNames, category, lastCommaAutoEn)));
+                firstLine += lines.size();
+                lines = new ArrayList<>(batchSize);
+              }
             }
-            break;
+            if (!lines.isEmpty())
+              pending.put(workers.submit(scoreBatch(models, lines, firstLine, inputColumnNames, category, lastCommaAutoEn)));
+          } catch (InterruptedException e) {
+            interrupted = true;  // The writer gave up
+          } finally {
+            if (!interrupted) pending.put(end);
+          }
+          return null;
+        }
+      });
+      Future<String> batch;
+      while ((batch = pending.take()) != end)
+        output.write(batch.get());
+      read.get();  // Surface reader errors
+    } finally {
+      readerThread.shutdownNow();
+      workers.shutdownNow();
+    }
+  }
+
+  private Callable<String> scoreBatch(final ThreadLocal<EasyPredictModelWrapper> models, final List<String[]> lines,
+                                      final int firstLine, final String[] inputColumnNames,
+                                      final ModelCategory category, final int lastCommaAutoEn) {
+    return new Callable<String>() {
+      @Override
+      public String call() throws Exception {
+        EasyPredictModelWrapper model = models.get();
+        StringWriter output = new StringWriter();
+        for (int i = 0; i < lines.size(); i++) {
+          try {
+            writePrediction(model, formatDataRow(lines.get(i), inputColumnNames), category, lastCommaAutoEn, output);
+          } catch (Exception e) {
+            throw new LineException(firstLine + i, e);
           }
-          case Binomial: {
-            BinomialModelPrediction p = model.predictBinomial(row);
-            if (getTreePath) {
-              writeTreePaths(p.leafNodeAssignments, output);
-            } else {
-              output.write(p.label);
+          output.write("\n");
+        }
+        return output.toString();
+      }
+    };
+  }
+
+  /** Failure to score a given line of the input */
+  private static class LineException extends Exception {
+    final int lineNum;
+
+    LineException(int lineNum, Exception cause) {
+      super(cause);
+      this.lineNum = lineNum;
+    }
+  }
+
+  private void writePrediction(EasyPredictModelWrapper model, RowData row, ModelCategory category,
+                               int lastCommaAutoEn, Writer output) throws Exception {
+    switch (category) {
+      case AutoEncoder: { // write the expanded predictions out
+        AutoEncoderModelPrediction p = model.predictAutoEncoder(row);
+        for (int i=0; i < p.reconstructed.length; i++) {
+          output.write(myDoubleToString(p.reconstructed[i]));
+
+          if (i < lastCommaAutoEn)
+            output.write(',');
+        }
+        break;
+      }
+      case Binomial: {
+        BinomialModelPrediction p = model.predictBinomial(row);
+        if (getTreePath) {
+          writeTreePaths(p.leafNodeAssignments, output);
+        } else {
+          output.write(p.label);
+          output.write(",");
+          for (int i = 0; i < p.classProbabilities.length; i++) {
+            if (i > 0) {
               output.write(",");
-              for (int i = 0; i < p.classProbabilities.length; i++) {
-                if (i > 0) {
-                  output.write(",");
-                }
-                output.write(myDoubleToString(p.classProbabilities[i]));
-              }
             }
-            break;
+            output.write(myDoubleToString(p.classProbabilities[i]));
           }
-          case Multinomial: {
-            MultinomialModelPrediction p = model.predictMultinomial(row);
-            if (getTreePath) {
-              writeTreePaths(p.leafNodeAssignments, output);
-            } else {
-              output.write(p.label);
+        }
+        break;
+      }
+      case Multinomial: {
+        MultinomialModelPrediction p = model.predictMultinomial(row);
+        if (getTreePath) {
+          writeTreePaths(p.leafNodeAssignments, output);
+        } else {
+          output.write(p.label);
+          output.write(",");
+          for (int i = 0; i < p.classProbabilities.length; i++) {
+            if (i > 0) {
               output.write(",");
-              for (int i = 0; i < p.classProbabilities.length; i++) {
-                if (i > 0) {
-                  output.write(",");
-                }
-                output.write(myDoubleToString(p.classProbabilities[i]));
-              }
             }
-            break;
+            output.write(myDoubleToString(p.classProbabilities[i]));
           }
-          case Ordinal: {
-            OrdinalModelPrediction p = model.predictOrdinal(row);
-            output.write(p.label);
+        }
+        break;
+      }
+      case Ordinal: {
+        OrdinalModelPrediction p = model.predictOrdinal(row);
+        output.write(p.label);
+        output.write(",");
+        for (int i = 0; i < p.classProbabilities.length; i++) {
+          if (i > 0) {
             output.write(",");
-            for (int i = 0; i < p.classProbabilities.length; i++) {
-              if (i > 0) {
-                output.write(",");
-              }
-              output.write(myDoubleToString(p.classProbabilities[i]));
-            }
-            break;
-          }
-          case Clustering: {
-            ClusteringModelPrediction p = model.predictClustering(row);
-            output.write(myDoubleToString(p.cluster));
-            break;
           }
+          output.write(myDoubleToString(p.classProbabilities[i]));
+        }
+        break;
+      }
+      case Clustering: {
+        ClusteringModelPrediction p = model.predictClustering(row);
+        output.write(myDoubleToString(p.cluster));
+        break;
+      }
 
-          case Regression: {
-              RegressionModelPrediction p = model.predictRegression(row);
-              if (getTreePath) {
-                writeTreePaths(p.leafNodeAssignments, output);
-              } else
-               output.write(myDoubleToString(p.value));
-
-            break;
-          }
+      case Regression: {
+          RegressionModelPrediction p = model.predictRegression(row);
+          if (getTreePath) {
+            writeTreePaths(p.leafNodeAssignments, output);
+          } else
+           output.write(myDoubleToString(p.value));
 
-          case DimReduction: {
-            DimReductionModelPrediction p = model.predictDimReduction(row);
-            double[] out;
+        break;
+      }
 
-            if (returnGLRMReconstruct) {
-              out = p.reconstructed;  // reconstructed A
-            } else {
-              out = p.dimensions; // x factors
-            }
+      case DimReduction: {
+        DimReductionModelPrediction p = model.predictDimReduction(row);
+        double[] out;
 
-            int lastOne = out.length-1;
-            for (int i=0; i < out.length; i++) {
-              output.write(myDoubleToString(out[i]));
+        if (returnGLRMReconstruct) {
+          out = p.reconstructed;  // reconstructed A
+        } else {
+          out = p.dimensions; // x factors
+        }
 
-              if (i < lastOne)
-                output.write(',');
-            }
-            break;
-          }
+        int lastOne = out.length-1;
+        for (int i=0; i < out.length; i++) {
+          output.write(myDoubleToString(out[i]));
 
-          default:
-            throw new Exception("Unknown model category " + category);
+          if (i < lastOne)
+            output.write(',');
         }
-
-        output.write("\n");
-        lineNum++;
+        break;
       }
-    }
-    catch (Exception e) {
-      System.out.println("Caught exception on line " + lineNum);
-      System.out.println("");
-      e.printStackTrace();
-      System.exit(1);
-    } finally {
-      // Clean up.
-      output.close();
-      reader.close();
+
+      default:
+        throw new Exception("Unknown model category " + category);
     }
   }
 
-  private void writeTreePaths(String[] treePaths, BufferedWriter output) throws Exception {
+  private void writeTreePaths(String[] treePaths, Writer output) throws Exception {
     int len = treePaths.length-1;
 
     for (int index=0; index<len; index++) {
@@ -358,6 +463,7 @@ public class PredictCsv {
 
     if (returnGLRMReconstruct)
       config.setEnableGLRMReconstrut(true);
+    this.config = config;
     model = new EasyPredictModelWrapper(config);
   }
 
@@ -371,6 +477,7 @@ public class PredictCsv {
     if (returnGLRMReconstruct)
       config.setEnableGLRMReconstrut(true);
 
+    this.config = config;
     model = new EasyPredictModelWrapper(config);
   }
 
@@ -378,6 +485,7 @@ public class PredictCsv {
     System.out.println("");
     System.out.println("Usage:  java [...java args...] hex.genmodel.tools.PredictCsv --mojo mojoName");
     System.out.println("             --pojo pojoName --input inputFile --output outputFile --separator sepStr --decimal --setConvertInvalidNum");
+    System.out.println("             --threads numThreads --batch-size numLines");
     System.out.println("");
     System.out.println("     --mojo    Name of the zip file containing model's MOJO.");
     System.out.println("     --pojo    Name of the java class containing the model's POJO. Either this ");
@@ -390,6 +498,8 @@ public class PredictCsv {
     System.out.println("     --leafNodeAssignment will show the leaf node assignment for GBM and DRF instead of the" +
             " prediction results");
     System.out.println("     --glrmReconstruct will return the reconstructed dataset for GLRM mojo instead of X factor derived from the dataset.");
+    System.out.println("     --threads Number of threads scoring the input (default 1). Output rows keep the input order.");
+    System.out.println("     --batch-size Number of input lines handed to a scoring thread at once (default 1000).");
     System.out.println("");
     System.exit(1);
   }
@@ -465,12 +575,15 @@ public class PredictCsv {
             case "--input":  inputCSVFileName = sarg; break;
             case "--output": outputCSVFileName = sarg; break;
             case "--separator": separator=sarg.charAt(sarg.length()-1);; break;
+            case "--threads": threads = Integer.parseInt(sarg); break;
+            case "--batch-size": batchSize = Integer.parseInt(sarg); break;
             default:
               System.out.println("ERROR: Unknown command line argument: " + s);
               usage();
           }
         }
       }
+      if (threads < 1 || batchSize < 1) usage();
       switch(loadType) {
         case 0: loadPojo(pojoMojoModelNames); break;
         case 1: loadMojo(pojoMojoModelNames); break;
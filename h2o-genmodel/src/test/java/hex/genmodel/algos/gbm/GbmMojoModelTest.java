@@ -3,7 +3,9 @@ package hex.genmodel.algos.gbm;
 import com.google.common.io.ByteStreams;
 import hex.genmodel.ModelMojoReader;
 import hex.genmodel.MojoReaderBackend;
+import hex.genmodel.algos.tree.SharedTreeMojoModel;
 import hex.genmodel.easy.EasyPredictModelWrapper;
+import hex.genmodel.easy.PreparedPredictor;
 import hex.genmodel.easy.RowData;
 import hex.genmodel.easy.exception.PredictException;
 import hex.genmodel.easy.prediction.BinomialModelPrediction;
@@ -67,6 +69,80 @@ public class GbmMojoModelTest {
     assertArrayEquals(expectedPreds, preds, 1e-8);
   }
 
+  @Test
+  public void testFlatTrees() throws Exception {
+    java.util.Random r = new java.util.Random(42);
+    double[] row = new double[11];
+    for (int i = 0; i < 1000; i++) {
+      for (int c = 0; c < row.length; c++)
+        row[c] = r.nextInt(10) == 0 ? Double.NaN : r.nextDouble() * 50;
+      row[10] = r.nextInt(5) - 1; // Method, includes unseen levels
+      mojo12.useFlatTrees(false);
+      double[] expected = mojo12.score0(row, new double[3]);
+      mojo12.useFlatTrees(true);
+      assertArrayEquals(expected, mojo12.score0(row, new double[3]), 0);
+    }
+  }
+
+  @Test
+  public void testBatchScoring() throws Exception {
+    java.util.Random r = new java.util.Random(42);
+    int n = 3 * SharedTreeMojoModel.BATCH_ROWS + 17; // Several blocks and a partial one
+    double[][] rows = new double[n][11];
+    double[] offsets = new double[n];
+    for (int i = 0; i < n; i++) {
+      for (int c = 0; c < 10; c++)
+        rows[i][c] = r.nextInt(10) == 0 ? Double.NaN : r.nextDouble() * 50;
+      rows[i][10] = r.nextInt(5) - 1;
+      offsets[i] = r.nextDouble() - 0.5;
+    }
+    for (boolean flat : new boolean[]{true, false}) {
+      mojo12.useFlatTrees(flat);
+      double[][] preds = mojo12.score0(rows, offsets, new double[n][3]);
+      for (int i = 0; i < n; i++)
+        assertArrayEquals(mojo12.score0(rows[i], offsets[i], new double[3]), preds[i], 0);
+    }
+    mojo12.useFlatTrees(true);
+  }
+
+  @Test
+  public void testPreparedPredictor() throws Exception {
+    EasyPredictModelWrapper wrapper = new EasyPredictModelWrapper(mojo12);
+    PreparedPredictor predictor = wrapper.prepare();
+    String[] names = predictor.getColumnNames();
+    String[] methods = predictor.getDomainValues(predictor.getColumnIndex("Method"));
+    java.util.Random r = new java.util.Random(42);
+    for (int i = 0; i < 100; i++) {
+      RowData data = new RowData();
+      String[] strings = new String[names.length];
+      double[] values = new double[names.length];
+      for (int c = 0; c < names.length; c++) {
+        if (r.nextInt(10) == 0) {
+          values[c] = Double.NaN;
+        } else if (names[c].equals("Method")) {
+          values[c] = r.nextInt(methods.length);
+          strings[c] = methods[(int) values[c]];
+          data.put(names[c], strings[c]);
+        } else {
+          values[c] = r.nextInt(5000) / 100.0;
+          strings[c] = Double.toString(values[c]);
+          data.put(names[c], values[c]);
+        }
+      }
+      BinomialModelPrediction expected = wrapper.predictBinomial(data);
+      assertSamePrediction(expected, (BinomialModelPrediction) predictor.predict(data));
+      assertSamePrediction(expected, (BinomialModelPrediction) predictor.predict(strings));
+      assertSamePrediction(expected, (BinomialModelPrediction) predictor.predict(values));
+    }
+  }
+
+  private static void assertSamePrediction(BinomialModelPrediction expected, BinomialModelPrediction p) {
+    assertEquals(expected.labelIndex, p.labelIndex);
+    assertEquals(expected.label, p.label);
+    assertArrayEquals(expected.classProbabilities, p.classProbabilities, 0);
+    assertArrayEquals(expected.calibratedClassProbabilities, p.calibratedClassProbabilities, 0);
+  }
+
   @Test
   public void testPredict() throws Exception {
     EasyPredictModelWrapper wrapper = new EasyPredictModelWrapper(mojo12);
@@ -24,6 +24,11 @@ public class SharedTreeMojoModelTest {
     // Leaf Node Assignment
     final double path = SharedTreeMojoModel.scoreTree(tree, null, true, null);
     assertEquals("", SharedTreeMojoModel.getDecisionPath(path));
+
+    // Decoded tree
+    FlatTree flat = FlatTree.compile(tree);
+    assertEquals(0, flat.nodes());
+    assertEquals(4.2f, flat.score(null, null), 0.0);
   }
 
 }
\ No newline at end of file
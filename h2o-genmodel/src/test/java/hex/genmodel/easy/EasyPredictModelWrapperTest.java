@@ -378,6 +378,44 @@ public class EasyPredictModelWrapperTest {
     }
   }
 
+  @Test
+  public void testPreparedPredictor() throws Exception {
+    SupervisedModel rawModel = makeSupervisedModel();
+    CountingErrorConsumer errorConsumer = new CountingErrorConsumer(rawModel);
+    EasyPredictModelWrapper m = new EasyPredictModelWrapper(new EasyPredictModelWrapper.Config()
+            .setModel(rawModel)
+            .setErrorConsumer(errorConsumer)
+            .setConvertUnknownCategoricalLevelsToNa(true));
+    PreparedPredictor pp = m.prepare();
+    Assert.assertEquals(1, pp.getColumnIndex("C2"));
+    Assert.assertEquals(-1, pp.getColumnIndex("unknownColumn"));
+
+    RowData row = new RowData();
+    row.put("C1", "c1level1");
+    row.put("C2", "unknownLevel");
+    BinomialModelPrediction expected = m.predictBinomial(row);
+    BinomialModelPrediction p = (BinomialModelPrediction) pp.predict(row);
+    Assert.assertEquals(expected.label, p.label);
+    Assert.assertArrayEquals(expected.classProbabilities, p.classProbabilities, 0);
+    Assert.assertEquals(2, errorConsumer.getTotalUnknownCategoricalLevelsSeen());
+
+    // Positional inputs; the same prediction object is reused
+    Assert.assertSame(p, pp.predict(new String[]{"c1level2", null, null}));
+    Assert.assertSame(p, pp.predict(new double[]{1, Double.NaN, Double.NaN}));
+    Assert.assertEquals(2, errorConsumer.getTotalUnknownCategoricalLevelsSeen());
+    pp.predict(new String[]{"c1level2", "unknownLevel", null});
+    Assert.assertEquals(3, errorConsumer.getTotalUnknownCategoricalLevelsSeen());
+
+    m = new EasyPredictModelWrapper(rawModel);
+    pp = m.prepare();
+    try {
+      pp.predict(new String[]{"c1level2", "unknownLevel", null});
+      Assert.fail("Unknown level should have been rejected");
+    } catch (PredictUnknownCategoricalLevelException e) {
+      Assert.assertEquals("C2", e.columnName);
+    }
+  }
+
   @Test
   public void testSortedClassProbability() throws Exception {
     SupervisedModel rawModel = makeSupervisedModel();
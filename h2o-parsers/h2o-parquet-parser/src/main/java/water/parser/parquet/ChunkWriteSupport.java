@@ -0,0 +1,159 @@
+package water.parser.parquet;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.parquet.hadoop.api.WriteSupport;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.io.api.RecordConsumer;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.OriginalType;
+import org.apache.parquet.schema.PrimitiveType;
+import org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName;
+import org.apache.parquet.schema.Type;
+import water.fvec.Chunk;
+import water.fvec.Vec;
+import water.parser.BufferedString;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Writes rows of a set of Chunks (one Chunk per column) as Parquet records. Records are
+ * identified by the row number within the current Chunks, the values are read directly
+ * from the Chunks.
+ *
+ * Columns are mapped to Parquet types as follows (all columns are optional, NAs are nulls):
+ * <ul>
+ *   <li>integer numeric columns: INT32 or INT64 depending on the range of the values</li>
+ *   <li>other numeric columns: DOUBLE</li>
+ *   <li>time columns: INT64 (TIMESTAMP_MILLIS)</li>
+ *   <li>categorical columns: BINARY (UTF8), dictionary encoded by the writer</li>
+ *   <li>string columns: BINARY (UTF8)</li>
+ *   <li>UUID columns: FIXED_LEN_BYTE_ARRAY(16)</li>
+ * </ul>
+ */
+class ChunkWriteSupport extends WriteSupport<Integer> {
+
+  private static final byte INT32 = 0;
+  private static final byte INT64 = 1;
+  private static final byte DOUBLE = 2;
+  private static final byte BINARY = 3;
+  private static final byte CATEGORICAL = 4;
+  private static final byte UUID = 5;
+  private static final byte NA = 6; // all values missing
+
+  private final String[] _names;
+  private final byte[] _types;
+  private final Binary[][] _domains; // categorical levels, made once per column
+  private final MessageType _schema;
+
+  private RecordConsumer _consumer;
+  private Chunk[] _cs;
+  private final BufferedString _str = new BufferedString();
+  private final byte[] _uuid = new byte[16];
+
+  ChunkWriteSupport(String[] names, Vec[] vecs) {
+    _names = names;
+    _types = new byte[vecs.length];
+    _domains = new Binary[vecs.length][];
+    List<Type> fields = new ArrayList<>(vecs.length);
+    for (int i = 0; i < vecs.length; i++) {
+      Vec v = vecs[i];
+      if (v.isBad()) {
+        _types[i] = NA;
+        fields.add(new PrimitiveType(Type.Repetition.OPTIONAL, PrimitiveTypeName.DOUBLE, names[i]));
+      } else if (v.isCategorical()) {
+        _types[i] = CATEGORICAL;
+        String[] domain = v.domain();
+        _domains[i] = new Binary[domain.length];
+        for (int l = 0; l < domain.length; l++)
+          _domains[i][l] = Binary.fromString(domain[l]);
+        fields.add(new PrimitiveType(Type.Repetition.OPTIONAL, PrimitiveTypeName.BINARY, names[i], OriginalType.UTF8));
+      } else if (v.isString()) {
+        _types[i] = BINARY;
+        fields.add(new PrimitiveType(Type.Repetition.OPTIONAL, PrimitiveTypeName.BINARY, names[i], OriginalType.UTF8));
+      } else if (v.isUUID()) {
+        _types[i] = UUID;
+        fields.add(new PrimitiveType(Type.Repetition.OPTIONAL, PrimitiveTypeName.FIXED_LEN_BYTE_ARRAY, 16, names[i]));
+      } else if (v.isTime()) {
+        _types[i] = INT64;
+        fields.add(new PrimitiveType(Type.Repetition.OPTIONAL, PrimitiveTypeName.INT64, names[i], OriginalType.TIMESTAMP_MILLIS));
+      } else if (v.isInt()) {
+        boolean fitsInt = v.min() >= Integer.MIN_VALUE && v.max() <= Integer.MAX_VALUE;
+        _types[i] = fitsInt ? INT32 : INT64;
+        fields.add(new PrimitiveType(Type.Repetition.OPTIONAL, fitsInt ? PrimitiveTypeName.INT32 : PrimitiveTypeName.INT64, names[i]));
+      } else {
+        _types[i] = DOUBLE;
+        fields.add(new PrimitiveType(Type.Repetition.OPTIONAL, PrimitiveTypeName.DOUBLE, names[i]));
+      }
+    }
+    _schema = new MessageType("h2o_frame", fields);
+  }
+
+  MessageType getSchema() {
+    return _schema;
+  }
+
+  /** Sets the Chunks the following records are read from. */
+  void setChunks(Chunk[] cs) {
+    _cs = cs;
+  }
+
+  @Override
+  public WriteContext init(Configuration configuration) {
+    return new WriteContext(_schema, new HashMap<String, String>());
+  }
+
+  @Override
+  public void prepareForWrite(RecordConsumer recordConsumer) {
+    _consumer = recordConsumer;
+  }
+
+  @Override
+  public void write(Integer record) {
+    final int row = record;
+    _consumer.startMessage();
+    for (int i = 0; i < _cs.length; i++) {
+      Chunk c = _cs[i];
+      if (_types[i] == NA || c.isNA(row))
+        continue; // nulls are written by omitting the field
+      _consumer.startField(_names[i], i);
+      switch (_types[i]) {
+        case INT32:
+          _consumer.addInteger((int) c.at8(row));
+          break;
+        case INT64:
+          _consumer.addLong(c.at8(row));
+          break;
+        case DOUBLE:
+          _consumer.addDouble(c.atd(row));
+          break;
+        case CATEGORICAL:
+          _consumer.addBinary(_domains[i][(int) c.at8(row)]);
+          break;
+        case BINARY:
+          c.atStr(_str, row);
+          _consumer.addBinary(Binary.fromReusedByteArray(_str.getBuffer(), _str.getOffset(), _str.length()));
+          break;
+        case UUID:
+          putLong(_uuid, 0, c.at16h(row));
+          putLong(_uuid, 8, c.at16l(row));
+          _consumer.addBinary(Binary.fromReusedByteArray(_uuid));
+          break;
+        default:
+          throw new IllegalStateException("Unexpected column type: " + _types[i]);
+      }
+      _consumer.endField(_names[i], i);
+    }
+    _consumer.endMessage();
+  }
+
+  // big-endian, the byte order of UUIDs
+  private static void putLong(byte[] bytes, int off, long v) {
+    for (int i = 7; i >= 0; i--) {
+      bytes[off + i] = (byte) v;
+      v >>>= 8;
+    }
+  }
+
+}
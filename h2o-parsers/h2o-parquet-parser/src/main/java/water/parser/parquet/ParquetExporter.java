@@ -0,0 +1,213 @@
+package water.parser.parquet;
+
+import jsr166y.CountedCompleter;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.RawLocalFileSystem;
+import org.apache.parquet.column.ParquetProperties;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.api.WriteSupport;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import water.H2O;
+import water.Job;
+import water.Key;
+import water.MRTask;
+import water.exceptions.H2OIllegalArgumentException;
+import water.fvec.Chunk;
+import water.fvec.Frame;
+import water.fvec.Vec;
+import water.persist.PersistHdfs;
+import water.util.BinaryFormatExporter;
+import water.util.ExportFileFormat;
+import water.util.Log;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Exports Frames to Parquet. Each part file holds a range of Chunks and is written by the node
+ * holding the first Chunk of the range, from the Chunk data (no intermediate text format).
+ */
+public class ParquetExporter implements BinaryFormatExporter {
+
+  private static final long TARGET_PART_SIZE = 134217728L; // 128MB, default HDFS block size
+  private static final int AUTO_PARTS_MAX = 128;
+
+  @Override
+  public H2O.H2OCountedCompleter export(Frame frame, String path, boolean force, int nParts, String compression, Job job) {
+    CompressionCodecName codec;
+    try {
+      codec = CompressionCodecName.fromConf(compression);
+    } catch (IllegalArgumentException e) {
+      throw new H2OIllegalArgumentException("compression", "exportFrame", compression);
+    }
+    return new ExportParquetDriver(frame, path, force, nParts, codec, job);
+  }
+
+  @Override
+  public boolean supports(ExportFileFormat format) {
+    return format == ExportFileFormat.parquet;
+  }
+
+  private static class ExportParquetDriver extends H2O.H2OCountedCompleter<ExportParquetDriver> {
+    final Frame _frame;
+    final String _path;
+    final boolean _force;
+    final CompressionCodecName _codec;
+    final Job _j;
+    int _nParts;
+
+    ExportParquetDriver(Frame frame, String path, boolean force, int nParts, CompressionCodecName codec, Job j) {
+      _frame = frame;
+      _path = path;
+      _force = force;
+      _nParts = nParts;
+      _codec = codec;
+      _j = j;
+    }
+
+    @Override
+    public void compute2() {
+      _frame.read_lock(_j._key);
+      int nChunks = _frame.anyVec().nChunks();
+      if (_nParts == 1) {
+        // Single file, written by the node that was asked to export the data (see ExportTaskDriver)
+        writePart(_frame, _path, 0, nChunks, _force, _codec, _j._key);
+        tryComplete();
+      } else {
+        if (_nParts < 0) {
+          long nParts = Math.max(_frame.byteSize() / TARGET_PART_SIZE, H2O.CLOUD.size());
+          _nParts = (int) Math.min(Math.min(nParts, AUTO_PARTS_MAX), nChunks);
+          Log.info("Exporting " + _frame._key + " to " + _nParts + " Parquet part files.");
+        }
+        int nChunksPerPart = ((nChunks - 1) / _nParts) + 1;
+        new PartExportTask(this, _path, nChunksPerPart, _force, _codec, _j._key).dfork(_frame);
+      }
+    }
+
+    @Override
+    public void onCompletion(CountedCompleter caller) {
+      _frame.unlock(_j);
+    }
+
+    @Override
+    public boolean onExceptionalCompletion(Throwable t, CountedCompleter caller) {
+      _frame.unlock(_j);
+      return super.onExceptionalCompletion(t, caller);
+    }
+  }
+
+  private static class PartExportTask extends MRTask<PartExportTask> {
+    final String _path;
+    final int _length;
+    final boolean _force;
+    final String _codec;
+    final Key<Job> _jobKey;
+
+    PartExportTask(H2O.H2OCountedCompleter<?> completer, String path, int length, boolean force,
+                   CompressionCodecName codec, Key<Job> jobKey) {
+      super(completer);
+      _path = path;
+      _length = length;
+      _force = force;
+      _codec = codec.name();
+      _jobKey = jobKey;
+    }
+
+    @Override
+    public void map(Chunk[] cs) {
+      int cidx = cs[0].cidx();
+      if (cidx % _length > 0) {
+        return;
+      }
+      int partIdx = cidx / _length;
+      String partPath = _path + "/part-m-" + String.valueOf(100000 + partIdx).substring(1) + ".parquet";
+      writePart(_fr, partPath, cidx, Math.min(cidx + _length, _fr.anyVec().nChunks()), _force,
+              CompressionCodecName.valueOf(_codec), _jobKey);
+    }
+
+    @Override
+    protected void setupLocal() {
+      boolean created = H2O.getPM().mkdirs(_path);
+      if (! created) Log.warn("Path ", _path, " was not created.");
+    }
+  }
+
+  /** Writes the Chunks [firstCidx, lastCidx) of the frame to a single Parquet file. */
+  static void writePart(Frame fr, String path, int firstCidx, int lastCidx, boolean force,
+                        CompressionCodecName codec, Key<Job> jobKey) {
+    Vec[] vecs = fr.vecs();
+    ChunkWriteSupport writeSupport = new ChunkWriteSupport(fr.names(), vecs);
+    Chunk[] cs = new Chunk[vecs.length];
+    long rows = 0;
+    try {
+      Configuration conf = writeConf(path);
+      Path file = new Path(toURIString(path));
+      FileSystem fs = file.getFileSystem(conf);
+      if (force && fs.exists(file))
+        fs.delete(file, false);
+      ParquetWriter<Integer> writer = new ChunkWriterBuilder(file, writeSupport)
+              .withConf(conf)
+              .withCompressionCodec(codec)
+              .withPageSize(ParquetWriter.DEFAULT_PAGE_SIZE)
+              .withDictionaryPageSize(ParquetWriter.DEFAULT_PAGE_SIZE)
+              .withDictionaryEncoding(true)
+              .withWriterVersion(ParquetProperties.WriterVersion.PARQUET_1_0)
+              .build();
+      try {
+        for (int cidx = firstCidx; cidx < lastCidx; cidx++) {
+          if (jobKey.get().stop_requested()) throw new Job.JobCancelledException();
+          for (int i = 0; i < vecs.length; i++)
+            cs[i] = vecs[i].chunkForChunkIdx(cidx);
+          writeSupport.setChunks(cs);
+          int len = cs[0]._len;
+          for (int row = 0; row < len; row++)
+            writer.write(row);
+          rows += len;
+          Job.update(1, jobKey);
+        }
+      } finally {
+        writer.close();
+      }
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+    Log.info("Written " + rows + " rows of key '" + fr._key + "' to " + path + ".");
+  }
+
+  private static class ChunkWriterBuilder extends ParquetWriter.Builder<Integer, ChunkWriterBuilder> {
+    private final ChunkWriteSupport _writeSupport;
+
+    ChunkWriterBuilder(Path file, ChunkWriteSupport writeSupport) {
+      super(file);
+      _writeSupport = writeSupport;
+    }
+
+    @Override
+    protected ChunkWriterBuilder self() {
+      return this;
+    }
+
+    @Override
+    protected WriteSupport<Integer> getWriteSupport(Configuration conf) {
+      return _writeSupport;
+    }
+  }
+
+  // Paths not handled by HDFS are local files (see PersistManager); write them without
+  // Hadoop's checksum files next to the part files
+  private static Configuration writeConf(String path) {
+    Configuration conf = new Configuration(PersistHdfs.CONF);
+    if (! H2O.getPM().isHdfsPath(path)) {
+      conf.set("fs.file.impl", RawLocalFileSystem.class.getName());
+      conf.setBoolean("fs.file.impl.disable.cache", true);
+    }
+    return conf;
+  }
+
+  private static String toURIString(String path) {
+    return H2O.getPM().isHdfsPath(path) ? path : new File(path).toURI().toString();
+  }
+
+}
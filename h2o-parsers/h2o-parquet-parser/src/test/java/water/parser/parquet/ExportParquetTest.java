@@ -0,0 +1,111 @@
+package water.parser.parquet;
+
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import water.Key;
+import water.Scope;
+import water.TestUtil;
+import water.fvec.Frame;
+import water.fvec.NFSFileVec;
+import water.fvec.TestFrameBuilder;
+import water.fvec.Vec;
+import water.parser.BufferedString;
+import water.parser.ParseDataset;
+import water.util.ExportFileFormat;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test suite for Parquet export; exported frames are parsed back and compared to the original.
+ */
+public class ExportParquetTest extends TestUtil {
+
+  @Rule
+  public TemporaryFolder tmpFolder = new TemporaryFolder();
+
+  @BeforeClass
+  static public void setup() { TestUtil.stall_till_cloudsize(1); }
+
+  @Test
+  public void testExportSingleFile() throws Exception {
+    Scope.enter();
+    try {
+      Frame fr = Scope.track(makeFrame());
+      File folder = tmpFolder.newFolder("export_single");
+      File target = new File(folder, "data.parquet");
+      Frame.export(fr, target.getPath(), "export", false, 1, ExportFileFormat.parquet, null, null).get();
+      assertTrue(target.exists());
+      Frame imported = Scope.track(parseFolder(folder));
+      assertFramesEqual(fr, imported);
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  @Test
+  public void testExportParts() throws Exception {
+    Scope.enter();
+    try {
+      Frame fr = Scope.track(makeFrame());
+      File folder = tmpFolder.newFolder("export_parts");
+      Frame.export(fr, folder.getPath(), "export", false, 2, ExportFileFormat.parquet, "snappy", null).get();
+      assertTrue(new File(folder, "part-m-00000.parquet").exists());
+      assertTrue(new File(folder, "part-m-00001.parquet").exists());
+      Frame imported = Scope.track(parseFolder(folder));
+      assertFramesEqual(fr, imported);
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  private static Frame makeFrame() {
+    return new TestFrameBuilder()
+            .withName("exportParquet")
+            .withColNames("int", "double", "cat", "str")
+            .withVecTypes(Vec.T_NUM, Vec.T_NUM, Vec.T_CAT, Vec.T_STR)
+            .withDataForCol(0, ard(1, -2, Double.NaN, 4, 5_000_000_000L))
+            .withDataForCol(1, ard(0.5, Double.NaN, -1.25, 1e-10, 3))
+            .withDataForCol(2, ar("a", "b", null, "a", "c"))
+            .withDataForCol(3, ar("x", null, "yy", "w", "zzz"))
+            .withChunkLayout(2, 1, 2)
+            .build();
+  }
+
+  private static Frame parseFolder(File folder) {
+    File[] files = folder.listFiles();
+    assertNotNull(files);
+    Arrays.sort(files);
+    ArrayList<Key> keys = new ArrayList<>();
+    for (File f : files)
+      if (f.isFile())
+        keys.add(NFSFileVec.make(f)._key);
+    return ParseDataset.parse(Key.make(), keys.toArray(new Key[keys.size()]));
+  }
+
+  private static void assertFramesEqual(Frame expected, Frame actual) {
+    assertArrayEquals(expected.names(), actual.names());
+    assertEquals(expected.numRows(), actual.numRows());
+    for (int c = 0; c < expected.numCols(); c++) {
+      Vec ev = expected.vec(c), av = actual.vec(c);
+      for (long r = 0; r < expected.numRows(); r++) {
+        assertEquals(ev.isNA(r), av.isNA(r));
+        if (ev.isNA(r)) continue;
+        if (ev.isNumeric())
+          assertEquals(ev.at(r), av.at(r), 0);
+        else
+          assertEquals(stringAt(ev, r), stringAt(av, r));
+      }
+    }
+  }
+
+  private static String stringAt(Vec v, long r) {
+    return v.isCategorical() ? v.domain()[(int) v.at8(r)] : v.atStr(new BufferedString(), r).toString();
+  }
+
+}